@@ -1,13 +1,22 @@
 package uk.co.michaelshields.assignment_1;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
@@ -26,18 +35,28 @@ import java.util.function.Consumer;
  * @version 1.0
  */
 public class App {
+	/** The number of minutes between checkpoints of a journalled library */
+	private static final long CHECKPOINT_INTERVAL_MINUTES = 10;
+	/** The number of seconds between syncs of a page store */
+	private static final long SYNC_INTERVAL_SECONDS = 30;
+
 	/*
-	 * The Library System that the Application interacts with
+	 * The Library System that the Application interacts with, which may be
+	 * shared with other sessions
 	 * 
 	 * @see <a href="Library.html">Library</a>
 	 */
-	private static Library library = new Library();
+	private final Library library;
 
+	/**
+	 * The operator's input, watched so that the session ends when it does
+	 */
+	private final WatchedInput input;
 	/**
 	 * An instance of the Scanner class that is used to read user input via the
-	 * Command Line
+	 * Command Line (or a terminal session's connection)
 	 */
-	private static Scanner inputScanner = new Scanner(System.in);
+	private final Scanner inputScanner;
 	/**
 	 * A string containing a generic prompt message that is displayed in each
 	 * menu
@@ -45,9 +64,13 @@ public class App {
 	private static String genericPrompt = "Please select an option: ";
 	/**
 	 * A string that caches the current menu context facilitating navigation of
-	 * the menu tree (see switch statement in the main method below)
+	 * the menu tree (see switch statement in the run method below)
+	 */
+	private String currentMenu = "Main";
+	/**
+	 * Indicates that the operator has not yet quit
 	 */
-	private static String currentMenu = "Main";
+	private boolean running = true;
 
 	// QUIT MENU SETUP
 
@@ -58,20 +81,18 @@ public class App {
 
 	// A HashMap where each key is a menu choice and each value is a lambda
 	// function that is executed when a specific choice is selected
-	private static Map<String, Consumer<Void>> quitMenuChoices = new LinkedHashMap<>();
+	private final Map<String, Consumer<Void>> quitMenuChoices = new LinkedHashMap<>();
 
 	// Populate the HashMap of choices and associated functions
-	static {
+	{
 		quitMenuChoices.put("Yes", (Void) -> quit());
 		quitMenuChoices.put("No", (Void) -> {
 			return;
 		});
 	}
 
-	// Create a Menu instance, providing the Menu's Header Text, Prompt Message
-	// and the HashMap of choices
-	private static Menu quitMenu = new Menu("QUIT MENU",
-			"Are you sure you want to quit?", quitMenuChoices);
+	// The Menu instance, created by the constructor once the scanner is known
+	private Menu quitMenu;
 
 	// MEMBERS MENU SETUP
 
@@ -82,11 +103,13 @@ public class App {
 
 	// Creates a HashMap where each key is a menu choice and each value is a
 	// lambda function that is executed when a specific choice is selected
-	private static Map<String, Consumer<Void>> membersMenuChoices = new LinkedHashMap<>();
+	private final Map<String, Consumer<Void>> membersMenuChoices = new LinkedHashMap<>();
 
 	// Populate the HashMap of choices and associated functions
-	static {
+	{
 		membersMenuChoices.put("Add a Member", (Void) -> addMember());
+		membersMenuChoices.put("Import Members from a CSV File",
+				(Void) -> importMembers());
 		membersMenuChoices.put("Remove a Member", (Void) -> removeMember());
 		membersMenuChoices.put("Display a Member by ID number",
 				(Void) -> displayMember());
@@ -98,10 +121,8 @@ public class App {
 		membersMenuChoices.put("Quit", (Void) -> quitMenu.run());
 	}
 
-	// Create a Menu instance, providing the Menu's Header Text, Prompt Message
-	// and HashMap of choices
-	private static Menu membersMenu = new Menu("MEMBERS MENU", genericPrompt,
-			membersMenuChoices);
+	// The Menu instance, created by the constructor once the scanner is known
+	private Menu membersMenu;
 
 	// BOOKS MENU SETUP
 
@@ -112,11 +133,13 @@ public class App {
 
 	// Creates a HashMap where each key is a menu choice and each value is a
 	// lambda function that is executed when a specific choice is selected
-	private static Map<String, Consumer<Void>> booksMenuChoices = new LinkedHashMap<>();
+	private final Map<String, Consumer<Void>> booksMenuChoices = new LinkedHashMap<>();
 
 	// Populate the HashMap of choices and associated functions
-	static {
+	{
 		booksMenuChoices.put("Add a Book", (Void) -> addBook());
+		booksMenuChoices.put("Import Books from a CSV File",
+				(Void) -> importBooks());
 		booksMenuChoices.put("Remove a Book", (Void) -> removeBook());
 		booksMenuChoices.put("Display a Book by ID number",
 				(Void) -> displayBook());
@@ -127,10 +150,8 @@ public class App {
 		booksMenuChoices.put("Quit", (Void) -> quitMenu.run());
 	}
 
-	// Create a Menu instance, providing the Menu's Header Text, Prompt Message
-	// and HashMap of choices
-	private static Menu booksMenu = new Menu("BOOKS MENU", genericPrompt,
-			booksMenuChoices);
+	// The Menu instance, created by the constructor once the scanner is known
+	private Menu booksMenu;
 
 	// LOANS MENU SETUP
 
@@ -141,10 +162,10 @@ public class App {
 
 	// Creates a HashMap where each key is a menu choice and each value is a
 	// lambda function that is executed when a specific choice is selected
-	private static Map<String, Consumer<Void>> loansMenuChoices = new LinkedHashMap<>();
+	private final Map<String, Consumer<Void>> loansMenuChoices = new LinkedHashMap<>();
 
 	// Populate the HashMap of choices and associated functions
-	static {
+	{
 		loansMenuChoices.put("Add a Loan", (Void) -> addLoan());
 		loansMenuChoices.put("Remove a Loan", (Void) -> removeLoan());
 		loansMenuChoices.put("Display All Loans", (Void) -> displayAllLoans());
@@ -154,10 +175,8 @@ public class App {
 		loansMenuChoices.put("Quit", (Void) -> quitMenu.run());
 	}
 
-	// Create a Menu instance, providing the Menu's Header Text, Prompt Message
-	// and HashMap of choices
-	private static Menu loansMenu = new Menu("LOANS MENU", genericPrompt,
-			loansMenuChoices);
+	// The Menu instance, created by the constructor once the scanner is known
+	private Menu loansMenu;
 
 	// MAIN MENU SETUP
 
@@ -168,10 +187,10 @@ public class App {
 
 	// Creates a HashMap where each key is a menu choice and each value is a
 	// lambda function that is executed when a specific choice is selected
-	private static Map<String, Consumer<Void>> mainMenuChoices = new LinkedHashMap<>();
+	private final Map<String, Consumer<Void>> mainMenuChoices = new LinkedHashMap<>();
 
 	// Populate the HashMap of choices and associated functions
-	static {
+	{
 		mainMenuChoices.put("Members", (Void) -> {
 			currentMenu = "Members";
 			membersMenu.run();
@@ -187,12 +206,8 @@ public class App {
 		mainMenuChoices.put("Quit", (Void) -> quitMenu.run());
 	}
 
-	/*
-	 * Create a Menu instance, providing the Menu's Header Text, Prompt Message
-	 * and HashMap of choices
-	 */
-	private static Menu mainMenu = new Menu("MAIN MENU", genericPrompt,
-			mainMenuChoices);
+	// The Menu instance, created by the constructor once the scanner is known
+	private Menu mainMenu;
 
 	// BOOK GENRE MENU SETUP
 
@@ -203,10 +218,10 @@ public class App {
 
 	// Creates a HashMap where each key is a menu choice and each value is a
 	// lambda function that is executed when a specific choice is selected
-	private static Map<String, Consumer<Void>> bookGenreMenuChoices = new LinkedHashMap<>();
+	private final Map<String, Consumer<Void>> bookGenreMenuChoices = new LinkedHashMap<>();
 
 	// Populate the HashMap of choices and associated functions
-	static {
+	{
 		bookGenreMenuChoices.put("Fiction", (Void) -> {
 			return;
 		});
@@ -215,12 +230,8 @@ public class App {
 		});
 	}
 
-	/*
-	 * Create a Menu instance, providing the Menu's Header Text, Prompt Message
-	 * and HashMap of choices
-	 */
-	private static Menu bookGenreMenu = new Menu("GENRE MENU",
-			"Please choose the book's genre", bookGenreMenuChoices);
+	// The Menu instance, created by the constructor once the scanner is known
+	private Menu bookGenreMenu;
 
 	// DATE SEARCH METHOD MENU SETUP
 
@@ -231,10 +242,10 @@ public class App {
 
 	// Creates a HashMap where each key is a menu choice and each value is a
 	// lambda function that is executed when a specific choice is selected
-	private static Map<String, Consumer<Void>> dateSearchMethodMenuChoices = new LinkedHashMap<>();
+	private final Map<String, Consumer<Void>> dateSearchMethodMenuChoices = new LinkedHashMap<>();
 
 	// Populate the HashMap of choices and associated functions
-	static {
+	{
 		dateSearchMethodMenuChoices.put("Today", (Void) -> {
 			return;
 		});
@@ -243,19 +254,59 @@ public class App {
 		});
 	}
 
-	/*
-	 * Create a Menu instance, providing the Menu's Header Text, Prompt Message
-	 * and HashMap of choices
+	// The Menu instance, created by the constructor once the scanner is known
+	private Menu dateSearchMethodMenu;
+
+	/**
+	 * Constructor:
+	 * Instantiates an application session that reads the operator's input
+	 * from the provided stream and works on the provided library, which
+	 * other sessions may share. The session's output is written to
+	 * System.out.
+	 * 
+	 * @see <a href="TerminalServer.html">TerminalServer</a>
+	 * 
+	 * @param library - The library (Library)
+	 * 
+	 * @param in - The operator's input (InputStream)
+	 * 
+	 * @throws IllegalArgumentException - If the library or input is null
 	 */
-	private static Menu dateSearchMethodMenu = new Menu("", genericPrompt,
-			dateSearchMethodMenuChoices);
+	public App(Library library, InputStream in) throws IllegalArgumentException {
+		// Guard clause that prevents sessions without a library or input
+		if (library == null || in == null) {
+			throw new IllegalArgumentException("Cannot create a session without a library and input");
+		}
+
+		this.library = library;
+		this.input = new WatchedInput(in);
+		this.inputScanner = new Scanner(input);
+
+		// Create the Menu instances, providing each Menu's Header Text, Prompt
+		// Message, HashMap of choices and the scanner reading the user's input
+		quitMenu = new Menu("QUIT MENU",
+				"Are you sure you want to quit?", quitMenuChoices, inputScanner);
+		membersMenu = new Menu("MEMBERS MENU", genericPrompt,
+				membersMenuChoices, inputScanner);
+		booksMenu = new Menu("BOOKS MENU", genericPrompt,
+				booksMenuChoices, inputScanner);
+		loansMenu = new Menu("LOANS MENU", genericPrompt,
+				loansMenuChoices, inputScanner);
+		mainMenu = new Menu("MAIN MENU", genericPrompt,
+				mainMenuChoices, inputScanner);
+		bookGenreMenu = new Menu("GENRE MENU",
+				"Please choose the book's genre", bookGenreMenuChoices,
+				inputScanner);
+		dateSearchMethodMenu = new Menu("", genericPrompt,
+				dateSearchMethodMenuChoices, inputScanner);
+	}
 
 	/**
 	 * A method that uses the addMember method of the Library class. The user
 	 * is prompted for the member's details and adds the member to the library's
 	 * members collection.
 	 */
-	private static void addMember() {
+	private void addMember() {
 		// Print the menu header
 		PrintUtil.menuHeader("ADD A MEMBER");
 
@@ -267,7 +318,7 @@ public class App {
 				"Email Address: ", "Phone Number: "};
 
 		// Create a prompter instance, passing in the array of prompts
-		Prompter memberDataPrompter = new Prompter(memberDataPrompts);
+		Prompter memberDataPrompter = new Prompter(memberDataPrompts, inputScanner);
 
 		// Initiate the process of displaying prompts and collecting the
 		// the user's input
@@ -310,15 +361,41 @@ public class App {
 		}
 	}
 
+	/**
+	 * A routine that requests the path of a CSV file of members and imports
+	 * them into the library, reporting any rows that were rejected
+	 * 
+	 * @see <a href="CsvImporter.html">CsvImporter</a>
+	 */
+	private void importMembers() {
+		PrintUtil.menuHeader("IMPORT MEMBERS");
+		PrintUtil.promptLine(
+				"Columns: First Name, Last Name, Email, Phone Number (with a header line)");
+
+		Prompter pathPrompter = new Prompter(new String[] {"CSV File: "}, inputScanner);
+		pathPrompter.issuePrompts();
+		String path = pathPrompter.getResponses().get(0);
+
+		try (Reader reader = Files.newBufferedReader(Paths.get(path))) {
+			ImportReport report = new CsvImporter(library).importMembers(reader);
+
+			PrintUtil.infoBanner("IMPORT REPORT");
+			report.displayDetails();
+		} catch (IOException | RuntimeException e) {
+			// Displays any error messages to the user
+			PrintUtil.errorBanner("Could not import members: " + e.getMessage());
+		}
+	}
+
 	/**
 	 * A method that requests the ID Number of the member to be removed and
 	 * removes them if they are found
 	 */
-	private static void removeMember() {
+	private void removeMember() {
 		try {
 			// Check that members exist, and abort with an error if there are no
 			// members
-			if (library.getMembers().isEmpty()) {
+			if (library.getMemberCount() == 0) {
 				throw new NoSuchElementException(
 						"The members collection is empty");
 			}
@@ -375,11 +452,11 @@ public class App {
 	 * A routine that requests the ID Number of the member to be displayed and
 	 * displays their details if they are found
 	 */
-	private static void displayMember() {
+	private void displayMember() {
 		try {
 			// Check that members exist, and abort with an error if there are no
 			// members
-			if (library.getMembers().size() == 0) {
+			if (library.getMemberCount() == 0) {
 				throw new NoSuchElementException(
 						"The members collection is empty");
 			}
@@ -414,7 +491,7 @@ public class App {
 			library.getMemberByID(idNumber);
 
 			PrintUtil.infoBanner("MEMBER DETAILS");
-			library.displayByID(library.getMembers(), idNumber);
+			library.displayMemberByID(idNumber);
 
 		} catch (Exception e) {
 			// Displays any error messages to the user
@@ -425,18 +502,22 @@ public class App {
 	/**
 	 * A routine that displays the details of all members
 	 */
-	private static void displayAllMembers() {
+	private void displayAllMembers() {
 		try {
+			// Read the members from a snapshot, which does not change
+			// while they are displayed
+			List<Member> members = library.getSnapshot().getMembers();
+
 			// Check that members exist, and abort with an error if there are no
 			// members
-			if (library.getMembers().size() == 0) {
+			if (members.size() == 0) {
 				throw new NoSuchElementException(
 						"The members collection is empty");
 			}
 
 			// Display each and every member's details to the user
 			PrintUtil.infoBanner("ALL MEMBERS");
-			library.displayAll(library.getMembers());
+			library.displayAll(members);
 		} catch (Exception e) {
 			// Displays any error messages to the user
 			PrintUtil.errorBanner(e.getMessage());
@@ -448,11 +529,11 @@ public class App {
 	 * for members with last names that include the (non-empty) query string and
 	 * displays their details
 	 */
-	private static void searchMembers() {
+	private void searchMembers() {
 		try {
 			// Check that members exist, and abort with an error if there are no
 			// members
-			if (library.getMembers().size() == 0) {
+			if (library.getMemberCount() == 0) {
 				throw new NoSuchElementException(
 						"The members collection is empty");
 			}
@@ -478,7 +559,7 @@ public class App {
 	 * A routine that requests details for the new book and adds the book to the
 	 * library's members collection. The book's ISBN Number must be unique.
 	 */
-	private static void addBook() {
+	private void addBook() {
 		// Display the menu context to the user and
 		// prompt the user for the details of the book
 		// to be added
@@ -488,7 +569,7 @@ public class App {
 		String[] bookInfoPrompts = {"Author: ", "Title: ", "ISBN Number: "};
 
 		// Create a prompter, passing in the prompts
-		Prompter bookInfoPrompt = new Prompter(bookInfoPrompts);
+		Prompter bookInfoPrompt = new Prompter(bookInfoPrompts, inputScanner);
 
 		// Initiate the process of issuing prompts and collecting the
 		// the user's input
@@ -526,7 +607,7 @@ public class App {
 			// user
 			PrintUtil.errorBanner(e.getMessage());
 			PrintUtil.infoBanner("EXISTING BOOK DETAILS");
-			library.displayByID(library.getBooks(), existingBook.getIDNumber());
+			library.displayBookByID(existingBook.getIDNumber());
 		}
 
 		try {
@@ -553,11 +634,11 @@ public class App {
 	 * A routine that removes the book with the provided ID number, if the book
 	 * is found
 	 */
-	private static void removeBook() {
+	private void removeBook() {
 		try {
 			// Check that books exist, and abort with an error if there are no
 			// books
-			if (library.getBooks().size() == 0) {
+			if (library.getBookCount() == 0) {
 				throw new NoSuchElementException(
 						"The books collection is empty");
 			}
@@ -610,11 +691,11 @@ public class App {
 	 * A routine that displays to the user, details of the book with the
 	 * provided ID number
 	 */
-	private static void displayBook() {
+	private void displayBook() {
 		try {
 			// Check that books exist, and abort with an error if there are no
 			// books
-			if (library.getBooks().size() == 0) {
+			if (library.getBookCount() == 0) {
 				throw new NoSuchElementException(
 						"The books collection is empty");
 			}
@@ -657,11 +738,11 @@ public class App {
 	 * A routine that prompts the user for a search query string, and displays
 	 * any books where the title includes the query string
 	 */
-	private static void searchBooks() {
+	private void searchBooks() {
 		try {
 			// Check that books exist, and abort with an error if there are no
 			// books
-			if (library.getBooks().size() == 0) {
+			if (library.getBookCount() == 0) {
 				throw new NoSuchElementException(
 						"The books collection is empty");
 			}
@@ -685,21 +766,51 @@ public class App {
 		}
 	}
 
+	/**
+	 * A routine that requests the path of a CSV file of books and imports
+	 * them into the library, reporting any rows that were rejected
+	 * 
+	 * @see <a href="CsvImporter.html">CsvImporter</a>
+	 */
+	private void importBooks() {
+		PrintUtil.menuHeader("IMPORT BOOKS");
+		PrintUtil.promptLine(
+				"Columns: Author, Title, Genre, ISBN Number (with a header line)");
+
+		Prompter pathPrompter = new Prompter(new String[] {"CSV File: "}, inputScanner);
+		pathPrompter.issuePrompts();
+		String path = pathPrompter.getResponses().get(0);
+
+		try (Reader reader = Files.newBufferedReader(Paths.get(path))) {
+			ImportReport report = new CsvImporter(library).importBooks(reader);
+
+			PrintUtil.infoBanner("IMPORT REPORT");
+			report.displayDetails();
+		} catch (IOException | RuntimeException e) {
+			// Displays any error messages to the user
+			PrintUtil.errorBanner("Could not import books: " + e.getMessage());
+		}
+	}
+
 	/**
 	 * A routine that displays the details of all books to the user
 	 */
-	private static void displayAllBooks() {
+	private void displayAllBooks() {
 		// Check that books exist, and abort with an error if there are no
 		// books
 		try {
-			if (library.getBooks().isEmpty()) {
+			// Read the books from a snapshot, which does not change
+			// while they are displayed
+			List<Book> books = library.getSnapshot().getBooks();
+
+			if (books.isEmpty()) {
 				throw new NoSuchElementException(
 						"The members collection is empty");
 			}
 
 			// Display menu context and all book details to the user
 			PrintUtil.infoBanner("ALL BOOKS");
-			library.displayAll(library.getBooks());
+			library.displayAll(books);
 		} catch (Exception e) {
 			// Displays any error messages to the user
 			PrintUtil.errorBanner(e.getMessage());
@@ -710,17 +821,17 @@ public class App {
 	 * A routine that requests details for the new loan and adds the loan to the
 	 * library's loan collection.
 	 */
-	private static void addLoan() {
+	private void addLoan() {
 		// Check that books exist, and abort with an error if there are no
 		// books
-		if (library.getBooks().isEmpty()) {
+		if (library.getBookCount() == 0) {
 			PrintUtil.errorBanner("The books collection is empty");
 			return;
 		}
 
 		// Check that members exist, and abort with an error if there are no
 		// members
-		if (library.getMembers().isEmpty()) {
+		if (library.getMemberCount() == 0) {
 			PrintUtil.errorBanner("The members collection is empty");
 			return;
 		}
@@ -805,11 +916,11 @@ public class App {
 	 * A routine that prompts the user for the details of the loan to be removed
 	 * and removes it if it is found
 	 */
-	private static void removeLoan() {
+	private void removeLoan() {
 		try {
 			// Check that loans exist, and abort with an error if there are no
 			// loans
-			if (library.getLoans().isEmpty()) {
+			if (!library.hasLoans()) {
 				throw new NoSuchElementException(
 						"The loans collection is empty");
 			}
@@ -885,18 +996,19 @@ public class App {
 	/**
 	 * A routine that displays the details of all loans to the user
 	 */
-	private static void displayAllLoans() {
+	private void displayAllLoans() {
 		try {
 			// Check that loans exist, and abort with an error if there are no
 			// loans
-			if (library.getLoans().size() == 0) {
+			if (!library.hasLoans()) {
 				throw new NoSuchElementException(
 						"The loans collection is empty");
 			}
 
-			// Display the details of all loans to the user
+			// Display the details of all loans to the user as they are
+			// read, rather than copying them all first
 			PrintUtil.infoBanner("ALL LOANS");
-			library.displayAll(library.getLoans());
+			library.forEachLoan(Loan::displayDetails);
 		} catch (Exception e) {
 			// Displays any error messages to the user
 			PrintUtil.errorBanner(e.getMessage());
@@ -907,11 +1019,11 @@ public class App {
 	 * A routine that prompts the user for the search criteria and displays the
 	 * details of all matching loans to the user
 	 */
-	private static void displayExpiredLoans() {
+	private void displayExpiredLoans() {
 		try {
 			// Check that loans exist, and abort with an error if there are no
 			// loans
-			if (library.getLoans().size() == 0) {
+			if (!library.hasLoans()) {
 				throw new NoSuchElementException(
 						"The loans collection is empty");
 			}
@@ -951,13 +1063,14 @@ public class App {
 				}
 			}
 
-			// Get the list of loans that have expired
-			// based on the expiration date
+			// Get the list of loans that have expired based on the
+			// expiration date, reading only the expired loans (an error is
+			// thrown if none have expired)
 			List<Loan> expiredLoans = library.getExpiredLoans(expiryDate);
 
 			// Display the expired loans to the user
 			PrintUtil.infoBanner("EXPIRED LOANS");
-			library.displayAll((ArrayList<Loan>) expiredLoans);
+			library.displayAll(expiredLoans);
 
 		} catch (Exception e) {
 			// Displays any error messages to the user
@@ -968,7 +1081,7 @@ public class App {
 	/**
 	 * A helper function that handles capturing user input / of the integer type
 	 */
-	private static int scanNextInt() {
+	private int scanNextInt() {
 		int nextInt = -1;
 		try {
 			nextInt = Integer.parseInt(inputScanner.nextLine());
@@ -981,7 +1094,7 @@ public class App {
 	/**
 	 * A routine that handles the capturing of a single line of user input
 	 */
-	private static String scanNextLine() {
+	private String scanNextLine() {
 		String nextLine = inputScanner.nextLine();
 		return nextLine;
 	}
@@ -997,7 +1110,7 @@ public class App {
 	 * @return isConfirmed - Indicates that the correct object has 
 	 *                       been confirmed by the user
 	 */
-	private static <T> boolean isConfirmed(T object) {
+	private <T> boolean isConfirmed(T object) {
 		// Determine the objects class name
 		// so that it can be dynamically inserted into 
 		// the confirmation prompt
@@ -1018,7 +1131,8 @@ public class App {
 		confirmMenuChoices.put("No", (Void) -> {
 		});
 		
-		Menu confirmMenu = new Menu("", confirmMenuPrompt, confirmMenuChoices);
+		Menu confirmMenu = new Menu("", confirmMenuPrompt, confirmMenuChoices,
+				inputScanner);
 		
 		confirmMenu.run();
 		
@@ -1034,25 +1148,171 @@ public class App {
 	}
 
 	/**
-	 * A method that quits the program
+	 * A method that quits the session
 	 */
-	private static void quit() {
+	private void quit() {
 		PrintUtil.infoBanner("Thank you and Goodbye");
-		inputScanner.close();
-		System.exit(0);
+		running = false;
 	}
 
 	/**
-	 * The main method of the application
+	 * A method that starts the HTTP/JSON API on the provided port of the
+	 * loopback address, serving the same library as the menus
+	 * 
+	 * @see <a href="LibraryServer.html">LibraryServer</a>
 	 * 
-	 * @param args - Not used
+	 * @param library - The library (Library)
+	 * 
+	 * @param port - The port (String)
+	 * 
+	 * @return started - Whether the API was started (boolean)
 	 */
-	public static void main(String[] args) {
+	private static boolean startServer(Library library, String port) {
+		try {
+			LibraryServer server = new LibraryServer(library, Integer.parseInt(port));
+			server.start();
+			PrintUtil.infoBanner("HTTP API listening on http://localhost:" + server.getPort());
+			return true;
+		} catch (IOException | IllegalArgumentException e) {
+			PrintUtil.errorBanner("Could not start the HTTP API: " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * A method that starts serving menu sessions, sharing the same library
+	 * as the menus, to terminals connecting to the provided port of the
+	 * loopback address
+	 * 
+	 * @see <a href="TerminalServer.html">TerminalServer</a>
+	 * 
+	 * @param library - The library (Library)
+	 * 
+	 * @param port - The port (String)
+	 * 
+	 * @return started - Whether the sessions are being served (boolean)
+	 */
+	private static boolean startTerminalServer(Library library, String port) {
+		try {
+			TerminalServer server = new TerminalServer(library, Integer.parseInt(port));
+			server.start();
+			PrintUtil.infoBanner("Terminal sessions served on localhost port " + server.getPort());
+			return true;
+		} catch (IOException | IllegalArgumentException e) {
+			PrintUtil.errorBanner("Could not serve terminal sessions: " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * A method that checkpoints a journalled library every few minutes on a
+	 * background thread, so that restarting it only replays the changes
+	 * made since the last checkpoint
+	 * 
+	 * @param library - The library (Library)
+	 */
+	private static void startCheckpoints(Library library) {
+		ScheduledExecutorService checkpointer = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "library-checkpoint");
+			thread.setDaemon(true);
+			return thread;
+		});
+		checkpointer.scheduleWithFixedDelay(() -> {
+			try {
+				library.checkpoint();
+			} catch (RuntimeException e) {
+				PrintUtil.errorBanner("Could not checkpoint the journal: " + e.getMessage());
+			}
+		}, CHECKPOINT_INTERVAL_MINUTES, CHECKPOINT_INTERVAL_MINUTES, TimeUnit.MINUTES);
+	}
+
+	/**
+	 * A method that syncs a page store every few seconds on a background
+	 * thread, so that a page left part written by the machine stopping only
+	 * rolls the store back to the last sync, and closes the store when the
+	 * application exits
+	 * 
+	 * @param repository - The page store (PageStoreRepository)
+	 */
+	private static void startSyncs(PageStoreRepository repository) {
+		ScheduledExecutorService syncer = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "page-store-sync");
+			thread.setDaemon(true);
+			return thread;
+		});
+		syncer.scheduleWithFixedDelay(() -> {
+			try {
+				repository.sync();
+			} catch (IOException | RuntimeException e) {
+				PrintUtil.errorBanner("Could not sync the page store: " + e.getMessage());
+			}
+		}, SYNC_INTERVAL_SECONDS, SYNC_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+		// Stop syncing and close the store however the application exits
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			syncer.shutdownNow();
+			try {
+				repository.close();
+			} catch (IOException e) {
+				PrintUtil.errorBanner("Could not close the page store: " + e.getMessage());
+			}
+		}, "page-store-close"));
+	}
+
+	/**
+	 * A method that creates the library, restoring it from the journal
+	 * named by a {@code --journal <file>} argument if there is one, and
+	 * checkpointing the journal periodically, or from the page store named
+	 * by a {@code --store <file>} argument if there is one, syncing the page
+	 * store periodically and closing it when the application exits
+	 * 
+	 * @see <a href="Journal.html">Journal</a>
+	 * @see <a href="PageStoreRepository.html">PageStoreRepository</a>
+	 * 
+	 * @param args - The application's arguments (String[])
+	 * 
+	 * @return library - The library (Library)
+	 */
+	private static Library openLibrary(String[] args) {
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			if (args[i].equals("--journal")) {
+				try {
+					Journal journal = new Journal(Paths.get(args[i + 1]));
+					Library library = new Library(journal);
+					PrintUtil.infoBanner("Restored " + journal.getReplayedCount()
+							+ " changes from the journal");
+					startCheckpoints(library);
+					return library;
+				} catch (IOException | RuntimeException e) {
+					PrintUtil.errorBanner("Could not open the journal: " + e.getMessage());
+					System.exit(1);
+				}
+			} else if (args[i].equals("--store")) {
+				try {
+					PageStoreRepository repository = new PageStoreRepository(Paths.get(args[i + 1]));
+					Library library = new Library(repository);
+					PrintUtil.infoBanner("Restored " + library.getMemberCount() + " members and "
+							+ library.getBookCount() + " books from the page store");
+					startSyncs(repository);
+					return library;
+				} catch (IOException | RuntimeException e) {
+					PrintUtil.errorBanner("Could not open the page store: " + e.getMessage());
+					System.exit(1);
+				}
+			}
+		}
+		return new Library();
+	}
+
+	/**
+	 * Runs the session's menus until the operator quits or their input ends
+	 */
+	public void run() {
 		// Display a welcome message to the user
 		PrintUtil.infoBanner(
 				"WELCOME TO THE MIDSOMER MIDGET LIBRARY ADMIN SYSTEM");
-		// An infinite loop that keeps the application running
-		while (true) {
+		// A loop that keeps the session running until the operator quits
+		while (running) {
 			try {
 				// A switch statement that manages menu context switching
 				// based on the currentMenu variable
@@ -1073,6 +1333,12 @@ public class App {
 						mainMenu.run();
 				}
 			} catch (Exception e) {
+				// End the session if the operator's input has ended, since
+				// no more choices can be read
+				if (input.hasEnded()) {
+					return;
+				}
+
 				// A "catch all" to prevent the app from crashing
 				// takes the user back to the main menu
 				PrintUtil.errorBanner(e.getMessage());
@@ -1080,4 +1346,92 @@ public class App {
 			}
 		}
 	}
+
+	/**
+	 * The main method of the application
+	 * 
+	 * @param args - Optionally {@code --journal <file>} to restore the
+	 *               library from, and record its changes in, a journal,
+	 *               or {@code --store <file>} to keep the library in a
+	 *               page store,
+	 *               {@code --http <port>} to also serve the library's
+	 *               HTTP/JSON API, and {@code --terminals <port>} to also
+	 *               serve menu sessions to terminals connecting to the port.
+	 *               While either is served, the application keeps running
+	 *               when the console's input ends (for example when it is
+	 *               started without a console) until it is stopped, and
+	 *               only exits at once if the operator quits.
+	 */
+	public static void main(String[] args) {
+		Library library = openLibrary(args);
+
+		// Serve the HTTP API and terminal sessions alongside the menus if
+		// asked to
+		boolean serving = false;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			if (args[i].equals("--http")) {
+				serving |= startServer(library, args[i + 1]);
+			} else if (args[i].equals("--terminals")) {
+				serving |= startTerminalServer(library, args[i + 1]);
+			}
+		}
+
+		App console = new App(library, System.in);
+		console.run();
+
+		// Keep serving if the console's input ended rather than the
+		// operator quitting, until the process is stopped
+		if (serving && console.running) {
+			PrintUtil.infoBanner("The console's input has ended, still serving until stopped");
+			try {
+				new CountDownLatch(1).await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * An input stream that records when its end has been reached, so that a
+	 * session can tell the end of the operator's input from other errors
+	 */
+	private static class WatchedInput extends FilterInputStream {
+		/** Indicates that the end of the input has been reached */
+		private volatile boolean ended;
+
+		/**
+		 * Constructor:
+		 * Instantiates a watched input stream
+		 * 
+		 * @param in - The stream being watched (InputStream)
+		 */
+		private WatchedInput(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = super.read();
+			ended |= read == -1;
+			return read;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int read = super.read(buffer, offset, length);
+			ended |= read == -1;
+			return read;
+		}
+
+		/**
+		 * Accessor Method:
+		 * Returns whether the end of the input has been reached
+		 * 
+		 * @return ended - Whether the input has ended (boolean)
+		 */
+		private boolean hasEnded() {
+			return ended;
+		}
+	}
 }
@@ -0,0 +1,603 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A B+tree of long keys and long values held in the pages of a buffer pool,
+ * so that a tree of any size is searched while only the pages on the way
+ * to a key need to be in memory.
+ *
+ * Every key and its value is held in a leaf page, in key order, and the
+ * leaves are linked to the leaves either side of them so that a range of
+ * keys is read by walking along the leaves. Internal pages hold separator
+ * keys and the pages below them: the page before a separator holds the keys
+ * less than it and the page after it the keys from it upwards. A full page
+ * is split in two, its middle key going up to its parent, and a full root
+ * is split under a new root, so the tree grows from the top and every leaf
+ * is the same depth.
+ *
+ * Pages are freed when their last key is removed, rather than merged with
+ * their neighbours, which keeps removal simple and, for keys that are
+ * added and removed in roughly the order they were added (such as loans
+ * by expiry date), frees pages about as fast as a merging tree would. A
+ * root left with a single page below it is replaced by that page.
+ *
+ * Values must not be negative, since {@value #NONE} stands for a missing
+ * value. A tree is not safe for use by many threads at once; its owner
+ * serialises its use.
+ *
+ * @see <a href="BufferPool.html">BufferPool</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class BPlusTree {
+	/** The value returned for a missing key */
+	public static final long NONE = -1;
+
+	/** The type of a leaf page */
+	private static final byte LEAF = 1;
+	/** The type of an internal page */
+	private static final byte INTERNAL = 2;
+	/**
+	 * The size of a page's header: type, key count, next and previous leaf
+	 * and (for an internal page) the first page below it
+	 */
+	private static final int HEADER_SIZE = 16;
+	/** The size of a leaf's key and value */
+	private static final int LEAF_ENTRY_SIZE = 16;
+	/** The size of an internal page's separator key and the page after it */
+	private static final int INTERNAL_ENTRY_SIZE = 12;
+	/** The most keys a leaf holds */
+	static final int LEAF_CAPACITY = (BufferPool.PAGE_SIZE - HEADER_SIZE) / LEAF_ENTRY_SIZE;
+	/** The most separator keys an internal page holds */
+	static final int INTERNAL_CAPACITY = (BufferPool.PAGE_SIZE - HEADER_SIZE) / INTERNAL_ENTRY_SIZE;
+
+	/** The pages of the tree */
+	private final BufferPool pool;
+	/** The root page */
+	private int root;
+
+	/**
+	 * An interface for visiting the keys and values of a range of a tree
+	 */
+	public interface Visitor {
+		/**
+		 * Visits a key and its value
+		 *
+		 * @param key - The key (long)
+		 *
+		 * @param value - The value (long)
+		 *
+		 * @return more - Whether to go on to the next key (boolean)
+		 */
+		boolean visit(long key, long value);
+	}
+
+	/**
+	 * Constructor:
+	 * Instantiates a tree rooted at the provided page, or a new empty tree
+	 * if the root is 0
+	 *
+	 * @param pool - The buffer pool holding the tree's pages (BufferPool)
+	 *
+	 * @param root - The root page, or 0 (int)
+	 */
+	public BPlusTree(BufferPool pool, int root) {
+		this.pool = pool;
+		if (root == 0) {
+			root = pool.allocate();
+			ByteBuffer page = pool.pin(root);
+			page.put(0, LEAF);
+			pool.unpin(root, true);
+			pool.unpin(root, true);
+		}
+		this.root = root;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the root page, which changes as the tree grows and shrinks
+	 *
+	 * @return root - The root page (int)
+	 */
+	public int getRoot() {
+		return root;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the value of a key
+	 *
+	 * @param key - The key (long)
+	 *
+	 * @return value - The value, or NONE if the key is missing (long)
+	 */
+	public long get(long key) {
+		int leaf = findLeaf(key, null);
+		ByteBuffer page = pool.pin(leaf);
+		try {
+			int index = search(page, key);
+			return index >= 0 ? leafValue(page, index) : NONE;
+		} finally {
+			pool.unpin(leaf, false);
+		}
+	}
+
+	/**
+	 * Mutator Method:
+	 * Adds a key and its value, unless the key is already in the tree
+	 *
+	 * @param key - The key (long)
+	 *
+	 * @param value - The value (long)
+	 *
+	 * @return added - Whether the key was added (boolean)
+	 *
+	 * @throws IllegalArgumentException - If the value is negative
+	 */
+	public boolean insert(long key, long value) throws IllegalArgumentException {
+		// Guard clause that prevents values that would read as missing
+		if (value < 0) {
+			throw new IllegalArgumentException("Values cannot be negative");
+		}
+
+		List<int[]> path = new ArrayList<int[]>();
+		int leaf = findLeaf(key, path);
+		ByteBuffer page = pool.pin(leaf);
+		int index = search(page, key);
+		if (index >= 0) {
+			pool.unpin(leaf, false);
+			return false;
+		}
+		index = -index - 1;
+
+		int count = count(page);
+		if (count < LEAF_CAPACITY) {
+			shift(page, HEADER_SIZE, LEAF_ENTRY_SIZE, index, count, 1);
+			setLeafEntry(page, index, key, value);
+			page.putShort(1, (short) (count + 1));
+			pool.unpin(leaf, true);
+			return true;
+		}
+
+		// Split the full leaf, moving its upper half to a new leaf after it
+		long[] keys = new long[count + 1];
+		long[] values = new long[count + 1];
+		for (int i = 0, j = 0; i <= count; i++) {
+			if (i == index) {
+				keys[i] = key;
+				values[i] = value;
+			} else {
+				keys[i] = page.getLong(HEADER_SIZE + LEAF_ENTRY_SIZE * j);
+				values[i] = page.getLong(HEADER_SIZE + LEAF_ENTRY_SIZE * j + 8);
+				j++;
+			}
+		}
+		int half = (count + 1) / 2;
+		int right = pool.allocate();
+		ByteBuffer rightPage = pool.pin(right);
+		pool.unpin(right, true);
+		rightPage.put(0, LEAF);
+		for (int i = half; i <= count; i++) {
+			setLeafEntry(rightPage, i - half, keys[i], values[i]);
+		}
+		rightPage.putShort(1, (short) (count + 1 - half));
+		for (int i = 0; i < half; i++) {
+			setLeafEntry(page, i, keys[i], values[i]);
+		}
+		page.putShort(1, (short) half);
+
+		// Link the new leaf between the leaf and the one after it
+		int next = page.getInt(4);
+		rightPage.putInt(4, next);
+		rightPage.putInt(8, leaf);
+		page.putInt(4, right);
+		if (next != 0) {
+			ByteBuffer nextPage = pool.pin(next);
+			nextPage.putInt(8, right);
+			pool.unpin(next, true);
+		}
+		pool.unpin(right, true);
+		pool.unpin(leaf, true);
+
+		insertSeparator(path, keys[half], right);
+		return true;
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes a key and its value
+	 *
+	 * @param key - The key (long)
+	 *
+	 * @return value - The removed value, or NONE if the key is missing (long)
+	 */
+	public long remove(long key) {
+		List<int[]> path = new ArrayList<int[]>();
+		int leaf = findLeaf(key, path);
+		ByteBuffer page = pool.pin(leaf);
+		int index = search(page, key);
+		if (index < 0) {
+			pool.unpin(leaf, false);
+			return NONE;
+		}
+
+		long value = leafValue(page, index);
+		int count = count(page);
+		shift(page, HEADER_SIZE, LEAF_ENTRY_SIZE, index + 1, count, -1);
+		page.putShort(1, (short) (count - 1));
+		if (count > 1 || leaf == root) {
+			pool.unpin(leaf, true);
+			return value;
+		}
+
+		// Free the emptied leaf, unlinking it from the leaves either side
+		int next = page.getInt(4);
+		int previous = page.getInt(8);
+		if (previous != 0) {
+			ByteBuffer previousPage = pool.pin(previous);
+			previousPage.putInt(4, next);
+			pool.unpin(previous, true);
+		}
+		if (next != 0) {
+			ByteBuffer nextPage = pool.pin(next);
+			nextPage.putInt(8, previous);
+			pool.unpin(next, true);
+		}
+		pool.free(leaf);
+		removeChild(path);
+		return value;
+	}
+
+	/**
+	 * Visits the keys from the first key up to, but not including, the last
+	 * key, in key order, until the visitor stops
+	 *
+	 * @param first - The first key (long)
+	 *
+	 * @param last - The key to stop before (long)
+	 *
+	 * @param visitor - The visitor (Visitor)
+	 */
+	public void scan(long first, long last, Visitor visitor) {
+		int leaf = findLeaf(first, null);
+		ByteBuffer page = pool.pin(leaf);
+		int index = search(page, first);
+		index = index >= 0 ? index : -index - 1;
+		while (true) {
+			int count = count(page);
+			for (; index < count; index++) {
+				long key = page.getLong(HEADER_SIZE + LEAF_ENTRY_SIZE * index);
+				if (key >= last || !visitor.visit(key, leafValue(page, index))) {
+					pool.unpin(leaf, false);
+					return;
+				}
+			}
+			int next = page.getInt(4);
+			pool.unpin(leaf, false);
+			if (next == 0) {
+				return;
+			}
+			leaf = next;
+			page = pool.pin(leaf);
+			index = 0;
+		}
+	}
+
+	/**
+	 * A utility method that descends from the root to the leaf that holds,
+	 * or would hold, a key, recording each internal page passed and which
+	 * of its children was taken
+	 *
+	 * @param key - The key (long)
+	 *
+	 * @param path - The internal pages and children passed, or null (List<int[]>)
+	 *
+	 * @return leaf - The leaf (int)
+	 */
+	private int findLeaf(long key, List<int[]> path) {
+		int pageNumber = root;
+		while (true) {
+			ByteBuffer page = pool.pin(pageNumber);
+			if (page.get(0) == LEAF) {
+				pool.unpin(pageNumber, false);
+				return pageNumber;
+			}
+
+			// Find the first separator greater than the key; the child
+			// before it holds the key
+			int low = 0;
+			int high = count(page);
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (separator(page, middle) <= key) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			int child = child(page, low);
+			pool.unpin(pageNumber, false);
+			if (path != null) {
+				path.add(new int[] {pageNumber, low});
+			}
+			pageNumber = child;
+		}
+	}
+
+	/**
+	 * A utility method that adds a separator key, and the new page after
+	 * it, to the parent of a page that was split, splitting the parent too
+	 * if it is full and adding a new root if the root was split
+	 *
+	 * @param path - The internal pages passed to reach the split page (List<int[]>)
+	 *
+	 * @param key - The separator key (long)
+	 *
+	 * @param right - The new page (int)
+	 */
+	private void insertSeparator(List<int[]> path, long key, int right) {
+		for (int level = path.size() - 1; level >= 0; level--) {
+			int parent = path.get(level)[0];
+			int index = path.get(level)[1];
+			ByteBuffer page = pool.pin(parent);
+			int count = count(page);
+			if (count < INTERNAL_CAPACITY) {
+				shift(page, HEADER_SIZE, INTERNAL_ENTRY_SIZE, index, count, 1);
+				setInternalEntry(page, index, key, right);
+				page.putShort(1, (short) (count + 1));
+				pool.unpin(parent, true);
+				return;
+			}
+
+			// Split the full parent, its middle key going up
+			long[] keys = new long[count + 1];
+			int[] children = new int[count + 2];
+			children[0] = child(page, 0);
+			for (int i = 0, j = 0; i <= count; i++) {
+				if (i == index) {
+					keys[i] = key;
+					children[i + 1] = right;
+				} else {
+					keys[i] = separator(page, j);
+					children[i + 1] = child(page, j + 1);
+					j++;
+				}
+			}
+			int middle = (count + 1) / 2;
+			int sibling = pool.allocate();
+			ByteBuffer siblingPage = pool.pin(sibling);
+			pool.unpin(sibling, true);
+			siblingPage.put(0, INTERNAL);
+			siblingPage.putInt(12, children[middle + 1]);
+			for (int i = middle + 1; i <= count; i++) {
+				setInternalEntry(siblingPage, i - middle - 1, keys[i], children[i + 1]);
+			}
+			siblingPage.putShort(1, (short) (count - middle));
+			page.putInt(12, children[0]);
+			for (int i = 0; i < middle; i++) {
+				setInternalEntry(page, i, keys[i], children[i + 1]);
+			}
+			page.putShort(1, (short) middle);
+			pool.unpin(sibling, true);
+			pool.unpin(parent, true);
+
+			key = keys[middle];
+			right = sibling;
+		}
+
+		// Grow the tree by a new root above the split root
+		int newRoot = pool.allocate();
+		ByteBuffer page = pool.pin(newRoot);
+		pool.unpin(newRoot, true);
+		page.put(0, INTERNAL);
+		page.putInt(12, root);
+		setInternalEntry(page, 0, key, right);
+		page.putShort(1, (short) 1);
+		pool.unpin(newRoot, true);
+		root = newRoot;
+	}
+
+	/**
+	 * A utility method that removes a freed page from its parent, freeing
+	 * the parent too if it is left without children, and replacing the root
+	 * with its only child
+	 *
+	 * @param path - The internal pages passed to reach the freed page (List<int[]>)
+	 */
+	private void removeChild(List<int[]> path) {
+		for (int level = path.size() - 1; level >= 0; level--) {
+			int parent = path.get(level)[0];
+			int index = path.get(level)[1];
+			ByteBuffer page = pool.pin(parent);
+			int count = count(page);
+			if (count == 0) {
+				if (parent != root) {
+					pool.free(parent);
+					continue;
+				}
+
+				// The root's only child was freed, so it becomes an empty leaf
+				Arrays.fill(page.array(), (byte) 0);
+				page.put(0, LEAF);
+				pool.unpin(parent, true);
+				return;
+			}
+
+			// Remove the child and the separator beside it
+			if (index == 0) {
+				page.putInt(12, child(page, 1));
+				shift(page, HEADER_SIZE, INTERNAL_ENTRY_SIZE, 1, count, -1);
+			} else {
+				shift(page, HEADER_SIZE, INTERNAL_ENTRY_SIZE, index, count, -1);
+			}
+			page.putShort(1, (short) (count - 1));
+
+			// Shrink the tree when the root has a single child left
+			if (parent == root && count == 1) {
+				root = child(page, 0);
+				pool.free(parent);
+				collapseRoot();
+				return;
+			}
+			pool.unpin(parent, true);
+			return;
+		}
+	}
+
+	/**
+	 * A utility method that replaces the root with the page below it for as
+	 * long as the root is an internal page with a single page below it
+	 */
+	private void collapseRoot() {
+		while (true) {
+			ByteBuffer page = pool.pin(root);
+			if (page.get(0) != INTERNAL || count(page) > 0) {
+				pool.unpin(root, false);
+				return;
+			}
+			int child = child(page, 0);
+			pool.free(root);
+			root = child;
+		}
+	}
+
+	/**
+	 * A utility method that binary searches a leaf for a key
+	 *
+	 * @param page - The leaf (ByteBuffer)
+	 *
+	 * @param key - The key (long)
+	 *
+	 * @return index - The key's index, or -(insertion point) - 1 (int)
+	 */
+	private static int search(ByteBuffer page, long key) {
+		int low = 0;
+		int high = count(page) - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long found = page.getLong(HEADER_SIZE + LEAF_ENTRY_SIZE * middle);
+			if (found < key) {
+				low = middle + 1;
+			} else if (found > key) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -low - 1;
+	}
+
+	/**
+	 * A utility method that moves the entries of a page from an index to
+	 * the end by a number of places
+	 *
+	 * @param page - The page (ByteBuffer)
+	 *
+	 * @param start - Where the entries start (int)
+	 *
+	 * @param size - The size of an entry (int)
+	 *
+	 * @param from - The first entry moved (int)
+	 *
+	 * @param count - The number of entries (int)
+	 *
+	 * @param places - The places moved, negative to move them back (int)
+	 */
+	private static void shift(ByteBuffer page, int start, int size, int from, int count,
+			int places) {
+		if (from < count) {
+			System.arraycopy(page.array(), start + size * from, page.array(),
+					start + size * (from + places), size * (count - from));
+		}
+	}
+
+	/**
+	 * A utility method that returns the number of keys of a page
+	 *
+	 * @param page - The page (ByteBuffer)
+	 *
+	 * @return count - The number of keys (int)
+	 */
+	private static int count(ByteBuffer page) {
+		return page.getShort(1);
+	}
+
+	/**
+	 * A utility method that returns a leaf's value
+	 *
+	 * @param page - The leaf (ByteBuffer)
+	 *
+	 * @param index - The index of the key (int)
+	 *
+	 * @return value - The value (long)
+	 */
+	private static long leafValue(ByteBuffer page, int index) {
+		return page.getLong(HEADER_SIZE + LEAF_ENTRY_SIZE * index + 8);
+	}
+
+	/**
+	 * A utility method that sets a leaf's key and value
+	 *
+	 * @param page - The leaf (ByteBuffer)
+	 *
+	 * @param index - The index (int)
+	 *
+	 * @param key - The key (long)
+	 *
+	 * @param value - The value (long)
+	 */
+	private static void setLeafEntry(ByteBuffer page, int index, long key, long value) {
+		page.putLong(HEADER_SIZE + LEAF_ENTRY_SIZE * index, key);
+		page.putLong(HEADER_SIZE + LEAF_ENTRY_SIZE * index + 8, value);
+	}
+
+	/**
+	 * A utility method that returns an internal page's separator key
+	 *
+	 * @param page - The internal page (ByteBuffer)
+	 *
+	 * @param index - The index of the separator (int)
+	 *
+	 * @return key - The separator key (long)
+	 */
+	private static long separator(ByteBuffer page, int index) {
+		return page.getLong(HEADER_SIZE + INTERNAL_ENTRY_SIZE * index);
+	}
+
+	/**
+	 * A utility method that returns a page below an internal page: the
+	 * first, or the one after a separator key
+	 *
+	 * @param page - The internal page (ByteBuffer)
+	 *
+	 * @param index - 0 for the first page, or 1 more than the separator's index (int)
+	 *
+	 * @return child - The page below (int)
+	 */
+	private static int child(ByteBuffer page, int index) {
+		return index == 0 ? page.getInt(12)
+				: page.getInt(HEADER_SIZE + INTERNAL_ENTRY_SIZE * (index - 1) + 8);
+	}
+
+	/**
+	 * A utility method that sets an internal page's separator key and the
+	 * page after it
+	 *
+	 * @param page - The internal page (ByteBuffer)
+	 *
+	 * @param index - The index of the separator (int)
+	 *
+	 * @param key - The separator key (long)
+	 *
+	 * @param child - The page after it (int)
+	 */
+	private static void setInternalEntry(ByteBuffer page, int index, long key, int child) {
+		page.putLong(HEADER_SIZE + INTERNAL_ENTRY_SIZE * index, key);
+		page.putInt(HEADER_SIZE + INTERNAL_ENTRY_SIZE * index + 8, child);
+	}
+}
@@ -26,7 +26,16 @@ import org.apache.commons.validator.routines.ISBNValidator;
  * @version 1.0
  */
 public class Book implements Displayable, IDNumber {
-	private Map<String, Object> details = new LinkedHashMap<>();
+	/** The book's ID number */
+	private int idNumber;
+	/** The book's author */
+	private String author;
+	/** The book's title */
+	private String title;
+	/** The book's ISBN number */
+	private String isbnNumber;
+	/** The book's genre */
+	private String genre;
 
 	/**
 	 * Constructor: 
@@ -74,6 +83,37 @@ public class Book implements Displayable, IDNumber {
 		setGenre(genre);
 	}
 
+	/**
+	 * Constructor:
+	 * Instantiates an empty book, used by the restore method
+	 */
+	private Book() {
+	}
+
+	/**
+	 * Instantiates a book from details that have already been validated,
+	 * for example when a stored book is read back, without running the
+	 * validation performed by the Book's Mutator methods again
+	 * 
+	 * @param author - The book's author (String)
+	 * @param title - The book's title (String)
+	 * @param genre - The book's genre (String)
+	 * @param isbnNumber - The book's ISBN number (String)
+	 * @param idNumber - The book's idNumber (int)
+	 * 
+	 * @return book - The book (Book)
+	 */
+	static Book restore(String author, String title, String genre,
+			String isbnNumber, int idNumber) {
+		Book book = new Book();
+		book.author = author;
+		book.title = title;
+		book.genre = genre;
+		book.isbnNumber = isbnNumber;
+		book.idNumber = idNumber;
+		return book;
+	}
+
 	/**
 	 * Mutator Method: 
 	 * Sets the book's ISBN number
@@ -102,9 +142,35 @@ public class Book implements Displayable, IDNumber {
 					"The provided ISBN number is not valid");
 		}
 		
-		// Adds the book
+		// Sets the book's ISBN number
 		// trims any surplus whitespace
-		details.put("ISBN Number", isbnNumber.trim());
+		this.isbnNumber = isbnNumber.trim();
+	}
+
+	/**
+	 * A utility method that converts an ISBN number into its canonical form:
+	 * an ISBN-13 number without hyphens or spaces. ISBN-10 numbers are
+	 * converted to ISBN-13.
+	 * 
+	 * @param isbnNumber - The ISBN number (String)
+	 * 
+	 * @return isbn13 - The canonical ISBN-13 number (String)
+	 * 
+	 * @throws IllegalArgumentException - If the ISBN number is not valid
+	 * 
+	 * @see <a href=
+	 *      "https://commons.apache.org/proper/commons-validator/apidocs/org/apache/commons/validator/routines/ISBNValidator.html">ISBNValidator</a>
+	 */
+	static String toISBN13(String isbnNumber) throws IllegalArgumentException {
+		String isbn13 = ISBNValidator.getInstance().validate(isbnNumber);
+
+		// Guard clause that rejects numbers that fail ISBN validation
+		if (isbn13 == null) {
+			throw new IllegalArgumentException(
+					"The provided ISBN number is not valid");
+		}
+
+		return isbn13;
 	}
 
 	/**
@@ -114,7 +180,7 @@ public class Book implements Displayable, IDNumber {
 	 * @return isbnNumber - The book's ISBN number (String)
 	 */
 	public String getISBNNumber() {
-		return (String) details.get("ISBN Number");
+		return isbnNumber;
 	}
 
 	/**
@@ -135,7 +201,7 @@ public class Book implements Displayable, IDNumber {
 
 		// Sets the book's author
 		// trims any surplus whitespace
-		details.put("Author", author.trim());
+		this.author = author.trim();
 	}
 
 	/**
@@ -145,7 +211,7 @@ public class Book implements Displayable, IDNumber {
 	 * @return author - The book's author (String)
 	 */
 	public String getAuthor() {
-		return (String) details.get("Author");
+		return author;
 	}
 
 	/**
@@ -165,7 +231,7 @@ public class Book implements Displayable, IDNumber {
 
 		// Sets the book's title
 		// trims any surplus whitespace
-		details.put("Title", title.trim());
+		this.title = title.trim();
 	}
 
 	/**
@@ -175,7 +241,7 @@ public class Book implements Displayable, IDNumber {
 	 * @return title - The book's title (String)
 	 */
 	public String getTitle() {
-		return (String) details.get("Title");
+		return title;
 	}
 
 	/**
@@ -198,7 +264,7 @@ public class Book implements Displayable, IDNumber {
 		}
 		
 		// Sets the book's ID Number
-		details.put("ID Number", idNumber);
+		this.idNumber = idNumber;
 	}
 
 	/**
@@ -210,7 +276,7 @@ public class Book implements Displayable, IDNumber {
 	 */
 	@Override
 	public int getIDNumber() {
-		return (int) details.get("ID Number");
+		return idNumber;
 	}
 
 	/**
@@ -220,7 +286,7 @@ public class Book implements Displayable, IDNumber {
 	 * @return genre - The book's genre (String)
 	 */
 	public String getGenre() {
-		return (String) details.get("Genre");
+		return genre;
 	}
 
 	/**
@@ -239,7 +305,7 @@ public class Book implements Displayable, IDNumber {
 		}
 
 		// Sets the books genre
-		details.put("Genre", genre);
+		this.genre = genre;
 	}
 
 	/**
@@ -253,6 +319,23 @@ public class Book implements Displayable, IDNumber {
 	 */
 	@Override
 	public void displayDetails() {
-		PrintUtil.printDetails(details);
+		PrintUtil.printDetails(getDetails());
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the book's details labelled for display. The map is built on
+	 * demand so that books do not each carry one.
+	 * 
+	 * @return details - The book's details in display order (Map<String, Object>)
+	 */
+	public Map<String, Object> getDetails() {
+		Map<String, Object> details = new LinkedHashMap<>();
+		details.put("ID Number", idNumber);
+		details.put("Author", author);
+		details.put("Title", title);
+		details.put("ISBN Number", isbnNumber);
+		details.put("Genre", genre);
+		return details;
 	}
 }
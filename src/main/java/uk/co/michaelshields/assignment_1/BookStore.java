@@ -0,0 +1,385 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+
+/**
+ * A columnar store for very large book catalogues. Rather than holding one
+ * Book object (and its strings) per book, the details of every book are held
+ * in parallel primitive arrays, one array per detail, and a row number
+ * identifies the book in every array:
+ *
+ * <ul>
+ * <li>ID numbers are held as ints, in ascending order, so a book can be
+ * found by binary search</li>
+ * <li>ISBN numbers are held as longs, in their canonical ISBN-13 form</li>
+ * <li>Genres are dictionary encoded, each distinct genre being held once and
+ * each book holding a short code</li>
+ * <li>Titles and authors are appended to one shared character array, each
+ * book holding the offsets of its title and author</li>
+ * </ul>
+ *
+ * Scans such as genre filtering and title search read through the arrays in
+ * order rather than following a reference to each book. Books are only
+ * created, as a Book view, when they are requested.
+ *
+ * Removed books are marked rather than moved, so row numbers never change.
+ *
+ * @see <a href="Book.html">Book</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class BookStore {
+	/** The greatest number of distinct genres that can be encoded */
+	public static final int MAX_GENRES = Short.MAX_VALUE;
+
+	/** The ID numbers of the books, in ascending order */
+	private int[] idNumbers = new int[16];
+	/** The ISBN-13 numbers of the books */
+	private long[] isbnNumbers = new long[16];
+	/** The genre codes of the books */
+	private short[] genreCodes = new short[16];
+	/**
+	 * The offsets of each book's title and author in the text array. Row r's
+	 * title runs from textOffsets[2r] to textOffsets[2r + 1] and its author
+	 * from textOffsets[2r + 1] to textOffsets[2r + 2].
+	 */
+	private int[] textOffsets = new int[33];
+	/** The characters of every title and author, one after the other */
+	private char[] text = new char[256];
+	/** The rows of the books that have been removed */
+	private BitSet removed = new BitSet();
+	/** The number of rows in use, including those of removed books */
+	private int rows;
+	/** The number of books that have not been removed */
+	private int size;
+
+	/** The distinct genres, indexed by genre code */
+	private ArrayList<String> genres = new ArrayList<>();
+	/** The genre code of each distinct genre */
+	private HashMap<String, Short> genreCodesByName = new HashMap<>();
+
+	/**
+	 * Mutator Method:
+	 * Adds a book to the store. Books must be added in ascending ID number
+	 * order, which is the order in which the library issues ID numbers.
+	 *
+	 * @param book - The book (Book)
+	 *
+	 * @return row - The row number of the book (int)
+	 *
+	 * @throws IllegalArgumentException - If the book's ID number is not
+	 *                                    greater than that of the last book
+	 *                                    added, if its ISBN number is not
+	 *                                    valid, or if there are too many
+	 *                                    genres to encode
+	 */
+	public int add(Book book) throws IllegalArgumentException {
+		int idNumber = book.getIDNumber();
+
+		// Guard clause that keeps the ID numbers in order for binary search
+		if (rows > 0 && idNumbers[rows - 1] >= idNumber) {
+			throw new IllegalArgumentException(
+					"Books must be added in ascending ID number order");
+		}
+
+		long isbnNumber = Long.parseLong(Book.toISBN13(book.getISBNNumber()));
+		short genreCode = encodeGenre(book.getGenre());
+
+		ensureRowCapacity(rows + 1);
+		String title = book.getTitle();
+		String author = book.getAuthor();
+		int textStart = textOffsets[2 * rows];
+		ensureTextCapacity(textStart + title.length() + author.length());
+
+		title.getChars(0, title.length(), text, textStart);
+		author.getChars(0, author.length(), text, textStart + title.length());
+
+		idNumbers[rows] = idNumber;
+		isbnNumbers[rows] = isbnNumber;
+		genreCodes[rows] = genreCode;
+		textOffsets[2 * rows + 1] = textStart + title.length();
+		textOffsets[2 * rows + 2] = textStart + title.length() + author.length();
+
+		size++;
+		return rows++;
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes the book with the provided ID number from the store. The
+	 * space used by the book is not reclaimed.
+	 *
+	 * @param idNumber - The ID number of the book (int)
+	 *
+	 * @return removed - true if the book was removed, false if there is no
+	 *                   book with the ID number (boolean)
+	 */
+	public boolean remove(int idNumber) {
+		int row = findRow(idNumber);
+
+		if (row < 0) {
+			return false;
+		}
+
+		removed.set(row);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the row number of the book with the provided ID number
+	 *
+	 * @param idNumber - The ID number of the book (int)
+	 *
+	 * @return row - The row number, or -1 if there is no book with the ID
+	 *               number (int)
+	 */
+	public int findRow(int idNumber) {
+		int row = Arrays.binarySearch(idNumbers, 0, rows, idNumber);
+
+		if (row < 0 || removed.get(row)) {
+			return -1;
+		}
+
+		return row;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns a Book view of the book with the provided ID number. The view
+	 * is a new Book each time, so changes to it do not change the store. Its
+	 * ISBN number is in the canonical ISBN-13 form.
+	 *
+	 * @param idNumber - The ID number of the book (int)
+	 *
+	 * @return book - The book (Book)
+	 *
+	 * @throws NoSuchElementException - If there is no book with the ID
+	 *                                  number
+	 */
+	public Book getBookByID(int idNumber) throws NoSuchElementException {
+		int row = findRow(idNumber);
+
+		// Guard clause that prevents viewing books that are not in the store
+		if (row < 0) {
+			throw new NoSuchElementException(
+					"A book with the provided ID number does not exist");
+		}
+
+		return getBook(row);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns a Book view of the book in the provided row
+	 *
+	 * @param row - The row number of the book (int)
+	 *
+	 * @return book - The book (Book)
+	 *
+	 * @throws IndexOutOfBoundsException - If the row is not in use, or holds
+	 *                                     a removed book
+	 */
+	public Book getBook(int row) throws IndexOutOfBoundsException {
+		// Guard clause that prevents viewing rows without a book
+		if (row < 0 || row >= rows || removed.get(row)) {
+			throw new IndexOutOfBoundsException("No book is held in row " + row);
+		}
+
+		return Book.restore(getAuthor(row), getTitle(row),
+				genres.get(genreCodes[row]), Long.toString(isbnNumbers[row]),
+				idNumbers[row]);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the ID numbers of the books of the provided genre, in
+	 * ascending order. The genre must match exactly.
+	 *
+	 * @param genre - The genre (String)
+	 *
+	 * @return idNumbers - The ID numbers of the matching books (int[])
+	 */
+	public int[] findByGenre(String genre) {
+		Short code = genreCodesByName.get(genre);
+
+		// No book has ever had the genre
+		if (code == null) {
+			return new int[0];
+		}
+
+		short genreCode = code;
+		int[] matches = new int[16];
+		int count = 0;
+		for (int row = 0; row < rows; row++) {
+			if (genreCodes[row] == genreCode && !removed.get(row)) {
+				if (count == matches.length) {
+					matches = Arrays.copyOf(matches, count * 2);
+				}
+				matches[count++] = idNumbers[row];
+			}
+		}
+
+		return Arrays.copyOf(matches, count);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the ID numbers of the books whose titles contain the query,
+	 * ignoring case, in ascending order
+	 *
+	 * @param query - The search query (String)
+	 *
+	 * @return idNumbers - The ID numbers of the matching books (int[])
+	 *
+	 * @throws IllegalArgumentException - If the query is null or empty
+	 */
+	public int[] findByTitle(String query) throws IllegalArgumentException {
+		// Guard clause that prevents searching without a query
+		if (query == null || query.isEmpty()) {
+			throw new IllegalArgumentException(
+					"Cannot search titles without a query");
+		}
+
+		char[] folded = TitleIndex.fold(query).toCharArray();
+		int[] matches = new int[16];
+		int count = 0;
+		for (int row = 0; row < rows; row++) {
+			if (containsIgnoreCase(textOffsets[2 * row],
+					textOffsets[2 * row + 1], folded) && !removed.get(row)) {
+				if (count == matches.length) {
+					matches = Arrays.copyOf(matches, count * 2);
+				}
+				matches[count++] = idNumbers[row];
+			}
+		}
+
+		return Arrays.copyOf(matches, count);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of books in the store
+	 *
+	 * @return size - The number of books (int)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the title of the book in the provided row
+	 *
+	 * @param row - The row number (int)
+	 *
+	 * @return title - The title (String)
+	 */
+	private String getTitle(int row) {
+		int start = textOffsets[2 * row];
+		return new String(text, start, textOffsets[2 * row + 1] - start);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the author of the book in the provided row
+	 *
+	 * @param row - The row number (int)
+	 *
+	 * @return author - The author (String)
+	 */
+	private String getAuthor(int row) {
+		int start = textOffsets[2 * row + 1];
+		return new String(text, start, textOffsets[2 * row + 2] - start);
+	}
+
+	/**
+	 * A utility method that checks whether a range of the text array
+	 * contains the (case folded) query, ignoring case
+	 *
+	 * @param start - The start of the range, inclusive (int)
+	 *
+	 * @param end - The end of the range, exclusive (int)
+	 *
+	 * @param query - The case folded query (char[])
+	 *
+	 * @return contains - true if the range contains the query (boolean)
+	 */
+	private boolean containsIgnoreCase(int start, int end, char[] query) {
+		int last = end - query.length;
+		for (int i = start; i <= last; i++) {
+			int j = 0;
+			while (j < query.length
+					&& Character.toLowerCase(text[i + j]) == query[j]) {
+				j++;
+			}
+			if (j == query.length) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A utility method that returns the code of a genre, adding the genre to
+	 * the dictionary if it has not been seen before
+	 *
+	 * @param genre - The genre (String)
+	 *
+	 * @return genreCode - The genre code (short)
+	 *
+	 * @throws IllegalArgumentException - If there are too many genres to
+	 *                                    encode
+	 */
+	private short encodeGenre(String genre) throws IllegalArgumentException {
+		Short code = genreCodesByName.get(genre);
+
+		if (code == null) {
+			// Guard clause that prevents codes overflowing a short
+			if (genres.size() == MAX_GENRES) {
+				throw new IllegalArgumentException(
+						"Cannot store more than " + MAX_GENRES + " genres");
+			}
+
+			code = (short) genres.size();
+			genres.add(genre);
+			genreCodesByName.put(genre, code);
+		}
+
+		return code;
+	}
+
+	/**
+	 * Grows the row arrays, if needed, so they can hold the provided number
+	 * of rows
+	 *
+	 * @param capacity - The number of rows needed (int)
+	 */
+	private void ensureRowCapacity(int capacity) {
+		if (capacity > idNumbers.length) {
+			int grown = Math.max(capacity, idNumbers.length * 2);
+			idNumbers = Arrays.copyOf(idNumbers, grown);
+			isbnNumbers = Arrays.copyOf(isbnNumbers, grown);
+			genreCodes = Arrays.copyOf(genreCodes, grown);
+			textOffsets = Arrays.copyOf(textOffsets, 2 * grown + 1);
+		}
+	}
+
+	/**
+	 * Grows the text array, if needed, so it can hold the provided number of
+	 * characters
+	 *
+	 * @param capacity - The number of characters needed (int)
+	 */
+	private void ensureTextCapacity(int capacity) {
+		if (capacity > text.length) {
+			text = Arrays.copyOf(text, Math.max(capacity, text.length * 2));
+		}
+	}
+}
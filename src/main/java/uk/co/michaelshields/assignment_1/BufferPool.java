@@ -0,0 +1,382 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A fixed number of in memory frames holding pages of a file, so that the
+ * pages in use stay in memory however large the file grows. A page is
+ * pinned while it is read or changed, which keeps it in its frame, and
+ * unpinned afterwards, noting whether it was changed.
+ *
+ * When a page that is not held is pinned, a frame is found for it by the
+ * CLOCK algorithm: a hand sweeps the frames, skipping pinned frames and
+ * giving frames whose page has been used since the hand last passed a
+ * second chance, and takes the first frame whose page has not. A changed
+ * page is written back to the file before its frame is reused. Pages used
+ * often therefore stay in memory and pages used once are soon replaced,
+ * approximating least recently used eviction without ordering the frames
+ * on every use.
+ *
+ * Pages freed by their owner are chained into a free list, through their
+ * first bytes, and reused before the file grows. An owner that needs to
+ * keep a page's previous contents, for example to undo an unfinished
+ * change, is told before each page is written back. A buffer pool is not
+ * safe for use by many threads at once; its owner serialises its use.
+ *
+ * @see <a href="BPlusTree.html">BPlusTree</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class BufferPool {
+	/** The size of a page in bytes */
+	public static final int PAGE_SIZE = 4096;
+	/** The fewest frames a pool can have */
+	public static final int MIN_FRAMES = 8;
+
+	/** The file the pages belong to */
+	private final FileChannel file;
+	/** The frames, each holding one page */
+	private final ByteBuffer[] frames;
+	/** The page held by each frame, or -1 */
+	private final int[] pageOf;
+	/** The number of times each frame's page is pinned */
+	private final int[] pins;
+	/** Whether each frame's page has been changed since it was read */
+	private final boolean[] dirty;
+	/** Whether each frame's page has been used since the hand passed it */
+	private final boolean[] referenced;
+	/** The frame holding each page held */
+	private final HashMap<Integer, Integer> frameOf = new HashMap<Integer, Integer>();
+	/** The frame the clock hand points to */
+	private int hand;
+	/** The number of pages in the file, including those not yet written */
+	private int pageCount;
+	/** The first page of the free list, or 0 if it is empty */
+	private int freeHead;
+	/** The number of pages read from the file */
+	private long reads;
+	/** The number of pages written to the file */
+	private long writes;
+	/** The listener told before each page is written, or null */
+	private WriteListener writeListener;
+
+	/**
+	 * An interface for being told before a page is written back to the file
+	 */
+	public interface WriteListener {
+		/**
+		 * Called before a page is written back, while the file still holds
+		 * the page's previous contents
+		 *
+		 * @param pageNumber - The page (int)
+		 *
+		 * @throws IOException - If the listener cannot keep what it needs
+		 */
+		void beforeWrite(int pageNumber) throws IOException;
+	}
+
+	/**
+	 * Constructor:
+	 * Instantiates a buffer pool over the provided file
+	 *
+	 * @param file - The file (FileChannel)
+	 *
+	 * @param capacity - The number of frames (int)
+	 *
+	 * @param pageCount - The number of pages in the file (int)
+	 *
+	 * @param freeHead - The first page of the free list, or 0 (int)
+	 *
+	 * @throws IllegalArgumentException - If the file is null or the pool
+	 *                                    has too few frames
+	 */
+	public BufferPool(FileChannel file, int capacity, int pageCount, int freeHead)
+			throws IllegalArgumentException {
+		// Guard clause that prevents the pool from using a missing file
+		if (file == null) {
+			throw new IllegalArgumentException("The file cannot be null");
+		}
+
+		// Guard clause that prevents pools too small for a page and the
+		// pages around it to be pinned at once
+		if (capacity < MIN_FRAMES) {
+			throw new IllegalArgumentException(
+					"A buffer pool needs at least " + MIN_FRAMES + " frames");
+		}
+
+		this.file = file;
+		this.pageCount = pageCount;
+		this.freeHead = freeHead;
+		frames = new ByteBuffer[capacity];
+		pageOf = new int[capacity];
+		pins = new int[capacity];
+		dirty = new boolean[capacity];
+		referenced = new boolean[capacity];
+		Arrays.fill(pageOf, -1);
+		for (int frame = 0; frame < capacity; frame++) {
+			frames[frame] = ByteBuffer.allocate(PAGE_SIZE);
+		}
+	}
+
+	/**
+	 * Pins a page, reading it from the file if it is not held
+	 *
+	 * @param pageNumber - The page (int)
+	 *
+	 * @return page - The page's frame (ByteBuffer)
+	 *
+	 * @throws IllegalStateException - If every frame is pinned
+	 *
+	 * @throws UncheckedIOException - If the page cannot be read, or the page
+	 *                                it replaces cannot be written
+	 */
+	public ByteBuffer pin(int pageNumber) throws IllegalStateException, UncheckedIOException {
+		Integer held = frameOf.get(pageNumber);
+		if (held != null) {
+			pins[held]++;
+			referenced[held] = true;
+			return frames[held];
+		}
+
+		int frame = evict();
+		ByteBuffer page = frames[frame];
+		page.clear();
+		try {
+			long position = (long) pageNumber * PAGE_SIZE;
+			while (page.hasRemaining()) {
+				if (file.read(page, position + page.position()) < 0) {
+					// Pages past the end of the file have not been written yet
+					Arrays.fill(page.array(), page.position(), PAGE_SIZE, (byte) 0);
+					break;
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		reads++;
+		hold(frame, pageNumber);
+		return page;
+	}
+
+	/**
+	 * Unpins a page
+	 *
+	 * @param pageNumber - The page (int)
+	 *
+	 * @param changed - Whether the page was changed (boolean)
+	 *
+	 * @throws IllegalStateException - If the page is not pinned
+	 */
+	public void unpin(int pageNumber, boolean changed) throws IllegalStateException {
+		Integer frame = frameOf.get(pageNumber);
+
+		// Guard clause that prevents a page being unpinned more than pinned
+		if (frame == null || pins[frame] == 0) {
+			throw new IllegalStateException("Page " + pageNumber + " is not pinned");
+		}
+
+		pins[frame]--;
+		dirty[frame] |= changed;
+	}
+
+	/**
+	 * Allocates a page, from the free list if it has one and otherwise at
+	 * the end of the file, and pins it, empty and changed
+	 *
+	 * @return pageNumber - The page (int)
+	 *
+	 * @throws IllegalStateException - If every frame is pinned
+	 *
+	 * @throws UncheckedIOException - If the free list cannot be read
+	 */
+	public int allocate() throws IllegalStateException, UncheckedIOException {
+		int pageNumber;
+		if (freeHead != 0) {
+			pageNumber = freeHead;
+			freeHead = pin(pageNumber).getInt(0);
+		} else {
+			pageNumber = pageCount++;
+			hold(evict(), pageNumber);
+		}
+
+		int frame = frameOf.get(pageNumber);
+		Arrays.fill(frames[frame].array(), (byte) 0);
+		dirty[frame] = true;
+		return pageNumber;
+	}
+
+	/**
+	 * Frees a pinned page, adding it to the free list, and unpins it
+	 *
+	 * @param pageNumber - The page (int)
+	 *
+	 * @throws IllegalStateException - If the page is not pinned
+	 */
+	public void free(int pageNumber) throws IllegalStateException {
+		Integer frame = frameOf.get(pageNumber);
+		if (frame == null) {
+			throw new IllegalStateException("Page " + pageNumber + " is not pinned");
+		}
+
+		ByteBuffer page = frames[frame];
+		Arrays.fill(page.array(), (byte) 0);
+		page.putInt(0, freeHead);
+		freeHead = pageNumber;
+		unpin(pageNumber, true);
+	}
+
+	/**
+	 * Mutator Method:
+	 * Sets the listener told before each page is written back to the file
+	 *
+	 * @param writeListener - The listener, or null (WriteListener)
+	 */
+	public void setWriteListener(WriteListener writeListener) {
+		this.writeListener = writeListener;
+	}
+
+	/**
+	 * Writes every changed page back to the file
+	 *
+	 * @throws UncheckedIOException - If a page cannot be written
+	 */
+	public void flush() throws UncheckedIOException {
+		for (int frame = 0; frame < frames.length; frame++) {
+			if (dirty[frame]) {
+				write(frame);
+			}
+		}
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of pages in the file, including pages allocated but
+	 * not yet written
+	 *
+	 * @return pageCount - The number of pages (int)
+	 */
+	public int getPageCount() {
+		return pageCount;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the first page of the free list
+	 *
+	 * @return freeHead - The page, or 0 if the free list is empty (int)
+	 */
+	public int getFreeHead() {
+		return freeHead;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of frames
+	 *
+	 * @return capacity - The number of frames (int)
+	 */
+	public int getCapacity() {
+		return frames.length;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of pages read from the file
+	 *
+	 * @return reads - The number of pages read (long)
+	 */
+	public long getReads() {
+		return reads;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of pages written to the file
+	 *
+	 * @return writes - The number of pages written (long)
+	 */
+	public long getWrites() {
+		return writes;
+	}
+
+	/**
+	 * A utility method that finds a frame to reuse by sweeping the clock
+	 * hand over the frames, writing back the page it held if it was changed
+	 *
+	 * @return frame - The frame (int)
+	 *
+	 * @throws IllegalStateException - If every frame is pinned
+	 *
+	 * @throws UncheckedIOException - If the page cannot be written
+	 */
+	private int evict() throws IllegalStateException, UncheckedIOException {
+		// Two sweeps clear every reference bit, so a third finds nothing
+		for (int step = 0; step < 2 * frames.length + 1; step++) {
+			int frame = hand;
+			hand = (hand + 1) % frames.length;
+			if (pins[frame] > 0) {
+				continue;
+			}
+			if (referenced[frame]) {
+				referenced[frame] = false;
+				continue;
+			}
+
+			if (pageOf[frame] >= 0) {
+				if (dirty[frame]) {
+					write(frame);
+				}
+				frameOf.remove(pageOf[frame]);
+				pageOf[frame] = -1;
+			}
+			return frame;
+		}
+		throw new IllegalStateException("Every page in the buffer pool is pinned");
+	}
+
+	/**
+	 * A utility method that holds a page in a frame, pinned once
+	 *
+	 * @param frame - The frame (int)
+	 *
+	 * @param pageNumber - The page (int)
+	 */
+	private void hold(int frame, int pageNumber) {
+		pageOf[frame] = pageNumber;
+		pins[frame] = 1;
+		dirty[frame] = false;
+		referenced[frame] = true;
+		frameOf.put(pageNumber, frame);
+	}
+
+	/**
+	 * A utility method that writes a frame's page back to the file
+	 *
+	 * @param frame - The frame (int)
+	 *
+	 * @throws UncheckedIOException - If the page cannot be written
+	 */
+	private void write(int frame) throws UncheckedIOException {
+		ByteBuffer page = frames[frame].duplicate();
+		page.clear();
+		long position = (long) pageOf[frame] * PAGE_SIZE;
+		try {
+			if (writeListener != null) {
+				writeListener.beforeWrite(pageOf[frame]);
+			}
+			while (page.hasRemaining()) {
+				file.write(page, position + page.position());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		dirty[frame] = false;
+		writes++;
+	}
+}
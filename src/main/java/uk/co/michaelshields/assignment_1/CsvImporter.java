@@ -0,0 +1,432 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Imports books and members into a library from CSV files.
+ *
+ * The file is read a chunk of rows at a time, so files of any size can be
+ * imported. The rows of a chunk are parsed and validated in parallel on a
+ * fork-join pool (validating ISBN numbers, email addresses and phone
+ * numbers is most of the work of an import), then the valid records are
+ * added to the library in one bulk operation, which issues their ID numbers
+ * in the order of the file.
+ *
+ * The first line of a file is a header and is skipped. Each following line
+ * holds one record; fields are separated by commas and may be enclosed in
+ * double quotes, inside which commas are kept and a doubled double quote
+ * stands for one double quote. Blank lines are skipped. Rows that cannot be
+ * parsed, fail validation or duplicate an existing record are rejected
+ * without stopping the import, and reported with the reason.
+ *
+ * Books have the columns: Author, Title, Genre, ISBN Number<br>
+ * Members have the columns: First Name, Last Name, Email, Phone Number
+ *
+ * @see <a href="Library.html">Library</a>
+ * @see <a href="ImportReport.html">ImportReport</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class CsvImporter {
+	/** The default number of rows read and validated at a time */
+	public static final int DEFAULT_CHUNK_SIZE = 10_000;
+	/** The number of rows below which a validation task stops splitting */
+	private static final int VALIDATION_THRESHOLD = 256;
+	/** The number of fields of a book or member row */
+	private static final int FIELD_COUNT = 4;
+
+	/** The library records are imported into */
+	private final Library library;
+	/** The pool rows are validated on */
+	private final ForkJoinPool pool;
+	/** The number of rows read and validated at a time */
+	private final int chunkSize;
+
+	/**
+	 * Constructor:
+	 * Instantiates an importer that validates rows on the common fork-join
+	 * pool, a chunk of the default size at a time
+	 *
+	 * @param library - The library records are imported into (Library)
+	 *
+	 * @throws IllegalArgumentException - If the library is null
+	 */
+	public CsvImporter(Library library) throws IllegalArgumentException {
+		this(library, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructor:
+	 * Instantiates an importer
+	 *
+	 * @param library - The library records are imported into (Library)
+	 *
+	 * @param pool - The pool rows are validated on (ForkJoinPool)
+	 *
+	 * @param chunkSize - The number of rows read and validated at a time (int)
+	 *
+	 * @throws IllegalArgumentException - If the library or pool is null, or
+	 *                                    the chunk size is not positive
+	 */
+	public CsvImporter(Library library, ForkJoinPool pool, int chunkSize)
+			throws IllegalArgumentException {
+		// Guard clause that prevents importing into a missing library
+		if (library == null) {
+			throw new IllegalArgumentException("Cannot create importer, library is null");
+		}
+
+		// Guard clause that prevents validating on a missing pool
+		if (pool == null) {
+			throw new IllegalArgumentException("Cannot create importer, pool is null");
+		}
+
+		// Guard clause that prevents empty chunks
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("The chunk size must be positive");
+		}
+
+		this.library = library;
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Imports the books of a CSV file
+	 *
+	 * @param reader - The CSV file (Reader)
+	 *
+	 * @return report - The number of books imported and the rejected rows
+	 *                  (ImportReport)
+	 *
+	 * @throws IllegalArgumentException - If the reader is null
+	 *
+	 * @throws IOException - If the file cannot be read
+	 */
+	public ImportReport importBooks(Reader reader)
+			throws IllegalArgumentException, IOException {
+		return importRecords(reader,
+				fields -> new Book(fields[0], fields[1], fields[2], fields[3]),
+				library::addBooks);
+	}
+
+	/**
+	 * Imports the members of a CSV file
+	 *
+	 * @param reader - The CSV file (Reader)
+	 *
+	 * @return report - The number of members imported and the rejected rows
+	 *                  (ImportReport)
+	 *
+	 * @throws IllegalArgumentException - If the reader is null
+	 *
+	 * @throws IOException - If the file cannot be read
+	 */
+	public ImportReport importMembers(Reader reader)
+			throws IllegalArgumentException, IOException {
+		return importRecords(reader,
+				fields -> new Member(fields[0], fields[1], fields[2], fields[3]),
+				library::addMembers);
+	}
+
+	/**
+	 * A utility method that imports the records of a CSV file a chunk at a
+	 * time: the rows of each chunk are parsed and validated in parallel, then
+	 * the valid records are added to the library in file order
+	 *
+	 * @param reader - The CSV file (Reader)
+	 *
+	 * @param parser - Creates a record from the fields of a row
+	 *                 (RecordParser<T>)
+	 *
+	 * @param loader - Adds records to the library, returning the errors of
+	 *                 the records that were not added by their position
+	 *                 (Function<List<T>, Map<Integer, RuntimeException>>)
+	 *
+	 * @return report - The number of records imported and the rejected rows
+	 *                  (ImportReport)
+	 *
+	 * @throws IllegalArgumentException - If the reader is null
+	 *
+	 * @throws IOException - If the file cannot be read
+	 */
+	private <T> ImportReport importRecords(Reader reader, RecordParser<T> parser,
+			Function<List<T>, Map<Integer, RuntimeException>> loader)
+			throws IllegalArgumentException, IOException {
+		// Guard clause that prevents importing from a missing file
+		if (reader == null) {
+			throw new IllegalArgumentException("Cannot import, reader is null");
+		}
+
+		ImportReport report = new ImportReport();
+		long start = System.nanoTime();
+		BufferedReader lines = reader instanceof BufferedReader
+				? (BufferedReader) reader : new BufferedReader(reader);
+
+		// Skip the header
+		long lineNumber = lines.readLine() == null ? 0 : 1;
+
+		String[] chunk = new String[chunkSize];
+		long[] lineNumbers = new long[chunkSize];
+		boolean endOfFile = false;
+		while (!endOfFile) {
+			// Read the next chunk of rows, skipping blank lines
+			int rows = 0;
+			while (rows < chunkSize) {
+				String line = lines.readLine();
+				if (line == null) {
+					endOfFile = true;
+					break;
+				}
+				lineNumber++;
+				if (!line.trim().isEmpty()) {
+					chunk[rows] = line;
+					lineNumbers[rows] = lineNumber;
+					rows++;
+				}
+			}
+
+			if (rows > 0) {
+				importChunk(chunk, lineNumbers, rows, parser, loader, report);
+			}
+		}
+
+		report.setElapsedNanos(System.nanoTime() - start);
+		return report;
+	}
+
+	/**
+	 * A utility method that validates a chunk of rows in parallel, adds the
+	 * valid records to the library and reports the rejected rows in line
+	 * order
+	 *
+	 * @param chunk - The rows (String[])
+	 *
+	 * @param lineNumbers - The line number of each row (long[])
+	 *
+	 * @param rows - The number of rows in the chunk (int)
+	 *
+	 * @param parser - Creates a record from the fields of a row
+	 *                 (RecordParser<T>)
+	 *
+	 * @param loader - Adds records to the library
+	 *                 (Function<List<T>, Map<Integer, RuntimeException>>)
+	 *
+	 * @param report - The report of the import (ImportReport)
+	 */
+	private <T> void importChunk(String[] chunk, long[] lineNumbers, int rows,
+			RecordParser<T> parser,
+			Function<List<T>, Map<Integer, RuntimeException>> loader,
+			ImportReport report) {
+		// Each row's record, or the reason it was rejected
+		Object[] outcomes = new Object[rows];
+		pool.invoke(new ValidationTask<T>(chunk, outcomes, 0, rows, parser));
+
+		// Collect the valid records in file order, and the rejected rows
+		// by line number
+		List<T> records = new ArrayList<T>(rows);
+		long[] recordLineNumbers = new long[rows];
+		TreeMap<Long, String> rejections = new TreeMap<Long, String>();
+		for (int i = 0; i < rows; i++) {
+			if (outcomes[i] instanceof Rejected) {
+				rejections.put(lineNumbers[i], ((Rejected) outcomes[i]).reason);
+			} else {
+				@SuppressWarnings("unchecked")
+				T record = (T) outcomes[i];
+				recordLineNumbers[records.size()] = lineNumbers[i];
+				records.add(record);
+			}
+		}
+
+		// Add the valid records, rejecting those the library refuses
+		// (e.g. duplicates)
+		Map<Integer, RuntimeException> errors = loader.apply(records);
+		for (Map.Entry<Integer, RuntimeException> error : errors.entrySet()) {
+			rejections.put(recordLineNumbers[error.getKey()],
+					reasonOf(error.getValue()));
+		}
+
+		report.addImported(records.size() - errors.size());
+		for (Map.Entry<Long, String> rejection : rejections.entrySet()) {
+			report.addRejection(rejection.getKey(), rejection.getValue());
+		}
+	}
+
+	/**
+	 * Splits a CSV row into its fields. Fields may be enclosed in double
+	 * quotes, inside which commas are kept and a doubled double quote stands
+	 * for one double quote.
+	 *
+	 * @param line - The row (String)
+	 *
+	 * @return fields - The fields of the row (String[])
+	 *
+	 * @throws IllegalArgumentException - If a quoted field is not closed
+	 */
+	static String[] parseFields(String line) throws IllegalArgumentException {
+		ArrayList<String> fields = new ArrayList<String>(FIELD_COUNT);
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c != '"') {
+					field.append(c);
+				} else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					// A doubled double quote stands for one double quote
+					field.append('"');
+					i++;
+				} else {
+					quoted = false;
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+
+		// Guard clause that rejects rows ending inside a quoted field
+		if (quoted) {
+			throw new IllegalArgumentException("A quoted field is not closed");
+		}
+
+		fields.add(field.toString());
+		return fields.toArray(new String[0]);
+	}
+
+	/**
+	 * A utility method that returns the reason to report for an error
+	 *
+	 * @param error - The error (Exception)
+	 *
+	 * @return reason - The error's message, or its type if it has none (String)
+	 */
+	private static String reasonOf(Exception error) {
+		return error.getMessage() != null ? error.getMessage()
+				: error.getClass().getSimpleName();
+	}
+
+	/**
+	 * Creates a record from the fields of a row, validating them
+	 *
+	 * @param <T> - The type of record
+	 */
+	private interface RecordParser<T> {
+		/**
+		 * Creates a record from the fields of a row
+		 *
+		 * @param fields - The fields of the row (String[])
+		 *
+		 * @return record - The record (T)
+		 *
+		 * @throws Exception - If the fields are invalid
+		 */
+		T parse(String[] fields) throws Exception;
+	}
+
+	/**
+	 * The outcome of a row that was rejected before reaching the library
+	 */
+	private static class Rejected {
+		/** Why the row was rejected */
+		private final String reason;
+
+		/**
+		 * Constructor:
+		 * Instantiates the outcome of a rejected row
+		 *
+		 * @param reason - Why the row was rejected (String)
+		 */
+		private Rejected(String reason) {
+			this.reason = reason;
+		}
+	}
+
+	/**
+	 * A task that parses and validates a range of rows, splitting the range
+	 * between subtasks until it is small enough to validate directly
+	 *
+	 * @param <T> - The type of record
+	 */
+	private static class ValidationTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		/** The rows */
+		private final String[] rows;
+		/** Each row's record, or the reason it was rejected */
+		private final Object[] outcomes;
+		/** The first row of the range */
+		private final int from;
+		/** The row after the last row of the range */
+		private final int to;
+		/** Creates a record from the fields of a row */
+		private final RecordParser<T> parser;
+
+		/**
+		 * Constructor:
+		 * Instantiates a task that validates a range of rows
+		 *
+		 * @param rows - The rows (String[])
+		 *
+		 * @param outcomes - Each row's record or rejection (Object[])
+		 *
+		 * @param from - The first row of the range (int)
+		 *
+		 * @param to - The row after the last row of the range (int)
+		 *
+		 * @param parser - Creates a record from the fields of a row
+		 *                 (RecordParser<T>)
+		 */
+		private ValidationTask(String[] rows, Object[] outcomes, int from, int to,
+				RecordParser<T> parser) {
+			this.rows = rows;
+			this.outcomes = outcomes;
+			this.from = from;
+			this.to = to;
+			this.parser = parser;
+		}
+
+		/**
+		 * Validates the range of rows, splitting it in half if it is large
+		 */
+		@Override
+		protected void compute() {
+			if (to - from > VALIDATION_THRESHOLD) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new ValidationTask<T>(rows, outcomes, from, middle, parser),
+						new ValidationTask<T>(rows, outcomes, middle, to, parser));
+				return;
+			}
+
+			for (int i = from; i < to; i++) {
+				try {
+					String[] fields = parseFields(rows[i]);
+
+					// Guard clause that rejects rows with missing or extra fields
+					if (fields.length != FIELD_COUNT) {
+						throw new IllegalArgumentException("Expected " + FIELD_COUNT
+								+ " fields but found " + fields.length);
+					}
+
+					outcomes[i] = parser.parse(fields);
+				} catch (Exception e) {
+					outcomes[i] = new Rejected(reasonOf(e));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,349 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Issues unique ID numbers to members and books.
+ *
+ * ID numbers are leased in contiguous blocks, and each thread that issues
+ * many ID numbers does so from its own block, so issuing an ID number is
+ * normally just an increment of a thread local counter with no contention
+ * between threads. Only when a thread's block runs out does it lease the
+ * next block, which advances the high water mark: the last ID number that
+ * has been leased.
+ *
+ * A thread's first block's worth of ID numbers is issued from a block the
+ * allocator shares between threads, under the allocator's lock, before the
+ * thread leases a block of its own. Threads that only issue a few ID
+ * numbers each, such as the thread (or virtual thread) handling each of a
+ * server's requests, therefore share one block rather than each leasing a
+ * block and leaving the rest of it unissued.
+ *
+ * The high water mark is either held in memory, or persisted to a file. A
+ * persisted high water mark is advanced while holding a lock on the file, so
+ * several processes sharing the file lease separate blocks, and it is
+ * written to disk before a block is used, so ID numbers are never issued
+ * again after a restart.
+ *
+ * A single thread is issued consecutive ID numbers, 1, 2, 3 and so on, as
+ * are threads that take turns. ID numbers left unissued in a thread's own
+ * block when it ends (or in any block when a process stops) are never
+ * issued, so the ID numbers in use may have gaps.
+ *
+ * @see <a href="Library.html">Library</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class IDAllocator implements Closeable {
+	/** The default number of ID numbers leased at a time */
+	public static final int DEFAULT_BLOCK_SIZE = 64;
+
+	/** The number of ID numbers leased at a time */
+	private final int blockSize;
+	/** The in memory high water mark (unused when it is persisted) */
+	private final AtomicInteger highWaterMark = new AtomicInteger();
+	/** The file holding the persisted high water mark, or null */
+	private final FileChannel file;
+	/** The block of ID numbers each thread issues from */
+	private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+	/** The block threads issue from until they lease their own (guarded by itself) */
+	private final Block sharedBlock = new Block();
+
+	/**
+	 * Constructor:
+	 * Instantiates an allocator with an in memory high water mark, leasing
+	 * blocks of the default size
+	 */
+	public IDAllocator() {
+		this(DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Constructor:
+	 * Instantiates an allocator with an in memory high water mark
+	 *
+	 * @param blockSize - The number of ID numbers leased at a time (int)
+	 *
+	 * @throws IllegalArgumentException - If the block size is not positive
+	 */
+	public IDAllocator(int blockSize) throws IllegalArgumentException {
+		this.blockSize = checkBlockSize(blockSize);
+		this.file = null;
+	}
+
+	/**
+	 * Constructor:
+	 * Instantiates an allocator whose high water mark is persisted to the
+	 * provided file, which is created if it does not exist. Issuing resumes
+	 * after the last block leased by any allocator using the file.
+	 *
+	 * @param path - The file holding the high water mark (Path)
+	 *
+	 * @param blockSize - The number of ID numbers leased at a time (int)
+	 *
+	 * @throws IllegalArgumentException - If the path is null or the block
+	 *                                    size is not positive
+	 *
+	 * @throws IOException - If the file cannot be opened
+	 */
+	public IDAllocator(Path path, int blockSize)
+			throws IllegalArgumentException, IOException {
+		// Guard clause that prevents persisting to a missing file
+		if (path == null) {
+			throw new IllegalArgumentException("The ID number file cannot be null");
+		}
+
+		this.blockSize = checkBlockSize(blockSize);
+		this.file = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Issues the next ID number from the calling thread's block, leasing a
+	 * new block if it has run out, or from the shared block if the thread
+	 * has not yet issued a block's worth of ID numbers
+	 *
+	 * @return idNumber - A unique ID number (int)
+	 *
+	 * @throws IllegalStateException - If every ID number has been leased
+	 *
+	 * @throws UncheckedIOException - If a persisted high water mark cannot be
+	 *                                advanced
+	 */
+	public int next() throws IllegalStateException, UncheckedIOException {
+		Block block = blocks.get();
+
+		// Issue a thread's first block's worth of ID numbers from the
+		// shared block, so that short lived threads do not lease blocks
+		if (block.sharedIssued < blockSize) {
+			block.sharedIssued++;
+			synchronized (sharedBlock) {
+				return issue(sharedBlock);
+			}
+		}
+
+		return issue(block);
+	}
+
+	/**
+	 * A utility method that issues the next ID number from a block, leasing
+	 * a new block if it has run out
+	 *
+	 * @param block - The block (Block)
+	 *
+	 * @return idNumber - A unique ID number (int)
+	 *
+	 * @throws IllegalStateException - If every ID number has been leased
+	 *
+	 * @throws UncheckedIOException - If a persisted high water mark cannot be
+	 *                                advanced
+	 */
+	private int issue(Block block) throws IllegalStateException, UncheckedIOException {
+		if (block.next == block.end) {
+			block.end = lease();
+			block.next = block.end - blockSize;
+		}
+
+		return ++block.next;
+	}
+
+	/**
+	 * Makes sure that blocks leased from now on start after the provided ID
+	 * number, for example once members and books have been restored with the
+	 * ID numbers they were issued before a restart. Blocks that threads have
+	 * already leased are unaffected, so it should be called before any ID
+	 * numbers are issued.
+	 *
+	 * @param idNumber - The last ID number already in use (int)
+	 *
+	 * @throws UncheckedIOException - If a persisted high water mark cannot be
+	 *                                advanced
+	 */
+	public void reserveThrough(int idNumber) throws UncheckedIOException {
+		if (file == null) {
+			highWaterMark.accumulateAndGet(idNumber, Math::max);
+			return;
+		}
+
+		advanceFileMark(0, idNumber);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the high water mark: the last ID number leased, so no ID
+	 * number issued so far is greater. Reserving through it makes sure a
+	 * restored allocator issues none of them again.
+	 *
+	 * @return highWaterMark - The last ID number leased (int)
+	 *
+	 * @throws UncheckedIOException - If a persisted high water mark cannot be
+	 *                                read
+	 */
+	public int getHighWaterMark() throws UncheckedIOException {
+		if (file == null) {
+			return highWaterMark.get();
+		}
+
+		// Advancing the mark by nothing reads it under the file lock
+		return advanceFileMark(0, 0);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of ID numbers leased at a time
+	 *
+	 * @return blockSize - The block size (int)
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * Closes the file holding a persisted high water mark. ID numbers can no
+	 * longer be leased once it is closed.
+	 *
+	 * @throws IOException - If the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (file != null) {
+			file.close();
+		}
+	}
+
+	/**
+	 * A utility method that leases the next block of ID numbers by advancing
+	 * the high water mark
+	 *
+	 * @return end - The last ID number in the leased block (int)
+	 *
+	 * @throws IllegalStateException - If every ID number has been leased
+	 *
+	 * @throws UncheckedIOException - If a persisted high water mark cannot be
+	 *                                advanced
+	 */
+	private int lease() throws IllegalStateException, UncheckedIOException {
+		if (file == null) {
+			int end = highWaterMark.addAndGet(blockSize);
+
+			// Guard clause that prevents ID numbers wrapping around
+			if (end < blockSize) {
+				throw new IllegalStateException("Every ID number has been issued");
+			}
+
+			return end;
+		}
+
+		return advanceFileMark(blockSize, 0);
+	}
+
+	/**
+	 * A utility method that advances the persisted high water mark by the
+	 * provided count, and to at least the provided minimum. Threads of this
+	 * process take turns, and the file lock keeps other processes out while
+	 * the mark is advanced.
+	 *
+	 * @param count - The number of ID numbers to lease (int)
+	 *
+	 * @param minimum - The least the mark is advanced to (int)
+	 *
+	 * @return end - The new high water mark (int)
+	 *
+	 * @throws IllegalStateException - If every ID number has been leased
+	 *
+	 * @throws UncheckedIOException - If the high water mark cannot be read or
+	 *                                written
+	 */
+	private synchronized int advanceFileMark(int count, int minimum)
+			throws IllegalStateException, UncheckedIOException {
+		FileLock lock = null;
+		try {
+			lock = file.lock();
+			ByteBuffer mark = ByteBuffer.allocate(Integer.BYTES);
+			int start = 0;
+			if (file.size() >= Integer.BYTES) {
+				file.read(mark, 0);
+				mark.flip();
+				start = mark.getInt();
+			}
+
+			// Guard clause that prevents ID numbers wrapping around
+			if (start > Integer.MAX_VALUE - count) {
+				throw new IllegalStateException("Every ID number has been issued");
+			}
+
+			// Write the new mark to disk before any of the block is issued
+			int end = Math.max(start + count, minimum);
+			mark.clear();
+			mark.putInt(end).flip();
+			file.write(mark, 0);
+			file.force(false);
+
+			return end;
+		} catch (IOException e) {
+			throw new UncheckedIOException(
+					"Could not lease a block of ID numbers", e);
+		} finally {
+			release(lock);
+		}
+	}
+
+	/**
+	 * A utility method that releases the lock on the high water mark's file,
+	 * if it was taken
+	 *
+	 * @param lock - The lock, or null (FileLock)
+	 *
+	 * @throws UncheckedIOException - If the lock cannot be released
+	 */
+	private static void release(FileLock lock) throws UncheckedIOException {
+		if (lock == null) {
+			return;
+		}
+
+		try {
+			lock.release();
+		} catch (IOException e) {
+			throw new UncheckedIOException(
+					"Could not release the ID number file's lock", e);
+		}
+	}
+
+	/**
+	 * A utility method that checks that a block size is positive
+	 *
+	 * @param blockSize - The block size (int)
+	 *
+	 * @return blockSize - The block size (int)
+	 *
+	 * @throws IllegalArgumentException - If the block size is not positive
+	 */
+	private static int checkBlockSize(int blockSize) throws IllegalArgumentException {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("The block size must be positive");
+		}
+		return blockSize;
+	}
+
+	/**
+	 * The block of ID numbers a thread is issuing from. The block has run out
+	 * when next reaches end.
+	 */
+	private static class Block {
+		/** The last ID number issued from the block */
+		private int next;
+		/** The last ID number in the block */
+		private int end;
+		/** The number of ID numbers the thread has issued from the shared block */
+		private int sharedIssued;
+	}
+}
@@ -0,0 +1,261 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.util.Arrays;
+
+/**
+ * A primary key index that maps ID numbers to the objects that hold them.
+ *
+ * The index is an open addressing hash table keyed directly on primitive
+ * {@code int} ID numbers, so lookups do not box keys into {@code Integer}
+ * objects and take constant time regardless of how many objects are indexed.
+ * Collisions are resolved by linear probing and removals use backward shift
+ * deletion, so no tombstones are left behind.
+ *
+ * @param <T> - The type of object that is indexed
+ *
+ * @see <a href="IDNumber.html">IDNumber</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class IDIndex<T> {
+	/** The initial number of slots in the table (must be a power of two) */
+	private static final int DEFAULT_CAPACITY = 16;
+	/** The ID numbers held in each slot of the table */
+	private int[] keys;
+	/** The indexed objects, a null value marks an empty slot */
+	private Object[] values;
+	/** The number of objects currently indexed */
+	private int size;
+	/** The number of objects the table can hold before it is resized */
+	private int threshold;
+
+	/**
+	 * Constructor:
+	 * Instantiates an empty index
+	 */
+	public IDIndex() {
+		allocate(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Mutator Method:
+	 * Adds an object to the index under the provided ID number, replacing any
+	 * object that was previously indexed under the same ID number
+	 *
+	 * @param idNumber - The ID number of the object (int)
+	 *
+	 * @param value - The object to be indexed (T)
+	 *
+	 * @return previous - The object previously indexed under the ID number or
+	 *                    null if there was none (T)
+	 *
+	 * @throws IllegalArgumentException - If the provided object is null
+	 */
+	@SuppressWarnings("unchecked")
+	public T put(int idNumber, T value) throws IllegalArgumentException {
+		// Guard clause that prevents null values from being indexed
+		// (null is used to mark empty slots)
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot index a null value");
+		}
+
+		int mask = keys.length - 1;
+		int slot = slotFor(idNumber, mask);
+
+		// Probe until the ID number or an empty slot is found
+		while (values[slot] != null) {
+			if (keys[slot] == idNumber) {
+				T previous = (T) values[slot];
+				values[slot] = value;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = idNumber;
+		values[slot] = value;
+
+		// Grow the table once it becomes too full to probe efficiently
+		if (++size > threshold) {
+			resize(keys.length * 2);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the object indexed under the provided ID number
+	 *
+	 * @param idNumber - The ID number of the object (int)
+	 *
+	 * @return value - The indexed object or null if there is none (T)
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int idNumber) {
+		int mask = keys.length - 1;
+		int slot = slotFor(idNumber, mask);
+
+		// Probe until the ID number or an empty slot is found
+		while (values[slot] != null) {
+			if (keys[slot] == idNumber) {
+				return (T) values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns whether an object is indexed under the provided ID number
+	 *
+	 * @param idNumber - The ID number to be checked (int)
+	 *
+	 * @return containsID - Indicates whether the ID number is indexed (boolean)
+	 */
+	public boolean containsID(int idNumber) {
+		return get(idNumber) != null;
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes the object indexed under the provided ID number
+	 *
+	 * @param idNumber - The ID number of the object (int)
+	 *
+	 * @return removed - The object that was removed or null if there was none (T)
+	 */
+	@SuppressWarnings("unchecked")
+	public T remove(int idNumber) {
+		int mask = keys.length - 1;
+		int slot = slotFor(idNumber, mask);
+
+		// Probe until the ID number or an empty slot is found
+		while (values[slot] != null) {
+			if (keys[slot] == idNumber) {
+				T removed = (T) values[slot];
+				shiftBackFrom(slot, mask);
+				size--;
+				return removed;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of indexed objects
+	 *
+	 * @return size - The number of indexed objects (int)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns whether the index is empty
+	 *
+	 * @return isEmpty - Indicates whether no objects are indexed (boolean)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes every object from the index
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * A utility method that closes the gap left by a removed entry by moving
+	 * any later entries of the same probe sequence back into it
+	 *
+	 * @param gap - The slot that has been emptied (int)
+	 *
+	 * @param mask - The mask used to wrap slot numbers (int)
+	 */
+	private void shiftBackFrom(int gap, int mask) {
+		int slot = gap;
+
+		while (true) {
+			slot = (slot + 1) & mask;
+
+			// The end of the probe sequence has been reached
+			if (values[slot] == null) {
+				break;
+			}
+
+			// Move the entry back if its home slot does not lie
+			// (cyclically) between the gap and its current slot
+			int home = slotFor(keys[slot], mask);
+			if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+				keys[gap] = keys[slot];
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+
+		values[gap] = null;
+	}
+
+	/**
+	 * A utility method that rebuilds the table with the provided number of
+	 * slots
+	 *
+	 * @param capacity - The new number of slots (int)
+	 */
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+
+		allocate(capacity);
+
+		int mask = capacity - 1;
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				int slot = slotFor(oldKeys[i], mask);
+				while (values[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * A utility method that allocates empty arrays for the table
+	 *
+	 * @param capacity - The number of slots (int)
+	 */
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		// Keep the table at most half full so probe sequences stay short
+		threshold = capacity / 2;
+	}
+
+	/**
+	 * A utility method that returns the home slot for an ID number. ID numbers
+	 * are mostly sequential, so they are scrambled with a multiplicative hash
+	 * to spread them across the table.
+	 *
+	 * @param idNumber - The ID number (int)
+	 *
+	 * @param mask - The mask used to wrap slot numbers (int)
+	 *
+	 * @return slot - The home slot of the ID number (int)
+	 */
+	private static int slotFor(int idNumber, int mask) {
+		int hash = idNumber * 0x9E3779B9;
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+}
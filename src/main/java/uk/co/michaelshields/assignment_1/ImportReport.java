@@ -0,0 +1,158 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A class that models the outcome of a bulk import: the number of records
+ * imported, the rows that were rejected and why, and how quickly the
+ * records were processed.
+ *
+ * @see <a href="CsvImporter.html">CsvImporter</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class ImportReport implements Displayable {
+	/** The number of records added to the library */
+	private int importedCount;
+	/** The rows that were not added to the library, in line order */
+	private final ArrayList<Rejection> rejections = new ArrayList<Rejection>();
+	/** The time taken by the import in nanoseconds */
+	private long elapsedNanos;
+
+	/**
+	 * Mutator Method:
+	 * Counts records added to the library
+	 *
+	 * @param count - The number of records added (int)
+	 */
+	void addImported(int count) {
+		importedCount += count;
+	}
+
+	/**
+	 * Mutator Method:
+	 * Records a row that was not added to the library
+	 *
+	 * @param lineNumber - The line number of the row, counting from 1 (long)
+	 *
+	 * @param reason - Why the row was rejected (String)
+	 */
+	void addRejection(long lineNumber, String reason) {
+		rejections.add(new Rejection(lineNumber, reason));
+	}
+
+	/**
+	 * Mutator Method:
+	 * Sets the time taken by the import
+	 *
+	 * @param elapsedNanos - The time taken in nanoseconds (long)
+	 */
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of records added to the library
+	 *
+	 * @return importedCount - The number of records imported (int)
+	 */
+	public int getImportedCount() {
+		return importedCount;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the rows that were not added to the library, in line order
+	 *
+	 * @return rejections - The rejected rows (List<Rejection>)
+	 */
+	public List<Rejection> getRejections() {
+		return Collections.unmodifiableList(rejections);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the time taken by the import
+	 *
+	 * @return elapsedNanos - The time taken in nanoseconds (long)
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Returns the number of records, imported or rejected, processed per
+	 * second
+	 *
+	 * @return recordsPerSecond - The rate records were processed at (double)
+	 */
+	public double getRecordsPerSecond() {
+		if (elapsedNanos == 0) {
+			return 0;
+		}
+		return (importedCount + rejections.size()) * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Displays the number of records imported and rejected, the rate they
+	 * were processed at and the reason each row was rejected
+	 */
+	@Override
+	public void displayDetails() {
+		System.out.println("Imported:       " + importedCount);
+		System.out.println("Rejected:       " + rejections.size());
+		System.out.printf("Records/sec:    %.0f%n", getRecordsPerSecond());
+		for (Rejection rejection : rejections) {
+			System.out.println("Line " + rejection.getLineNumber() + ": "
+					+ rejection.getReason());
+		}
+		System.out.println();
+	}
+
+	/**
+	 * A row that was not added to the library and the reason why
+	 */
+	public static class Rejection {
+		/** The line number of the row, counting from 1 */
+		private final long lineNumber;
+		/** Why the row was rejected */
+		private final String reason;
+
+		/**
+		 * Constructor:
+		 * Instantiates a rejection
+		 *
+		 * @param lineNumber - The line number of the row (long)
+		 *
+		 * @param reason - Why the row was rejected (String)
+		 */
+		Rejection(long lineNumber, String reason) {
+			this.lineNumber = lineNumber;
+			this.reason = reason;
+		}
+
+		/**
+		 * Accessor Method:
+		 * Returns the line number of the row, counting from 1
+		 *
+		 * @return lineNumber - The line number (long)
+		 */
+		public long getLineNumber() {
+			return lineNumber;
+		}
+
+		/**
+		 * Accessor Method:
+		 * Returns why the row was rejected
+		 *
+		 * @return reason - The reason (String)
+		 */
+		public String getReason() {
+			return reason;
+		}
+	}
+}
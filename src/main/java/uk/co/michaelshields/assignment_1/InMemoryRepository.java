@@ -0,0 +1,100 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A repository that holds a library's members, books and loans on the heap,
+ * and keeps nothing once the process stops. It is the repository a library
+ * uses unless it is given another.
+ *
+ * Members and books are held in lists in the order they were added, and
+ * loans in a concurrent sorted map keyed by expiry date (see the Library's
+ * toExpiryKey method), so loans can be added and removed alongside one
+ * another and the loans expiring before a date are found without visiting
+ * the rest.
+ *
+ * @see <a href="LibraryRepository.html">LibraryRepository</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class InMemoryRepository implements LibraryRepository {
+	/** The stored members, in the order they were added */
+	private final ArrayList<Member> members = new ArrayList<Member>();
+	/** The stored books, in the order they were added */
+	private final ArrayList<Book> books = new ArrayList<Book>();
+	/** The stored loans by expiry key */
+	private final ConcurrentSkipListMap<Long, Loan> loans = new ConcurrentSkipListMap<Long, Loan>();
+	/** The highest ID number ever stored */
+	private int highestIDNumber;
+
+	@Override
+	public void addMember(Member member) {
+		members.add(member);
+		highestIDNumber = Math.max(highestIDNumber, member.getIDNumber());
+	}
+
+	@Override
+	public void removeMember(Member member) {
+		members.remove(member);
+	}
+
+	@Override
+	public List<Member> getMembers() {
+		return members;
+	}
+
+	@Override
+	public void addBook(Book book) {
+		books.add(book);
+		highestIDNumber = Math.max(highestIDNumber, book.getIDNumber());
+	}
+
+	@Override
+	public void removeBook(Book book) {
+		books.remove(book);
+	}
+
+	@Override
+	public List<Book> getBooks() {
+		return books;
+	}
+
+	@Override
+	public void addLoan(Loan loan) {
+		loans.put(Library.toExpiryKey(loan), loan);
+	}
+
+	@Override
+	public void removeLoan(Loan loan) {
+		loans.remove(Library.toExpiryKey(loan), loan);
+	}
+
+	@Override
+	public Collection<Loan> getLoans() {
+		return loans.values();
+	}
+
+	@Override
+	public Collection<Loan> getLoansExpiringBefore(long epochDay) {
+		return loans.headMap(Library.toExpiryKey(epochDay, 0)).values();
+	}
+
+	@Override
+	public int getHighestIDNumber() {
+		return highestIDNumber;
+	}
+
+	/**
+	 * Does nothing, since nothing is held outside the heap
+	 *
+	 * @throws IOException - If a subclass cannot close what it holds
+	 */
+	@Override
+	public void close() throws IOException {
+	}
+}
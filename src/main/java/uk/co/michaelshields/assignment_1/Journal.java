@@ -0,0 +1,866 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * An append-only write-ahead journal of the changes made to a library, so
+ * that the library can be restored after a restart.
+ *
+ * Each change is appended as a compact binary record: its length, a CRC32
+ * checksum and its body, which is a type byte followed by the change's ID
+ * numbers, details or epoch days. Records are appended to an in memory
+ * batch while the library's locks are held, in the order the changes were
+ * made, and are written and flushed to disk by commit once the locks have
+ * been released.
+ *
+ * Commits are grouped: the first thread to commit writes and flushes every
+ * record appended so far, and threads committing while it flushes wait for
+ * it and then flush the records appended in the meantime together, so one
+ * flush to disk makes many threads' changes durable at once.
+ *
+ * When a journal is opened its records are read back, and replaying them
+ * into an empty library restores the library. A record that was only
+ * partly written when the process stopped (so its checksum does not match)
+ * ends the journal, and is cut off so that new records follow the last
+ * whole one.
+ *
+ * So that a library with a long history restarts quickly, the journal can
+ * be checkpointed. The records written so far are sealed into a segment
+ * file of their own (the journal's file name followed by the segment's
+ * generation, e.g. library.journal.3) and new records go to a fresh journal
+ * file. A checkpoint of the library's members, books, loans and ID number
+ * high water mark, as they were when the segment was sealed, is then
+ * written to the journal's file name followed by .checkpoint, and the
+ * segments it covers are deleted. When the journal is opened the
+ * checkpoint is loaded and only the segments sealed after it, and the
+ * journal file, are replayed.
+ *
+ * @see <a href="Library.html">Library</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class Journal implements Closeable {
+	/** The type of a record of a member being added */
+	static final byte ADD_MEMBER = 1;
+	/** The type of a record of a member being removed */
+	static final byte REMOVE_MEMBER = 2;
+	/** The type of a record of a book being added */
+	static final byte ADD_BOOK = 3;
+	/** The type of a record of a book being removed */
+	static final byte REMOVE_BOOK = 4;
+	/** The type of a record of a loan being added */
+	static final byte ADD_LOAN = 5;
+	/** The type of a record of a loan being removed */
+	static final byte REMOVE_LOAN = 6;
+
+	/** The number at the start of every checkpoint file ("LIBC") */
+	private static final int CHECKPOINT_MAGIC = 0x4C494243;
+	/** The size of the buffers a checkpoint is written and read through */
+	private static final int CHECKPOINT_BUFFER_SIZE = 1 << 16;
+
+	/** The size of a record's length and checksum */
+	private static final int HEADER_SIZE = 2 * Integer.BYTES;
+	/** The largest record body that is read back */
+	private static final int MAX_RECORD_SIZE = 1 << 20;
+
+	/** The journal file's path */
+	private final Path path;
+	/** The checkpoint file's path */
+	private final Path checkpointPath;
+	/** The journal file */
+	private FileChannel file;
+	/** The generation the journal file will have when it is sealed */
+	private int generation;
+	/** The generation of the last segment covered by the checkpoint, or 0 */
+	private int checkpointGeneration;
+	/** The position in the journal at which the journal file started */
+	private long segmentStart;
+	/** The records appended but not yet written */
+	private final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+	/** The position in the journal after each thread's last record */
+	private final ThreadLocal<long[]> lastAppended = ThreadLocal.withInitial(() -> new long[1]);
+	/** The position in the journal after the last record appended */
+	private long appended;
+	/** The position up to which the journal has been flushed to disk */
+	private long durable;
+	/** Indicates that a thread is writing and flushing a batch */
+	private boolean flushing;
+	/** The number of times the journal has been flushed to disk */
+	private long flushCount;
+	/** The error that stopped the journal being written, or null */
+	private IOException failure;
+	/** The records read back when the journal was opened */
+	private final byte[] existing;
+	/** The number of records read back when the journal was opened */
+	private int existingCount;
+
+	/**
+	 * Constructor:
+	 * Opens the journal in the provided file, creating the file if it does
+	 * not exist, and reads back the records of it and of any segments sealed
+	 * since the last checkpoint, so they can be replayed after the
+	 * checkpoint. Segments the checkpoint already covers (left behind if
+	 * the process stopped while checkpointing) are deleted.
+	 *
+	 * @param path - The journal file (Path)
+	 *
+	 * @throws IllegalArgumentException - If the path is null
+	 *
+	 * @throws IOException - If the files cannot be opened or read, or a
+	 *                       sealed segment or the checkpoint is damaged
+	 */
+	public Journal(Path path) throws IllegalArgumentException, IOException {
+		// Guard clause that prevents journalling to a missing file
+		if (path == null) {
+			throw new IllegalArgumentException("The journal file cannot be null");
+		}
+
+		this.path = path.toAbsolutePath();
+		this.checkpointPath = sibling(".checkpoint");
+		checkpointGeneration = readCheckpointGeneration();
+
+		// Read back the segments sealed since the checkpoint, in order
+		ByteArrayOutputStream records = new ByteArrayOutputStream();
+		generation = checkpointGeneration + 1;
+		for (Map.Entry<Integer, Path> segment : findSegments().entrySet()) {
+			if (segment.getKey() <= checkpointGeneration) {
+				Files.delete(segment.getValue());
+				continue;
+			}
+			try (FileChannel sealed = FileChannel.open(segment.getValue(),
+					StandardOpenOption.READ)) {
+				byte[] segmentRecords = readRecords(sealed);
+				if (segmentRecords.length != sealed.size()) {
+					throw new IOException("The journal segment " + segment.getValue()
+							+ " is damaged");
+				}
+				records.write(segmentRecords);
+			}
+			generation = segment.getKey() + 1;
+		}
+
+		file = FileChannel.open(this.path, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		byte[] active;
+		try {
+			active = readRecords(file);
+		} catch (IOException | RuntimeException e) {
+			file.close();
+			throw e;
+		}
+		records.write(active);
+		existing = records.toByteArray();
+
+		// Cut off any partly written record, so that new records
+		// follow the last whole one
+		file.truncate(active.length);
+		file.position(active.length);
+		appended = active.length;
+		durable = active.length;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of records read back when the journal was opened
+	 *
+	 * @return count - The number of records (int)
+	 */
+	public int getReplayedCount() {
+		return existingCount;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the size of the journal, including records not yet written
+	 *
+	 * @return size - The size in bytes (long)
+	 */
+	public synchronized long size() {
+		return appended;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of times the journal has been flushed to disk,
+	 * which grouping keeps below the number of commits
+	 *
+	 * @return flushCount - The number of flushes (long)
+	 */
+	public synchronized long getFlushCount() {
+		return flushCount;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Indicates whether there are records that the checkpoint does not yet
+	 * cover, in the journal file or in sealed segments
+	 *
+	 * @return uncheckpointed - Whether a checkpoint would cover new records
+	 *                          (boolean)
+	 */
+	public synchronized boolean hasUncheckpointedRecords() {
+		return appended > segmentStart || generation - 1 > checkpointGeneration;
+	}
+
+	/**
+	 * Appends a record of a member being added
+	 *
+	 * @param member - The member, with their ID number (Member)
+	 */
+	void recordAddMember(Member member) {
+		RecordBody body = newBody(ADD_MEMBER);
+		try {
+			writeMember(body, member);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		append(body);
+	}
+
+	/**
+	 * Appends a record of a member being removed
+	 *
+	 * @param idNumber - The member's ID number (int)
+	 */
+	void recordRemoveMember(int idNumber) {
+		append(newBody(REMOVE_MEMBER, idNumber));
+	}
+
+	/**
+	 * Appends a record of a book being added
+	 *
+	 * @param book - The book, with its ID number (Book)
+	 */
+	void recordAddBook(Book book) {
+		RecordBody body = newBody(ADD_BOOK);
+		try {
+			writeBook(body, book);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		append(body);
+	}
+
+	/**
+	 * Appends a record of a book being removed
+	 *
+	 * @param idNumber - The book's ID number (int)
+	 */
+	void recordRemoveBook(int idNumber) {
+		append(newBody(REMOVE_BOOK, idNumber));
+	}
+
+	/**
+	 * Appends a record of a loan being added
+	 *
+	 * @param loan - The loan (Loan)
+	 */
+	void recordAddLoan(Loan loan) {
+		append(newBody(ADD_LOAN, loan.getMemberIDNumber(), loan.getBookIDNumber(),
+				loan.getIssueEpochDay(), loan.getExpiryEpochDay()));
+	}
+
+	/**
+	 * Appends a record of a loan being removed
+	 *
+	 * @param loan - The loan (Loan)
+	 */
+	void recordRemoveLoan(Loan loan) {
+		append(newBody(REMOVE_LOAN, loan.getMemberIDNumber(), loan.getBookIDNumber()));
+	}
+
+	/**
+	 * Waits until every record the calling thread has appended has been
+	 * flushed to disk, writing and flushing them (and any other records
+	 * appended so far) itself unless another thread is already doing so
+	 *
+	 * @throws UncheckedIOException - If the journal cannot be written
+	 */
+	public void commit() throws UncheckedIOException {
+		long position = lastAppended.get()[0];
+		byte[] records;
+		long end;
+		FileChannel channel;
+
+		synchronized (this) {
+			while (true) {
+				if (failure != null) {
+					throw new UncheckedIOException("The journal could not be written", failure);
+				}
+				if (durable >= position) {
+					return;
+				}
+				if (!flushing) {
+					break;
+				}
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted waiting for the journal", e);
+				}
+			}
+
+			// Lead the next group: take every record appended so far
+			flushing = true;
+			records = batch.toByteArray();
+			batch.reset();
+			end = appended;
+			channel = file;
+		}
+
+		IOException error = null;
+		try {
+			writeFully(channel, records);
+			channel.force(false);
+		} catch (IOException e) {
+			error = e;
+		}
+
+		synchronized (this) {
+			flushing = false;
+			if (error == null) {
+				durable = end;
+				flushCount++;
+			} else {
+				failure = error;
+			}
+			notifyAll();
+		}
+
+		if (error != null) {
+			throw new UncheckedIOException("The journal could not be written", error);
+		}
+	}
+
+	/**
+	 * Seals the journal file into a segment, once every record appended to
+	 * it has been written and flushed to disk, and starts a new journal
+	 * file. The library's lock must be held, so that the segment ends at a
+	 * point that a checkpoint of the library can be taken at.
+	 *
+	 * @return generation - The sealed segment's generation (int)
+	 *
+	 * @throws IOException - If the journal cannot be written or sealed, after
+	 *                       which it can no longer be written
+	 */
+	synchronized int seal() throws IOException {
+		// Wait for any group being flushed, so that its records are
+		// written to the file being sealed
+		while (flushing) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted waiting for the journal", e);
+			}
+		}
+		if (failure != null) {
+			throw new IOException("The journal could not be written", failure);
+		}
+
+		try {
+			writeFully(file, batch.toByteArray());
+			file.force(false);
+			batch.reset();
+			durable = appended;
+			flushCount++;
+			notifyAll();
+
+			file.close();
+			Files.move(path, sibling("." + generation), StandardCopyOption.ATOMIC_MOVE);
+			file = FileChannel.open(path, StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		} catch (IOException e) {
+			failure = e;
+			notifyAll();
+			throw e;
+		}
+
+		segmentStart = appended;
+		return generation++;
+	}
+
+	/**
+	 * Writes a checkpoint of the provided view of a library, taken when the
+	 * segment of the provided generation was sealed, and deletes the
+	 * segments it covers. The checkpoint is written to a temporary file,
+	 * flushed to disk and then moved over the previous checkpoint, so there
+	 * is always one whole checkpoint. The library can be changed while the
+	 * checkpoint is written.
+	 *
+	 * @param sealedGeneration - The generation of the segment sealed when the
+	 *                           view was taken (int)
+	 *
+	 * @param view - The library's books, members and loans (LibrarySnapshot)
+	 *
+	 * @param highWaterMark - The library's ID number high water mark (int)
+	 *
+	 * @throws IOException - If the checkpoint cannot be written
+	 */
+	void writeCheckpoint(int sealedGeneration, LibrarySnapshot view, int highWaterMark)
+			throws IOException {
+		Path temporary = sibling(".checkpoint.tmp");
+		CRC32 crc = new CRC32();
+		try (FileOutputStream fileOut = new FileOutputStream(temporary.toFile())) {
+			DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+					new BufferedOutputStream(fileOut, CHECKPOINT_BUFFER_SIZE), crc));
+			out.writeInt(CHECKPOINT_MAGIC);
+			out.writeInt(sealedGeneration);
+			out.writeInt(highWaterMark);
+			out.writeInt(view.getMembers().size());
+			for (Member member : view.getMembers()) {
+				writeMember(out, member);
+			}
+			out.writeInt(view.getBooks().size());
+			for (Book book : view.getBooks()) {
+				writeBook(out, book);
+			}
+			out.writeInt(view.getLoans().size());
+			for (Loan loan : view.getLoans()) {
+				writeLoan(out, loan);
+			}
+			out.flush();
+			// The checksum covers everything before it
+			out.writeLong(crc.getValue());
+			out.flush();
+			fileOut.getFD().sync();
+		}
+		Files.move(temporary, checkpointPath, StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+
+		synchronized (this) {
+			checkpointGeneration = Math.max(checkpointGeneration, sealedGeneration);
+		}
+		for (Map.Entry<Integer, Path> segment : findSegments().entrySet()) {
+			if (segment.getKey() <= sealedGeneration) {
+				Files.deleteIfExists(segment.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Replays the checkpoint, if there is one, and then the records read
+	 * back when the journal was opened into the provided library, which
+	 * should be empty and not yet journalled
+	 *
+	 * @param library - The library (Library)
+	 *
+	 * @throws IllegalStateException - If the checkpoint or a record cannot be
+	 *                                 replayed
+	 */
+	void replay(Library library) throws IllegalStateException {
+		int highestIDNumber = 0;
+		if (checkpointGeneration > 0) {
+			try {
+				highestIDNumber = loadCheckpoint(library);
+			} catch (Exception e) {
+				throw new IllegalStateException("Could not load the checkpoint: "
+						+ e.getMessage(), e);
+			}
+		}
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(existing));
+		try {
+			while (in.available() > 0) {
+				in.skipBytes(HEADER_SIZE);
+				byte type = in.readByte();
+				// Every record starts with an ID number (a loan's
+				// starts with its member's)
+				int idNumber = in.readInt();
+				highestIDNumber = Math.max(highestIDNumber, idNumber);
+				switch (type) {
+					case ADD_MEMBER :
+						library.restoreMember(readMember(in, idNumber));
+						break;
+					case REMOVE_MEMBER :
+						library.removeMemberByID(idNumber);
+						break;
+					case ADD_BOOK :
+						library.restoreBook(readBook(in, idNumber));
+						break;
+					case REMOVE_BOOK :
+						library.removeBookByID(idNumber);
+						break;
+					case ADD_LOAN :
+						library.restoreLoan(idNumber, in.readInt(),
+								LocalDate.ofEpochDay(in.readInt()),
+								LocalDate.ofEpochDay(in.readInt()));
+						break;
+					case REMOVE_LOAN :
+						library.removeLoan(library.getMemberByID(idNumber),
+								library.getBookByID(in.readInt()));
+						break;
+					default :
+						throw new IllegalStateException("Unknown journal record type " + type);
+				}
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("Could not replay the journal: " + e.getMessage(), e);
+		}
+
+		library.reserveIDNumbersThrough(highestIDNumber);
+	}
+
+	/**
+	 * Writes any records not yet written and closes the journal file
+	 *
+	 * @throws IOException - If the file cannot be written or closed
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			synchronized (this) {
+				lastAppended.get()[0] = appended;
+			}
+			commit();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * A utility method that loads the checkpoint into a library
+	 *
+	 * @param library - The library (Library)
+	 *
+	 * @return highWaterMark - The ID number high water mark (int)
+	 *
+	 * @throws Exception - If the checkpoint is damaged or cannot be loaded
+	 */
+	private int loadCheckpoint(Library library) throws Exception {
+		CRC32 crc = new CRC32();
+		try (InputStream fileIn = Files.newInputStream(checkpointPath)) {
+			DataInputStream in = new DataInputStream(new CheckedInputStream(
+					new BufferedInputStream(fileIn, CHECKPOINT_BUFFER_SIZE), crc));
+			in.readInt();
+			in.readInt();
+			int highWaterMark = in.readInt();
+			for (int i = in.readInt(); i > 0; i--) {
+				library.restoreMember(readMember(in, in.readInt()));
+			}
+			for (int i = in.readInt(); i > 0; i--) {
+				library.restoreBook(readBook(in, in.readInt()));
+			}
+			for (int i = in.readInt(); i > 0; i--) {
+				library.restoreLoan(in.readInt(), in.readInt(),
+						LocalDate.ofEpochDay(in.readInt()), LocalDate.ofEpochDay(in.readInt()));
+			}
+
+			long checksum = crc.getValue();
+			if (in.readLong() != checksum) {
+				throw new IOException("The checkpoint is damaged");
+			}
+			return highWaterMark;
+		}
+	}
+
+	/**
+	 * A utility method that reads the generation of the last segment the
+	 * checkpoint covers
+	 *
+	 * @return generation - The generation, or 0 if there is no checkpoint (int)
+	 *
+	 * @throws IOException - If the checkpoint cannot be read
+	 */
+	private int readCheckpointGeneration() throws IOException {
+		if (!Files.exists(checkpointPath)) {
+			return 0;
+		}
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(checkpointPath))) {
+			if (in.readInt() != CHECKPOINT_MAGIC) {
+				throw new IOException(checkpointPath + " is not a checkpoint");
+			}
+			return in.readInt();
+		}
+	}
+
+	/**
+	 * A utility method that finds the journal's sealed segments
+	 *
+	 * @return segments - The segments' paths by generation
+	 *                    (TreeMap<Integer, Path>)
+	 *
+	 * @throws IOException - If the journal's directory cannot be read
+	 */
+	private TreeMap<Integer, Path> findSegments() throws IOException {
+		TreeMap<Integer, Path> segments = new TreeMap<Integer, Path>();
+		String prefix = path.getFileName() + ".";
+		try (DirectoryStream<Path> siblings = Files.newDirectoryStream(path.getParent(),
+				path.getFileName() + ".*")) {
+			for (Path sibling : siblings) {
+				String suffix = sibling.getFileName().toString().substring(prefix.length());
+				if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+					segments.put(Integer.parseInt(suffix), sibling);
+				}
+			}
+		}
+		return segments;
+	}
+
+	/**
+	 * A utility method that returns the path of a file next to the journal
+	 * file, named after it
+	 *
+	 * @param suffix - The suffix added to the journal file's name (String)
+	 *
+	 * @return path - The file's path (Path)
+	 */
+	private Path sibling(String suffix) {
+		return path.resolveSibling(path.getFileName() + suffix);
+	}
+
+	/**
+	 * A utility method that writes a member's ID number and details
+	 *
+	 * @param out - Where they are written (DataOutput)
+	 *
+	 * @param member - The member (Member)
+	 *
+	 * @throws IOException - If they cannot be written
+	 */
+	static void writeMember(DataOutput out, Member member) throws IOException {
+		out.writeInt(member.getIDNumber());
+		out.writeUTF(member.getFirstName());
+		out.writeUTF(member.getLastName());
+		out.writeUTF(member.getEmail());
+		out.writeUTF(member.getPhoneNumber());
+	}
+
+	/**
+	 * A utility method that writes a book's ID number and details
+	 *
+	 * @param out - Where they are written (DataOutput)
+	 *
+	 * @param book - The book (Book)
+	 *
+	 * @throws IOException - If they cannot be written
+	 */
+	static void writeBook(DataOutput out, Book book) throws IOException {
+		out.writeInt(book.getIDNumber());
+		out.writeUTF(book.getAuthor());
+		out.writeUTF(book.getTitle());
+		out.writeUTF(book.getGenre());
+		out.writeUTF(book.getISBNNumber());
+	}
+
+	/**
+	 * A utility method that writes a loan's ID numbers and epoch days
+	 *
+	 * @param out - Where they are written (DataOutput)
+	 *
+	 * @param loan - The loan (Loan)
+	 *
+	 * @throws IOException - If they cannot be written
+	 */
+	static void writeLoan(DataOutput out, Loan loan) throws IOException {
+		out.writeInt(loan.getMemberIDNumber());
+		out.writeInt(loan.getBookIDNumber());
+		out.writeInt(loan.getIssueEpochDay());
+		out.writeInt(loan.getExpiryEpochDay());
+	}
+
+	/**
+	 * A utility method that reads a member's details, written after their ID
+	 * number by writeMember
+	 *
+	 * @param in - Where they are read from (DataInput)
+	 *
+	 * @param idNumber - The member's ID number (int)
+	 *
+	 * @return member - The member (Member)
+	 *
+	 * @throws Exception - If they cannot be read, or are not valid
+	 */
+	static Member readMember(DataInput in, int idNumber) throws Exception {
+		return new Member(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), idNumber);
+	}
+
+	/**
+	 * A utility method that reads a book's details, written after its ID
+	 * number by writeBook
+	 *
+	 * @param in - Where they are read from (DataInput)
+	 *
+	 * @param idNumber - The book's ID number (int)
+	 *
+	 * @return book - The book (Book)
+	 *
+	 * @throws Exception - If they cannot be read, or are not valid
+	 */
+	static Book readBook(DataInput in, int idNumber) throws Exception {
+		return new Book(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), idNumber);
+	}
+
+	/**
+	 * A utility method that writes the whole of an array to a file
+	 *
+	 * @param channel - The file (FileChannel)
+	 *
+	 * @param bytes - The bytes to be written (byte[])
+	 *
+	 * @throws IOException - If the file cannot be written
+	 */
+	private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * A utility method that starts a record body with its type
+	 *
+	 * @param type - The record's type (byte)
+	 *
+	 * @return body - The record body (RecordBody)
+	 */
+	private static RecordBody newBody(byte type) {
+		RecordBody body = new RecordBody();
+		try {
+			body.writeByte(type);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return body;
+	}
+
+	/**
+	 * A utility method that creates a record body of a type and whole numbers
+	 *
+	 * @param type - The record's type (byte)
+	 *
+	 * @param values - The record's whole numbers (int...)
+	 *
+	 * @return body - The record body (RecordBody)
+	 */
+	private static RecordBody newBody(byte type, int... values) {
+		RecordBody body = newBody(type);
+		try {
+			for (int value : values) {
+				body.writeInt(value);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return body;
+	}
+
+	/**
+	 * A utility method that appends a record, framed by its length and
+	 * checksum, to the batch waiting to be written
+	 *
+	 * @param body - The record body (RecordBody)
+	 */
+	private void append(RecordBody body) {
+		byte[] bytes = body.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length);
+
+		ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + bytes.length);
+		record.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+
+		synchronized (this) {
+			batch.write(record.array(), 0, record.capacity());
+			appended += record.capacity();
+			lastAppended.get()[0] = appended;
+		}
+	}
+
+	/**
+	 * A utility method that reads back the whole records at the start of
+	 * a journal file or segment
+	 *
+	 * @param file - The journal file or segment (FileChannel)
+	 *
+	 * @return records - The whole records (byte[])
+	 *
+	 * @throws IOException - If the file cannot be read
+	 */
+	private byte[] readRecords(FileChannel file) throws IOException {
+		long size = file.size();
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("The journal is too large to be read");
+		}
+		ByteBuffer contents = ByteBuffer.allocate((int) size);
+		while (contents.hasRemaining() && file.read(contents, contents.position()) >= 0) {
+			// Keep reading until the whole file has been read
+		}
+		contents.flip();
+
+		// Check each record's length and checksum, stopping at the first
+		// that was only partly written
+		CRC32 crc = new CRC32();
+		int end = 0;
+		while (contents.remaining() >= HEADER_SIZE) {
+			int length = contents.getInt();
+			int checksum = contents.getInt();
+			if (length <= 0 || length > MAX_RECORD_SIZE || length > contents.remaining()) {
+				break;
+			}
+			crc.reset();
+			crc.update(contents.array(), contents.position(), length);
+			if ((int) crc.getValue() != checksum) {
+				break;
+			}
+			contents.position(contents.position() + length);
+			end = contents.position();
+			existingCount++;
+		}
+
+		byte[] records = new byte[end];
+		System.arraycopy(contents.array(), 0, records, 0, end);
+		return records;
+	}
+
+	/**
+	 * A record body being written
+	 */
+	private static class RecordBody extends DataOutputStream {
+		/**
+		 * Constructor:
+		 * Instantiates an empty record body
+		 */
+		private RecordBody() {
+			super(new ByteArrayOutputStream(64));
+		}
+
+		/**
+		 * Returns the bytes written to the body
+		 *
+		 * @return bytes - The body (byte[])
+		 */
+		private byte[] toByteArray() {
+			return ((ByteArrayOutputStream) out).toByteArray();
+		}
+	}
+}
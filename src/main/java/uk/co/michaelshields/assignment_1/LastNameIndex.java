@@ -0,0 +1,104 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+/**
+ * A sorted index of members by their case folded last names, used to find
+ * the members whose last names start with a prefix without checking every
+ * member.
+ *
+ * Because the last names are kept in sorted order, the last names starting
+ * with a prefix form one contiguous range of the index, so a prefix search
+ * only visits the members that match.
+ *
+ * @see <a href="Member.html">Member</a>
+ * @see <a href="Library.html">Library</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class LastNameIndex {
+	/** The members with each case folded last name, in the order added */
+	private TreeMap<String, List<Member>> members = new TreeMap<>();
+
+	/**
+	 * Mutator Method:
+	 * Adds a member to the index
+	 *
+	 * @param member - The member (Member)
+	 */
+	public void add(Member member) {
+		String key = fold(member.getLastName());
+		List<Member> sameName = members.get(key);
+		if (sameName == null) {
+			sameName = new ArrayList<>(1);
+			members.put(key, sameName);
+		}
+		sameName.add(member);
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes a member from the index
+	 *
+	 * @param member - The member, with the last name they were added with
+	 *                 (Member)
+	 */
+	public void remove(Member member) {
+		String key = fold(member.getLastName());
+		List<Member> sameName = members.get(key);
+		if (sameName != null) {
+			sameName.remove(member);
+			// Drop last names that no member has any more
+			if (sameName.isEmpty()) {
+				members.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the members whose last names start with the prefix (case
+	 * insensitive), ordered by last name
+	 *
+	 * @param prefix - The start of the last name (String)
+	 *
+	 * @return members - The matching members (List<Member>)
+	 *
+	 * @throws IllegalArgumentException - If the prefix is null or empty
+	 */
+	public List<Member> withPrefix(String prefix) throws IllegalArgumentException {
+		// Guard clause that prevents searching without a prefix
+		if (prefix == null || prefix.isEmpty()) {
+			throw new IllegalArgumentException(
+					"Cannot search last names without a prefix");
+		}
+
+		String from = fold(prefix);
+		// Every last name starting with the prefix sorts before the prefix
+		// followed by the highest character
+		String to = from + Character.MAX_VALUE;
+
+		List<Member> matches = new ArrayList<>();
+		for (List<Member> sameName : members.subMap(from, true, to, false).values()) {
+			matches.addAll(sameName);
+		}
+
+		return matches;
+	}
+
+	/**
+	 * A utility method that case folds a last name so that searches are case
+	 * insensitive
+	 *
+	 * @param lastName - The last name (String)
+	 *
+	 * @return folded - The case folded last name (String)
+	 */
+	private static String fold(String lastName) {
+		return lastName.toLowerCase(Locale.ROOT);
+	}
+}
@@ -1,19 +1,54 @@
 package uk.co.michaelshields.assignment_1;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.NoSuchElementException;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import java.util.regex.Matcher;
 import java.time.LocalDate;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * A class that models a library management system with 
  * functionality to manage collections of Books, Members and Loans.
  * 
+ * A library may be shared between threads. Its Mutator methods are
+ * serialised by a lock, while its Accessor methods and searches run
+ * alongside one another. The collections returned by its Accessor methods
+ * are copies, so they can be iterated while the library changes.
+ * 
+ * Loans are the exception: they are added and removed alongside one another
+ * and alongside the Accessor methods. Each book has a slot holding its loan,
+ * and a book is loaned by setting its empty slot with a compare and set, so
+ * of two desks loaning the same book at once exactly one succeeds, and desks
+ * loaning different books never wait for each other.
+ * 
+ * Displays and reports that take a while should read a snapshot of the
+ * library (see the Library's getSnapshot method), which does not change
+ * while it is read and does not hold up the library's writers.
+ * 
  * @see <a href="Book.html">Book</a>
  * @see <a href="Member.html">Member</a>
  * @see <a href="Loan.html">Loan</a>
@@ -22,22 +57,111 @@ import java.util.List;
  * @version 1.0
  */
 public class Library {
-	/** A collection that stores the books that the library owns */
-	private ArrayList<Book> books;
-	/** A collection that keeps track of the the library's members */
-	private ArrayList<Member> members;
 	/**
-	 * A collection that keeps track of which books are loaned and to which
-	 * members
+	 * The repository that stores the library's books, members and loans,
+	 * which the indexes below are kept alongside
+	 * 
+	 * @see <a href="LibraryRepository.html">LibraryRepository</a>
+	 */
+	private LibraryRepository repository;
+	/** A primary key index of the library's members by ID number */
+	private IDIndex<Member> memberIndex;
+	/** A primary key index of the library's books by ID number */
+	private IDIndex<Book> bookIndex;
+	/**
+	 * A unique index of the library's members by their case folded email
+	 * address
+	 */
+	private HashMap<String, Member> emailIndex;
+	/** A unique index of the library's books by their ISBN-13 number */
+	private HashMap<String, Book> isbnIndex;
+	/**
+	 * An index of the slot holding each book's loan by the ID number of the
+	 * book (a slot is empty while its book is not on loan)
+	 */
+	private IDIndex<AtomicReference<Loan>> loansByBook;
+	/**
+	 * The number of loans of each member by their ID number (members who
+	 * have never borrowed a book have no entry)
+	 */
+	private ConcurrentHashMap<Integer, AtomicInteger> loanCountsByMember;
+	/**
+	 * An optional disk resident tree that holds the library's loans in
+	 * place of the repository, the slots and the loan counts, so that the
+	 * memory they take does not grow with the number of loans (null when
+	 * loans are held on the heap)
+	 */
+	private LoanTree loanTree;
+	/** A trigram index of the library's book titles */
+	private TitleIndex titleIndex;
+	/** A sorted index of the library's members by last name */
+	private LastNameIndex lastNameIndex;
+	/**
+	 * An optional off-heap store that holds the library's members in place of
+	 * the members collection and its indexes (null when members are held on
+	 * the heap)
+	 */
+	private MemberStore memberStore;
+	/**
+	 * An optional memory mapped catalogue holding books the library owned
+	 * when it was opened, which are read from the catalogue rather than held
+	 * in the books collection and its indexes (null when every book is held
+	 * on the heap)
 	 */
-	private ArrayList<Loan> loans;
+	private MappedCatalog catalog;
+	/** The catalogue's records whose books have been removed */
+	private BitSet removedCatalogRecords;
+	/** The number of the catalogue's books that have been removed */
+	private int removedCatalogCount;
 	/**
-	 * An integer used to keep track of ID number sequencing 
+	 * The catalogue's books that are in use, by ID number, so that a book is
+	 * the same Book for as long as anything (a caller, a loan or a snapshot)
+	 * holds it. The books are held weakly, so a book nothing holds is
+	 * collected and created again the next time it is asked for, and asking
+	 * for every book does not keep every book on the heap.
+	 */
+	private ConcurrentHashMap<Integer, CatalogBookReference> catalogBooks;
+	/** The queue that collected catalogue books' references are put on */
+	private ReferenceQueue<Book> collectedCatalogBooks;
+	/**
+	 * The slot holding the loan of each of the catalogue's books that has
+	 * been loaned, by ID number
+	 */
+	private ConcurrentHashMap<Integer, AtomicReference<Loan>> catalogSlots;
+	/**
+	 * The allocator that issues the library's ID numbers
 	 * (see the Library's getNextIDNumber method)
 	 */
-	private int nextIDNumber;
+	private IDAllocator idAllocator;
+	/**
+	 * An optional journal that the library's changes are recorded in, so
+	 * that the library can be restored after a restart (null when changes
+	 * are not recorded)
+	 */
+	private Journal journal;
+	/** The lock that lets one checkpoint of the library be written at a time */
+	private final Object checkpointLock = new Object();
 	/** An integer that represents the duration of loans in days */
 	private int loanDurationInDays;
+	/**
+	 * The lock that guards the library's collections and indexes. Writes
+	 * take the write lock, searches take the read lock and lookups by ID
+	 * number read optimistically, without locking, and only take the read
+	 * lock if a write interferes.
+	 */
+	private final StampedLock lock = new StampedLock();
+	/** The number of books added or removed (only changed under the write lock) */
+	private volatile long booksVersion;
+	/** The number of members added or removed (only changed under the write lock) */
+	private volatile long membersVersion;
+	/** The number of loans added or removed */
+	private final LongAdder loansVersion = new LongAdder();
+	/** The most recent snapshot of the library, or null */
+	private volatile LibrarySnapshot snapshot;
+	/** The number of times a snapshot is copied under the read lock before the write lock is taken */
+	private static final int SNAPSHOT_ATTEMPTS = 3;
+	/** The number of loans read from the loan tree at a time by forEachLoan */
+	private static final int LOAN_BATCH_SIZE = 1024;
 
 	/**
 	 * Constructor: 
@@ -47,20 +171,228 @@ public class Library {
 	 * 
 	 */
 	public Library() {
-		// Assign an empty ArrayList to contain instances of the Book class
-		books = new ArrayList<Book>();
-		// Assign an empty ArrayList to contain instances of the Member class
-		members = new ArrayList<Member>();
-		// Assign an empty ArrayList to contain instances of the Loan class
-		loans = new ArrayList<Loan>();
-		// Set the starting point of the ID number sequencing
-		// (initialised to 0, therefore the first ID Number issued will be 1
+		// Assign an empty in memory repository to store the books, members
+		// and loans
+		repository = new InMemoryRepository();
+		// Assign empty indexes to look up members and books by ID number
+		memberIndex = new IDIndex<Member>();
+		bookIndex = new IDIndex<Book>();
+		// Assign empty indexes to detect duplicate emails and ISBN numbers
+		emailIndex = new HashMap<String, Member>();
+		isbnIndex = new HashMap<String, Book>();
+		// Assign empty indexes to look up loans by book and by member
+		loansByBook = new IDIndex<AtomicReference<Loan>>();
+		loanCountsByMember = new ConcurrentHashMap<Integer, AtomicInteger>();
+		// Assign an empty index to search book titles
+		titleIndex = new TitleIndex();
+		// Assign an empty index to search member's last names
+		lastNameIndex = new LastNameIndex();
+		// Assign an ID number allocator with an in memory high water mark
+		// (the first ID Number issued will be 1
 		// see the library's getNextIDNumber method)
-		nextIDNumber = 0;
+		idAllocator = new IDAllocator();
 		// Set the loan duration to 21 days
 		loanDurationInDays = 21;
 	}
 
+	/**
+	 * Constructor: 
+	 * Instantiates Library objects that hold their members in the provided
+	 * off-heap member store rather than on the heap. Members added to the
+	 * library are copied into the store, and the library's Accessor methods
+	 * return views of the stored members.
+	 * 
+	 * @see <a href="MemberStore.html">MemberStore</a>
+	 * 
+	 * @param memberStore - An empty member store (MemberStore)
+	 * 
+	 * @throws IllegalArgumentException - If the member store is null or 
+	 *                                    already holds members
+	 */
+	public Library(MemberStore memberStore) throws IllegalArgumentException {
+		this();
+
+		// Guard clause that prevents the library from using a missing store
+		if (memberStore == null) {
+			throw new IllegalArgumentException("The member store cannot be null");
+		}
+
+		// Guard clause that prevents members being shared between libraries
+		if (memberStore.size() > 0) {
+			throw new IllegalArgumentException("The member store must be empty");
+		}
+
+		this.memberStore = memberStore;
+	}
+
+	/**
+	 * Constructor: 
+	 * Instantiates Library objects that own the books of the provided memory
+	 * mapped catalogue. The catalogue's books are read from it as they are
+	 * needed, rather than loaded when the library is opened, and a Book is
+	 * only created for a catalogue book when it is asked for. Books added to
+	 * and removed from the library afterwards are held in memory; the
+	 * catalogue file is not changed. ID numbers are issued after the
+	 * catalogue's.
+	 * 
+	 * @see <a href="MappedCatalog.html">MappedCatalog</a>
+	 * 
+	 * @param catalog - The catalogue (MappedCatalog)
+	 * 
+	 * @throws IllegalArgumentException - If the catalogue is null
+	 */
+	public Library(MappedCatalog catalog) throws IllegalArgumentException {
+		this();
+
+		// Guard clause that prevents the library from using a missing catalogue
+		if (catalog == null) {
+			throw new IllegalArgumentException("The catalogue cannot be null");
+		}
+
+		this.catalog = catalog;
+		removedCatalogRecords = new BitSet();
+		catalogBooks = new ConcurrentHashMap<Integer, CatalogBookReference>();
+		collectedCatalogBooks = new ReferenceQueue<Book>();
+		catalogSlots = new ConcurrentHashMap<Integer, AtomicReference<Loan>>();
+		idAllocator.reserveThrough(catalog.getHighestIDNumber());
+	}
+
+	/**
+	 * Constructor: 
+	 * Instantiates Library objects that store their books, members and loans
+	 * in the provided repository, for example one that keeps them in a file
+	 * so that the library is restored when it is opened again. Whatever the
+	 * repository already holds is indexed, and ID numbers are issued after
+	 * the highest one it has stored.
+	 * 
+	 * @see <a href="LibraryRepository.html">LibraryRepository</a>
+	 * 
+	 * @param repository - The repository (LibraryRepository)
+	 * 
+	 * @throws IllegalArgumentException - If the repository is null
+	 * 
+	 * @throws IllegalStateException - If the repository holds a book on loan
+	 *                                 twice
+	 */
+	public Library(LibraryRepository repository)
+			throws IllegalArgumentException, IllegalStateException {
+		this();
+
+		// Guard clause that prevents the library from using a missing repository
+		if (repository == null) {
+			throw new IllegalArgumentException("The repository cannot be null");
+		}
+
+		this.repository = repository;
+
+		// Index what the repository already holds
+		for (Member member : repository.getMembers()) {
+			indexMember(member);
+		}
+		for (Book book : repository.getBooks()) {
+			indexBook(book);
+		}
+		for (Loan loan : repository.getLoans()) {
+			if (!loansByBook.get(loan.getBookIDNumber()).compareAndSet(null, loan)) {
+				throw new IllegalStateException("The repository holds a book on loan twice");
+			}
+			countLoan(loan);
+		}
+		idAllocator.reserveThrough(repository.getHighestIDNumber());
+	}
+
+	/**
+	 * Constructor: 
+	 * Instantiates Library objects that store their books and members in
+	 * the provided repository, and their loans in the provided loan tree
+	 * rather than on the heap. A loan is read from the tree each time it is
+	 * asked for, so the Loan returned is a new object each time, and loans
+	 * are added and removed one at a time. The library does not close the
+	 * tree; its owner closes it once the library is no longer used.
+	 * 
+	 * @see <a href="LoanTree.html">LoanTree</a>
+	 * 
+	 * @param repository - The repository (LibraryRepository)
+	 * 
+	 * @param loanTree - The loan tree (LoanTree)
+	 * 
+	 * @throws IllegalArgumentException - If the repository or loan tree is
+	 *                                    null, or the repository holds loans
+	 * 
+	 * @throws IllegalStateException - If the repository holds a book on loan
+	 *                                 twice
+	 */
+	public Library(LibraryRepository repository, LoanTree loanTree)
+			throws IllegalArgumentException, IllegalStateException {
+		this(repository);
+
+		// Guard clause that prevents the library from using a missing tree
+		if (loanTree == null) {
+			throw new IllegalArgumentException("The loan tree cannot be null");
+		}
+
+		// Guard clause that prevents loans being held in two places
+		if (!repository.getLoans().isEmpty()) {
+			throw new IllegalArgumentException(
+					"The repository cannot hold loans when loans are held in a loan tree");
+		}
+
+		this.loanTree = loanTree;
+	}
+
+	/**
+	 * Constructor: 
+	 * Instantiates Library objects that issue ID numbers from the provided
+	 * allocator, for example one whose high water mark is persisted so that
+	 * ID numbers are not issued again after a restart, or are not issued by
+	 * two processes sharing the allocator's file
+	 * 
+	 * @see <a href="IDAllocator.html">IDAllocator</a>
+	 * 
+	 * @param idAllocator - The ID number allocator (IDAllocator)
+	 * 
+	 * @throws IllegalArgumentException - If the allocator is null
+	 */
+	public Library(IDAllocator idAllocator) throws IllegalArgumentException {
+		this();
+
+		// Guard clause that prevents the library from using a missing allocator
+		if (idAllocator == null) {
+			throw new IllegalArgumentException("The ID number allocator cannot be null");
+		}
+
+		this.idAllocator = idAllocator;
+	}
+
+	/**
+	 * Constructor: 
+	 * Instantiates Library objects that are restored from the provided
+	 * journal, by replaying its records, and then record every change to
+	 * their members, books and loans in it. Each change is durable by the
+	 * time the method that made it returns.
+	 * 
+	 * @see <a href="Journal.html">Journal</a>
+	 * 
+	 * @param journal - The journal (Journal)
+	 * 
+	 * @throws IllegalArgumentException - If the journal is null
+	 * 
+	 * @throws IllegalStateException - If the journal's records cannot be replayed
+	 */
+	public Library(Journal journal) throws IllegalArgumentException, IllegalStateException {
+		this();
+
+		// Guard clause that prevents the library from using a missing journal
+		if (journal == null) {
+			throw new IllegalArgumentException("The journal cannot be null");
+		}
+
+		// Replay the journal before recording changes in it, so that
+		// the replayed changes are not recorded twice
+		journal.replay(this);
+		this.journal = journal;
+	}
+
 	/**
 	 * Mutator Method:
 	 * Adds a member to the library's members collection<br>
@@ -74,6 +406,76 @@ public class Library {
 	 *                                    email matches an existing member's email
 	 */
 	public void addMember(Member member) throws IllegalArgumentException {
+		long stamp = lock.writeLock();
+		try {
+			insertMember(member, false);
+			if (journal != null) {
+				journal.recordAddMember(member);
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+			commitJournal();
+		}
+	}
+
+	/**
+	 * Mutator Method:
+	 * Adds each of the provided members to the library's members collection,
+	 * as one change to the library, issuing their ID numbers in the order of
+	 * the list. Each member is added or rejected on their own, so a member
+	 * that cannot be added does not stop the rest of the list.
+	 * 
+	 * @param newMembers - The members to be added (List<Member>)
+	 * 
+	 * @return errors - The error that stopped each member that was not
+	 *                  added, by their position in the list 
+	 *                  (Map<Integer, RuntimeException>)
+	 * 
+	 * @throws IllegalArgumentException - If the list is null
+	 */
+	public Map<Integer, RuntimeException> addMembers(List<Member> newMembers)
+			throws IllegalArgumentException {
+		// Guard clause that prevents a null list being provided
+		if (newMembers == null) {
+			throw new IllegalArgumentException("Cannot add members, members is null");
+		}
+
+		TreeMap<Integer, RuntimeException> errors = new TreeMap<Integer, RuntimeException>();
+		long stamp = lock.writeLock();
+		try {
+			for (int i = 0; i < newMembers.size(); i++) {
+				try {
+					insertMember(newMembers.get(i), false);
+					if (journal != null) {
+						journal.recordAddMember(newMembers.get(i));
+					}
+				} catch (IllegalArgumentException | IllegalStateException e) {
+					errors.put(i, e);
+				}
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+			commitJournal();
+		}
+
+		return errors;
+	}
+
+	/**
+	 * A utility method that issues an ID number to a member and adds them to
+	 * the members collection and its indexes. The caller must hold the
+	 * library's write lock.
+	 * 
+	 * @param member - A member (Member)
+	 * 
+	 * @param restoring - Whether the member is being restored from the
+	 *                    journal, keeping the ID number they were issued
+	 *                    before (boolean)
+	 * 
+	 * @throws IllegalArgumentException - If provided member is null or their 
+	 *                                    email matches an existing member's email
+	 */
+	private void insertMember(Member member, boolean restoring) throws IllegalArgumentException {
 		// Guard clause to prevent null values being added as members
 		if (member == null) {
 			throw new IllegalArgumentException("Cannot add null member");
@@ -86,20 +488,76 @@ public class Library {
 		}
 
 		// Issues an ID Number to the member
-		member.setIDNumber(getNextIDNumber());
+		if (!restoring) {
+			member.setIDNumber(idAllocator.next());
+		}
+
+		// Copies the member into the member store, if the library has one
+		if (memberStore != null) {
+			memberStore.add(member);
+			membersVersion++;
+			return;
+		}
+
+		// Stores the member in the library's repository
+		// and indexes them by their ID number
+		repository.addMember(member);
+		indexMember(member);
+		membersVersion++;
+	}
 
-		// Adds the member to the library's members collection
-		getMembers().add(member);
+	/**
+	 * A utility method that adds a stored member to the library's indexes
+	 * 
+	 * @param member - The member (Member)
+	 */
+	private void indexMember(Member member) {
+		memberIndex.put(member.getIDNumber(), member);
+		emailIndex.put(toEmailKey(member.getEmail()), member);
+		lastNameIndex.add(member);
 	}
 
 	/**
 	 * Accessor Method: 
-	 * Returns the members collection
+	 * Returns the members collection<br>
+	 * If the library holds its members in a member store, this is a new
+	 * collection of views of the stored members
 	 * 
 	 * @return members - The library's members (ArrayList<Member>)
 	 */
 	public ArrayList<Member> getMembers() {
-		return members;
+		long stamp = lock.readLock();
+		try {
+			return new ArrayList<Member>(allMembers());
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of members, without creating or copying them
+	 * 
+	 * @return memberCount - The number of members (int)
+	 */
+	public int getMemberCount() {
+		return optimisticRead(() -> memberStore != null ? memberStore.size()
+				: repository.getMembers().size());
+	}
+
+	/**
+	 * A utility method that returns the library's members: the repository's
+	 * members, or views of the stored members if the library has a member
+	 * store. The caller must hold the library's lock.
+	 * 
+	 * @return members - The library's members (List<Member>)
+	 */
+	private List<Member> allMembers() {
+		if (memberStore != null) {
+			return memberStore.getMembers();
+		}
+
+		return repository.getMembers();
 	}
 
 	/**
@@ -125,17 +583,16 @@ public class Library {
 		
 		// Guard clause to throw an error if the members collection
 		// is empty, terminating the method
-		if (getMembers().isEmpty()) {
+		if (!optimisticRead(() -> hasMembers())) {
 			throw new NoSuchElementException(
 					"The members collection is empty!");
 		}
 
-		// Search the members collection for the member
-		// with the provided ID Number and return them
-		for (Member member : getMembers()) {
-			if (member.getIDNumber() == idNumber) {
-				return member;
-			}
+		// Look up the member with the provided ID Number 
+		// in the members index and return them
+		Member member = optimisticRead(() -> lookUpMember(idNumber));
+		if (member != null) {
+			return member;
 		}
 
 		// Throw an error if not member was found
@@ -182,13 +639,12 @@ public class Library {
 		// so that it can be inserted into the Exception message below
 	    String className = collection.get(0).getClass().getSimpleName();
 
-	    // Iterate the collection, searching for the object with 
-	    // the ID number and return it if found
-	    for (T object : collection) {
-	        if (object.getIDNumber() == idNumber) {
-	            object.displayDetails();
-	            return;
-	        }
+	    // Search the collection for the object with 
+	    // the ID number and display it if found
+	    T object = findByID(collection, idNumber);
+	    if (object != null) {
+	        object.displayDetails();
+	        return;
 	    }
 
 	    // Throw error if no matching object was found
@@ -204,7 +660,7 @@ public class Library {
 	 * 
 	 * @see <a href="Displayable">Displayable</a>
 	 */
-	public <T extends Displayable> void displayAll(ArrayList<T> collection)
+	public <T extends Displayable> void displayAll(List<T> collection)
 			throws IllegalArgumentException {
 		
 		// Guard clause to prevent collections with null value being provided
@@ -229,7 +685,12 @@ public class Library {
 
 	/**
 	 * Displays the details of members whose surname contains the search query
-	 * (case insensitive)
+	 * (case insensitive)<br>
+	 * Members whose surname starts with a plain query are found in the last
+	 * name index and displayed first, in surname order, followed by the
+	 * members whose surname contains the query elsewhere.
+	 * 
+	 * @see <a href="LastNameIndex.html">LastNameIndex</a>
 	 * 
 	 * @throws IllegalStateException - If the members collection is empty
 	 * 
@@ -239,43 +700,96 @@ public class Library {
 	 */
 	public void displayMembersByLastNameQuery(String query)
 			throws IllegalArgumentException, NoSuchElementException {
+		long stamp = lock.readLock();
+		try {
 		
-		// Guard clause to prevent running the remaining logic on empty collections
-		if (getMembers().isEmpty()) {
-			throw new IllegalStateException("The members collection is empty");
-		}
+			// Guard clause to prevent running the remaining logic on empty collections
+			if (!hasMembers()) {
+				throw new IllegalStateException("The members collection is empty");
+			}
 		
-		// Guard clause to prevent running remaining logic with empty search query
+			// Guard clause to prevent running remaining logic with empty search query
+			if (query == null || query.isBlank()) {
+				throw new IllegalArgumentException("Cannot search for member's without a search term");
+			}
+
+			List<Member> matches = findLastNameMatches(query);
+
+			// If no matches were found, throw an error
+			if (matches.isEmpty()) {
+				throw new NoSuchElementException(
+						"No members with last names matching the query were found!");
+			}
+
+			// Display the details of each member whose last name matches
+			for (Member member : matches) {
+				member.displayDetails();
+			}
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the members whose surname contains the search query (case
+	 * insensitive), found as displayMembersByLastNameQuery finds them, but
+	 * returned rather than displayed
+	 * 
+	 * @param query - The search term (String)
+	 * 
+	 * @return matches - The matching members, or an empty list (List<Member>)
+	 * 
+	 * @throws IllegalArgumentException - If the query is null, empty string or whitespace
+	 */
+	public List<Member> findMembersByLastNameQuery(String query)
+			throws IllegalArgumentException {
+		// Guard clause to prevent searching with an empty search query
 		if (query == null || query.isBlank()) {
 			throw new IllegalArgumentException("Cannot search for member's without a search term");
 		}
 
-		// Generate the Regex pattern to match member's last names against
-		Pattern pattern = Pattern.compile(query, Pattern.CASE_INSENSITIVE);
-		// If no matches are found this remains false
-		// triggering the error below
-		boolean foundMatch = false;
-
-		// Iterate the members collection and display the
-		// details of any member whose last name matches the
-		// search query regex pattern
-		for (Member member : getMembers()) {
-			Matcher matcher = pattern.matcher(member.getLastName());
-			if (matcher.find()) {
-				// Set found match to true
-				// preventing the NoSuchElementException from
-				// being thrown
-				foundMatch = true;
-				// Display the members details
-				member.displayDetails();
+		long stamp = lock.readLock();
+		try {
+			return findLastNameMatches(query);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * A utility method that returns the members whose last names match the
+	 * query (case insensitive): for a plain query, those whose last names
+	 * start with it, found as a range of the last name index (or of the
+	 * member store's), in surname order, followed by those whose last names
+	 * contain it elsewhere; for a regular expression, those whose last names
+	 * it is found in. The caller must hold the library's lock.
+	 * 
+	 * @param query - The non-blank search term (String)
+	 * 
+	 * @return matches - The matching members, or an empty list (List<Member>)
+	 */
+	private List<Member> findLastNameMatches(String query) {
+		List<Member> matches = new ArrayList<>();
+		Set<Integer> prefixMatched = new HashSet<>();
+		if (!isRegex(query)) {
+			matches.addAll(memberStore != null
+					? memberStore.findByLastNamePrefix(query)
+					: lastNameIndex.withPrefix(query));
+			for (Member member : matches) {
+				prefixMatched.add(member.getIDNumber());
 			}
 		}
 
-		// If no matches were found, throw an error
-		if (!foundMatch) {
-			throw new NoSuchElementException(
-					"No members with last names matching the query were found!");
+		// Match the query anywhere else in the last names
+		Pattern pattern = Pattern.compile(query, Pattern.CASE_INSENSITIVE);
+		for (Member member : allMembers()) {
+			if (!prefixMatched.contains(member.getIDNumber())
+					&& pattern.matcher(member.getLastName()).find()) {
+				matches.add(member);
+			}
 		}
+		return matches;
 	}
 
 	/**
@@ -291,39 +805,62 @@ public class Library {
 	 * @throws NoSuchElementException - If no member is found
 	 */
 	public void removeMemberByID(int idNumber) throws IllegalArgumentException, NoSuchElementException, IllegalStateException {
-		// A Guard clause that throws an error if the members collection is
-		// empty preventing the remaining logic from running
-		if (members.isEmpty()) {
-			throw new IllegalStateException("The members collection is empty");
-		}
+		long stamp = lock.writeLock();
+		try {
+			// A Guard clause that throws an error if the members collection is
+			// empty preventing the remaining logic from running
+			if (!hasMembers()) {
+				throw new IllegalStateException("The members collection is empty");
+			}
 
-		// Guard clause that prevents invalid ID numbers from being provided
-		if (!isValidIDNumber(idNumber)) {
-			throw new IllegalArgumentException("The ID number: " + idNumber + " is not valid");
-		}
+			// Guard clause that prevents invalid ID numbers from being provided
+			if (!isValidIDNumber(idNumber)) {
+				throw new IllegalArgumentException("The ID number: " + idNumber + " is not valid");
+			}
 		
-		// Guard clause to check if the member has books to return
-		if(hasBooksToReturn(idNumber)) {
-			throw new IllegalStateException("Cannot remove member, they have books to return");
-		}
+			// Guard clause to check if the member has books to return
+			if(hasBooksToReturn(idNumber)) {
+				throw new IllegalStateException("Cannot remove member, they have books to return");
+			}
 
-		// Create an iterator for the members collection
-		Iterator<Member> membersIterator = getMembers().iterator();
+			// Remove the member from the member store, if the library has one
+			if (memberStore != null) {
+				if (memberStore.remove(idNumber)) {
+					loanCountsByMember.remove(idNumber);
+					membersVersion++;
+					if (journal != null) {
+						journal.recordRemoveMember(idNumber);
+					}
+					return;
+				}
+				throw new NoSuchElementException(
+						"A member with that ID number was not found");
+			}
 
-		// Iterate the members collection
-		while (membersIterator.hasNext()) {
-			Member member = membersIterator.next();
-			// Remove the member if they have the provided
-			// ID number
-			if (member.getIDNumber() == idNumber) {
-				getMembers().remove(member);
+			// Look up the member with the provided ID number
+			Member member = memberIndex.get(idNumber);
+
+			// Remove the member from the repository and indexes
+			if (member != null) {
+				repository.removeMember(member);
+				memberIndex.remove(idNumber);
+				loanCountsByMember.remove(idNumber);
+				emailIndex.remove(toEmailKey(member.getEmail()));
+				lastNameIndex.remove(member);
+				membersVersion++;
+				if (journal != null) {
+					journal.recordRemoveMember(idNumber);
+				}
 				return;
 			}
-		}
 
-		// Throw an error if a member with the provided ID was not found
-		throw new NoSuchElementException(
-				"A member with that ID number was not found");
+			// Throw an error if a member with the provided ID was not found
+			throw new NoSuchElementException(
+					"A member with that ID number was not found");
+		} finally {
+			lock.unlockWrite(stamp);
+			commitJournal();
+		}
 	}
 	
 	/**
@@ -334,22 +871,16 @@ public class Library {
 	 * @return hasBooksToReturn - Indicates whether they have books to return (boolean)
 	 */
 	private boolean hasBooksToReturn(int idNumber) {
-		// Guard clause to return false if the loans collection is empty
-		if(getLoans().isEmpty()) {
-			return false;
-		}
-		
-		// Iterate the loans collection and 
-		// return true if a loan associated with the 
-		// provided member ID number is found
-		for(Loan loan : getLoans()) {
-			if(loan.getMember().getIDNumber() == idNumber) {
-				return true;
-			}
+		// Look for a loan in the member's range of the loan tree, if the
+		// library has one
+		if (loanTree != null) {
+			return loanTree.hasLoans(idNumber);
 		}
-		
-		// Return false if no loans were found
-		return false;
+
+		// Look up the member's number of loans
+		// (members who have never borrowed a book have no entry)
+		AtomicInteger loanCount = loanCountsByMember.get(idNumber);
+		return loanCount != null && loanCount.get() > 0;
 	}
 
 	/**
@@ -366,6 +897,78 @@ public class Library {
 	 *                                 an existing book's ISBN number
 	 */
 	public void addBook(Book book) throws IllegalArgumentException, IllegalStateException {
+		long stamp = lock.writeLock();
+		try {
+			insertBook(book, false);
+			if (journal != null) {
+				journal.recordAddBook(book);
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+			commitJournal();
+		}
+	}
+
+	/**
+	 * Mutator Method:
+	 * Adds each of the provided books to the library's books collection, as
+	 * one change to the library, issuing their ID numbers in the order of the
+	 * list. Each book is added or rejected on its own, so a book that cannot
+	 * be added does not stop the rest of the list.
+	 * 
+	 * @param newBooks - The books to be added (List<Book>)
+	 * 
+	 * @return errors - The error that stopped each book that was not added,
+	 *                  by its position in the list 
+	 *                  (Map<Integer, RuntimeException>)
+	 * 
+	 * @throws IllegalArgumentException - If the list is null
+	 */
+	public Map<Integer, RuntimeException> addBooks(List<Book> newBooks)
+			throws IllegalArgumentException {
+		// Guard clause that prevents a null list being provided
+		if (newBooks == null) {
+			throw new IllegalArgumentException("Cannot add books, books is null");
+		}
+
+		TreeMap<Integer, RuntimeException> errors = new TreeMap<Integer, RuntimeException>();
+		long stamp = lock.writeLock();
+		try {
+			for (int i = 0; i < newBooks.size(); i++) {
+				try {
+					insertBook(newBooks.get(i), false);
+					if (journal != null) {
+						journal.recordAddBook(newBooks.get(i));
+					}
+				} catch (IllegalArgumentException | IllegalStateException e) {
+					errors.put(i, e);
+				}
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+			commitJournal();
+		}
+
+		return errors;
+	}
+
+	/**
+	 * A utility method that issues an ID number to a book and adds it to the
+	 * books collection and its indexes. The caller must hold the library's
+	 * write lock.
+	 * 
+	 * @param book - A book (Book)
+	 * 
+	 * @param restoring - Whether the book is being restored from the
+	 *                    journal, keeping the ID number it was issued
+	 *                    before (boolean)
+	 * 
+	 * @throws IllegalArgumentException - If the book is null
+	 * 
+	 * @throws IllegalStateException - If the book's ISBN number matches 
+	 *                                 an existing book's ISBN number
+	 */
+	private void insertBook(Book book, boolean restoring) throws IllegalArgumentException, IllegalStateException {
 		// A Guard clause that prevents null values being added to the library's
 		// books collection
 		if (book == null) {
@@ -380,20 +983,58 @@ public class Library {
 		}
 
 		// Assigns a sequential ID number to the book
-		book.setIDNumber(getNextIDNumber());
+		if (!restoring) {
+			book.setIDNumber(idAllocator.next());
+		}
+
+		// Stores the book in the library's repository
+		// and indexes it by its ID number
+		repository.addBook(book);
+		indexBook(book);
+		booksVersion++;
+	}
 
-		// Adds the book to the library's book collection
-		getBooks().add(book);
+	/**
+	 * A utility method that adds a stored book to the library's indexes,
+	 * with an empty slot for its loan
+	 * 
+	 * @param book - The book (Book)
+	 */
+	private void indexBook(Book book) {
+		bookIndex.put(book.getIDNumber(), book);
+		loansByBook.put(book.getIDNumber(), new AtomicReference<Loan>());
+		isbnIndex.put(toISBNKey(book.getISBNNumber()), book);
+		titleIndex.add(book.getIDNumber(), book.getTitle());
 	}
 
 	/**
 	 * Accessor Method:
-	 * Returns the books collection
+	 * Returns the books collection<br>
+	 * If the library has a catalogue, this creates a Book for each of the
+	 * catalogue's books that is not in use, which the library does not keep
+	 * once the caller has finished with it (see the getBookCount method to
+	 * count the books without creating them)
 	 * 
 	 * @return books - The library's books collection (ArrayList<Book>)
 	 */
 	public ArrayList<Book> getBooks() {
-		return books;
+		long stamp = lock.readLock();
+		try {
+			return new ArrayList<Book>(allBooks());
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of books, without creating or copying them
+	 * 
+	 * @return bookCount - The number of books (int)
+	 */
+	public int getBookCount() {
+		return optimisticRead(() -> repository.getBooks().size()
+				+ (catalog == null ? 0 : catalog.size() - removedCatalogCount));
 	}
 
 	/**
@@ -415,16 +1056,15 @@ public class Library {
 		}
 		
 		// Guard clause that throws an error if the books collection is empty
-		if (getBooks().isEmpty()) {
+		if (optimisticRead(() -> !hasBooks())) {
 			throw new NoSuchElementException("The books collection is empty");
 		}
 
-		// Iterate the books collection
-		for (Book book : getBooks()) {
-			// Return the book with the provided ID number
-			if (book.getIDNumber() == idNumber) {
-				return book;
-			}
+		// Look up the book with the provided ID number
+		// in the books index (or the catalogue) and return it
+		Book book = optimisticRead(() -> lookUpBook(idNumber));
+		if (book != null) {
+			return book;
 		}
 
 		// Throw error if no book was found
@@ -444,37 +1084,75 @@ public class Library {
 	}
 
 	/**
-	 * Mutator Method:
-	 * Removes the book with the provided ID number
+	 * Displays the details of the member with the provided ID number
 	 * 
-	 * @param idNumber - The ID number of the book to be removed (int)
+	 * @param idNumber - The ID number of the member (int)
 	 * 
-	 * @throws NoSuchElementException - If the book cannot be found
+	 * @throws IllegalArgumentException - If the provided ID number is not valid
 	 * 
-	 * @throws IllegalArgumentException - If the book is on loan
+	 * @throws NoSuchElementException - If no member is found
 	 */
-	public void removeBookByID(int idNumber) throws IllegalArgumentException, NoSuchElementException {
-		// Guard clause preventing the book from being removed
-		// if it is out on loan
-		if (isBookOnLoan(idNumber)) {
-	        throw new IllegalStateException("Cannot remove book, the book is on loan");
-	    }
-
-		// Create an iterator for the books collection
-	    Iterator<Book> booksIterator = getBooks().iterator();
-
-	    // Iterate the books collection
-	    while (booksIterator.hasNext()) {
-	        Book book = booksIterator.next();
-	        // Remove the book with the provided ID number
-	        if (book.getIDNumber() == idNumber) {
-	            booksIterator.remove();
-	            return;
-	        }
-	    }
+	public void displayMemberByID(int idNumber) throws IllegalArgumentException, NoSuchElementException {
+		getMemberByID(idNumber).displayDetails();
+	}
 
-	    // throw exception if the book is not found
-	    throw new NoSuchElementException("Cannot remove book, book not found");
+	/**
+	 * Mutator Method:
+	 * Removes the book with the provided ID number
+	 * 
+	 * @param idNumber - The ID number of the book to be removed (int)
+	 * 
+	 * @throws NoSuchElementException - If the book cannot be found
+	 * 
+	 * @throws IllegalArgumentException - If the book is on loan
+	 */
+	public void removeBookByID(int idNumber) throws IllegalArgumentException, NoSuchElementException {
+		long stamp = lock.writeLock();
+		try {
+			// Guard clause preventing the book from being removed
+			// if it is out on loan
+			if (isBookOnLoan(idNumber)) {
+		        throw new IllegalStateException("Cannot remove book, the book is on loan");
+		    }
+
+			// Look up the book with the provided ID number
+		    Book book = bookIndex.get(idNumber);
+
+		    // Remove the book from the repository and indexes
+		    if (book != null) {
+		        repository.removeBook(book);
+		        bookIndex.remove(idNumber);
+		        loansByBook.remove(idNumber);
+		        isbnIndex.remove(toISBNKey(book.getISBNNumber()));
+		        titleIndex.remove(idNumber, book.getTitle());
+		        booksVersion++;
+		        if (journal != null) {
+		        	journal.recordRemoveBook(idNumber);
+		        }
+		        return;
+		    }
+
+		    // Mark a catalogue book as removed, since the catalogue
+		    // itself is never changed
+		    int record = catalog == null ? -1 : catalog.findRecord(idNumber);
+		    if (record >= 0 && !removedCatalogRecords.get(record)) {
+		        removedCatalogRecords.set(record);
+		        removedCatalogCount++;
+		        catalogBooks.remove(idNumber);
+		        catalogSlots.remove(idNumber);
+		        booksVersion++;
+		        if (journal != null) {
+		        	journal.recordRemoveBook(idNumber);
+		        }
+		        return;
+		    }
+
+		    // throw exception if the book is not found
+		    throw new NoSuchElementException("Cannot remove book, book not found");
+		} finally {
+			lock.unlockWrite(stamp);
+			commitJournal();
+		}
 	}
 
 	/** A utility method that checks whether the book with the 
@@ -485,65 +1163,171 @@ public class Library {
 	* @return isBookOnLoan - Indicates whether the book is on loan (boolean)
 	*/
 	private boolean isBookOnLoan(int idNumber) {
-	    // Guard clause that returns false if the books 
-		// collection is empty 
-		if (getBooks().isEmpty()) {
-			return false;
+		// Look up the book's borrower in the loan tree, if the library has one
+		if (loanTree != null) {
+			return loanTree.findBorrower(idNumber) >= 0;
 		}
-		
-		// Iterate the books collection
-		for (Loan loan : getLoans()) {
-	        Book book = loan.getBook();
-	        // Return true if the book with the provided ID number
-	        // is found
-	        if (book.getIDNumber() == idNumber) {
-	            return true;
-	        }
-	    }
-		
-		// Return false if the book is not on loan
-	    return false;
+
+	    // Look up the book's slot in the loans by book index
+		AtomicReference<Loan> slot = findSlot(idNumber);
+		return slot != null && slot.get() != null;
 	}
 
 	/**
 	 * Displays the details of books where their title contains the search query
-	 * (case insensitive)
+	 * (case insensitive)<br>
+	 * Plain queries of three or more characters are looked up in the title
+	 * index, shorter queries and regular expressions are matched against every
+	 * title
+	 * 
+	 * @see <a href="TitleIndex.html">TitleIndex</a>
 	 * 
 	 * @param query - The search term (String)
 	 */
 	public void displayBooksByTitleQuery(String query) {
-		// Guard clause that throws error if the books collection is empty
+		long stamp = lock.readLock();
+		try {
+			// Guard clause that throws error if the books collection is empty
 		
-		// Guard clause to prevent running the remaining logic on empty collections
-		if (getBooks().isEmpty()) {
-			throw new IllegalStateException("The members collection is empty");
-		}
+			// Guard clause to prevent running the remaining logic on empty collections
+			if (!hasBooks()) {
+				throw new IllegalStateException("The members collection is empty");
+			}
 		
-		// Guard clause preventing null being provided as query
-		if (query == null) {
-			throw new IllegalArgumentException("Cannot search books with null query");
-		}
+			// Guard clause preventing null being provided as query
+			if (query == null) {
+				throw new IllegalArgumentException("Cannot search books with null query");
+			}
+		
+			// Guard clause preventing blank queries being provided
+			if (query.isBlank()) {
+				throw new IllegalArgumentException("Cannot search books with blank query");
+			}
 		
-		// Guard clause preventing blank queries being provided
-		if (query.isBlank()) {
+			// Plain queries of at least a trigram are answered from the title index
+			if (query.length() >= TitleIndex.GRAM_LENGTH && !isRegex(query)) {
+				displayFirstBookByTitleIndex(query);
+				return;
+			}
+
+			// Otherwise fall back to matching every title against the query
+			// Create the regex pattern using the query
+			Pattern pattern = Pattern.compile(query, Pattern.CASE_INSENSITIVE);
+
+			// Check the catalogue's books first, since their ID numbers come
+			// before those of the books added since
+			List<Book> catalogMatches = new ArrayList<Book>(1);
+			findCatalogBooksByTitle(query, pattern, 1, catalogMatches);
+			if (!catalogMatches.isEmpty()) {
+				catalogMatches.get(0).displayDetails();
+				return;
+			}
+
+			// Create an iterator for the books collection
+			Iterator<Book> booksIterator = repository.getBooks().iterator();
+
+			// Iterate the books collection 
+			while (booksIterator.hasNext()) {
+				// Check that the books title matches the query
+				Book book = booksIterator.next();
+				Matcher matcher = pattern.matcher(book.getTitle());
+				Boolean isMatch = matcher.find();
+
+				// Display the books details if it matches the query
+				if (isMatch) {
+					book.displayDetails();
+					return;
+				}
+			}
+
+			// Throw an error if no books were found
+			throw new NoSuchElementException(
+					"No books with titles matching the query were found!");
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns every book whose title contains the search query (case
+	 * insensitive). Plain queries of three or more characters are looked up
+	 * in the title index, shorter queries and regular expressions are matched
+	 * against every title.
+	 * 
+	 * @see <a href="TitleIndex.html">TitleIndex</a>
+	 * 
+	 * @param query - The search term (String)
+	 * 
+	 * @return matches - The matching books, or an empty list (List<Book>)
+	 * 
+	 * @throws IllegalArgumentException - If the query is null or blank
+	 */
+	public List<Book> findBooksByTitleQuery(String query) throws IllegalArgumentException {
+		// Guard clause preventing null or blank queries being provided
+		if (query == null || query.isBlank()) {
 			throw new IllegalArgumentException("Cannot search books with blank query");
 		}
-		
-		// Create the regex pattern using the query
-		Pattern pattern = Pattern.compile(query, Pattern.CASE_INSENSITIVE);
 
-		// Create an iterator for the books collection
-		Iterator<Book> booksIterator = getBooks().iterator();
+		long stamp = lock.readLock();
+		try {
+			List<Book> matches = new ArrayList<>();
+
+			// Plain queries of at least a trigram are answered from the title
+			// index, verifying each candidate since sharing the query's
+			// trigrams does not guarantee that a title contains the query
+			if (query.length() >= TitleIndex.GRAM_LENGTH && !isRegex(query)) {
+				findCatalogBooksByTitle(query, null, Integer.MAX_VALUE, matches);
+				String foldedQuery = TitleIndex.fold(query);
+				for (int idNumber : titleIndex.candidates(query)) {
+					Book book = bookIndex.get(idNumber);
+					if (book != null && TitleIndex.fold(book.getTitle()).contains(foldedQuery)) {
+						matches.add(book);
+					}
+				}
+				return matches;
+			}
+
+			// Otherwise match every title against the query
+			Pattern pattern = Pattern.compile(query, Pattern.CASE_INSENSITIVE);
+			findCatalogBooksByTitle(query, pattern, Integer.MAX_VALUE, matches);
+			for (Book book : repository.getBooks()) {
+				if (pattern.matcher(book.getTitle()).find()) {
+					matches.add(book);
+				}
+			}
+			return matches;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * A utility method that displays the details of the first book (by ID
+	 * number) whose title contains the query, using the title index to narrow
+	 * the books that need to be checked
+	 * 
+	 * @param query - The search term, at least a trigram long (String)
+	 * 
+	 * @throws NoSuchElementException - If no books were found
+	 */
+	private void displayFirstBookByTitleIndex(String query) throws NoSuchElementException {
+		// Check the catalogue's books first, since their ID numbers come
+		// before those of the books added since
+		List<Book> catalogMatches = new ArrayList<Book>(1);
+		findCatalogBooksByTitle(query, null, 1, catalogMatches);
+		if (!catalogMatches.isEmpty()) {
+			catalogMatches.get(0).displayDetails();
+			return;
+		}
 
-		// Iterate the books collection 
-		while (booksIterator.hasNext()) {
-			// Check that the books title matches the query
-			Book book = booksIterator.next();
-			Matcher matcher = pattern.matcher(book.getTitle());
-			Boolean isMatch = matcher.find();
+		String foldedQuery = TitleIndex.fold(query);
 
-			// Display the books details if it matches the query
-			if (isMatch) {
+		// Verify each candidate, since sharing the query's trigrams 
+		// does not guarantee that a title contains the query
+		for (int idNumber : titleIndex.candidates(query)) {
+			Book book = bookIndex.get(idNumber);
+			if (book != null && TitleIndex.fold(book.getTitle()).contains(foldedQuery)) {
 				book.displayDetails();
 				return;
 			}
@@ -554,9 +1338,31 @@ public class Library {
 				"No books with titles matching the query were found!");
 	}
 
+	/**
+	 * A utility method that checks whether a search query uses regular
+	 * expression syntax, in which case it must be matched as a pattern rather
+	 * than looked up as plain text
+	 * 
+	 * @param query - The search term (String)
+	 * 
+	 * @return isRegex - Indicates whether the query contains regular 
+	 *                   expression metacharacters (boolean)
+	 */
+	private static boolean isRegex(String query) {
+		for (int i = 0; i < query.length(); i++) {
+			if ("\\^$.|?*+()[]{}".indexOf(query.charAt(i)) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Mutator Method:
-	 * Adds a loan to the lib's loans collection
+	 * Adds a loan to the lib's loans collection<br>
+	 * Loans are added under the read lock, which keeps members and books from
+	 * being added or removed, and the book is claimed by a compare and set
+	 * of its slot, so loans of different books are added alongside one another
 	 * 
 	 * @param member - The member borrowing the book (Member)
 	 *
@@ -565,55 +1371,160 @@ public class Library {
 	 * @throws IllegalArgumentException - If the book or member is null
 	 * 
 	 * @throws NoSuchElementException - If member or book do not exist on loan
+	 * 
+	 * @throws IllegalStateException - If the book is already on loan
 	 */
-	public void addLoan(Member member, Book book) throws NoSuchElementException, IllegalArgumentException {
-		
+	public void addLoan(Member member, Book book)
+			throws NoSuchElementException, IllegalArgumentException, IllegalStateException {
+		long stamp = lock.readLock();
+		try {
+			// Create the issue date and expiration date for the loan
+			LocalDate issueDate = LocalDate.now();
+			LocalDate expiryDate = issueDate.plusDays(loanDurationInDays);
+
+			claimLoan(member, book, issueDate, expiryDate);
+		} finally {
+			lock.unlockRead(stamp);
+			commitJournal();
+		}
+	}
+
+	/**
+	 * Mutator Method:
+	 * Adds a loan for each of the provided requests, as one change to the
+	 * library: no other loan is added or removed while the batch is applied.
+	 * The issue date is taken once for the whole batch, and each request
+	 * succeeds or fails on its own, so one book that cannot be loaned does not
+	 * stop the rest of the batch. Requests are applied in order, so a book
+	 * requested twice is loaned to the first request.
+	 * 
+	 * @param requests - The loans to be added (List<LoanRequest>)
+	 * 
+	 * @return results - The result of each request, in the order of the 
+	 *                   requests (List<LoanResult>)
+	 * 
+	 * @throws IllegalArgumentException - If the requests list is null
+	 */
+	public List<LoanResult> addLoans(List<LoanRequest> requests) throws IllegalArgumentException {
+		// Guard clause that prevents a null batch being provided
+		if (requests == null) {
+			throw new IllegalArgumentException("Cannot add loans, requests is null");
+		}
+
+		ArrayList<LoanResult> results = new ArrayList<LoanResult>(requests.size());
+		long stamp = lock.writeLock();
+		try {
+			// Create the issue date and expiration date for the whole batch
+			LocalDate issueDate = LocalDate.now();
+			LocalDate expiryDate = issueDate.plusDays(loanDurationInDays);
+
+			for (LoanRequest request : requests) {
+				try {
+					// Guard clause that fails null requests
+					if (request == null) {
+						throw new IllegalArgumentException("Cannot add loan, request is null");
+					}
+					results.add(new LoanResult(request, claimLoan(request.getMember(),
+							request.getBook(), issueDate, expiryDate)));
+				} catch (IllegalArgumentException | IllegalStateException
+						| NoSuchElementException e) {
+					results.add(new LoanResult(request, e));
+				}
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+			commitJournal();
+		}
+
+		return results;
+	}
+
+	/**
+	 * A utility method that validates a loan of the provided book to the
+	 * provided member, claims the book and adds the loan to the loans
+	 * collection. The caller must hold the library's lock.
+	 * 
+	 * @param member - The member borrowing the book (Member)
+	 *
+	 * @param book - The book that is being borrowed (Book)
+	 * 
+	 * @param issueDate - The loan's date of issue (LocalDate)
+	 * 
+	 * @param expiryDate - The loan's date of expiration (LocalDate)
+	 * 
+	 * @return loan - The added loan (Loan)
+	 * 
+	 * @throws IllegalArgumentException - If the book or member is null
+	 * 
+	 * @throws NoSuchElementException - If member or book do not exist
+	 * 
+	 * @throws IllegalStateException - If the book is already on loan
+	 */
+	private Loan claimLoan(Member member, Book book, LocalDate issueDate, LocalDate expiryDate)
+			throws NoSuchElementException, IllegalArgumentException, IllegalStateException {
 		// Guard clause to prevent null books being added to the books collection
 		if (book == null) {
 			throw new IllegalArgumentException("Cannot create loan, book is null");
 		}
-		
+	
 		// Guard clause to prevent null members being added to the books collection
 		if (member == null) {
 			throw new IllegalArgumentException("Cannot create loan, member is null");
 		}
-		
+	
 		// Guard clause to prevent loan being created with unknown member
-		if (!getMembers().contains(member)) {
+		if (!isRegistered(member)) {
 			throw new NoSuchElementException(
 					"Cannot add loan, non-existent member");
 		}
 
 		// Guard clause to prevent loan being created with unknown book
-		if (!getBooks().contains(book)) {
+		if (lookUpBook(book.getIDNumber()) != book) {
 			throw new NoSuchElementException(
 					"Cannot add loan, non-existent book");
 		}
 
-		// Create an iterator for the loans collection
-		Iterator<Loan> loansIterator = getLoans().iterator();
-
-		// Iterate the loans collection
-		while (loansIterator.hasNext()) {
-			Loan loan = loansIterator.next();
-			Book loanedBook = loan.getBook();
-			// Check that the book is not already 
-			// on loan
-			if (book == loanedBook) {
+		// Add the loan to the loan tree, if the library has one, which
+		// refuses a book that is already on loan
+		if (loanTree != null) {
+			Loan loan = new Loan(member, book, issueDate, expiryDate);
+			if (!loanTree.add(member.getIDNumber(), book.getIDNumber(),
+					(int) issueDate.toEpochDay(), (int) expiryDate.toEpochDay())) {
 				throw new IllegalStateException(
 						"Cannot add loan, this book is already on loan");
 			}
+			loansVersion.increment();
+			return loan;
 		}
 
-		// Create the issue date and expiration date for the loan
-		LocalDate issueDate = LocalDate.now();
-		LocalDate expiryDate = LocalDate.now().plusDays(loanDurationInDays);
+		// Guard clause to check that the book is not already on loan
+		// (checked before the loan is created, the claim below decides
+		// between desks loaning the book at once)
+		AtomicReference<Loan> slot = claimSlot(book.getIDNumber());
+		if (slot.get() != null) {
+			throw new IllegalStateException(
+					"Cannot add loan, this book is already on loan");
+		}
 
 		// Create the loan object 
 		Loan loan = new Loan(member, book, issueDate, expiryDate);
 
-		// Add the loan to the loans collection
-		getLoans().add(loan);
+		// Claim the book, which fails if another desk loaned it first. The
+		// claim is recorded in the journal (if the library has one) and the
+		// loan added to the loans collection and indexes while holding the
+		// book's slot, so a desk returning the book waits until the loan is
+		// stored, and a book's loans are recorded in the order they were made
+		synchronized (slot) {
+			if (!slot.compareAndSet(null, loan)) {
+				throw new IllegalStateException(
+						"Cannot add loan, this book is already on loan");
+			}
+			if (journal != null) {
+				journal.recordAddLoan(loan);
+			}
+			indexLoan(loan);
+		}
+		return loan;
 	}
 
 	/**
@@ -643,24 +1554,15 @@ public class Library {
 		}
  		
 		// Guard clause that throws error if the loans collection is empty
-		if (getLoans().isEmpty()) {
+		if (optimisticRead(() -> !hasLoans())) {
 			throw new IllegalStateException("Loans collection is empty");
 		}
 
-		// Create an iterator for the loans collection
-		Iterator<Loan> loansIterator = getLoans().iterator();
-
-		// Iterate the loans collection
-		while (loansIterator.hasNext()) {
-			Loan loan = loansIterator.next();
-			Member borrower = loan.getMember();
-			Book loanedBook = loan.getBook();
-
-			// If the provided member and book are associated with 
-			// the current loan, return it
-			if (member == borrower && book == loanedBook) {
-				return loan;
-			}
+		// Look up the loan of the book and return it 
+		// if it is associated with the provided member
+		Loan loan = optimisticRead(() -> findLoan(member, book));
+		if (loan != null) {
+			return loan;
 		}
 
 		// Throw error if the no loan was found
@@ -669,7 +1571,9 @@ public class Library {
 
 	/**
 	 * Mutator Method:
-	 * Removes a loan with the provided member and book
+	 * Removes a loan with the provided member and book<br>
+	 * Like loans being added, loans are removed under the read lock by a
+	 * compare and set that empties the book's slot
 	 * 
 	 * @param member - The member who borrowed the book (Member)
 	 * 
@@ -683,37 +1587,115 @@ public class Library {
 	 */
 	public void removeLoan(Member member, Book book)
 			throws IllegalArgumentException, NoSuchElementException, IllegalStateException {
+		long stamp = lock.readLock();
+		try {
+			releaseLoan(member, book);
+		} finally {
+			lock.unlockRead(stamp);
+			commitJournal();
+		}
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes the loan of each of the provided requests, as one change to
+	 * the library: no other loan is added or removed while the batch is
+	 * applied. Each request succeeds or fails on its own, so one book that is
+	 * not on loan does not stop the rest of the batch.
+	 * 
+	 * @param requests - The loans to be removed (List<LoanRequest>)
+	 * 
+	 * @return results - The result of each request, holding the removed loan
+	 *                   when it succeeds, in the order of the requests 
+	 *                   (List<LoanResult>)
+	 * 
+	 * @throws IllegalArgumentException - If the requests list is null
+	 */
+	public List<LoanResult> removeLoans(List<LoanRequest> requests) throws IllegalArgumentException {
+		// Guard clause that prevents a null batch being provided
+		if (requests == null) {
+			throw new IllegalArgumentException("Cannot remove loans, requests is null");
+		}
+
+		ArrayList<LoanResult> results = new ArrayList<LoanResult>(requests.size());
+		long stamp = lock.writeLock();
+		try {
+			for (LoanRequest request : requests) {
+				try {
+					// Guard clause that fails null requests
+					if (request == null) {
+						throw new IllegalArgumentException("Cannot remove loan, request is null");
+					}
+					results.add(new LoanResult(request,
+							releaseLoan(request.getMember(), request.getBook())));
+				} catch (IllegalArgumentException | IllegalStateException
+						| NoSuchElementException e) {
+					results.add(new LoanResult(request, e));
+				}
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+			commitJournal();
+		}
+
+		return results;
+	}
+
+	/**
+	 * A utility method that removes the loan of the provided book to the
+	 * provided member by emptying the book's slot. The caller must hold the
+	 * library's lock.
+	 * 
+	 * @param member - The member who borrowed the book (Member)
+	 * 
+	 * @param book - The book that was borrowed (Book)
+	 * 
+	 * @return loan - The removed loan (Loan)
+	 * 
+	 * @throws IllegalArgumentException - If member of book is null
+	 * 
+	 * @throws NoSuchElementException - If loan is not found
+	 * 
+	 * @throws IllegalStateException - If the loans collection is empty
+	 */
+	private Loan releaseLoan(Member member, Book book)
+			throws IllegalArgumentException, NoSuchElementException, IllegalStateException {
 		// Guard clause preventing null members being provided
-		
 		if (member == null ) {
 			throw new IllegalArgumentException("Cannot remove loan, member is null");
 		}
-		
+	
 		// Guard clause preventing null books being provided
 		if (book == null ) {
 			throw new IllegalArgumentException("Cannot remove loan, book is null");
 		}
-		
+	
 		// Guard clause that throws error if loans collection is empty
-		if (getLoans().isEmpty()) {
+		if (!hasLoans()) {
 			throw new IllegalStateException(
 					"Cannot remove loan, the loans collection is empty");
 		}
 
-		// Create an iterator for the loans collection
-		Iterator<Loan> loansIterator = getLoans().iterator();
-
-		// Iterate the loans collection
-		while (loansIterator.hasNext()) {
-			Loan loan = loansIterator.next();
-			Member borrower = loan.getMember();
-			Book loanedBook = loan.getBook();
-			// If the loan is associated with the provided member 
-			// and book, remove it and return
-			if (member == borrower && book == loanedBook) {
-				loans.remove(loan);
-				return;
+		// Remove the loan from the loan tree, if the library has one and
+		// the member and book are the library's
+		if (loanTree != null) {
+			LoanTree.Entry entry = isRegistered(member)
+					&& lookUpBook(book.getIDNumber()) == book
+					? loanTree.remove(member.getIDNumber(), book.getIDNumber()) : null;
+			if (entry != null) {
+				loansVersion.increment();
+				return toLoan(entry);
 			}
+			throw new NoSuchElementException(
+					"Could not remove loan, loan not found!");
+		}
+
+		// Look up the loan of the book and if it is associated 
+		// with the provided member, empty the book's slot and remove the
+		// loan, unless another desk removed the loan first, then return it
+		Loan loan = findLoan(member, book);
+		if (loan != null && emptySlot(findSlot(book.getIDNumber()), loan)) {
+			return loan;
 		}
 
 		// Throw error if no loan was found
@@ -723,12 +1705,67 @@ public class Library {
 
 	/**
 	 * Accessor Method:
-	 * Returns the loans collection
+	 * Returns the loans collection, ordered by expiry date
 	 * 
 	 * @return loans - The library's loans collection (ArrayList<Loan>)
 	 */
 	public ArrayList<Loan> getLoans() {
-		return loans;
+		long stamp = lock.readLock();
+		try {
+			return new ArrayList<Loan>(allLoans());
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Accessor Method:
+	 * Passes each of the library's loans, ordered by expiry date, to the
+	 * provided action, for example to display them, without copying them. If
+	 * the library keeps its loans in a loan tree they are read from it a
+	 * batch at a time, so that they are never all held in memory; otherwise
+	 * they are read straight from the repository's loans. Either way, loans
+	 * added or removed while they are passed may or may not be included. The
+	 * library's lock is not held while the action runs.
+	 * 
+	 * @param action - The action (Consumer<Loan>)
+	 * 
+	 * @throws IllegalArgumentException - If the action is null
+	 */
+	public void forEachLoan(Consumer<Loan> action) throws IllegalArgumentException {
+		// Guard clause preventing a missing action
+		if (action == null) {
+			throw new IllegalArgumentException("Cannot visit loans, action is null");
+		}
+
+		// The repository's loans may be read while loans are added and
+		// removed, and a member or book is not removed while it is on loan
+		if (loanTree == null) {
+			repository.getLoans().forEach(action);
+			return;
+		}
+
+		LoanTree.Entry last = null;
+		while (true) {
+			// Read the next batch under the read lock, so that the loans'
+			// members and books are not removed while they are looked up
+			List<Loan> batch = new ArrayList<Loan>();
+			long stamp = lock.readLock();
+			try {
+				List<LoanTree.Entry> entries = loanTree.getAfter(last, LOAN_BATCH_SIZE);
+				for (LoanTree.Entry entry : entries) {
+					batch.add(toLoan(entry));
+				}
+				last = entries.isEmpty() ? null : entries.get(entries.size() - 1);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+
+			batch.forEach(action);
+			if (batch.size() < LOAN_BATCH_SIZE) {
+				return;
+			}
+		}
 	}
 
 	/**
@@ -744,46 +1781,74 @@ public class Library {
 	 * 
 	 * @throws NoSuchElementException - If the no expired loans were found
 	 * 
-	 * @return loans - A collection of expired loans (List<Loan>)
+	 * @return loans - A collection of expired loans, ordered by 
+	 *                  expiry date (List<Loan>)
 	 */
 	public List<Loan> getExpiredLoans(LocalDate expiryDate)
 			throws IllegalArgumentException, NoSuchElementException, IllegalStateException {
-
-		// Guard clause preventing null expiryDate being provided
-		if (expiryDate == null) {
-			throw new IllegalArgumentException("Cannot get expired loans, expiryDate is null");
-		}
+		long stamp = lock.readLock();
+		try {
+			// Guard clause preventing null expiryDate being provided
+			if (expiryDate == null) {
+				throw new IllegalArgumentException("Cannot get expired loans, expiryDate is null");
+			}
 		
-		// Guard clause that throws and error if the loans collection is empty
-		if (getLoans().isEmpty()) {
-			throw new IllegalStateException("The loans collection is empty");
+			// Guard clause that throws and error if the loans collection is empty
+			if (!hasLoans()) {
+				throw new IllegalStateException("The loans collection is empty");
+			}
+
+			// Return expired loans if any were found
+			return findExpiredLoans(expiryDate);
+		} finally {
+			lock.unlockRead(stamp);
 		}
+	}
 
-		// Create a List of expired loans by streaming 
-		// the ArrayList of loans through a filter
-		// that only allows expired loans through
-		List<Loan> expiredLoans = getLoans().stream()
-				.filter(loan -> expiryDate.isAfter(loan.getExpiryDate()))
-				.collect(Collectors.toList());
+	/**
+	 * A utility method that returns the loans that expire before the provided
+	 * date, in expiry date order. The caller must hold the library's lock
+	 * (loans added or removed while the loans are copied may be left out).
+	 * 
+	 * @param expiryDate - The date loans must expire before (LocalDate)
+	 * 
+	 * @return expiredLoans - The expired loans (List<Loan>)
+	 * 
+	 * @throws NoSuchElementException - If no expired loans were found
+	 */
+	private List<Loan> findExpiredLoans(LocalDate expiryDate) throws NoSuchElementException {
+		// Create a List of expired loans from the range of the expiry index
+		// holding loans that expire before the provided date, so only the
+		// expired loans are visited
+		ArrayList<Loan> expiredLoans = new ArrayList<Loan>();
+		if (loanTree != null) {
+			for (LoanTree.Entry entry : loanTree.getExpiringBefore(expiryDate.toEpochDay())) {
+				expiredLoans.add(toLoan(entry));
+			}
+		} else {
+			expiredLoans.addAll(repository.getLoansExpiringBefore(expiryDate.toEpochDay()));
+		}
 
 		// Throw an error if no loans expired loans were found
 		if (expiredLoans.isEmpty()) {
 			throw new NoSuchElementException("No expired loans found!");
 		}
 
-		// Return expired loans if any were found
 		return expiredLoans;
 	}
 
 	/**
 	 * Displays all loans that have an expiration date that exceed the date of
-	 * expiration
+	 * expiration, visiting only the expired loans rather than copying every
+	 * loan
 	 * 
 	 * @param expiryDate - The date of expiration (LocalDate)
 	 * 
 	 * @throws IllegalArgumentException - If the expiryDate is null
 	 * 
 	 * @throws IllegalStateException - If the loans collection is empty
+	 * 
+	 * @throws NoSuchElementException - If no expired loans were found
 	 */
 	public void displayExpiredLoans(LocalDate expiryDate) throws IllegalArgumentException, IllegalStateException, IllegalStateException {
 		// Guard clause preventing null expiryDate being provided
@@ -792,18 +1857,204 @@ public class Library {
 					"Cannot display loans, expiry date cannot be null");
 		}
 
-		// Guard clause that throws error if the loans collection is empty
-		if (getLoans().isEmpty()) {
-			throw new IllegalStateException(
-					"Cannot display loans, loans collection is empty");
-		}
-		
-		// Get the expired loans and display their details
+		// Read the expired loans from the range of the expiry index (or the
+		// loan tree) holding the loans that expire before the date, then
+		// display them once the lock is released
 		for (Loan expiredLoan : getExpiredLoans(expiryDate)) {
 			expiredLoan.displayDetails();
 		}
 	}
 
+	/**
+	 * Accessor Method:
+	 * Returns an immutable snapshot of the library's books, members and
+	 * loans as they are now. The same snapshot is returned until a book,
+	 * member or loan is added or removed, and a new snapshot shares the
+	 * collections of the previous one that have not changed. A snapshot is
+	 * copied under the read lock, so books and members are not added or
+	 * removed while it is copied, and copied again if a loan is added or
+	 * removed meanwhile; only if loans keep changing is it copied under the
+	 * write lock.
+	 * 
+	 * @see <a href="LibrarySnapshot.html">LibrarySnapshot</a>
+	 * 
+	 * @return snapshot - The library's snapshot (LibrarySnapshot)
+	 */
+	public LibrarySnapshot getSnapshot() {
+		// Return the most recent snapshot if nothing has changed since
+		LibrarySnapshot current = snapshot;
+		if (current != null && current.getVersion() == currentVersion()) {
+			return current;
+		}
+
+		// Copy the library under the read lock, which holds the books and
+		// members still, trying again if loans change while they are copied
+		for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS; attempt++) {
+			long stamp = lock.readLock();
+			try {
+				LibrarySnapshot copied = takeSnapshot();
+				if (copied != null) {
+					return copied;
+				}
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+
+		// Loans are changing too often to be copied, so take the write lock,
+		// under which loans are not added or removed
+		long stamp = lock.writeLock();
+		try {
+			return takeSnapshot();
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Mutator Method:
+	 * Checkpoints the library's journal, so that the library restarts from
+	 * a checkpoint of its members, books, loans and ID numbers rather than
+	 * by replaying every change it has recorded. The library is only held
+	 * still while its state is captured and the journal file is sealed; the
+	 * checkpoint is written to disk, and the journal behind it deleted,
+	 * while changes continue, so it is meant to be called periodically from
+	 * a background thread.
+	 * 
+	 * @see <a href="Journal.html">Journal</a>
+	 * 
+	 * @return checkpointed - Whether a checkpoint was written, which it is
+	 *                        not if nothing has been recorded since the last
+	 *                        one (boolean)
+	 * 
+	 * @throws IllegalStateException - If the library has no journal
+	 * 
+	 * @throws UncheckedIOException - If the checkpoint cannot be written
+	 */
+	public boolean checkpoint() throws IllegalStateException, UncheckedIOException {
+		// Guard clause that prevents checkpointing a library without a journal
+		if (journal == null) {
+			throw new IllegalStateException("The library has no journal to checkpoint");
+		}
+
+		synchronized (checkpointLock) {
+			LibrarySnapshot view;
+			int highWaterMark;
+			int sealedGeneration;
+
+			// Copy the library before taking the write lock, so that the
+			// write lock is normally held only to seal the journal
+			getSnapshot();
+
+			// Capture the library, and seal the journal, at one point: no
+			// changes are recorded while the write lock is held. The copy
+			// is used unless something has changed since it was taken.
+			long stamp = lock.writeLock();
+			try {
+				if (!journal.hasUncheckpointedRecords()) {
+					return false;
+				}
+				view = takeSnapshot();
+				highWaterMark = idAllocator.getHighWaterMark();
+				sealedGeneration = journal.seal();
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not seal the journal", e);
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+
+			try {
+				journal.writeCheckpoint(sealedGeneration, view, highWaterMark);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not write the checkpoint", e);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * A utility method that returns the most recent snapshot if nothing has
+	 * changed since it was taken, or takes a new one. The caller must hold
+	 * the library's lock. Loans may be added and removed under the read
+	 * lock, so the copy is only kept if none were while it was taken, which
+	 * is always the case under the write lock.
+	 * 
+	 * @return snapshot - The library's snapshot, or null if loans were added
+	 *                    or removed while it was taken (LibrarySnapshot)
+	 */
+	private LibrarySnapshot takeSnapshot() {
+		// Another thread may have taken the snapshot while this one waited
+		LibrarySnapshot current = snapshot;
+		if (current != null && current.getVersion() == currentVersion()) {
+			return current;
+		}
+
+		// Copy only the collections that have changed
+		long loansChanges = loansVersion.sum();
+		List<Book> bookList = current != null && current.booksVersion == booksVersion
+				? current.getBooks() : snapshotBooks();
+		List<Member> memberList = current != null && current.membersVersion == membersVersion
+				? current.getMembers() : new ArrayList<Member>(allMembers());
+		List<Loan> loanList = current != null && current.loansVersion == loansChanges
+				? current.getLoans() : new ArrayList<Loan>(allLoans());
+
+		// Keep the copy only if no loan was added or removed while it was taken
+		if (loansVersion.sum() != loansChanges) {
+			return null;
+		}
+
+		LibrarySnapshot taken = new LibrarySnapshot(booksVersion, membersVersion, loansChanges,
+				bookList, memberList, loanList);
+		snapshot = taken;
+		return taken;
+	}
+
+	/**
+	 * A utility method that returns the library's version: the number of
+	 * books, members and loans that have been added or removed
+	 * 
+	 * @return version - The library's version (long)
+	 */
+	private long currentVersion() {
+		return booksVersion + membersVersion + loansVersion.sum();
+	}
+
+	/**
+	 * A utility method that performs a read of the library's state without
+	 * taking its lock. The read is repeated under the read lock if a write
+	 * happened while it was running, in which case its result (or any error
+	 * caused by the write) is discarded. The read must not change the
+	 * library's state.
+	 * 
+	 * @param read - The read to perform (Supplier<T>)
+	 * 
+	 * @return result - The result of a read that no write interfered with (T)
+	 */
+	private <T> T optimisticRead(Supplier<T> read) {
+		long stamp = lock.tryOptimisticRead();
+
+		// A stamp of zero means a write is in progress
+		if (stamp != 0) {
+			try {
+				T result = read.get();
+				if (lock.validate(stamp)) {
+					return result;
+				}
+			} catch (RuntimeException e) {
+				// The read may have seen a write half done, so it is
+				// repeated under the read lock below, which reports any
+				// error that is genuine
+			}
+		}
+
+		stamp = lock.readLock();
+		try {
+			return read.get();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
 	/**
 	 * A utility method that returns whether the provided member's 
 	 * email address is a duplicate or unique
@@ -814,20 +2065,277 @@ public class Library {
 	 * 							  is assigned to an existing member (boolean)
 	 */
 	private boolean hasExistingEmail(Member member) {
-		// Iterate the members collection 
-		for (Member existingMember : getMembers()) {
-			// Determine if the members email already exists
-			boolean isExistingEmail = existingMember.getEmail()
-					.equalsIgnoreCase(member.getEmail());
-
-			// Return true if the member's email already exists
-			if (isExistingEmail) {
-				return true;
+		// Look up the email in the member store, if the library has one
+		if (memberStore != null) {
+			return memberStore.findByEmail(member.getEmail()) >= 0;
+		}
+
+		// Look up the case folded email in the email index
+		return emailIndex.containsKey(toEmailKey(member.getEmail()));
+	}
+
+	/**
+	 * A utility method that checks whether the library has any members
+	 * 
+	 * @return hasMembers - Indicates whether the library has members (boolean)
+	 */
+	private boolean hasMembers() {
+		if (memberStore != null) {
+			return memberStore.size() > 0;
+		}
+
+		return !repository.getMembers().isEmpty();
+	}
+
+	/**
+	 * A utility method that looks up the member with the provided ID number,
+	 * in the member store if the library has one, otherwise in the members
+	 * index
+	 * 
+	 * @param idNumber - The ID number of the member (int)
+	 * 
+	 * @return member - The member, or null if not found (Member)
+	 */
+	private Member lookUpMember(int idNumber) {
+		if (memberStore != null) {
+			int record = memberStore.findRecord(idNumber);
+			return record < 0 ? null : memberStore.getMember(record);
+		}
+
+		return memberIndex.get(idNumber);
+	}
+
+	/**
+	 * A utility method that returns the library's books: the repository's
+	 * books or, if the library has a catalogue, the catalogue's books that
+	 * have not been removed followed by the repository's.
+	 * The caller must hold the library's lock.
+	 * 
+	 * @return books - The library's books (List<Book>)
+	 */
+	private List<Book> allBooks() {
+		List<Book> books = repository.getBooks();
+		if (catalog == null) {
+			return books;
+		}
+
+		ArrayList<Book> all = new ArrayList<Book>(
+				catalog.size() - removedCatalogCount + books.size());
+		for (int record = 0; record < catalog.size(); record++) {
+			if (!removedCatalogRecords.get(record)) {
+				all.add(catalogBook(record));
 			}
 		}
+		all.addAll(books);
+		return all;
+	}
 
-		// Return false if the email is unique
-		return false;
+	/**
+	 * A utility method that checks whether the library has any books
+	 * 
+	 * @return hasBooks - Indicates whether the library has books (boolean)
+	 */
+	private boolean hasBooks() {
+		return !repository.getBooks().isEmpty()
+				|| (catalog != null && catalog.size() > removedCatalogCount);
+	}
+
+	/**
+	 * A utility method that looks up the book with the provided ID number in
+	 * the books index, then in the catalogue if the library has one
+	 * 
+	 * @param idNumber - The ID number of the book (int)
+	 * 
+	 * @return book - The book, or null if not found (Book)
+	 */
+	private Book lookUpBook(int idNumber) {
+		Book book = bookIndex.get(idNumber);
+		if (book == null && catalog != null) {
+			int record = catalog.findRecord(idNumber);
+			if (record >= 0 && !removedCatalogRecords.get(record)) {
+				book = catalogBook(record);
+			}
+		}
+		return book;
+	}
+
+	/**
+	 * A utility method that returns the Book of a catalogue record, creating
+	 * it if it is not in use. Creating it does not change what the library
+	 * holds, so it may be done under the read lock or while reading
+	 * optimistically.
+	 * 
+	 * @param record - The catalogue record (int)
+	 * 
+	 * @return book - The book (Book)
+	 */
+	private Book catalogBook(int record) {
+		// Forget the books that have been collected since the last call
+		Reference<? extends Book> collected;
+		while ((collected = collectedCatalogBooks.poll()) != null) {
+			CatalogBookReference reference = (CatalogBookReference) collected;
+			catalogBooks.remove(reference.idNumber, reference);
+		}
+
+		// Return the book in use, or create it, unless another thread
+		// created it first
+		int idNumber = catalog.getIDNumber(record);
+		while (true) {
+			CatalogBookReference reference = catalogBooks.get(idNumber);
+			Book book = reference == null ? null : reference.get();
+			if (book != null) {
+				return book;
+			}
+
+			book = catalog.getBook(record);
+			CatalogBookReference created = new CatalogBookReference(idNumber, book,
+					collectedCatalogBooks);
+			if (reference == null ? catalogBooks.putIfAbsent(idNumber, created) == null
+					: catalogBooks.replace(idNumber, reference, created)) {
+				return book;
+			}
+		}
+	}
+
+	/**
+	 * A utility method that returns the library's books for a snapshot. If
+	 * the library has a catalogue, the catalogue's books are a view that
+	 * creates each Book as it is read, rather than a copy holding every Book.
+	 * The caller must hold the library's lock.
+	 * 
+	 * @return books - The books, which do not change (List<Book>)
+	 */
+	private List<Book> snapshotBooks() {
+		List<Book> books = new ArrayList<Book>(repository.getBooks());
+		if (catalog == null) {
+			return books;
+		}
+
+		// Note the records of the catalogue's books that have not been
+		// removed, unless none have
+		int catalogCount = catalog.size() - removedCatalogCount;
+		int[] records = null;
+		if (removedCatalogCount > 0) {
+			records = new int[catalogCount];
+			for (int record = 0, i = 0; record < catalog.size(); record++) {
+				if (!removedCatalogRecords.get(record)) {
+					records[i++] = record;
+				}
+			}
+		}
+
+		int[] liveRecords = records;
+		return new AbstractList<Book>() {
+			@Override
+			public Book get(int index) {
+				if (index < 0 || index >= size()) {
+					throw new IndexOutOfBoundsException("Index: " + index);
+				}
+				if (index >= catalogCount) {
+					return books.get(index - catalogCount);
+				}
+				return catalogBook(liveRecords == null ? index : liveRecords[index]);
+			}
+
+			@Override
+			public int size() {
+				return catalogCount + books.size();
+			}
+		};
+	}
+
+	/**
+	 * A utility method that returns the slot holding the loan of the book
+	 * with the provided ID number
+	 * 
+	 * @param idNumber - The ID number of the book (int)
+	 * 
+	 * @return slot - The slot, or null if the book has none (AtomicReference<Loan>)
+	 */
+	private AtomicReference<Loan> findSlot(int idNumber) {
+		AtomicReference<Loan> slot = loansByBook.get(idNumber);
+		if (slot == null && catalog != null) {
+			slot = catalogSlots.get(idNumber);
+		}
+		return slot;
+	}
+
+	/**
+	 * A utility method that returns the slot that a loan of the book with
+	 * the provided ID number is claimed in, creating the slot of a catalogue
+	 * book the first time the book is loaned. The caller must hold the
+	 * library's lock and have checked that the book is the library's.
+	 * 
+	 * @param idNumber - The ID number of the book (int)
+	 * 
+	 * @return slot - The slot (AtomicReference<Loan>)
+	 */
+	private AtomicReference<Loan> claimSlot(int idNumber) {
+		AtomicReference<Loan> slot = loansByBook.get(idNumber);
+		if (slot == null) {
+			slot = catalogSlots.computeIfAbsent(idNumber,
+					catalogIDNumber -> new AtomicReference<Loan>());
+		}
+		return slot;
+	}
+
+	/**
+	 * A utility method that adds the catalogue's books whose titles contain
+	 * the query (case insensitive) to the provided list, creating Books only
+	 * for the matches. Plain queries are looked up in the catalogue's mapped
+	 * trigram posting lists, so only the candidates' titles are compared,
+	 * and patterns are matched against each title. The caller must hold the
+	 * library's lock.
+	 * 
+	 * @param query - The search term (String)
+	 * 
+	 * @param pattern - The query's pattern, or null if it is plain (Pattern)
+	 * 
+	 * @param limit - The most matches to add (int)
+	 * 
+	 * @param matches - The list the matches are added to (List<Book>)
+	 */
+	private void findCatalogBooksByTitle(String query, Pattern pattern, int limit,
+			List<Book> matches) {
+		if (catalog == null) {
+			return;
+		}
+
+		int added = 0;
+		if (pattern == null) {
+			for (int record : catalog.findRecordsByFoldedTitle(TitleIndex.fold(query))) {
+				if (added < limit && !removedCatalogRecords.get(record)) {
+					matches.add(catalogBook(record));
+					added++;
+				}
+			}
+			return;
+		}
+
+		for (int record = 0; record < catalog.size() && added < limit; record++) {
+			if (!removedCatalogRecords.get(record)
+					&& pattern.matcher(catalog.getTitle(record)).find()) {
+				matches.add(catalogBook(record));
+				added++;
+			}
+		}
+	}
+
+	/**
+	 * A utility method that checks whether the provided member is one of the
+	 * library's members, rather than just a member with the same ID number
+	 * 
+	 * @param member - The member (Member)
+	 * 
+	 * @return isRegistered - Indicates whether the member belongs to the 
+	 *                        library (boolean)
+	 */
+	private boolean isRegistered(Member member) {
+		if (memberStore != null) {
+			return memberStore.contains(member);
+		}
+
+		return memberIndex.get(member.getIDNumber()) == member;
 	}
 
 	/**
@@ -840,17 +2348,47 @@ public class Library {
 	 *                                 assigned to an existing book
 	 */
 	private boolean hasExistingISBNNumber(Book book) {
-		// Iterate the books collection 
-		for (Book existingBook : getBooks()) {
-			// Return true if the ISBN number is already allocated
-			if (existingBook.getISBNNumber().equals(book.getISBNNumber())) {
-				return true;
-			}
+		// Look up the canonical ISBN-13 number in the ISBN index
+		String isbnKey = toISBNKey(book.getISBNNumber());
+		if (isbnIndex.containsKey(isbnKey)) {
+			return true;
 		}
 
-		// Return false if the ISBN number is new
+		// and in the catalogue, if the library has one
+		if (catalog != null) {
+			int record = catalog.findRecordByISBN(Long.parseLong(isbnKey));
+			return record >= 0 && !removedCatalogRecords.get(record);
+		}
 		return false;
 	}
+
+	/**
+	 * A utility method that normalises an email address into the key used by
+	 * the email index, so that addresses differing only by case collide
+	 * 
+	 * @param email - The email address (String)
+	 * 
+	 * @return emailKey - The case folded email address (String)
+	 */
+	private static String toEmailKey(String email) {
+		return email.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * A utility method that normalises an ISBN number into the key used by the
+	 * ISBN index. Hyphens and spaces are removed and ISBN-10 numbers are
+	 * converted to ISBN-13, so that every way of writing the same ISBN number
+	 * collides.
+	 * 
+	 * @param isbnNumber - The ISBN number (String)
+	 * 
+	 * @return isbnKey - The canonical ISBN-13 number (String)
+	 * 
+	 * @see <a href="Book.html">Book</a>
+	 */
+	private static String toISBNKey(String isbnNumber) {
+		return Book.toISBN13(isbnNumber);
+	}
 	
 	/**
 	 * Accessor Method: 
@@ -866,16 +2404,322 @@ public class Library {
 
 	/**
 	 * Accessor Method:
-	 * Get the next ID number (previously issued ID number incremented by +1)
+	 * Get the next ID number<br>
+	 * ID numbers are issued from the calling thread's block of leased ID
+	 * numbers without taking the library's lock, so a thread is issued
+	 * consecutive ID numbers (previously issued ID number incremented by +1)
+	 * until its block runs out
+	 * 
+	 * @see <a href="IDAllocator.html">IDAllocator</a>
 	 * 
 	 * @return nextIdNumber The next ID number (int)
 	 */
 	public int getNextIDNumber() {
-		// Increment the previous ID number
-		nextIDNumber++;
-		return nextIDNumber;
+		return idAllocator.next();
 	}
 	
+	/**
+	 * A utility method that returns the loan of the provided book to the
+	 * provided member
+	 * 
+	 * @param member - The borrower (Member)
+	 * 
+	 * @param book - The loaned book (Book)
+	 * 
+	 * @return loan - The loan or null if the book is not on loan 
+	 *                to the member (Loan)
+	 */
+	private Loan findLoan(Member member, Book book) {
+		// Read the loan from the loan tree, if the library has one and the
+		// member and book are the library's
+		if (loanTree != null) {
+			LoanTree.Entry entry = isRegistered(member)
+					&& lookUpBook(book.getIDNumber()) == book
+					? loanTree.get(member.getIDNumber(), book.getIDNumber()) : null;
+			return entry == null ? null : toLoan(entry);
+		}
+
+		AtomicReference<Loan> slot = findSlot(book.getIDNumber());
+		Loan loan = slot == null ? null : slot.get();
+
+		// Only return the loan if it associates this member with this book
+		// (a member's ID number identifies them once they are registered)
+		if (loan != null && loan.getBook() == book
+				&& loan.getMemberIDNumber() == member.getIDNumber()
+				&& isRegistered(member)) {
+			return loan;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns whether the library has any loans, without copying them
+	 * 
+	 * @return hasLoans - Whether there are loans (boolean)
+	 */
+	public boolean hasLoans() {
+		if (loanTree != null) {
+			return loanTree.size() > 0;
+		}
+		return !repository.getLoans().isEmpty();
+	}
+
+	/**
+	 * A utility method that returns every loan, ordered by expiry date, from
+	 * the loan tree if the library has one and otherwise from the repository
+	 * 
+	 * @return loans - The loans (Collection<Loan>)
+	 */
+	private Collection<Loan> allLoans() {
+		if (loanTree == null) {
+			return repository.getLoans();
+		}
+
+		List<Loan> loans = new ArrayList<Loan>();
+		for (LoanTree.Entry entry : loanTree.getAll()) {
+			loans.add(toLoan(entry));
+		}
+		return loans;
+	}
+
+	/**
+	 * A utility method that creates a Loan from an entry of the loan tree,
+	 * with the library's member and book
+	 * 
+	 * @param entry - The entry (LoanTree.Entry)
+	 * 
+	 * @return loan - The loan (Loan)
+	 */
+	private Loan toLoan(LoanTree.Entry entry) {
+		return new Loan(lookUpMember(entry.getMemberIDNumber()),
+				lookUpBook(entry.getBookIDNumber()),
+				LocalDate.ofEpochDay(entry.getIssueEpochDay()),
+				LocalDate.ofEpochDay(entry.getExpiryEpochDay()));
+	}
+
+	/**
+	 * A utility method that stores a claimed loan in the repository
+	 * and counts it against the borrower
+	 * 
+	 * @param loan - The loan to be indexed (Loan)
+	 */
+	private void indexLoan(Loan loan) {
+		repository.addLoan(loan);
+		countLoan(loan);
+	}
+
+	/**
+	 * A utility method that counts a stored loan against the borrower
+	 * 
+	 * @param loan - The loan (Loan)
+	 */
+	private void countLoan(Loan loan) {
+		loansVersion.increment();
+
+		// Create the member's count of loans on their first loan
+		loanCountsByMember.computeIfAbsent(loan.getMemberIDNumber(),
+				idNumber -> new AtomicInteger()).incrementAndGet();
+	}
+
+	/**
+	 * A utility method that removes a loan whose slot has been emptied from
+	 * the repository and from the borrower's count. A later loan of the book
+	 * is not removed in its place.
+	 * 
+	 * @param loan - The loan to be removed (Loan)
+	 */
+	private void unindexLoan(Loan loan) {
+		repository.removeLoan(loan);
+		loanCountsByMember.computeIfAbsent(loan.getMemberIDNumber(),
+				idNumber -> new AtomicInteger()).decrementAndGet();
+		loansVersion.increment();
+	}
+
+	/**
+	 * A utility method that returns a book's slot to empty if it still holds
+	 * the provided loan, then records the loan's removal in the journal (if
+	 * the library has one) and removes it from the loans collection and
+	 * indexes, while holding the slot, so that it waits for the desk that
+	 * claimed the slot to store the loan first
+	 * 
+	 * @param slot - The book's slot (AtomicReference<Loan>)
+	 * 
+	 * @param loan - The loan being removed (Loan)
+	 * 
+	 * @return emptied - Whether this call emptied the slot (boolean)
+	 */
+	private boolean emptySlot(AtomicReference<Loan> slot, Loan loan) {
+		synchronized (slot) {
+			if (!slot.compareAndSet(loan, null)) {
+				return false;
+			}
+			if (journal != null) {
+				journal.recordRemoveLoan(loan);
+			}
+			unindexLoan(loan);
+			return true;
+		}
+	}
+
+	/**
+	 * A utility method that waits until the changes the calling thread has
+	 * recorded in the journal are on disk, if the library has a journal. It
+	 * is called once the library's lock has been released, so that other
+	 * threads can make, and record, changes in the meantime.
+	 */
+	private void commitJournal() {
+		if (journal != null) {
+			journal.commit();
+		}
+	}
+
+	/**
+	 * Adds a member restored from the journal, with the ID number they were
+	 * issued before
+	 * 
+	 * @param member - The member (Member)
+	 * 
+	 * @throws IllegalArgumentException - If the member cannot be added
+	 */
+	void restoreMember(Member member) throws IllegalArgumentException {
+		long stamp = lock.writeLock();
+		try {
+			insertMember(member, true);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Adds a book restored from the journal, with the ID number it was
+	 * issued before
+	 * 
+	 * @param book - The book (Book)
+	 * 
+	 * @throws IllegalArgumentException - If the book is null
+	 * 
+	 * @throws IllegalStateException - If the book cannot be added
+	 */
+	void restoreBook(Book book) throws IllegalArgumentException, IllegalStateException {
+		long stamp = lock.writeLock();
+		try {
+			insertBook(book, true);
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Adds a loan restored from the journal, with the dates it was issued
+	 * with before
+	 * 
+	 * @param memberIDNumber - The borrower's ID number (int)
+	 * 
+	 * @param bookIDNumber - The book's ID number (int)
+	 * 
+	 * @param issueDate - The loan's date of issue (LocalDate)
+	 * 
+	 * @param expiryDate - The loan's date of expiration (LocalDate)
+	 * 
+	 * @throws IllegalArgumentException - If the member or book do not exist
+	 * 
+	 * @throws IllegalStateException - If the book is already on loan
+	 */
+	void restoreLoan(int memberIDNumber, int bookIDNumber, LocalDate issueDate,
+			LocalDate expiryDate) throws IllegalArgumentException, IllegalStateException {
+		long stamp = lock.readLock();
+		try {
+			claimLoan(lookUpMember(memberIDNumber), lookUpBook(bookIDNumber),
+					issueDate, expiryDate);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Makes sure that ID numbers issued from now on come after the provided
+	 * ID number, once members and books have been restored from the journal
+	 * 
+	 * @param idNumber - The highest ID number restored (int)
+	 */
+	void reserveIDNumbersThrough(int idNumber) {
+		idAllocator.reserveThrough(idNumber);
+	}
+
+	/**
+	 * A utility method that returns the key of a loan in the expiry index
+	 * 
+	 * @param loan - The loan (Loan)
+	 * 
+	 * @return expiryKey - The loan's expiry key (long)
+	 * 
+	 * @see #toExpiryKey(long, int)
+	 */
+	static long toExpiryKey(Loan loan) {
+		return toExpiryKey(loan.getExpiryEpochDay(), loan.getBookIDNumber());
+	}
+
+	/**
+	 * A utility method that combines an expiry date and a book ID number into
+	 * a key of the expiry index. The epoch day occupies the high 32 bits, so
+	 * keys sort by expiry date, and the book ID number (unique among loans)
+	 * occupies the low 32 bits, so keys sort by book within a day. Every loan
+	 * expiring before a date therefore lies before the key of that date with 
+	 * a book ID number of zero.
+	 * 
+	 * @param epochDay - The expiry date as a count of days since 1970-01-01 (long)
+	 * 
+	 * @param bookIDNumber - The ID number of the loaned book (int)
+	 * 
+	 * @return expiryKey - The combined key (long)
+	 */
+	static long toExpiryKey(long epochDay, int bookIDNumber) {
+		return (epochDay << 32) + bookIDNumber;
+	}
+
+	/**
+	 * A utility method that finds the object with the provided ID number in the
+	 * provided collection. A collection of members or books, such as a copy
+	 * of the library's, is resolved through the library's member or book
+	 * lookup; a collection of any other type, or an ID number the library
+	 * does not know, is searched.
+	 * 
+	 * @param collection - A non-empty collection of any single type that
+	 *                     implements the IDNumber interface
+	 * 
+	 * @param idNumber - The ID number of the object (int)
+	 * 
+	 * @return object - The object with the ID number or null if not found (T)
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends IDNumber> T findByID(ArrayList<T> collection, int idNumber) {
+		// Resolve members and books through the library's lookups, without
+		// searching the collection
+		Object first = collection.get(0);
+		Object found = null;
+		if (first instanceof Member) {
+			found = optimisticRead(() -> lookUpMember(idNumber));
+		} else if (first instanceof Book) {
+			found = optimisticRead(() -> lookUpBook(idNumber));
+		}
+		if (found != null) {
+			return (T) found;
+		}
+
+		// Iterate the collection, searching for the object 
+		// with the ID number
+		for (T object : collection) {
+			if (object.getIDNumber() == idNumber) {
+				return object;
+			}
+		}
+
+		// Return null if no object was found
+		return null;
+	}
+
 	/**
 	 * Utility method that checks whether ID numbers are valid
 	 * @param idNumber - The ID number to be validated
@@ -890,4 +2734,29 @@ public class Library {
 		// Return false if it is not
 		return false;
 	}
+
+	/**
+	 * A weak reference to a catalogue book, which remembers the book's ID
+	 * number so that it can be forgotten once the book has been collected
+	 */
+	private static class CatalogBookReference extends WeakReference<Book> {
+		/** The book's ID number */
+		private final int idNumber;
+
+		/**
+		 * Constructor:
+		 * Instantiates a reference to a catalogue book
+		 * 
+		 * @param idNumber - The book's ID number (int)
+		 * 
+		 * @param book - The book (Book)
+		 * 
+		 * @param queue - The queue the reference is put on once the book has
+		 *                been collected (ReferenceQueue<Book>)
+		 */
+		private CatalogBookReference(int idNumber, Book book, ReferenceQueue<Book> queue) {
+			super(book, queue);
+			this.idNumber = idNumber;
+		}
+	}
 }
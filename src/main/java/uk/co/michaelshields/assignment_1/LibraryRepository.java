@@ -0,0 +1,123 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An interface for the stores that hold a library's members, books and
+ * loans, so that the library can keep them in different storage engines
+ * (see the InMemoryRepository and PageStoreRepository classes) without its
+ * callers changing. The library keeps its own indexes of what is stored
+ * (by ID number, email address, ISBN number, title and so on), and only
+ * stores and lists the records through its repository.
+ *
+ * Members and books are only added and removed while the library's write
+ * lock is held, and are only listed while one of its locks is held. Loans
+ * are added and removed alongside one another (see the Library class), so
+ * a repository's loan methods must be safe to call from many threads at
+ * once.
+ *
+ * An engine that cannot store a change throws an UncheckedIOException.
+ *
+ * @see <a href="Library.html">Library</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public interface LibraryRepository extends Closeable {
+	/**
+	 * Mutator Method:
+	 * Stores a member, who has been issued their ID number
+	 *
+	 * @param member - The member (Member)
+	 */
+	void addMember(Member member);
+
+	/**
+	 * Mutator Method:
+	 * Removes a stored member
+	 *
+	 * @param member - The member (Member)
+	 */
+	void removeMember(Member member);
+
+	/**
+	 * Accessor Method:
+	 * Returns the stored members, which the caller must not change
+	 *
+	 * @return members - The members (List<Member>)
+	 */
+	List<Member> getMembers();
+
+	/**
+	 * Mutator Method:
+	 * Stores a book, which has been issued its ID number
+	 *
+	 * @param book - The book (Book)
+	 */
+	void addBook(Book book);
+
+	/**
+	 * Mutator Method:
+	 * Removes a stored book
+	 *
+	 * @param book - The book (Book)
+	 */
+	void removeBook(Book book);
+
+	/**
+	 * Accessor Method:
+	 * Returns the stored books, which the caller must not change
+	 *
+	 * @return books - The books (List<Book>)
+	 */
+	List<Book> getBooks();
+
+	/**
+	 * Mutator Method:
+	 * Stores a loan, whose book has been claimed for it
+	 *
+	 * @param loan - The loan (Loan)
+	 */
+	void addLoan(Loan loan);
+
+	/**
+	 * Mutator Method:
+	 * Removes a stored loan, unless it has already been removed. A later
+	 * loan of the same book is not removed in its place.
+	 *
+	 * @param loan - The loan (Loan)
+	 */
+	void removeLoan(Loan loan);
+
+	/**
+	 * Accessor Method:
+	 * Returns the stored loans, ordered by expiry date and then by book ID
+	 * number. Loans added or removed while the loans are read may be left
+	 * out.
+	 *
+	 * @return loans - The loans (Collection<Loan>)
+	 */
+	Collection<Loan> getLoans();
+
+	/**
+	 * Accessor Method:
+	 * Returns the stored loans that expire before the provided day, ordered
+	 * by expiry date and then by book ID number
+	 *
+	 * @param epochDay - The day, as a count of days since 1970-01-01 (long)
+	 *
+	 * @return loans - The loans (Collection<Loan>)
+	 */
+	Collection<Loan> getLoansExpiringBefore(long epochDay);
+
+	/**
+	 * Accessor Method:
+	 * Returns the highest ID number of the members and books ever stored,
+	 * including those since removed, so that it is not issued again
+	 *
+	 * @return highestIDNumber - The highest ID number, or 0 (int)
+	 */
+	int getHighestIDNumber();
+}
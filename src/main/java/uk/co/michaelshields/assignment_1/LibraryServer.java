@@ -0,0 +1,747 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An HTTP/JSON API over a library, served on the loopback address by the
+ * JDK's built in HTTP server, so that staff can use the library from
+ * browsers and kiosks alongside the command line application.
+ *
+ * The API's resources are:
+ * <ul>
+ * <li>{@code GET /members}, {@code GET /members/{id}},
+ * {@code POST /members} (firstName, lastName, email, phoneNumber) and
+ * {@code DELETE /members/{id}}</li>
+ * <li>{@code GET /books}, {@code GET /books/{id}},
+ * {@code POST /books} (author, title, genre, isbnNumber) and
+ * {@code DELETE /books/{id}}</li>
+ * <li>{@code GET /loans}, {@code POST /loans} (memberID, bookID) and
+ * {@code DELETE /loans?memberID=&bookID=}</li>
+ * <li>{@code GET /overdue?date=yyyy-mm-dd}, the loans expired before the
+ * date (today if it is left out)</li>
+ * <li>{@code GET /search/books?q=} and {@code GET /search/members?q=}</li>
+ * </ul>
+ * Parameters are read from the query string and from form encoded request
+ * bodies. Errors are returned as {@code {"error": "..."}} with the status
+ * 400 for invalid requests, 404 for missing members, books and loans, 409
+ * for requests that conflict with the library's state and 500 otherwise.
+ *
+ * Each request is handled on a thread of its own. Where the JDK provides
+ * virtual threads (Java 21 onwards) they are used, so thousands of clients
+ * waiting on slow connections cost little more than their sockets;
+ * otherwise requests are handled on a cached pool of threads.
+ *
+ * @see <a href="Library.html">Library</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class LibraryServer implements Closeable {
+	/** The number of connections queued before the server refuses them */
+	private static final int BACKLOG = 1024;
+
+	/** The library that the API exposes */
+	private final Library library;
+	/** The JDK's HTTP server */
+	private final HttpServer server;
+	/** The executor each request is handled on */
+	private final ExecutorService executor;
+
+	/**
+	 * Constructor:
+	 * Instantiates a server exposing the provided library on the provided
+	 * port of the loopback address. The server accepts requests once it is
+	 * started.
+	 *
+	 * @param library - The library (Library)
+	 *
+	 * @param port - The port, or 0 for any free port (int)
+	 *
+	 * @throws IllegalArgumentException - If the library is null or the port
+	 *                                    is out of range
+	 *
+	 * @throws IOException - If the port cannot be bound
+	 */
+	public LibraryServer(Library library, int port)
+			throws IllegalArgumentException, IOException {
+		// Guard clause that prevents serving a missing library
+		if (library == null) {
+			throw new IllegalArgumentException("The library cannot be null");
+		}
+
+		// Send responses without waiting to coalesce them with later writes,
+		// which otherwise delays each response on a kept alive connection
+		// by the client's delayed acknowledgement (around 40ms)
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+
+		this.library = library;
+		this.server = HttpServer.create(
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+		this.executor = newRequestExecutor();
+		server.setExecutor(executor);
+
+		server.createContext("/members", exchange -> handle(exchange, this::members));
+		server.createContext("/books", exchange -> handle(exchange, this::books));
+		server.createContext("/loans", exchange -> handle(exchange, this::loans));
+		server.createContext("/overdue", exchange -> handle(exchange, this::overdue));
+		server.createContext("/search", exchange -> handle(exchange, this::search));
+	}
+
+	/**
+	 * Starts accepting requests
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the port that the server is bound to
+	 *
+	 * @return port - The port (int)
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Stops the server, without waiting for requests being handled
+	 */
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdown();
+	}
+
+	/**
+	 * Returns an executor that runs each task on a virtual thread of its own
+	 * if the JDK provides them, or else on a cached pool of daemon threads.
+	 * Virtual threads are looked up reflectively, so the application still
+	 * builds for, and runs on, older JDKs.
+	 *
+	 * @return executor - The executor (ExecutorService)
+	 */
+	static ExecutorService newRequestExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(task -> {
+				Thread thread = new Thread(task, "library-http");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * A request handler, returning the status and body of its response
+	 */
+	private interface Route {
+		/**
+		 * Handles a request
+		 *
+		 * @param request - The request (Request)
+		 *
+		 * @return response - The response (Response)
+		 *
+		 * @throws IOException - If the request cannot be read
+		 */
+		Response handle(Request request) throws IOException;
+	}
+
+	/**
+	 * A utility method that runs a route and sends its response as JSON,
+	 * or sends the error it threw
+	 *
+	 * @param exchange - The HTTP exchange (HttpExchange)
+	 *
+	 * @param route - The route (Route)
+	 *
+	 * @throws IOException - If the response cannot be sent
+	 */
+	private static void handle(HttpExchange exchange, Route route) throws IOException {
+		Response response;
+		try {
+			response = route.handle(new Request(exchange));
+		} catch (NoSuchElementException e) {
+			response = Response.error(404, e.getMessage());
+		} catch (IllegalStateException e) {
+			response = Response.error(409, e.getMessage());
+		} catch (IllegalArgumentException e) {
+			response = Response.error(400, e.getMessage());
+		} catch (RuntimeException e) {
+			response = Response.error(500, e.getMessage());
+		}
+
+		byte[] body = Json.write(response.body).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(response.status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	/**
+	 * Handles the members resource
+	 *
+	 * @param request - The request (Request)
+	 *
+	 * @return response - The response (Response)
+	 *
+	 * @throws IOException - If the request cannot be read
+	 */
+	private Response members(Request request) throws IOException {
+		if (request.id == null) {
+			if (request.is("GET")) {
+				return Response.ok(toJson(library.getSnapshot().getMembers(), LibraryServer::toJson));
+			}
+			if (request.is("POST")) {
+				Member member;
+				try {
+					member = new Member(request.required("firstName"),
+							request.required("lastName"), request.required("email"),
+							request.required("phoneNumber"));
+				} catch (RuntimeException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new IllegalArgumentException(e.getMessage(), e);
+				}
+				library.addMember(member);
+				return new Response(201, toJson(member));
+			}
+		} else {
+			if (request.is("GET")) {
+				return Response.ok(toJson(library.getMemberByID(request.id)));
+			}
+			if (request.is("DELETE")) {
+				library.removeMemberByID(request.id);
+				return Response.ok(deleted(request.id));
+			}
+		}
+		return Response.notAllowed(request);
+	}
+
+	/**
+	 * Handles the books resource
+	 *
+	 * @param request - The request (Request)
+	 *
+	 * @return response - The response (Response)
+	 *
+	 * @throws IOException - If the request cannot be read
+	 */
+	private Response books(Request request) throws IOException {
+		if (request.id == null) {
+			if (request.is("GET")) {
+				return Response.ok(toJson(library.getSnapshot().getBooks(), LibraryServer::toJson));
+			}
+			if (request.is("POST")) {
+				Book book = new Book(request.required("author"), request.required("title"),
+						request.required("genre"), request.required("isbnNumber"));
+				library.addBook(book);
+				return new Response(201, toJson(book));
+			}
+		} else {
+			if (request.is("GET")) {
+				return Response.ok(toJson(library.getBookByID(request.id)));
+			}
+			if (request.is("DELETE")) {
+				library.removeBookByID(request.id);
+				return Response.ok(deleted(request.id));
+			}
+		}
+		return Response.notAllowed(request);
+	}
+
+	/**
+	 * Handles the loans resource
+	 *
+	 * @param request - The request (Request)
+	 *
+	 * @return response - The response (Response)
+	 *
+	 * @throws IOException - If the request cannot be read
+	 */
+	private Response loans(Request request) throws IOException {
+		if (request.id == null) {
+			if (request.is("GET")) {
+				// Convert the loans as they are read, rather than copying them
+				List<Object> values = new ArrayList<>();
+				library.forEachLoan(loan -> values.add(toJson(loan)));
+				return Response.ok(values);
+			}
+			if (request.is("POST") || request.is("DELETE")) {
+				Member member = library.getMemberByID(request.requiredInt("memberID"));
+				Book book = library.getBookByID(request.requiredInt("bookID"));
+				if (request.is("POST")) {
+					library.addLoan(member, book);
+					return new Response(201, toJson(library.getLoan(member, book)));
+				}
+				library.removeLoan(member, book);
+				return Response.ok(deleted(book.getIDNumber()));
+			}
+		}
+		return Response.notAllowed(request);
+	}
+
+	/**
+	 * Handles the overdue loans resource
+	 *
+	 * @param request - The request (Request)
+	 *
+	 * @return response - The response (Response)
+	 *
+	 * @throws IOException - If the request cannot be read
+	 */
+	private Response overdue(Request request) throws IOException {
+		if (request.id != null || !request.is("GET")) {
+			return Response.notAllowed(request);
+		}
+
+		String date = request.parameter("date");
+		LocalDate expiryDate;
+		try {
+			expiryDate = date == null ? LocalDate.now() : LocalDate.parse(date);
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("The date must be in the form yyyy-mm-dd");
+		}
+
+		// Read only the expired loans, rather than copying every loan, and
+		// list none if there are no loans or none have expired
+		List<Loan> expiredLoans;
+		try {
+			expiredLoans = library.getExpiredLoans(expiryDate);
+		} catch (NoSuchElementException | IllegalStateException e) {
+			expiredLoans = new ArrayList<Loan>();
+		}
+		return Response.ok(toJson(expiredLoans, LibraryServer::toJson));
+	}
+
+	/**
+	 * Handles the search resources
+	 *
+	 * @param request - The request (Request)
+	 *
+	 * @return response - The response (Response)
+	 *
+	 * @throws IOException - If the request cannot be read
+	 */
+	private Response search(Request request) throws IOException {
+		if (request.is("GET") && request.path.equals("/search/books")) {
+			return Response.ok(toJson(library.findBooksByTitleQuery(request.required("q")),
+					LibraryServer::toJson));
+		}
+		if (request.is("GET") && request.path.equals("/search/members")) {
+			return Response.ok(toJson(library.findMembersByLastNameQuery(request.required("q")),
+					LibraryServer::toJson));
+		}
+		throw new NoSuchElementException("No such resource: " + request.path);
+	}
+
+	/**
+	 * A utility method that converts a list to JSON values
+	 *
+	 * @param items - The items (List<T>)
+	 *
+	 * @param converter - Converts an item to a JSON value (Converter<T>)
+	 *
+	 * @return values - The JSON values (List<Object>)
+	 */
+	private static <T> List<Object> toJson(List<T> items, Converter<T> converter) {
+		List<Object> values = new ArrayList<>(items.size());
+		for (T item : items) {
+			values.add(converter.convert(item));
+		}
+		return values;
+	}
+
+	/**
+	 * Converts an item to a JSON value
+	 */
+	private interface Converter<T> {
+		/**
+		 * Converts an item
+		 *
+		 * @param item - The item (T)
+		 *
+		 * @return value - The JSON value (Object)
+		 */
+		Object convert(T item);
+	}
+
+	/**
+	 * A utility method that converts a member to a JSON object
+	 *
+	 * @param member - The member (Member)
+	 *
+	 * @return object - The JSON object (Map<String, Object>)
+	 */
+	private static Map<String, Object> toJson(Member member) {
+		Map<String, Object> object = new LinkedHashMap<>();
+		object.put("idNumber", member.getIDNumber());
+		object.put("firstName", member.getFirstName());
+		object.put("lastName", member.getLastName());
+		object.put("email", member.getEmail());
+		object.put("phoneNumber", member.getPhoneNumber());
+		return object;
+	}
+
+	/**
+	 * A utility method that converts a book to a JSON object
+	 *
+	 * @param book - The book (Book)
+	 *
+	 * @return object - The JSON object (Map<String, Object>)
+	 */
+	private static Map<String, Object> toJson(Book book) {
+		Map<String, Object> object = new LinkedHashMap<>();
+		object.put("idNumber", book.getIDNumber());
+		object.put("author", book.getAuthor());
+		object.put("title", book.getTitle());
+		object.put("genre", book.getGenre());
+		object.put("isbnNumber", book.getISBNNumber());
+		return object;
+	}
+
+	/**
+	 * A utility method that converts a loan to a JSON object
+	 *
+	 * @param loan - The loan (Loan)
+	 *
+	 * @return object - The JSON object (Map<String, Object>)
+	 */
+	private static Map<String, Object> toJson(Loan loan) {
+		Map<String, Object> object = new LinkedHashMap<>();
+		object.put("memberID", loan.getMemberIDNumber());
+		object.put("bookID", loan.getBookIDNumber());
+		object.put("issueDate", loan.getIssueDate().toString());
+		object.put("expiryDate", loan.getExpiryDate().toString());
+		return object;
+	}
+
+	/**
+	 * A utility method that returns the body of a response to a deletion
+	 *
+	 * @param idNumber - The ID number of what was deleted (int)
+	 *
+	 * @return object - The JSON object (Map<String, Object>)
+	 */
+	private static Map<String, Object> deleted(int idNumber) {
+		Map<String, Object> object = new LinkedHashMap<>();
+		object.put("deleted", idNumber);
+		return object;
+	}
+
+	/**
+	 * The status and body of a response
+	 */
+	private static class Response {
+		/** The HTTP status */
+		private final int status;
+		/** The body, a JSON value */
+		private final Object body;
+
+		/**
+		 * Constructor:
+		 * Instantiates a response
+		 *
+		 * @param status - The HTTP status (int)
+		 *
+		 * @param body - The body (Object)
+		 */
+		private Response(int status, Object body) {
+			this.status = status;
+			this.body = body;
+		}
+
+		/**
+		 * Returns a successful response
+		 *
+		 * @param body - The body (Object)
+		 *
+		 * @return response - The response (Response)
+		 */
+		private static Response ok(Object body) {
+			return new Response(200, body);
+		}
+
+		/**
+		 * Returns an error response
+		 *
+		 * @param status - The HTTP status (int)
+		 *
+		 * @param message - The error message (String)
+		 *
+		 * @return response - The response (Response)
+		 */
+		private static Response error(int status, String message) {
+			Map<String, Object> body = new LinkedHashMap<>();
+			body.put("error", message);
+			return new Response(status, body);
+		}
+
+		/**
+		 * Returns the response to a method a resource does not support
+		 *
+		 * @param request - The request (Request)
+		 *
+		 * @return response - The response (Response)
+		 */
+		private static Response notAllowed(Request request) {
+			return error(405, request.method + " is not supported by " + request.path);
+		}
+	}
+
+	/**
+	 * A request's method, path, ID number and parameters
+	 */
+	private static class Request {
+		/** The HTTP method */
+		private final String method;
+		/** The request path */
+		private final String path;
+		/** The ID number following the resource's name, or null */
+		private final Integer id;
+		/** The query string and form parameters */
+		private final Map<String, String> parameters = new LinkedHashMap<>();
+
+		/**
+		 * Constructor:
+		 * Reads a request's path, query string and form encoded body
+		 *
+		 * @param exchange - The HTTP exchange (HttpExchange)
+		 *
+		 * @throws IOException - If the body cannot be read
+		 *
+		 * @throws IllegalArgumentException - If the ID number is not a number
+		 */
+		private Request(HttpExchange exchange) throws IOException, IllegalArgumentException {
+			method = exchange.getRequestMethod();
+			path = exchange.getRequestURI().getPath();
+
+			String[] segments = path.split("/");
+			if (segments.length > 2 && !path.startsWith("/search")) {
+				id = parseInt("ID number", segments[2]);
+			} else {
+				id = null;
+			}
+
+			parse(exchange.getRequestURI().getRawQuery());
+			try (InputStream in = exchange.getRequestBody()) {
+				ByteArrayOutputStream body = new ByteArrayOutputStream();
+				byte[] buffer = new byte[4096];
+				for (int read; (read = in.read(buffer)) != -1;) {
+					body.write(buffer, 0, read);
+				}
+				parse(new String(body.toByteArray(), StandardCharsets.UTF_8));
+			}
+		}
+
+		/**
+		 * Checks the request's method
+		 *
+		 * @param method - The method (String)
+		 *
+		 * @return is - Whether the request uses the method (boolean)
+		 */
+		private boolean is(String method) {
+			return this.method.equals(method);
+		}
+
+		/**
+		 * Returns a parameter, or null if it was not provided
+		 *
+		 * @param name - The parameter's name (String)
+		 *
+		 * @return value - The parameter's value (String)
+		 */
+		private String parameter(String name) {
+			return parameters.get(name);
+		}
+
+		/**
+		 * Returns a parameter that must be provided
+		 *
+		 * @param name - The parameter's name (String)
+		 *
+		 * @return value - The parameter's value (String)
+		 *
+		 * @throws IllegalArgumentException - If the parameter was not provided
+		 */
+		private String required(String name) throws IllegalArgumentException {
+			String value = parameters.get(name);
+			if (value == null) {
+				throw new IllegalArgumentException("The " + name + " parameter is required");
+			}
+			return value;
+		}
+
+		/**
+		 * Returns a whole number parameter that must be provided
+		 *
+		 * @param name - The parameter's name (String)
+		 *
+		 * @return value - The parameter's value (int)
+		 *
+		 * @throws IllegalArgumentException - If the parameter was not provided
+		 *                                    or is not a whole number
+		 */
+		private int requiredInt(String name) throws IllegalArgumentException {
+			return parseInt(name, required(name));
+		}
+
+		/**
+		 * A utility method that parses a whole number
+		 *
+		 * @param name - What the number is (String)
+		 *
+		 * @param value - The number's text (String)
+		 *
+		 * @return number - The number (int)
+		 *
+		 * @throws IllegalArgumentException - If the text is not a whole number
+		 */
+		private static int parseInt(String name, String value) throws IllegalArgumentException {
+			try {
+				return Integer.parseInt(value);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("The " + name + " must be a whole number");
+			}
+		}
+
+		/**
+		 * A utility method that adds the parameters of a query string or
+		 * form encoded body
+		 *
+		 * @param encoded - The encoded parameters, or null (String)
+		 *
+		 * @throws UnsupportedEncodingException - Never, UTF-8 is always supported
+		 */
+		private void parse(String encoded) throws UnsupportedEncodingException {
+			if (encoded == null || encoded.isEmpty()) {
+				return;
+			}
+			for (String pair : encoded.split("&")) {
+				int equals = pair.indexOf('=');
+				String name = equals < 0 ? pair : pair.substring(0, equals);
+				String value = equals < 0 ? "" : pair.substring(equals + 1);
+				parameters.put(URLDecoder.decode(name, "UTF-8"),
+						URLDecoder.decode(value, "UTF-8"));
+			}
+		}
+	}
+
+	/**
+	 * Writes JSON values: maps, lists, strings, numbers, booleans and null
+	 */
+	static final class Json {
+		/**
+		 * Constructor:
+		 * Not used, the class only has static methods
+		 */
+		private Json() {
+		}
+
+		/**
+		 * Writes a JSON value
+		 *
+		 * @param value - The value (Object)
+		 *
+		 * @return json - The JSON text (String)
+		 */
+		static String write(Object value) {
+			StringBuilder json = new StringBuilder();
+			write(json, value);
+			return json.toString();
+		}
+
+		/**
+		 * A utility method that appends a JSON value
+		 *
+		 * @param json - The JSON text so far (StringBuilder)
+		 *
+		 * @param value - The value (Object)
+		 */
+		private static void write(StringBuilder json, Object value) {
+			if (value == null) {
+				json.append("null");
+			} else if (value instanceof Map) {
+				json.append('{');
+				boolean first = true;
+				for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+					if (!first) {
+						json.append(',');
+					}
+					first = false;
+					writeString(json, String.valueOf(entry.getKey()));
+					json.append(':');
+					write(json, entry.getValue());
+				}
+				json.append('}');
+			} else if (value instanceof List) {
+				json.append('[');
+				boolean first = true;
+				for (Object item : (List<?>) value) {
+					if (!first) {
+						json.append(',');
+					}
+					first = false;
+					write(json, item);
+				}
+				json.append(']');
+			} else if (value instanceof Number || value instanceof Boolean) {
+				json.append(value);
+			} else {
+				writeString(json, value.toString());
+			}
+		}
+
+		/**
+		 * A utility method that appends a JSON string, escaping quotes,
+		 * backslashes and control characters
+		 *
+		 * @param json - The JSON text so far (StringBuilder)
+		 *
+		 * @param text - The string (String)
+		 */
+		private static void writeString(StringBuilder json, String text) {
+			json.append('"');
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c == '"' || c == '\\') {
+					json.append('\\').append(c);
+				} else if (c < 0x20) {
+					json.append(String.format("\\u%04x", (int) c));
+				} else {
+					json.append(c);
+				}
+			}
+			json.append('"');
+		}
+	}
+}
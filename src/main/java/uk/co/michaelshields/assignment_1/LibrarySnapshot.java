@@ -0,0 +1,145 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, point-in-time view of a library's books, members and loans,
+ * used by displays and reports that take a while to run, so that they
+ * neither hold up the library's writers nor see it change part way through.
+ *
+ * Each snapshot carries the library's version when it was taken; the
+ * version changes whenever a book, member or loan is added or removed. A
+ * library hands out the same snapshot until its version changes, and a new
+ * snapshot shares the collections of the previous one that have not
+ * changed, so taking a snapshot is cheap when little has changed.
+ *
+ * The collections cannot be changed, but the books, members and loans in
+ * them are the library's own, so changes to a member's details (for
+ * example) are seen.
+ *
+ * @see <a href="Library.html">Library</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class LibrarySnapshot {
+	/** The library's version when the snapshot was taken */
+	private final long version;
+	/** The number of changes made to the books when the snapshot was taken */
+	final long booksVersion;
+	/** The number of changes made to the members when the snapshot was taken */
+	final long membersVersion;
+	/** The number of changes made to the loans when the snapshot was taken */
+	final long loansVersion;
+	/** The library's books */
+	private final List<Book> books;
+	/** The library's members */
+	private final List<Member> members;
+	/** The library's loans, ordered by expiry date */
+	private final List<Loan> loans;
+
+	/**
+	 * Constructor:
+	 * Instantiates a snapshot of the provided collections, which must not be
+	 * changed afterwards
+	 *
+	 * @param booksVersion - The number of changes made to the books (long)
+	 *
+	 * @param membersVersion - The number of changes made to the members (long)
+	 *
+	 * @param loansVersion - The number of changes made to the loans (long)
+	 *
+	 * @param books - The library's books (List<Book>)
+	 *
+	 * @param members - The library's members (List<Member>)
+	 *
+	 * @param loans - The library's loans, ordered by expiry date (List<Loan>)
+	 */
+	LibrarySnapshot(long booksVersion, long membersVersion, long loansVersion,
+			List<Book> books, List<Member> members, List<Loan> loans) {
+		this.version = booksVersion + membersVersion + loansVersion;
+		this.booksVersion = booksVersion;
+		this.membersVersion = membersVersion;
+		this.loansVersion = loansVersion;
+		this.books = Collections.unmodifiableList(books);
+		this.members = Collections.unmodifiableList(members);
+		this.loans = Collections.unmodifiableList(loans);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the library's version when the snapshot was taken. Snapshots
+	 * of the same library with the same version hold the same collections.
+	 *
+	 * @return version - The version (long)
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the library's books
+	 *
+	 * @return books - An unmodifiable list of the books (List<Book>)
+	 */
+	public List<Book> getBooks() {
+		return books;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the library's members
+	 *
+	 * @return members - An unmodifiable list of the members (List<Member>)
+	 */
+	public List<Member> getMembers() {
+		return members;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the library's loans, ordered by expiry date
+	 *
+	 * @return loans - An unmodifiable list of the loans (List<Loan>)
+	 */
+	public List<Loan> getLoans() {
+		return loans;
+	}
+
+	/**
+	 * Returns the loans that expire before the provided date, ordered by
+	 * expiry date. As the loans are ordered by expiry date, the expired
+	 * loans are the start of the loans list, which is found by binary search.
+	 *
+	 * @param expiryDate - The cutoff date (LocalDate)
+	 *
+	 * @return expiredLoans - An unmodifiable list of the expired loans
+	 *                        (List<Loan>)
+	 *
+	 * @throws IllegalArgumentException - If the expiryDate is null
+	 */
+	public List<Loan> getExpiredLoans(LocalDate expiryDate) throws IllegalArgumentException {
+		// Guard clause preventing null expiryDate being provided
+		if (expiryDate == null) {
+			throw new IllegalArgumentException("Cannot get expired loans, expiryDate is null");
+		}
+
+		// Find the first loan that does not expire before the date
+		long cutoff = expiryDate.toEpochDay();
+		int low = 0;
+		int high = loans.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (loans.get(middle).getExpiryEpochDay() < cutoff) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+
+		return loans.subList(0, low);
+	}
+}
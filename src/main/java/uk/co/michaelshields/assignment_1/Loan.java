@@ -2,8 +2,6 @@ package uk.co.michaelshields.assignment_1;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 /**
  * A class that models a loan, including the member borrowing the book, the
@@ -15,7 +13,14 @@ import java.util.Map;
  * @see <a href="Book.html">Book</a>
  */
 public class Loan implements Displayable {
-	private Map<String, Object> details = new LinkedHashMap<>();
+	/** The member borrowing the book */
+	private Member member;
+	/** The book that is being borrowed */
+	private Book book;
+	/** The loan's date of issue as a count of days since 1970-01-01 */
+	private int issueEpochDay;
+	/** The loan's date of expiration as a count of days since 1970-01-01 */
+	private int expiryEpochDay;
 
 	/**
 	 * Constructor:
@@ -61,7 +66,7 @@ public class Loan implements Displayable {
 		}
 
 		// Add the member to the loan
-		details.put("Member", member);
+		this.member = member;
 	}
 
 	/**
@@ -71,7 +76,18 @@ public class Loan implements Displayable {
 	 * @return member - The member that borrowed the book (Member)
 	 */
 	public Member getMember() {
-		return (Member) details.get("Member");
+		return member;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the ID number of the borrower of the book
+	 *
+	 * @return memberIDNumber - The ID number of the member that 
+	 *                          borrowed the book (int)
+	 */
+	public int getMemberIDNumber() {
+		return member.getIDNumber();
 	}
 
 	/**
@@ -95,7 +111,7 @@ public class Loan implements Displayable {
 		}
 
 		// Set the loan's book
-		details.put("Book", book);
+		this.book = book;
 	}
 
 	/**
@@ -105,7 +121,17 @@ public class Loan implements Displayable {
 	 * @return book - The book that was loaned (Book)
 	 */
 	public Book getBook() {
-		return (Book) details.get("Book");
+		return book;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the ID number of the book that was loaned
+	 *
+	 * @return bookIDNumber - The ID number of the book that was loaned (int)
+	 */
+	public int getBookIDNumber() {
+		return book.getIDNumber();
 	}
 
 	/**
@@ -125,7 +151,7 @@ public class Loan implements Displayable {
 		}
 
 		// Set the loan's issue date
-		details.put("Issue Date", issueDate);
+		issueEpochDay = toEpochDay(issueDate);
 	}
 
 	/**
@@ -135,7 +161,17 @@ public class Loan implements Displayable {
 	 * @return issueDate - The loan's date of issue (LocalDate)
 	 */
 	public LocalDate getIssueDate() {
-		return (LocalDate) details.get("Issue Date");
+		return LocalDate.ofEpochDay(issueEpochDay);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the loan's date of issue as a count of days since 1970-01-01
+	 *
+	 * @return issueEpochDay - The loan's date of issue (int)
+	 */
+	public int getIssueEpochDay() {
+		return issueEpochDay;
 	}
 
 	/**
@@ -152,16 +188,16 @@ public class Loan implements Displayable {
 		}
 
 		// Compare the dates to make sure that the issueDate is before the expiryDate
-		int comparedDates = getIssueDate().compareTo(expiryDate);
+		int expiryEpochDay = toEpochDay(expiryDate);
 
 		// Throw an error if the issueDate is after the expiryDate
-		if (comparedDates >= 0) {
+		if (issueEpochDay >= expiryEpochDay) {
 			throw new IllegalArgumentException(
 					"Cannot create loan, the issue date cannot be on or after the expiry date");
 		}
 
 		// Set the loans expiration date
-		details.put("Expiry Date", expiryDate);
+		this.expiryEpochDay = expiryEpochDay;
 	}
 
 	/**
@@ -171,7 +207,40 @@ public class Loan implements Displayable {
 	 * @return expiryDate - The loan's expiration date (LocalDate)
 	 */
 	public LocalDate getExpiryDate() {
-		return (LocalDate) details.get("Expiry Date");
+		return LocalDate.ofEpochDay(expiryEpochDay);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the loan's expiration date as a count of days since 1970-01-01
+	 * 
+	 * @return expiryEpochDay - The loan's expiration date (int)
+	 */
+	public int getExpiryEpochDay() {
+		return expiryEpochDay;
+	}
+
+	/**
+	 * A utility method that converts a date into a count of days since
+	 * 1970-01-01
+	 * 
+	 * @param date - The date (LocalDate)
+	 * 
+	 * @return epochDay - The count of days since 1970-01-01 (int)
+	 * 
+	 * @throws IllegalArgumentException - If the date is too far from 1970 to
+	 *                                    be held as an int count of days
+	 */
+	private static int toEpochDay(LocalDate date) throws IllegalArgumentException {
+		long epochDay = date.toEpochDay();
+
+		// Guard clause preventing dates that would overflow
+		if (epochDay < Integer.MIN_VALUE || epochDay > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					"Cannot create loan, the date " + date + " is out of range");
+		}
+
+		return (int) epochDay;
 	}
 
 	/**
@@ -179,11 +248,6 @@ public class Loan implements Displayable {
 	 */
 	@Override
 	public void displayDetails() {
-		// Get the loans member
-		Member member = (Member) details.get("Member");
-		// Get the loans book
-		Book book = (Book) details.get("Book");
-		
 		// Create a DateTimeFormatter and configure it 
 		// to display dates in the required format
 		DateTimeFormatter formatter = DateTimeFormatter
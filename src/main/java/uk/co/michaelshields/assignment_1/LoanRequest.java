@@ -0,0 +1,55 @@
+package uk.co.michaelshields.assignment_1;
+
+/**
+ * A class that models a request to loan a book to a member, or to return
+ * it, as one item of a batch of checkouts or returns.
+ *
+ * Requests are not validated when they are created, so that a bad request
+ * fails on its own when its batch is applied rather than stopping the batch
+ * from being built.
+ *
+ * @see <a href="Library.html">Library</a>
+ * @see <a href="LoanResult.html">LoanResult</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class LoanRequest {
+	/** The member borrowing or returning the book */
+	private final Member member;
+	/** The book that is being borrowed or returned */
+	private final Book book;
+
+	/**
+	 * Constructor:
+	 * Instantiates a request to loan or return the provided book
+	 *
+	 * @param member - The member borrowing or returning the book (Member)
+	 *
+	 * @param book - The book that is being borrowed or returned (Book)
+	 */
+	public LoanRequest(Member member, Book book) {
+		this.member = member;
+		this.book = book;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the member borrowing or returning the book
+	 *
+	 * @return member - The member (Member)
+	 */
+	public Member getMember() {
+		return member;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the book that is being borrowed or returned
+	 *
+	 * @return book - The book (Book)
+	 */
+	public Book getBook() {
+		return book;
+	}
+}
@@ -0,0 +1,90 @@
+package uk.co.michaelshields.assignment_1;
+
+/**
+ * A class that models the result of one request of a batch of checkouts
+ * or returns: either the loan that was added or removed, or the error that
+ * stopped the request.
+ *
+ * @see <a href="Library.html">Library</a>
+ * @see <a href="LoanRequest.html">LoanRequest</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class LoanResult {
+	/** The request this is the result of */
+	private final LoanRequest request;
+	/** The loan that was added or removed, or null if the request failed */
+	private final Loan loan;
+	/** The error that stopped the request, or null if it succeeded */
+	private final RuntimeException error;
+
+	/**
+	 * Constructor:
+	 * Instantiates the result of a request that succeeded
+	 *
+	 * @param request - The request (LoanRequest)
+	 *
+	 * @param loan - The loan that was added or removed (Loan)
+	 */
+	LoanResult(LoanRequest request, Loan loan) {
+		this.request = request;
+		this.loan = loan;
+		this.error = null;
+	}
+
+	/**
+	 * Constructor:
+	 * Instantiates the result of a request that failed
+	 *
+	 * @param request - The request (LoanRequest)
+	 *
+	 * @param error - The error that stopped the request (RuntimeException)
+	 */
+	LoanResult(LoanRequest request, RuntimeException error) {
+		this.request = request;
+		this.loan = null;
+		this.error = error;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the request this is the result of
+	 *
+	 * @return request - The request (LoanRequest)
+	 */
+	public LoanRequest getRequest() {
+		return request;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the loan that was added or removed
+	 *
+	 * @return loan - The loan, or null if the request failed (Loan)
+	 */
+	public Loan getLoan() {
+		return loan;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the error that stopped the request, e.g. an
+	 * IllegalStateException if the book was already on loan
+	 *
+	 * @return error - The error, or null if the request succeeded
+	 *                 (RuntimeException)
+	 */
+	public RuntimeException getError() {
+		return error;
+	}
+
+	/**
+	 * Returns whether the request succeeded
+	 *
+	 * @return isSuccessful - Indicates whether the request succeeded (boolean)
+	 */
+	public boolean isSuccessful() {
+		return error == null;
+	}
+}
@@ -0,0 +1,711 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A disk resident store of a library's loans, for libraries whose loans are
+ * too many to hold on the heap. Loans are held in three B+trees sharing one
+ * file and one buffer pool, so however many loans there are, only the
+ * buffer pool's pages are held in memory:
+ *
+ * <ul>
+ * <li>by member and book: the member's ID number in the high 32 bits of the
+ * key and the book's in the low 32 bits, holding the loan's issue and
+ * expiry epoch days, so a loan is found by its member and book and a
+ * member's loans lie together</li>
+ * <li>by expiry date: the expiry key of the Library's toExpiryKey method,
+ * holding the member's ID number and the issue epoch day, so the loans
+ * expiring before a date are read in expiry order without visiting the
+ * rest</li>
+ * <li>by book: the book's ID number, holding the member's ID number, so a
+ * book is only loaned once at a time</li>
+ * </ul>
+ *
+ * The first page of the file is its header: a magic number, whether the
+ * file was closed cleanly, the number of pages, the free list, the roots
+ * of the trees and the number of loans. Changed pages are written back
+ * when the buffer pool evicts them and by flush or close. Until then the
+ * trees on disk may be part way through a change, so the header is marked
+ * as not closed cleanly before the first change after a flush.
+ *
+ * So that a file that was not closed cleanly can be recovered, the tree
+ * keeps a rollback file beside it (its name followed by ".rollback"). Before
+ * a page that was in the file at the last flush is first written over, its
+ * contents at the flush are added to the rollback file, with a checksum, and
+ * forced to disk, the header's among them. A file that was not closed
+ * cleanly is put back as it was at the last flush, from the rollback file,
+ * when it is opened again, losing only the changes made since; it is only
+ * refused if its rollback file is missing. A flush empties the rollback
+ * file, and close deletes it.
+ *
+ * A loan tree's methods are synchronised, so it may be shared between
+ * threads; loans are added and removed one at a time.
+ *
+ * @see <a href="BPlusTree.html">BPlusTree</a>
+ * @see <a href="BufferPool.html">BufferPool</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class LoanTree implements Closeable {
+	/** The number of buffer pool frames used unless another is given (4 MB) */
+	public static final int DEFAULT_FRAMES = 1024;
+	/** The magic number that starts the file ("LOAN") */
+	private static final int MAGIC = 0x4C4F414E;
+	/** The size of a record of the rollback file: a page number, a checksum and the page */
+	private static final int ROLLBACK_RECORD_SIZE = 8 + BufferPool.PAGE_SIZE;
+
+	/**
+	 * A loan read from the tree, by the ID numbers of its member and book
+	 * and its epoch days
+	 */
+	public static class Entry {
+		/** The borrower's ID number */
+		private final int memberIDNumber;
+		/** The loaned book's ID number */
+		private final int bookIDNumber;
+		/** The loan's date of issue as an epoch day */
+		private final int issueEpochDay;
+		/** The loan's date of expiry as an epoch day */
+		private final int expiryEpochDay;
+
+		/**
+		 * Constructor:
+		 * Instantiates an entry
+		 *
+		 * @param memberIDNumber - The borrower's ID number (int)
+		 *
+		 * @param bookIDNumber - The book's ID number (int)
+		 *
+		 * @param issueEpochDay - The date of issue as an epoch day (int)
+		 *
+		 * @param expiryEpochDay - The date of expiry as an epoch day (int)
+		 */
+		private Entry(int memberIDNumber, int bookIDNumber, int issueEpochDay,
+				int expiryEpochDay) {
+			this.memberIDNumber = memberIDNumber;
+			this.bookIDNumber = bookIDNumber;
+			this.issueEpochDay = issueEpochDay;
+			this.expiryEpochDay = expiryEpochDay;
+		}
+
+		/**
+		 * Accessor Method:
+		 * Returns the borrower's ID number
+		 *
+		 * @return memberIDNumber - The ID number (int)
+		 */
+		public int getMemberIDNumber() {
+			return memberIDNumber;
+		}
+
+		/**
+		 * Accessor Method:
+		 * Returns the loaned book's ID number
+		 *
+		 * @return bookIDNumber - The ID number (int)
+		 */
+		public int getBookIDNumber() {
+			return bookIDNumber;
+		}
+
+		/**
+		 * Accessor Method:
+		 * Returns the loan's date of issue as an epoch day
+		 *
+		 * @return issueEpochDay - The epoch day (int)
+		 */
+		public int getIssueEpochDay() {
+			return issueEpochDay;
+		}
+
+		/**
+		 * Accessor Method:
+		 * Returns the loan's date of expiry as an epoch day
+		 *
+		 * @return expiryEpochDay - The epoch day (int)
+		 */
+		public int getExpiryEpochDay() {
+			return expiryEpochDay;
+		}
+	}
+
+	/** The file */
+	private final FileChannel file;
+	/** The path of the rollback file */
+	private final Path rollbackPath;
+	/** The rollback file, holding pages as they were at the last flush */
+	private final FileChannel rollback;
+	/** The length of the rollback file */
+	private long rollbackLength;
+	/** The pages held in the rollback file */
+	private final BitSet savedPages = new BitSet();
+	/** The number of pages in the file at the last flush */
+	private int flushedPageCount = 1;
+	/** The pages of the trees held in memory */
+	private final BufferPool pool;
+	/** The loans by member and book */
+	private final BPlusTree byMember;
+	/** The loans by expiry date */
+	private final BPlusTree byExpiry;
+	/** The loans by book */
+	private final BPlusTree byBook;
+	/** The number of loans */
+	private long size;
+	/** Whether the file is marked as closed cleanly */
+	private boolean clean;
+
+	/**
+	 * Constructor:
+	 * Opens the loan tree file at the provided path, creating it if it does
+	 * not exist, with the default number of buffer pool frames
+	 *
+	 * @param path - The file (Path)
+	 *
+	 * @throws IOException - If the file cannot be opened, is not a loan
+	 *                       tree or was not closed cleanly and cannot be
+	 *                       recovered
+	 */
+	public LoanTree(Path path) throws IOException {
+		this(path, DEFAULT_FRAMES);
+	}
+
+	/**
+	 * Constructor:
+	 * Opens the loan tree file at the provided path, creating it if it does
+	 * not exist. A file that was not closed cleanly is put back as it was at
+	 * its last flush.
+	 *
+	 * @param path - The file (Path)
+	 *
+	 * @param frames - The number of buffer pool frames, which bounds the
+	 *                 memory the tree uses (int)
+	 *
+	 * @throws IllegalArgumentException - If there are too few frames
+	 *
+	 * @throws IOException - If the file cannot be opened, is not a loan
+	 *                       tree or was not closed cleanly and cannot be
+	 *                       recovered
+	 */
+	public LoanTree(Path path, int frames) throws IllegalArgumentException, IOException {
+		file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		rollbackPath = rollbackPathOf(path);
+		try {
+			rollback = FileChannel.open(rollbackPath, StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} catch (IOException | RuntimeException e) {
+			file.close();
+			throw e;
+		}
+		try {
+			if (file.size() == 0) {
+				// Create the trees in a new file after its header
+				pool = new BufferPool(file, frames, 1, 0);
+				pool.setWriteListener(this::savePage);
+				byMember = new BPlusTree(pool, 0);
+				byExpiry = new BPlusTree(pool, 0);
+				byBook = new BPlusTree(pool, 0);
+				flush();
+				return;
+			}
+
+			ByteBuffer header = readHeader();
+			if (header.getInt(4) != 1) {
+				// Put the file back as it was at the last flush
+				if (!rollBack()) {
+					throw new IOException(
+							"The loan tree was not closed cleanly and cannot be recovered");
+				}
+				header = readHeader();
+			}
+
+			// Empty a rollback file left behind after the file was flushed
+			rollback.truncate(0);
+			rollback.force(true);
+			flushedPageCount = header.getInt(8);
+			pool = new BufferPool(file, frames, header.getInt(8), header.getInt(12));
+			pool.setWriteListener(this::savePage);
+			byMember = new BPlusTree(pool, header.getInt(16));
+			byExpiry = new BPlusTree(pool, header.getInt(20));
+			byBook = new BPlusTree(pool, header.getInt(24));
+			size = header.getLong(28);
+			clean = true;
+		} catch (IOException | RuntimeException e) {
+			file.close();
+			boolean emptyRollback = rollback.size() == 0;
+			rollback.close();
+			if (emptyRollback) {
+				Files.deleteIfExists(rollbackPath);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * A utility method that returns the path of the rollback file kept
+	 * beside a loan tree file
+	 *
+	 * @param path - The loan tree file (Path)
+	 *
+	 * @return rollbackPath - The rollback file (Path)
+	 */
+	static Path rollbackPathOf(Path path) {
+		return path.resolveSibling(path.getFileName() + ".rollback");
+	}
+
+	/**
+	 * Mutator Method:
+	 * Adds a loan, unless its book is already on loan
+	 *
+	 * @param memberIDNumber - The borrower's ID number (int)
+	 *
+	 * @param bookIDNumber - The book's ID number (int)
+	 *
+	 * @param issueEpochDay - The date of issue as an epoch day (int)
+	 *
+	 * @param expiryEpochDay - The date of expiry as an epoch day (int)
+	 *
+	 * @return added - Whether the loan was added (boolean)
+	 *
+	 * @throws UncheckedIOException - If the file cannot be written
+	 */
+	public synchronized boolean add(int memberIDNumber, int bookIDNumber, int issueEpochDay,
+			int expiryEpochDay) throws UncheckedIOException {
+		markChanging();
+		if (!byBook.insert(bookIDNumber, memberIDNumber)) {
+			return false;
+		}
+		byMember.insert(toMemberKey(memberIDNumber, bookIDNumber),
+				toDays(issueEpochDay, expiryEpochDay));
+		byExpiry.insert(Library.toExpiryKey(expiryEpochDay, bookIDNumber),
+				((long) memberIDNumber << 32) | issueEpochDay);
+		size++;
+		return true;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the loan of a book to a member
+	 *
+	 * @param memberIDNumber - The borrower's ID number (int)
+	 *
+	 * @param bookIDNumber - The book's ID number (int)
+	 *
+	 * @return loan - The loan, or null if the book is not on loan to the
+	 *                member (Entry)
+	 *
+	 * @throws UncheckedIOException - If the file cannot be read
+	 */
+	public synchronized Entry get(int memberIDNumber, int bookIDNumber)
+			throws UncheckedIOException {
+		long days = byMember.get(toMemberKey(memberIDNumber, bookIDNumber));
+		return days == BPlusTree.NONE ? null : toEntry(memberIDNumber, bookIDNumber, days);
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes the loan of a book to a member
+	 *
+	 * @param memberIDNumber - The borrower's ID number (int)
+	 *
+	 * @param bookIDNumber - The book's ID number (int)
+	 *
+	 * @return loan - The removed loan, or null if the book was not on loan to
+	 *                the member (Entry)
+	 *
+	 * @throws UncheckedIOException - If the file cannot be read or written
+	 */
+	public synchronized Entry remove(int memberIDNumber, int bookIDNumber)
+			throws UncheckedIOException {
+		markChanging();
+		long days = byMember.remove(toMemberKey(memberIDNumber, bookIDNumber));
+		if (days == BPlusTree.NONE) {
+			return null;
+		}
+		Entry entry = toEntry(memberIDNumber, bookIDNumber, days);
+		byBook.remove(bookIDNumber);
+		byExpiry.remove(Library.toExpiryKey(entry.getExpiryEpochDay(), bookIDNumber));
+		size--;
+		return entry;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the ID number of the member a book is on loan to
+	 *
+	 * @param bookIDNumber - The book's ID number (int)
+	 *
+	 * @return memberIDNumber - The member's ID number, or -1 if the book is
+	 *                          not on loan (int)
+	 *
+	 * @throws UncheckedIOException - If the file cannot be read
+	 */
+	public synchronized int findBorrower(int bookIDNumber) throws UncheckedIOException {
+		return (int) byBook.get(bookIDNumber);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns whether a member has any books on loan
+	 *
+	 * @param memberIDNumber - The member's ID number (int)
+	 *
+	 * @return hasLoans - Whether the member has loans (boolean)
+	 *
+	 * @throws UncheckedIOException - If the file cannot be read
+	 */
+	public synchronized boolean hasLoans(int memberIDNumber) throws UncheckedIOException {
+		boolean[] found = new boolean[1];
+		byMember.scan(toMemberKey(memberIDNumber, 0), toMemberKey(memberIDNumber + 1, 0),
+				(key, value) -> {
+					found[0] = true;
+					return false;
+				});
+		return found[0];
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the loans that expire before the provided epoch day, ordered
+	 * by expiry date and then by book ID number
+	 *
+	 * @param epochDay - The epoch day (long)
+	 *
+	 * @return loans - The loans (List<Entry>)
+	 *
+	 * @throws UncheckedIOException - If the file cannot be read
+	 */
+	public synchronized List<Entry> getExpiringBefore(long epochDay)
+			throws UncheckedIOException {
+		return getExpiring(0, Library.toExpiryKey(epochDay, 0), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * A utility method that returns up to a number of the loans whose expiry
+	 * keys are in the provided range, in expiry order
+	 *
+	 * @param firstKey - The first expiry key (long)
+	 *
+	 * @param lastKey - The expiry key to stop before (long)
+	 *
+	 * @param limit - The most loans to return (int)
+	 *
+	 * @return loans - The loans (List<Entry>)
+	 *
+	 * @throws UncheckedIOException - If the file cannot be read
+	 */
+	private List<Entry> getExpiring(long firstKey, long lastKey, int limit)
+			throws UncheckedIOException {
+		List<Entry> entries = new ArrayList<Entry>();
+		byExpiry.scan(firstKey, lastKey, (key, value) -> {
+			entries.add(new Entry((int) (value >>> 32), (int) key, (int) value,
+					(int) (key >>> 32)));
+			return entries.size() < limit;
+		});
+		return entries;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns every loan, ordered by expiry date and then by book ID number
+	 *
+	 * @return loans - The loans (List<Entry>)
+	 *
+	 * @throws UncheckedIOException - If the file cannot be read
+	 */
+	public synchronized List<Entry> getAll() throws UncheckedIOException {
+		return getExpiring(0, Long.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns up to the provided number of the loans that follow a loan,
+	 * ordered by expiry date and then by book ID number, so that every loan
+	 * can be read a batch at a time without holding them all in memory
+	 *
+	 * @param previous - The loan to follow, or null to start from the first
+	 *                   loan (Entry)
+	 *
+	 * @param limit - The most loans to return (int)
+	 *
+	 * @return loans - The loans, fewer than the limit only if no more follow
+	 *                 (List<Entry>)
+	 *
+	 * @throws IllegalArgumentException - If the limit is not positive
+	 *
+	 * @throws UncheckedIOException - If the file cannot be read
+	 */
+	public synchronized List<Entry> getAfter(Entry previous, int limit)
+			throws IllegalArgumentException, UncheckedIOException {
+		// Guard clause that prevents reading an empty batch
+		if (limit <= 0) {
+			throw new IllegalArgumentException("The number of loans must be positive");
+		}
+
+		long firstKey = previous == null ? 0
+				: Library.toExpiryKey(previous.getExpiryEpochDay(), previous.getBookIDNumber()) + 1;
+		return getExpiring(firstKey, Long.MAX_VALUE, limit);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of loans
+	 *
+	 * @return size - The number of loans (long)
+	 */
+	public synchronized long size() {
+		return size;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the buffer pool holding the trees' pages, for example to read
+	 * how many pages have been read and written
+	 *
+	 * @return pool - The buffer pool (BufferPool)
+	 */
+	public BufferPool getBufferPool() {
+		return pool;
+	}
+
+	/**
+	 * Writes every changed page back to the file, forces it to disk and
+	 * marks the file as closed cleanly
+	 *
+	 * @throws UncheckedIOException - If the file cannot be written
+	 */
+	public synchronized void flush() throws UncheckedIOException {
+		try {
+			pool.flush();
+			file.force(false);
+			writeHeader(true);
+
+			// The file is whole on disk, so the pages it held before are
+			// no longer needed
+			rollback.truncate(0);
+			rollback.force(true);
+			rollbackLength = 0;
+			savedPages.clear();
+			flushedPageCount = pool.getPageCount();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Flushes the loan tree, closes its file and deletes its rollback file
+	 *
+	 * @throws IOException - If the file cannot be written or closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			flush();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			file.close();
+			rollback.close();
+		}
+		Files.deleteIfExists(rollbackPath);
+	}
+
+	/**
+	 * A utility method that marks the file as not closed cleanly before the
+	 * first change after it was flushed
+	 *
+	 * @throws UncheckedIOException - If the header cannot be written
+	 */
+	private void markChanging() throws UncheckedIOException {
+		if (clean) {
+			try {
+				savePage(0);
+				writeHeader(false);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * A utility method that reads the header from the start of the file
+	 *
+	 * @return header - The header (ByteBuffer)
+	 *
+	 * @throws IOException - If the header cannot be read, or the file is not
+	 *                       a loan tree
+	 */
+	private ByteBuffer readHeader() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(48);
+		while (header.hasRemaining() && file.read(header, header.position()) >= 0) {
+			continue;
+		}
+		if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+			throw new IOException("The file is not a loan tree");
+		}
+		return header;
+	}
+
+	/**
+	 * A utility method that adds a page's contents at the last flush to the
+	 * rollback file, and forces it to disk, before the page is first written
+	 * over. Pages added since the last flush are not saved, as rolling back
+	 * drops them.
+	 *
+	 * @param pageNumber - The page (int)
+	 *
+	 * @throws IOException - If the page cannot be read or saved
+	 */
+	private void savePage(int pageNumber) throws IOException {
+		if (pageNumber >= flushedPageCount || savedPages.get(pageNumber)) {
+			return;
+		}
+
+		ByteBuffer record = ByteBuffer.allocate(ROLLBACK_RECORD_SIZE);
+		record.position(8);
+		long position = (long) pageNumber * BufferPool.PAGE_SIZE;
+		while (record.hasRemaining() && file.read(record, position + record.position() - 8) >= 0) {
+			continue;
+		}
+		CRC32 checksum = new CRC32();
+		checksum.update(record.array(), 8, BufferPool.PAGE_SIZE);
+		record.putInt(0, pageNumber);
+		record.putInt(4, (int) checksum.getValue());
+
+		record.clear();
+		while (record.hasRemaining()) {
+			rollback.write(record, rollbackLength + record.position());
+		}
+		rollback.force(false);
+		rollbackLength += ROLLBACK_RECORD_SIZE;
+		savedPages.set(pageNumber);
+	}
+
+	/**
+	 * A utility method that puts the file back as it was at the last flush,
+	 * by writing back the pages held in the rollback file and dropping the
+	 * pages added since. A record cut short, or whose checksum does not
+	 * match, was being saved when the file was left, so its page, and any
+	 * after it, were not yet written over.
+	 *
+	 * @return rolledBack - Whether the file was put back, which it is not if
+	 *                      the rollback file does not hold the header as it
+	 *                      was at the last flush (boolean)
+	 *
+	 * @throws IOException - If the files cannot be read or written
+	 */
+	private boolean rollBack() throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(ROLLBACK_RECORD_SIZE);
+		boolean headerRestored = false;
+		for (long position = 0;; position += ROLLBACK_RECORD_SIZE) {
+			record.clear();
+			while (record.hasRemaining()
+					&& rollback.read(record, position + record.position()) >= 0) {
+				continue;
+			}
+			CRC32 checksum = new CRC32();
+			checksum.update(record.array(), 8, BufferPool.PAGE_SIZE);
+			if (record.hasRemaining() || record.getInt(4) != (int) checksum.getValue()) {
+				break;
+			}
+
+			int pageNumber = record.getInt(0);
+			record.position(8);
+			while (record.hasRemaining()) {
+				file.write(record, (long) pageNumber * BufferPool.PAGE_SIZE
+						+ record.position() - 8);
+			}
+			headerRestored |= pageNumber == 0;
+		}
+
+		// Guard clause that refuses a rollback file without the header
+		if (!headerRestored) {
+			return false;
+		}
+
+		file.truncate((long) readHeader().getInt(8) * BufferPool.PAGE_SIZE);
+		file.force(true);
+		rollback.truncate(0);
+		rollback.force(true);
+		return true;
+	}
+
+	/**
+	 * A utility method that writes the header and forces it to disk
+	 *
+	 * @param closedCleanly - Whether to mark the file as closed cleanly (boolean)
+	 *
+	 * @throws IOException - If the header cannot be written
+	 */
+	private void writeHeader(boolean closedCleanly) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(BufferPool.PAGE_SIZE);
+		header.putInt(0, MAGIC);
+		header.putInt(4, closedCleanly ? 1 : 0);
+		header.putInt(8, pool.getPageCount());
+		header.putInt(12, pool.getFreeHead());
+		header.putInt(16, byMember.getRoot());
+		header.putInt(20, byExpiry.getRoot());
+		header.putInt(24, byBook.getRoot());
+		header.putLong(28, size);
+		while (header.hasRemaining()) {
+			file.write(header, header.position());
+		}
+		file.force(false);
+		clean = closedCleanly;
+	}
+
+	/**
+	 * A utility method that combines a member's and a book's ID numbers into
+	 * a key of the tree by member and book
+	 *
+	 * @param memberIDNumber - The member's ID number (int)
+	 *
+	 * @param bookIDNumber - The book's ID number (int)
+	 *
+	 * @return key - The key (long)
+	 */
+	private static long toMemberKey(int memberIDNumber, int bookIDNumber) {
+		return ((long) memberIDNumber << 32) | bookIDNumber;
+	}
+
+	/**
+	 * A utility method that combines a loan's issue and expiry epoch days
+	 *
+	 * @param issueEpochDay - The issue epoch day (int)
+	 *
+	 * @param expiryEpochDay - The expiry epoch day (int)
+	 *
+	 * @return days - The combined days (long)
+	 */
+	private static long toDays(int issueEpochDay, int expiryEpochDay) {
+		return ((long) issueEpochDay << 32) | expiryEpochDay;
+	}
+
+	/**
+	 * A utility method that creates an entry from the tree by member and
+	 * book
+	 *
+	 * @param memberIDNumber - The member's ID number (int)
+	 *
+	 * @param bookIDNumber - The book's ID number (int)
+	 *
+	 * @param days - The combined issue and expiry epoch days (long)
+	 *
+	 * @return entry - The entry (Entry)
+	 */
+	private static Entry toEntry(int memberIDNumber, int bookIDNumber, long days) {
+		return new Entry(memberIDNumber, bookIDNumber, (int) (days >>> 32), (int) days);
+	}
+}
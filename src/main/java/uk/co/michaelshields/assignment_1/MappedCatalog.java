@@ -0,0 +1,706 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A read-only book catalogue held in a binary file that is memory mapped,
+ * so that a large catalogue is ready as soon as it is opened: no Book is
+ * created, and no ISBN number validated, until a book is asked for.
+ *
+ * The file holds, in order:
+ * <ul>
+ * <li>A header: a magic number, the format version, the number of books,
+ * the highest ID number and the positions of the sections that follow</li>
+ * <li>A fixed width record for each book, in ascending ID number order:
+ * its ID number (int), its ISBN-13 number (long), and the positions in the
+ * string heap of its author, title, case folded title, genre and ISBN
+ * number as written (an int each)</li>
+ * <li>The record numbers in ascending ISBN-13 number order (an int each)</li>
+ * <li>The trigram table: each trigram of the case folded titles, packed as
+ * by TitleIndex, in ascending order (a long), with the position of its
+ * posting list and the number of records in it (an int each)</li>
+ * <li>The posting lists: for each trigram, the numbers of the records whose
+ * case folded titles contain it, in ascending order (an int each)</li>
+ * <li>The string heap: each string as its length in bytes (an unsigned
+ * short) followed by its UTF-8 bytes. Books of the same genre share one
+ * copy of it.</li>
+ * </ul>
+ *
+ * Books are found by ID number or ISBN number by binary search of the
+ * mapped records. Titles are searched as a TitleIndex is, by intersecting
+ * the mapped posting lists of the query's trigrams, and then only the
+ * candidates' case folded titles are compared with the query's bytes in
+ * place, so a search reads a few records rather than every title. Queries
+ * shorter than a trigram are compared with every title. Every read uses
+ * absolute positions in the mapped file, so a catalogue can be read by any
+ * number of threads.
+ *
+ * A catalogue is written once, by the write method, and never changed; a
+ * library opened on it keeps books added and removed since in memory.
+ *
+ * @see <a href="Book.html">Book</a>
+ * @see <a href="Library.html">Library</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class MappedCatalog {
+	/** The number at the start of every catalogue file ("LCAT") */
+	private static final int MAGIC = 0x4C434154;
+	/** The version of the file format */
+	private static final int VERSION = 2;
+	/** The size of the header in bytes */
+	private static final int HEADER_SIZE = 48;
+	/** The size of a record in bytes */
+	static final int RECORD_SIZE = 32;
+
+	/** The position of the ID number within a record */
+	private static final int ID_NUMBER_OFFSET = 0;
+	/** The position of the ISBN-13 number within a record */
+	private static final int ISBN13_OFFSET = 4;
+	/** The position of the author's heap position within a record */
+	private static final int AUTHOR_OFFSET = 12;
+	/** The position of the title's heap position within a record */
+	private static final int TITLE_OFFSET = 16;
+	/** The position of the case folded title's heap position within a record */
+	private static final int FOLDED_TITLE_OFFSET = 20;
+	/** The position of the genre's heap position within a record */
+	private static final int GENRE_OFFSET = 24;
+	/** The position of the written ISBN number's heap position within a record */
+	private static final int ISBN_NUMBER_OFFSET = 28;
+	/** The size of an entry in the trigram table in bytes */
+	private static final int GRAM_ENTRY_SIZE = 16;
+
+	/** The greatest length of a string in the heap, in UTF-8 bytes */
+	private static final int MAX_STRING_LENGTH = 0xFFFF;
+
+	/** The mapped file */
+	private final MappedByteBuffer file;
+	/** The number of books in the catalogue */
+	private final int size;
+	/** The highest ID number in the catalogue, or 0 if it is empty */
+	private final int highestIDNumber;
+	/** The position of the records in the file */
+	private final int recordsStart;
+	/** The position of the record numbers in ISBN-13 order in the file */
+	private final int isbnOrderStart;
+	/** The position of the trigram table in the file */
+	private final int gramsStart;
+	/** The number of entries in the trigram table */
+	private final int gramCount;
+	/** The position of the posting lists in the file */
+	private final int postingsStart;
+	/** The position of the string heap in the file */
+	private final int heapStart;
+
+	/**
+	 * Constructor:
+	 * Opens the catalogue in the provided file, mapping it into memory
+	 *
+	 * @param path - The catalogue file (Path)
+	 *
+	 * @throws IllegalArgumentException - If the path is null
+	 *
+	 * @throws IOException - If the file cannot be mapped or is not a
+	 *                       catalogue
+	 */
+	public MappedCatalog(Path path) throws IllegalArgumentException, IOException {
+		// Guard clause that prevents opening a missing file
+		if (path == null) {
+			throw new IllegalArgumentException("The catalogue file cannot be null");
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+				throw new IOException(path + " is not a catalogue");
+			}
+			// The mapping stays valid once the channel is closed
+			file = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		}
+
+		if (file.getInt(0) != MAGIC || file.getInt(4) != VERSION) {
+			throw new IOException(path + " is not a catalogue");
+		}
+		size = file.getInt(8);
+		highestIDNumber = file.getInt(12);
+		recordsStart = file.getInt(16);
+		isbnOrderStart = file.getInt(20);
+		heapStart = file.getInt(24);
+		gramsStart = file.getInt(32);
+		gramCount = file.getInt(36);
+		postingsStart = file.getInt(40);
+
+		// Guard clause that rejects files whose sections do not fit
+		if (size < 0 || gramCount < 0 || recordsStart != HEADER_SIZE
+				|| isbnOrderStart != recordsStart + (long) size * RECORD_SIZE
+				|| gramsStart != isbnOrderStart + (long) size * Integer.BYTES
+				|| postingsStart != gramsStart + (long) gramCount * GRAM_ENTRY_SIZE
+				|| heapStart != postingsStart + (long) file.getInt(44) * Integer.BYTES
+				|| heapStart + (long) file.getInt(28) != file.capacity()) {
+			throw new IOException(path + " is damaged");
+		}
+	}
+
+	/**
+	 * Writes the provided books to a catalogue file, replacing the file if it
+	 * exists. The books must have their ID numbers. The file is written to a
+	 * temporary file first, and moved into place once it is complete.
+	 *
+	 * @param path - The catalogue file (Path)
+	 *
+	 * @param books - The books (Collection<Book>)
+	 *
+	 * @throws IllegalArgumentException - If the path or books are null, two
+	 *                                    books share an ID number or ISBN
+	 *                                    number, a book has no ID number, or
+	 *                                    a detail is too long to be held
+	 *
+	 * @throws IOException - If the file cannot be written, or the catalogue
+	 *                       is too large to be mapped
+	 */
+	public static void write(Path path, Collection<Book> books)
+			throws IllegalArgumentException, IOException {
+		// Guard clause that prevents writing a missing catalogue
+		if (path == null || books == null) {
+			throw new IllegalArgumentException("Cannot write catalogue, path or books is null");
+		}
+
+		// Order the books by ID number, checking that the numbers are unique
+		Book[] byID = books.toArray(new Book[0]);
+		Arrays.sort(byID, Comparator.comparingInt(Book::getIDNumber));
+		int size = byID.length;
+		long[] isbn13s = new long[size];
+		for (int i = 0; i < size; i++) {
+			if (byID[i].getIDNumber() <= 0) {
+				throw new IllegalArgumentException("Cannot write catalogue, a book has no ID number");
+			}
+			if (i > 0 && byID[i].getIDNumber() == byID[i - 1].getIDNumber()) {
+				throw new IllegalArgumentException(
+						"Cannot write catalogue, ID number " + byID[i].getIDNumber() + " is repeated");
+			}
+			isbn13s[i] = Long.parseLong(Book.toISBN13(byID[i].getISBNNumber()));
+		}
+
+		// Order the record numbers by ISBN-13 number, checking that the
+		// numbers are unique
+		Integer[] byISBN = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			byISBN[i] = i;
+		}
+		Arrays.sort(byISBN, Comparator.comparingLong(record -> isbn13s[record]));
+		for (int i = 1; i < size; i++) {
+			if (isbn13s[byISBN[i]] == isbn13s[byISBN[i - 1]]) {
+				throw new IllegalArgumentException(
+						"Cannot write catalogue, ISBN number " + isbn13s[byISBN[i]] + " is repeated");
+			}
+		}
+
+		// Lay out the string heap, sharing the copy of each genre
+		HeapLayout heap = new HeapLayout();
+		int[][] positions = new int[size][];
+		for (int i = 0; i < size; i++) {
+			Book book = byID[i];
+			positions[i] = new int[] {heap.place(book.getAuthor(), false),
+					heap.place(book.getTitle(), false),
+					heap.place(TitleIndex.fold(book.getTitle()), false),
+					heap.place(book.getGenre(), true),
+					heap.place(book.getISBNNumber(), false)};
+		}
+
+		// Count the records posted under each trigram, then lay the posting
+		// lists out in trigram order and fill them in record number order
+		HashMap<Long, int[]> grams = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			for (long trigram : TitleIndex.trigramsOf(TitleIndex.fold(byID[i].getTitle()))) {
+				grams.computeIfAbsent(trigram, key -> new int[2])[1]++;
+			}
+		}
+		long[] trigrams = new long[grams.size()];
+		int gramCount = 0;
+		for (long trigram : grams.keySet()) {
+			trigrams[gramCount++] = trigram;
+		}
+		Arrays.sort(trigrams);
+		long postingCount = 0;
+		for (long trigram : trigrams) {
+			int[] list = grams.get(trigram);
+			list[0] = (int) postingCount;
+			postingCount += list[1];
+			if (postingCount > Integer.MAX_VALUE / Integer.BYTES) {
+				throw new IOException("The catalogue is too large to be mapped");
+			}
+		}
+		int[] postings = new int[(int) postingCount];
+		int[] filled = new int[gramCount];
+		for (int i = 0; i < size; i++) {
+			for (long trigram : TitleIndex.trigramsOf(TitleIndex.fold(byID[i].getTitle()))) {
+				int gram = Arrays.binarySearch(trigrams, trigram);
+				postings[grams.get(trigram)[0] + filled[gram]++] = i;
+			}
+		}
+
+		long isbnOrderStart = HEADER_SIZE + (long) size * RECORD_SIZE;
+		long gramsStart = isbnOrderStart + (long) size * Integer.BYTES;
+		long postingsStart = gramsStart + (long) gramCount * GRAM_ENTRY_SIZE;
+		long heapStart = postingsStart + postingCount * Integer.BYTES;
+		if (heapStart + heap.length > Integer.MAX_VALUE) {
+			throw new IOException("The catalogue is too large to be mapped");
+		}
+
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileOutputStream fileOut = new FileOutputStream(temporary.toFile())) {
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(fileOut, 1 << 16));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(size);
+			out.writeInt(size == 0 ? 0 : byID[size - 1].getIDNumber());
+			out.writeInt(HEADER_SIZE);
+			out.writeInt((int) isbnOrderStart);
+			out.writeInt((int) heapStart);
+			out.writeInt((int) heap.length);
+			out.writeInt((int) gramsStart);
+			out.writeInt(gramCount);
+			out.writeInt((int) postingsStart);
+			out.writeInt((int) postingCount);
+
+			for (int i = 0; i < size; i++) {
+				out.writeInt(byID[i].getIDNumber());
+				out.writeLong(isbn13s[i]);
+				for (int position : positions[i]) {
+					out.writeInt(position);
+				}
+			}
+			for (int record : byISBN) {
+				out.writeInt(record);
+			}
+			for (long trigram : trigrams) {
+				int[] list = grams.get(trigram);
+				out.writeLong(trigram);
+				out.writeInt(list[0]);
+				out.writeInt(list[1]);
+			}
+			for (int record : postings) {
+				out.writeInt(record);
+			}
+			for (byte[] string : heap.strings) {
+				out.writeShort(string.length);
+				out.write(string);
+			}
+			out.flush();
+			fileOut.getFD().sync();
+		}
+		Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of books in the catalogue
+	 *
+	 * @return size - The number of books (int)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the highest ID number in the catalogue
+	 *
+	 * @return highestIDNumber - The highest ID number, or 0 if the catalogue
+	 *                           is empty (int)
+	 */
+	public int getHighestIDNumber() {
+		return highestIDNumber;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the record number of the book with the provided ID number
+	 *
+	 * @param idNumber - The ID number (int)
+	 *
+	 * @return record - The record number, or -1 if there is no book with the
+	 *                  ID number (int)
+	 */
+	public int findRecord(int idNumber) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int middleID = getIDNumber(middle);
+			if (middleID < idNumber) {
+				low = middle + 1;
+			} else if (middleID > idNumber) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the record number of the book with the provided ISBN number
+	 *
+	 * @param isbn13 - The ISBN number in its canonical ISBN-13 form (long)
+	 *
+	 * @return record - The record number, or -1 if there is no book with the
+	 *                  ISBN number (int)
+	 */
+	public int findRecordByISBN(long isbn13) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int record = file.getInt(isbnOrderStart + middle * Integer.BYTES);
+			long middleISBN = file.getLong(recordPosition(record) + ISBN13_OFFSET);
+			if (middleISBN < isbn13) {
+				low = middle + 1;
+			} else if (middleISBN > isbn13) {
+				high = middle - 1;
+			} else {
+				return record;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the numbers of the records whose case folded titles contain
+	 * the provided case folded query, in ascending ID number order. Only the
+	 * records posted under every one of the query's trigrams are compared
+	 * with it (every record, if the query is shorter than a trigram), and
+	 * their titles are compared in place, without being read into strings.
+	 *
+	 * @param foldedQuery - The query, case folded by TitleIndex.fold (String)
+	 *
+	 * @return records - The record numbers (int[])
+	 *
+	 * @throws IllegalArgumentException - If the query is null or empty
+	 */
+	public int[] findRecordsByFoldedTitle(String foldedQuery) throws IllegalArgumentException {
+		// Guard clause that prevents searching without a query
+		if (foldedQuery == null || foldedQuery.isEmpty()) {
+			throw new IllegalArgumentException("Cannot search titles without a query");
+		}
+
+		byte[] query = foldedQuery.getBytes(StandardCharsets.UTF_8);
+		int[] candidates = foldedQuery.length() < TitleIndex.GRAM_LENGTH
+				? null : findCandidates(foldedQuery);
+		int candidateCount = candidates == null ? size : candidates.length;
+		int[] matches = new int[Math.min(16, Math.max(candidateCount, 1))];
+		int count = 0;
+		for (int i = 0; i < candidateCount; i++) {
+			int record = candidates == null ? i : candidates[i];
+			int title = heapStart + file.getInt(recordPosition(record) + FOLDED_TITLE_OFFSET);
+			if (contains(title + 2, file.getShort(title) & 0xFFFF, query)) {
+				if (count == matches.length) {
+					matches = Arrays.copyOf(matches, count * 2);
+				}
+				matches[count++] = record;
+			}
+		}
+
+		return Arrays.copyOf(matches, count);
+	}
+
+	/**
+	 * A utility method that returns the numbers of the records posted under
+	 * every one of the query's trigrams, in ascending order, by intersecting
+	 * the mapped posting lists, shortest first
+	 *
+	 * @param foldedQuery - The case folded query, at least a trigram long
+	 *                      (String)
+	 *
+	 * @return candidates - The candidate record numbers (int[])
+	 */
+	private int[] findCandidates(String foldedQuery) {
+		// Find the table entries of the query's trigrams
+		long[] trigrams = TitleIndex.trigramsOf(foldedQuery);
+		int[] entries = new int[trigrams.length];
+		for (int i = 0; i < trigrams.length; i++) {
+			entries[i] = findGram(trigrams[i]);
+
+			// No title contains this trigram so no title matches
+			if (entries[i] < 0) {
+				return new int[0];
+			}
+		}
+
+		// Start from the shortest list so the candidates are fewest
+		int shortest = entries[0];
+		for (int entry : entries) {
+			if (postingCount(entry) < postingCount(shortest)) {
+				shortest = entry;
+			}
+		}
+		int first = postingsStart + file.getInt(shortest + 8) * Integer.BYTES;
+		int[] candidates = new int[postingCount(shortest)];
+		for (int i = 0; i < candidates.length; i++) {
+			candidates[i] = file.getInt(first + i * Integer.BYTES);
+		}
+
+		// Keep the candidates that are posted under every other trigram
+		int count = candidates.length;
+		for (int entry : entries) {
+			if (entry == shortest) {
+				continue;
+			}
+			int start = postingsStart + file.getInt(entry + 8) * Integer.BYTES;
+			int kept = 0;
+			for (int i = 0; i < count; i++) {
+				if (isPosted(start, postingCount(entry), candidates[i])) {
+					candidates[kept++] = candidates[i];
+				}
+			}
+			count = kept;
+		}
+
+		return Arrays.copyOf(candidates, count);
+	}
+
+	/**
+	 * A utility method that finds a trigram in the trigram table by binary
+	 * search
+	 *
+	 * @param trigram - The packed trigram (long)
+	 *
+	 * @return entry - The position of the trigram's entry in the file, or -1
+	 *                 if no title contains it (int)
+	 */
+	private int findGram(long trigram) {
+		int low = 0;
+		int high = gramCount - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int entry = gramsStart + middle * GRAM_ENTRY_SIZE;
+			long middleGram = file.getLong(entry);
+			if (middleGram < trigram) {
+				low = middle + 1;
+			} else if (middleGram > trigram) {
+				high = middle - 1;
+			} else {
+				return entry;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * A utility method that returns the number of records posted under the
+	 * trigram in an entry of the trigram table
+	 *
+	 * @param entry - The position of the entry in the file (int)
+	 *
+	 * @return count - The number of records (int)
+	 */
+	private int postingCount(int entry) {
+		return file.getInt(entry + 12);
+	}
+
+	/**
+	 * A utility method that checks whether a record number is in a mapped
+	 * posting list, by binary search
+	 *
+	 * @param start - The position of the posting list in the file (int)
+	 *
+	 * @param count - The number of records in the list (int)
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @return isPosted - Whether the record is in the list (boolean)
+	 */
+	private boolean isPosted(int start, int count, int record) {
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int middleRecord = file.getInt(start + middle * Integer.BYTES);
+			if (middleRecord < record) {
+				low = middle + 1;
+			} else if (middleRecord > record) {
+				high = middle - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the ID number of the book in the provided record
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @return idNumber - The ID number (int)
+	 */
+	public int getIDNumber(int record) {
+		return file.getInt(recordPosition(record) + ID_NUMBER_OFFSET);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the title of the book in the provided record
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @return title - The title (String)
+	 */
+	public String getTitle(int record) {
+		return readString(file.getInt(recordPosition(record) + TITLE_OFFSET));
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns a new Book holding the details of the book in the provided
+	 * record. The details were validated when the catalogue was written, so
+	 * they are not validated again.
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @return book - The book (Book)
+	 *
+	 * @throws IndexOutOfBoundsException - If there is no such record
+	 */
+	public Book getBook(int record) throws IndexOutOfBoundsException {
+		// Guard clause that prevents reading past the records
+		if (record < 0 || record >= size) {
+			throw new IndexOutOfBoundsException("No book is held in record " + record);
+		}
+
+		int position = recordPosition(record);
+		return Book.restore(readString(file.getInt(position + AUTHOR_OFFSET)),
+				readString(file.getInt(position + TITLE_OFFSET)),
+				readString(file.getInt(position + GENRE_OFFSET)),
+				readString(file.getInt(position + ISBN_NUMBER_OFFSET)),
+				file.getInt(position + ID_NUMBER_OFFSET));
+	}
+
+	/**
+	 * A utility method that returns the position of a record in the file
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @return position - The record's position (int)
+	 */
+	private int recordPosition(int record) {
+		return recordsStart + record * RECORD_SIZE;
+	}
+
+	/**
+	 * A utility method that reads a string from the heap
+	 *
+	 * @param heapPosition - The string's position in the heap (int)
+	 *
+	 * @return string - The string (String)
+	 */
+	private String readString(int heapPosition) {
+		int position = heapStart + heapPosition;
+		byte[] bytes = new byte[file.getShort(position) & 0xFFFF];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = file.get(position + 2 + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * A utility method that checks whether the bytes at a position in the
+	 * file contain the provided bytes
+	 *
+	 * @param start - The position of the bytes searched (int)
+	 *
+	 * @param length - The number of bytes searched (int)
+	 *
+	 * @param query - The bytes searched for (byte[])
+	 *
+	 * @return contains - Whether the query was found (boolean)
+	 */
+	private boolean contains(int start, int length, byte[] query) {
+		byte first = query[0];
+		for (int i = start, last = start + length - query.length; i <= last; i++) {
+			if (file.get(i) != first) {
+				continue;
+			}
+			int matched = 1;
+			while (matched < query.length && file.get(i + matched) == query[matched]) {
+				matched++;
+			}
+			if (matched == query.length) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The layout of a catalogue's string heap while it is being written
+	 */
+	private static class HeapLayout {
+		/** The strings' bytes, in the order they are held */
+		private final List<byte[]> strings = new ArrayList<>();
+		/** The heap position of each string that is shared */
+		private final HashMap<String, Integer> shared = new HashMap<>();
+		/** The length of the heap in bytes */
+		private long length;
+
+		/**
+		 * Places a string at the end of the heap, unless it is shared and
+		 * already placed
+		 *
+		 * @param string - The string (String)
+		 *
+		 * @param share - Whether books share the string (boolean)
+		 *
+		 * @return position - The string's heap position (int)
+		 *
+		 * @throws IllegalArgumentException - If the string is too long
+		 *
+		 * @throws IOException - If the heap is too large to be mapped
+		 */
+		private int place(String string, boolean share)
+				throws IllegalArgumentException, IOException {
+			if (share && shared.containsKey(string)) {
+				return shared.get(string);
+			}
+
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			if (bytes.length > MAX_STRING_LENGTH) {
+				throw new IllegalArgumentException(
+						"Cannot write catalogue, a detail is too long: " + string);
+			}
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("The catalogue is too large to be mapped");
+			}
+
+			int position = (int) length;
+			strings.add(bytes);
+			length += 2 + bytes.length;
+			if (share) {
+				shared.put(string, position);
+			}
+			return position;
+		}
+	}
+}
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.apache.commons.validator.routines.EmailValidator;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.PhoneNumberUtil.PhoneNumberFormat;
 import com.google.i18n.phonenumbers.Phonenumber.PhoneNumber;
 
 /**
@@ -26,6 +27,9 @@ import com.google.i18n.phonenumbers.Phonenumber.PhoneNumber;
  * </ul>
  * 
  * 
+ * Validating email addresses and phone numbers is expensive, so the results
+ * are held in bounded caches shared by all members, keyed on the raw input.
+ * 
  * The class also implements the Displayable and IDNumber interfaces
  *
  * @see <a href="Displayable.html">Displayable</a>
@@ -40,7 +44,30 @@ import com.google.i18n.phonenumbers.Phonenumber.PhoneNumber;
  * @version 1.0
  */
 public class Member implements Displayable, IDNumber {
-	private Map<String, Object> details = new LinkedHashMap<>();
+	/**
+	 * The number of email addresses, and of phone numbers, whose validation
+	 * results are cached
+	 */
+	public static final int VALIDATION_CACHE_SIZE = 10_000;
+	/** Whether each recently validated email address is valid */
+	private static final ValidationCache<Boolean> EMAIL_CHECKS =
+			new ValidationCache<Boolean>(VALIDATION_CACHE_SIZE);
+	/** The result of validating each recently validated phone number */
+	private static final ValidationCache<PhoneNumberCheck> PHONE_NUMBER_CHECKS =
+			new ValidationCache<PhoneNumberCheck>(VALIDATION_CACHE_SIZE);
+
+	/** The member's ID number */
+	private int idNumber;
+	/** The member's first name */
+	private String firstName;
+	/** The member's last name */
+	private String lastName;
+	/** The member's email address */
+	private String email;
+	/** The member's phone number, as it was provided */
+	private String phoneNumber;
+	/** The member's phone number in E.164 format, e.g. +447777777777 */
+	private String canonicalPhoneNumber;
 
 	/**
 	 * Constructor: 
@@ -94,6 +121,16 @@ public class Member implements Displayable, IDNumber {
 		setPhoneNumber(phoneNumber);
 	}
 
+	/**
+	 * Constructor:
+	 * Instantiates an empty member, used by views of members whose details
+	 * are held elsewhere
+	 * 
+	 * @see <a href="MemberStore.html">MemberStore</a>
+	 */
+	Member() {
+	}
+
 	/**
 	 * Mutator Method:
 	 * Sets the member's ID number
@@ -111,7 +148,7 @@ public class Member implements Displayable, IDNumber {
 		}
 		
 		// Add set the ID Number for the member
-		details.put("ID Number", idNumber);
+		this.idNumber = idNumber;
 	}
 
 	/**
@@ -122,7 +159,7 @@ public class Member implements Displayable, IDNumber {
 	 */
 	@Override
 	public int getIDNumber() {
-		return (int) details.get("ID Number");
+		return idNumber;
 	}
 
 	/**
@@ -143,7 +180,7 @@ public class Member implements Displayable, IDNumber {
 		}
 		// Set the member's first name
 		// trim any surplus whitespace
-		details.put("First Name", firstName.trim());
+		this.firstName = firstName.trim();
 	}
 
 	/**
@@ -153,7 +190,7 @@ public class Member implements Displayable, IDNumber {
 	 * @return firstName - The member's first name (String)
 	 */
 	public String getFirstName() {
-		return (String) details.get("First Name");
+		return firstName;
 	}
 
 	/**
@@ -173,7 +210,7 @@ public class Member implements Displayable, IDNumber {
 
 		// Set the member's last name
 		// trim any surplus whitespace
-		details.put("Last Name", lastName.trim());
+		this.lastName = lastName.trim();
 	}
 
 	/**
@@ -183,7 +220,7 @@ public class Member implements Displayable, IDNumber {
 	 * @return lastName - The member's last name (String)
 	 */
 	public String getLastName() {
-		return (String) details.get("Last Name");
+		return lastName;
 	}
 
 	/**
@@ -206,19 +243,16 @@ public class Member implements Displayable, IDNumber {
 					"The member's email must not be blank");
 		}
 
-		// Create an EmailValidator instance
-		EmailValidator validator = EmailValidator.getInstance();
-
 		// Guard clause that ensures the email address syntax
-		// is valid
-		if (!validator.isValid(email)) {
+		// is valid (validating it only if it has not been seen recently)
+		if (!EMAIL_CHECKS.get(email, EmailValidator.getInstance()::isValid)) {
 			throw new IllegalArgumentException(
 					"The provided email address is not valid");
 		}
 
 		// Set the member's email
 		// trim any surplus whitespace
-		details.put("Email", email.trim());
+		this.email = email.trim();
 	}
 
 	/**
@@ -228,7 +262,7 @@ public class Member implements Displayable, IDNumber {
 	 * @return emailAddress - The member's email address (String)
 	 */
 	public String getEmail() {
-		return (String) details.get("Email");
+		return email;
 	}
 
 	/**
@@ -245,11 +279,77 @@ public class Member implements Displayable, IDNumber {
 	 *      "https://javadoc.io/doc/com.googlecode.libphonenumber/libphonenumber/latest/com/google/i18n/phonenumbers/package-summary.html">com.googlecode.libphonenumbers</a>
 	 */
 	public void setPhoneNumber(String phoneNumber) throws IllegalArgumentException {
+		// Validate the phone number and set the member's phone number,
+		// keeping it as it was provided alongside its canonical form
+		String canonical = toCanonicalPhoneNumber(phoneNumber);
+		this.phoneNumber = phoneNumber;
+		this.canonicalPhoneNumber = canonical;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the member's phone number, as it was provided
+	 * 
+	 * @return phoneNumber - The member's phone number (String)
+	 */
+	public String getPhoneNumber() {
+		return phoneNumber;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the member's phone number in E.164 format (e.g. +447777777777),
+	 * so that phone numbers written differently can be compared without
+	 * parsing them again
+	 * 
+	 * @return canonicalPhoneNumber - The member's phone number in E.164
+	 *                                format (String)
+	 */
+	public String getCanonicalPhoneNumber() {
+		return canonicalPhoneNumber;
+	}
+
+	/**
+	 * Validates a phone number of the GB region and returns it in E.164
+	 * format. Phone numbers are only parsed if they have not been validated
+	 * recently.
+	 * 
+	 * @param phoneNumber - The phone number (String)
+	 * 
+	 * @return canonicalPhoneNumber - The phone number in E.164 format (String)
+	 * 
+	 * @throws IllegalArgumentException - If the parameter is null, 
+	 *                                    empty string, whitespace or fails
+	 *                                    phone number validation requirements
+	 */
+	static String toCanonicalPhoneNumber(String phoneNumber) throws IllegalArgumentException {
+		// Guard clause preventing null, empty string or whitespace values
 		if (phoneNumber == null || phoneNumber.isBlank()) {
 			throw new IllegalArgumentException(
 					"The member's phone number must not be blank");
 		}
 
+		PhoneNumberCheck check = PHONE_NUMBER_CHECKS.get(phoneNumber,
+				Member::checkPhoneNumber);
+
+		// Guard clause that rejects phone numbers that failed validation
+		if (check.error != null) {
+			throw new IllegalArgumentException(check.error);
+		}
+
+		return check.canonical;
+	}
+
+	/**
+	 * A utility method that parses and validates a phone number of the GB
+	 * region
+	 * 
+	 * @param phoneNumber - The phone number (String)
+	 * 
+	 * @return check - The phone number in E.164 format, or why it is not
+	 *                 valid (PhoneNumberCheck)
+	 */
+	private static PhoneNumberCheck checkPhoneNumber(String phoneNumber) {
 		// Create a PhoneNumberUtil instance
 		PhoneNumberUtil phoneNumberUtil = PhoneNumberUtil.getInstance();
 		// Create a variable to store the parsed phone number
@@ -259,38 +359,68 @@ public class Member implements Displayable, IDNumber {
 			// Attempt to parse the phone number
 			parsedPhoneNumber = phoneNumberUtil.parse(phoneNumber, "GB");
 		} catch (Exception e) {
-			// If the parsing fails throw an error
-			throw new IllegalArgumentException(
+			// If the parsing fails record the error
+			return new PhoneNumberCheck(null,
 					"Error parsing phone number: " + e.getMessage());
 		}
 
 		// Check that the parsed phone number is valid
 		if (!phoneNumberUtil.isValidNumber(parsedPhoneNumber)) {
-			throw new IllegalArgumentException("The provided phone number: "
+			return new PhoneNumberCheck(null, "The provided phone number: "
 					+ phoneNumber + " is not valid");
 		}
 
-		// Set the member's phone number 
-		details.put("Phone Number", phoneNumber);
+		return new PhoneNumberCheck(
+				phoneNumberUtil.format(parsedPhoneNumber, PhoneNumberFormat.E164), null);
+	}
+
+	/**
+	 * Prints the member's details using the PrintUtil,s printDetails method
+	 * @see <a href="PrintUtil.html">PrintUtil</a>
+	 */
+	@Override
+	public void displayDetails() {
+		PrintUtil.printDetails(getDetails());
 	}
 
 	/**
 	 * Accessor Method:
-	 * Returns the member's phone number
+	 * Returns the member's details labelled for display. The map is built on
+	 * demand so that members do not each carry one.
 	 * 
-	 * @return phoneNumber - The member's phone number (String)
+	 * @return details - The member's details in display order (Map<String, Object>)
 	 */
-	public String getPhoneNumber() {
-		// Cast the phoneNumber from the PhoneNumber type to a String
-		return (String) details.get("Phone Number");
+	public Map<String, Object> getDetails() {
+		Map<String, Object> details = new LinkedHashMap<>();
+		details.put("ID Number", getIDNumber());
+		details.put("First Name", getFirstName());
+		details.put("Last Name", getLastName());
+		details.put("Email", getEmail());
+		details.put("Phone Number", getPhoneNumber());
+		return details;
 	}
 
 	/**
-	 * Prints the member's details using the PrintUtil,s printDetails method
-	 * @see <a href="PrintUtil.html">PrintUtil</a>
+	 * The result of validating a phone number: its E.164 form if it is
+	 * valid, otherwise why it is not
 	 */
-	@Override
-	public void displayDetails() {
-		PrintUtil.printDetails(details);
+	private static class PhoneNumberCheck {
+		/** The phone number in E.164 format, or null if it is not valid */
+		private final String canonical;
+		/** Why the phone number is not valid, or null if it is valid */
+		private final String error;
+
+		/**
+		 * Constructor:
+		 * Instantiates the result of validating a phone number
+		 * 
+		 * @param canonical - The phone number in E.164 format (String)
+		 * 
+		 * @param error - Why the phone number is not valid (String)
+		 */
+		private PhoneNumberCheck(String canonical, String error) {
+			this.canonical = canonical;
+			this.error = error;
+		}
 	}
 }
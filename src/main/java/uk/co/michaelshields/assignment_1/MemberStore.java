@@ -0,0 +1,966 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * An off-heap store for very large member registries. The details of each
+ * member are held in a fixed size record outside of the garbage collected
+ * heap, in slabs of direct ByteBuffers, so that millions of members do not
+ * add millions of objects for the garbage collector to trace.
+ *
+ * Each record holds, in order:
+ * <ul>
+ * <li>The ID number (int)</li>
+ * <li>The first name, last name, email address and phone number, each as a
+ * character count (short) followed by up to a fixed number of UTF-16
+ * characters</li>
+ * </ul>
+ *
+ * Members are read through views: Member objects that hold only their
+ * position in the store and read (and write) their details from (and to) the
+ * record. Views are created on demand and are cheap to discard.
+ *
+ * Alongside the records the store keeps hash tables of record numbers keyed
+ * by ID number and by email address, and the record numbers of its members
+ * sorted by case folded last name, so that a last name prefix search only
+ * visits the members that match. Removed members are marked rather than
+ * moved, so record numbers never change.
+ *
+ * @see <a href="Member.html">Member</a>
+ * @see <a href="Library.html">Library</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class MemberStore {
+	/** The greatest number of characters held for a first or last name */
+	public static final int MAX_NAME_LENGTH = 32;
+	/** The greatest number of characters held for an email address */
+	public static final int MAX_EMAIL_LENGTH = 64;
+	/** The greatest number of characters held for a phone number */
+	public static final int MAX_PHONE_NUMBER_LENGTH = 20;
+
+	/** The position of the ID number within a record */
+	private static final int ID_NUMBER_OFFSET = 0;
+	/** The position of the first name within a record */
+	private static final int FIRST_NAME_OFFSET = ID_NUMBER_OFFSET + 4;
+	/** The position of the last name within a record */
+	private static final int LAST_NAME_OFFSET = FIRST_NAME_OFFSET + 2
+			+ 2 * MAX_NAME_LENGTH;
+	/** The position of the email address within a record */
+	private static final int EMAIL_OFFSET = LAST_NAME_OFFSET + 2
+			+ 2 * MAX_NAME_LENGTH;
+	/** The position of the phone number within a record */
+	private static final int PHONE_NUMBER_OFFSET = EMAIL_OFFSET + 2
+			+ 2 * MAX_EMAIL_LENGTH;
+	/** The size of a record in bytes */
+	static final int RECORD_SIZE = PHONE_NUMBER_OFFSET + 2
+			+ 2 * MAX_PHONE_NUMBER_LENGTH;
+	/** The number of records held in each slab */
+	private static final int RECORDS_PER_SLAB = 4096;
+
+	/** The slabs that hold the records */
+	private ArrayList<ByteBuffer> slabs = new ArrayList<>();
+	/** The ID numbers of the members, by record number */
+	private int[] idNumbers = new int[16];
+	/**
+	 * A hash table of record numbers keyed by ID number, using linear
+	 * probing. Each slot holds a record number plus one, zero marking an
+	 * empty slot. Removed members stay in the table so that their ID numbers
+	 * are not stored again.
+	 */
+	private int[] idSlots = new int[32];
+	/** The records of the members that have been removed */
+	private BitSet removed = new BitSet();
+	/** The number of records in use, including those of removed members */
+	private int records;
+	/** The number of members that have not been removed */
+	private int size;
+
+	/**
+	 * A hash table of record numbers keyed by case folded email address,
+	 * using linear probing. Each slot holds a record number plus one, zero
+	 * marking an empty slot.
+	 */
+	private int[] emailSlots = new int[16];
+	/** The hash of the email address in each slot of the email table */
+	private int[] emailHashes = new int[16];
+	/** The number of email addresses in the email table */
+	private int emails;
+
+	/**
+	 * The record numbers of the members, one for each member that has not
+	 * been removed: first those sorted by case folded last name, then by
+	 * record number, followed by those added since they were last sorted
+	 * (guarded by the store, so that concurrent searches can sort them)
+	 */
+	private int[] lastNameOrder = new int[16];
+	/** The number of record numbers at the start of lastNameOrder that are sorted */
+	private int lastNamesOrdered;
+
+	/**
+	 * Mutator Method:
+	 * Copies a member into the store. The provided Member is not kept.
+	 *
+	 * @param member - The member (Member)
+	 *
+	 * @return record - The record number of the member (int)
+	 *
+	 * @throws IllegalArgumentException - If a member with the same ID number
+	 *                                    has been stored before, or if any of
+	 *                                    their details are too long to be held
+	 */
+	public int add(Member member) throws IllegalArgumentException {
+		int idNumber = member.getIDNumber();
+
+		// Guard clause that keeps ID numbers unique within the store
+		if (probeID(idNumber) >= 0) {
+			throw new IllegalArgumentException(
+					"A member with this ID number has already been stored");
+		}
+
+		// Guard clause that checks every detail fits before any are written
+		checkLength("first name", member.getFirstName(), MAX_NAME_LENGTH);
+		checkLength("last name", member.getLastName(), MAX_NAME_LENGTH);
+		checkLength("email address", member.getEmail(), MAX_EMAIL_LENGTH);
+		checkLength("phone number", member.getPhoneNumber(),
+				MAX_PHONE_NUMBER_LENGTH);
+
+		if (records % RECORDS_PER_SLAB == 0) {
+			slabs.add(ByteBuffer.allocateDirect(RECORDS_PER_SLAB * RECORD_SIZE));
+		}
+		if (records == idNumbers.length) {
+			idNumbers = Arrays.copyOf(idNumbers, records * 2);
+		}
+
+		int record = records++;
+		idNumbers[record] = idNumber;
+		slabOf(record).putInt(positionOf(record) + ID_NUMBER_OFFSET, idNumber);
+		writeText(record, FIRST_NAME_OFFSET, member.getFirstName());
+		writeText(record, LAST_NAME_OFFSET, member.getLastName());
+		writeText(record, EMAIL_OFFSET, member.getEmail());
+		writeText(record, PHONE_NUMBER_OFFSET, member.getPhoneNumber());
+		putID(record);
+		putEmail(record, member.getEmail());
+		addToLastNames(record);
+
+		size++;
+		return record;
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes the member with the provided ID number from the store. The
+	 * space used by the member's record is not reclaimed.
+	 *
+	 * @param idNumber - The ID number of the member (int)
+	 *
+	 * @return removed - true if the member was removed, false if there is no
+	 *                   member with the ID number (boolean)
+	 */
+	public boolean remove(int idNumber) {
+		int record = findRecord(idNumber);
+
+		if (record < 0) {
+			return false;
+		}
+
+		removeEmail(record, readText(record, EMAIL_OFFSET));
+		removeFromLastNames(record);
+		removed.set(record);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the record number of the member with the provided ID number
+	 *
+	 * @param idNumber - The ID number of the member (int)
+	 *
+	 * @return record - The record number, or -1 if there is no member with
+	 *                  the ID number (int)
+	 */
+	public int findRecord(int idNumber) {
+		int record = probeID(idNumber);
+
+		if (record < 0 || removed.get(record)) {
+			return -1;
+		}
+
+		return record;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the record number of the member with the provided email
+	 * address, ignoring case
+	 *
+	 * @param email - The email address (String)
+	 *
+	 * @return record - The record number, or -1 if no member has the email
+	 *                  address (int)
+	 */
+	public int findByEmail(String email) {
+		String key = fold(email.trim());
+		int hash = hash(key);
+		int mask = emailSlots.length - 1;
+
+		for (int slot = hash & mask; emailSlots[slot] != 0; slot = (slot + 1) & mask) {
+			int record = emailSlots[slot] - 1;
+			if (emailHashes[slot] == hash
+					&& fold(readText(record, EMAIL_OFFSET)).equals(key)) {
+				return record;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns a view of the member with the provided ID number
+	 *
+	 * @param idNumber - The ID number of the member (int)
+	 *
+	 * @return member - A view of the member (Member)
+	 *
+	 * @throws NoSuchElementException - If there is no member with the ID
+	 *                                  number
+	 */
+	public Member getMemberByID(int idNumber) throws NoSuchElementException {
+		int record = findRecord(idNumber);
+
+		// Guard clause that prevents viewing members that are not stored
+		if (record < 0) {
+			throw new NoSuchElementException(
+					"A member with the provided ID number does not exist");
+		}
+
+		return new View(this, record);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns a view of the member in the provided record
+	 *
+	 * @param record - The record number of the member (int)
+	 *
+	 * @return member - A view of the member (Member)
+	 *
+	 * @throws IndexOutOfBoundsException - If the record is not in use, or
+	 *                                     holds a removed member
+	 */
+	public Member getMember(int record) throws IndexOutOfBoundsException {
+		// Guard clause that prevents viewing records without a member
+		if (record < 0 || record >= records || removed.get(record)) {
+			throw new IndexOutOfBoundsException(
+					"No member is held in record " + record);
+		}
+
+		return new View(this, record);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns views of every member, in ID number order
+	 *
+	 * @return members - Views of the members (ArrayList<Member>)
+	 */
+	public ArrayList<Member> getMembers() {
+		ArrayList<Member> members = new ArrayList<>(size);
+		for (int record = 0; record < records; record++) {
+			if (!removed.get(record)) {
+				members.add(new View(this, record));
+			}
+		}
+		return members;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns views of the members whose last names start with the prefix,
+	 * ignoring case, ordered by last name. Members sharing a last name are
+	 * in the order they were stored.
+	 *
+	 * @param prefix - The start of the last name (String)
+	 *
+	 * @return members - Views of the matching members (List<Member>)
+	 *
+	 * @throws IllegalArgumentException - If the prefix is null or empty
+	 */
+	public List<Member> findByLastNamePrefix(String prefix)
+			throws IllegalArgumentException {
+		// Guard clause that prevents searching without a prefix
+		if (prefix == null || prefix.isEmpty()) {
+			throw new IllegalArgumentException(
+					"Cannot search last names without a prefix");
+		}
+
+		char[] folded = fold(prefix).toCharArray();
+		List<Member> matches = new ArrayList<>();
+		synchronized (this) {
+			orderLastNames();
+
+			// The last names starting with the prefix form one contiguous
+			// range of the sorted record numbers, from the first that does
+			// not sort before the prefix
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (compareToPrefix(lastNameOrder[middle], folded) < 0) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+
+			for (int i = low; i < size && compareToPrefix(lastNameOrder[i], folded) == 0; i++) {
+				matches.add(new View(this, lastNameOrder[i]));
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Checks whether the member is a view of a member held in this store
+	 *
+	 * @param member - The member (Member)
+	 *
+	 * @return contains - true if the member is a view of a stored member
+	 *                    (boolean)
+	 */
+	public boolean contains(Member member) {
+		if (!(member instanceof View)) {
+			return false;
+		}
+
+		View view = (View) member;
+		return view.store == this && !removed.get(view.record);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of members in the store
+	 *
+	 * @return size - The number of members (int)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * A utility method that returns the slab holding a record
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @return slab - The slab (ByteBuffer)
+	 */
+	private ByteBuffer slabOf(int record) {
+		return slabs.get(record / RECORDS_PER_SLAB);
+	}
+
+	/**
+	 * A utility method that returns the position of a record within its slab
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @return position - The position in bytes (int)
+	 */
+	private static int positionOf(int record) {
+		return (record % RECORDS_PER_SLAB) * RECORD_SIZE;
+	}
+
+	/**
+	 * A utility method that reads a detail from a record
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @param offset - The position of the detail within the record (int)
+	 *
+	 * @return text - The detail (String)
+	 */
+	private String readText(int record, int offset) {
+		ByteBuffer slab = slabOf(record);
+		int position = positionOf(record) + offset;
+		char[] chars = new char[slab.getShort(position)];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = slab.getChar(position + 2 + 2 * i);
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * A utility method that writes a detail to a record. The detail's length
+	 * must already have been checked.
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @param offset - The position of the detail within the record (int)
+	 *
+	 * @param text - The detail (String)
+	 */
+	private void writeText(int record, int offset, String text) {
+		ByteBuffer slab = slabOf(record);
+		int position = positionOf(record) + offset;
+		slab.putShort(position, (short) text.length());
+		for (int i = 0; i < text.length(); i++) {
+			slab.putChar(position + 2 + 2 * i, text.charAt(i));
+		}
+	}
+
+	/**
+	 * A utility method that adds a new member's record to the end of the last
+	 * name order, to be sorted into place when the order is next needed
+	 *
+	 * @param record - The record number (int)
+	 */
+	private synchronized void addToLastNames(int record) {
+		if (size == lastNameOrder.length) {
+			lastNameOrder = Arrays.copyOf(lastNameOrder, size * 2);
+		}
+		lastNameOrder[size] = record;
+	}
+
+	/**
+	 * A utility method that removes a member's record from the last name
+	 * order, while the record still holds the last name it was sorted by
+	 *
+	 * @param record - The record number (int)
+	 */
+	private synchronized void removeFromLastNames(int record) {
+		orderLastNames();
+		int position = findInLastNames(record, lastNamesOrdered);
+		System.arraycopy(lastNameOrder, position + 1, lastNameOrder, position,
+				size - position - 1);
+		lastNamesOrdered--;
+	}
+
+	/**
+	 * A utility method that sorts the records added since the last name
+	 * order was last sorted, and moves each into place among the sorted
+	 * records, working from the end so that the sorted records are only
+	 * moved once
+	 */
+	private synchronized void orderLastNames() {
+		if (lastNamesOrdered == size) {
+			return;
+		}
+
+		int[] added = Arrays.copyOfRange(lastNameOrder, lastNamesOrdered, size);
+		long[] keys = new long[added.length];
+		for (int i = 0; i < added.length; i++) {
+			keys[i] = lastNameKey(added[i]);
+		}
+		sortLastNames(added, keys, new int[added.length], new long[added.length],
+				0, added.length);
+
+		int end = lastNamesOrdered;
+		int to = size;
+		for (int next = added.length - 1; next >= 0; next--) {
+			int position = findInLastNames(added[next], end);
+			to -= end - position;
+			System.arraycopy(lastNameOrder, position, lastNameOrder, to, end - position);
+			lastNameOrder[--to] = added[next];
+			end = position;
+		}
+		lastNamesOrdered = size;
+	}
+
+	/**
+	 * A utility method that merge sorts records by last name, comparing the
+	 * keys of their first characters before their whole last names
+	 *
+	 * @param records - The record numbers (int[])
+	 *
+	 * @param keys - The key of each record's last name (long[])
+	 *
+	 * @param spareRecords - Space to merge the record numbers into (int[])
+	 *
+	 * @param spareKeys - Space to merge the keys into (long[])
+	 *
+	 * @param from - The first position to sort (int)
+	 *
+	 * @param to - The position to sort up to (int)
+	 */
+	private void sortLastNames(int[] records, long[] keys, int[] spareRecords,
+			long[] spareKeys, int from, int to) {
+		if (to - from < 2) {
+			return;
+		}
+
+		int middle = (from + to) >>> 1;
+		sortLastNames(records, keys, spareRecords, spareKeys, from, middle);
+		sortLastNames(records, keys, spareRecords, spareKeys, middle, to);
+
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; i++) {
+			boolean takeLeft = right == to || (left < middle && (keys[left] != keys[right]
+					? Long.compareUnsigned(keys[left], keys[right]) < 0
+					: compareLastNames(records[left], records[right]) < 0));
+			int taken = takeLeft ? left++ : right++;
+			spareRecords[i] = records[taken];
+			spareKeys[i] = keys[taken];
+		}
+		System.arraycopy(spareRecords, from, records, from, to - from);
+		System.arraycopy(spareKeys, from, keys, from, to - from);
+	}
+
+	/**
+	 * A utility method that returns a key that sorts as the first four case
+	 * folded characters of a record's last name do
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @return key - The characters, one in each 16 bits, and zero for any
+	 *               past the end of the last name (long)
+	 */
+	private long lastNameKey(int record) {
+		ByteBuffer slab = slabOf(record);
+		int position = positionOf(record) + LAST_NAME_OFFSET;
+		int length = slab.getShort(position);
+
+		long key = 0;
+		for (int i = 0; i < 4; i++) {
+			char c = i < length ? Character.toLowerCase(slab.getChar(position + 2 + 2 * i)) : 0;
+			key = (key << 16) | c;
+		}
+		return key;
+	}
+
+	/**
+	 * A utility method that returns the position of a record among the first
+	 * records of the sorted last name order
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @param end - The number of sorted records to search (int)
+	 *
+	 * @return position - The position of the record, or of the first record
+	 *                    that sorts after it (int)
+	 */
+	private int findInLastNames(int record, int end) {
+		int low = 0;
+		int high = end;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (compareLastNames(lastNameOrder[middle], record) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * A utility method that compares the case folded last names of two
+	 * records, then their record numbers, without reading the last names
+	 * into Strings
+	 *
+	 * @param first - The first record number (int)
+	 *
+	 * @param second - The second record number (int)
+	 *
+	 * @return comparison - Negative, zero or positive as the first record
+	 *                      sorts before, with or after the second (int)
+	 */
+	private int compareLastNames(int first, int second) {
+		ByteBuffer firstSlab = slabOf(first);
+		ByteBuffer secondSlab = slabOf(second);
+		int firstPosition = positionOf(first) + LAST_NAME_OFFSET;
+		int secondPosition = positionOf(second) + LAST_NAME_OFFSET;
+		int firstLength = firstSlab.getShort(firstPosition);
+		int secondLength = secondSlab.getShort(secondPosition);
+
+		for (int i = 0; i < Math.min(firstLength, secondLength); i++) {
+			char firstChar = Character.toLowerCase(firstSlab.getChar(firstPosition + 2 + 2 * i));
+			char secondChar = Character.toLowerCase(secondSlab.getChar(secondPosition + 2 + 2 * i));
+			if (firstChar != secondChar) {
+				return firstChar - secondChar;
+			}
+		}
+
+		if (firstLength != secondLength) {
+			return firstLength - secondLength;
+		}
+		return Integer.compare(first, second);
+	}
+
+	/**
+	 * A utility method that compares the case folded last name of a record
+	 * with a (case folded) prefix
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @param prefix - The case folded prefix (char[])
+	 *
+	 * @return comparison - Negative if the last name sorts before the
+	 *                      prefix, zero if it starts with the prefix, or
+	 *                      positive if it sorts after the prefix (int)
+	 */
+	private int compareToPrefix(int record, char[] prefix) {
+		ByteBuffer slab = slabOf(record);
+		int position = positionOf(record) + LAST_NAME_OFFSET;
+		int length = slab.getShort(position);
+
+		for (int i = 0; i < Math.min(length, prefix.length); i++) {
+			char c = Character.toLowerCase(slab.getChar(position + 2 + 2 * i));
+			if (c != prefix[i]) {
+				return c - prefix[i];
+			}
+		}
+
+		// A last name shorter than the prefix sorts before it
+		return length < prefix.length ? -1 : 0;
+	}
+
+	/**
+	 * A utility method that returns the record number held in the ID table
+	 * for an ID number, whether or not the member has been removed
+	 *
+	 * @param idNumber - The ID number (int)
+	 *
+	 * @return record - The record number, or -1 if the ID number has never
+	 *                  been stored (int)
+	 */
+	private int probeID(int idNumber) {
+		int mask = idSlots.length - 1;
+		for (int slot = hash(idNumber) & mask; idSlots[slot] != 0; slot = (slot + 1) & mask) {
+			if (idNumbers[idSlots[slot] - 1] == idNumber) {
+				return idSlots[slot] - 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * A utility method that adds a record to the ID table, growing the table
+	 * so that it is never more than half full
+	 *
+	 * @param record - The record number (int)
+	 */
+	private void putID(int record) {
+		if (2 * (record + 1) > idSlots.length) {
+			idSlots = new int[idSlots.length * 2];
+			for (int existing = 0; existing < record; existing++) {
+				insertID(existing);
+			}
+		}
+
+		insertID(record);
+	}
+
+	/**
+	 * A utility method that places a record in the first free slot of the ID
+	 * table from the hash of its ID number
+	 *
+	 * @param record - The record number (int)
+	 */
+	private void insertID(int record) {
+		int mask = idSlots.length - 1;
+		int slot = hash(idNumbers[record]) & mask;
+		while (idSlots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		idSlots[slot] = record + 1;
+	}
+
+	/**
+	 * A utility method that adds a record to the email table, growing the
+	 * table so that it is never more than half full
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @param email - The record's email address (String)
+	 */
+	private void putEmail(int record, String email) {
+		if (2 * (emails + 1) > emailSlots.length) {
+			int[] oldSlots = emailSlots;
+			int[] oldHashes = emailHashes;
+			emailSlots = new int[oldSlots.length * 2];
+			emailHashes = new int[oldSlots.length * 2];
+			for (int slot = 0; slot < oldSlots.length; slot++) {
+				if (oldSlots[slot] != 0) {
+					insertEmail(oldSlots[slot], oldHashes[slot]);
+				}
+			}
+		}
+
+		insertEmail(record + 1, hash(fold(email)));
+		emails++;
+	}
+
+	/**
+	 * A utility method that places a record in the first free slot of the
+	 * email table from its hash
+	 *
+	 * @param entry - The record number plus one (int)
+	 *
+	 * @param hash - The hash of the record's email address (int)
+	 */
+	private void insertEmail(int entry, int hash) {
+		int mask = emailSlots.length - 1;
+		int slot = hash & mask;
+		while (emailSlots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		emailSlots[slot] = entry;
+		emailHashes[slot] = hash;
+	}
+
+	/**
+	 * A utility method that removes a record from the email table, shifting
+	 * back any following entries that would otherwise become unreachable
+	 *
+	 * @param record - The record number (int)
+	 *
+	 * @param email - The record's email address (String)
+	 */
+	private void removeEmail(int record, String email) {
+		int mask = emailSlots.length - 1;
+		int slot = hash(fold(email)) & mask;
+		while (emailSlots[slot] != record + 1) {
+			// The record is not in the table
+			if (emailSlots[slot] == 0) {
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		// Move later entries of the same probe run into the gap
+		int gap = slot;
+		for (int next = (gap + 1) & mask; emailSlots[next] != 0; next = (next + 1) & mask) {
+			int home = emailHashes[next] & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				emailSlots[gap] = emailSlots[next];
+				emailHashes[gap] = emailHashes[next];
+				gap = next;
+			}
+		}
+		emailSlots[gap] = 0;
+		emailHashes[gap] = 0;
+		emails--;
+	}
+
+	/**
+	 * A utility method that spreads the hash code of a case folded email
+	 * address across the bits used to choose a slot
+	 *
+	 * @param key - The case folded email address (String)
+	 *
+	 * @return hash - The hash (int)
+	 */
+	private static int hash(String key) {
+		return hash(key.hashCode());
+	}
+
+	/**
+	 * A utility method that spreads the bits of an ID number or hash code
+	 * across the bits used to choose a slot
+	 *
+	 * @param value - The ID number or hash code (int)
+	 *
+	 * @return hash - The hash (int)
+	 */
+	private static int hash(int value) {
+		int hash = value * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * A utility method that case folds text so that comparisons are case
+	 * insensitive
+	 *
+	 * @param text - The text (String)
+	 *
+	 * @return folded - The case folded text (String)
+	 */
+	private static String fold(String text) {
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * A utility method that checks that a detail fits in its part of a
+	 * record
+	 *
+	 * @param name - The name of the detail, used in the error (String)
+	 *
+	 * @param text - The detail (String)
+	 *
+	 * @param maxLength - The greatest number of characters held (int)
+	 *
+	 * @throws IllegalArgumentException - If the detail is too long
+	 */
+	private static void checkLength(String name, String text, int maxLength)
+			throws IllegalArgumentException {
+		if (text.length() > maxLength) {
+			throw new IllegalArgumentException("The member's " + name
+					+ " is longer than the " + maxLength
+					+ " characters that can be stored");
+		}
+	}
+
+	/**
+	 * A flyweight view of a member held in the store. The view holds only the
+	 * store and the member's record number: its Accessor methods read from the
+	 * record and its Mutator methods validate, as a Member's do, then write
+	 * to the record.
+	 */
+	private static class View extends Member {
+		/** The store holding the member */
+		private final MemberStore store;
+		/** The member's record number */
+		private final int record;
+
+		/**
+		 * Constructor:
+		 * Instantiates a view of a stored member
+		 *
+		 * @param store - The store holding the member (MemberStore)
+		 *
+		 * @param record - The member's record number (int)
+		 */
+		private View(MemberStore store, int record) {
+			this.store = store;
+			this.record = record;
+		}
+
+		/**
+		 * Mutator Method:
+		 * Stored members are found by their ID numbers, so their ID numbers
+		 * cannot be changed
+		 *
+		 * @param idNumber - The member's ID number (int)
+		 *
+		 * @throws UnsupportedOperationException - Always
+		 */
+		@Override
+		public void setIDNumber(int idNumber) {
+			throw new UnsupportedOperationException(
+					"The ID number of a stored member cannot be changed");
+		}
+
+		/** Reads the member's ID number */
+		@Override
+		public int getIDNumber() {
+			return store.idNumbers[record];
+		}
+
+		/** Validates the member's first name and writes it to their record */
+		@Override
+		public void setFirstName(String firstName) {
+			super.setFirstName(firstName);
+			checkLength("first name", super.getFirstName(), MAX_NAME_LENGTH);
+			store.writeText(record, FIRST_NAME_OFFSET, super.getFirstName());
+		}
+
+		/** Reads the member's first name from their record */
+		@Override
+		public String getFirstName() {
+			return store.readText(record, FIRST_NAME_OFFSET);
+		}
+
+		/**
+		 * Validates the member's last name and writes it to their record,
+		 * moving the record to its new place in the store's last name order
+		 */
+		@Override
+		public void setLastName(String lastName) {
+			super.setLastName(lastName);
+			checkLength("last name", super.getLastName(), MAX_NAME_LENGTH);
+
+			// Only members still in the store are kept in the last name order
+			synchronized (store) {
+				boolean indexed = !store.removed.get(record);
+				if (indexed) {
+					store.removeFromLastNames(record);
+				}
+				store.writeText(record, LAST_NAME_OFFSET, super.getLastName());
+				if (indexed) {
+					store.lastNameOrder[store.size - 1] = record;
+				}
+			}
+		}
+
+		/** Reads the member's last name from their record */
+		@Override
+		public String getLastName() {
+			return store.readText(record, LAST_NAME_OFFSET);
+		}
+
+		/**
+		 * Mutator Method:
+		 * Sets the member's email address, re-keying the store's email table
+		 *
+		 * @param email - The member's email address (String)
+		 *
+		 * @throws IllegalArgumentException - If the email address is not
+		 *                                    valid, is too long to be held,
+		 *                                    or belongs to another stored
+		 *                                    member
+		 */
+		@Override
+		public void setEmail(String email) {
+			super.setEmail(email);
+			String trimmed = super.getEmail();
+			checkLength("email address", trimmed, MAX_EMAIL_LENGTH);
+
+			// Guard clause that keeps email addresses unique within the store
+			int existing = store.findByEmail(trimmed);
+			if (existing >= 0 && existing != record) {
+				throw new IllegalArgumentException(
+						"A member with this email address is already stored");
+			}
+
+			// Only members still in the store are kept in the email table
+			boolean indexed = !store.removed.get(record);
+			if (indexed) {
+				store.removeEmail(record, getEmail());
+			}
+			store.writeText(record, EMAIL_OFFSET, trimmed);
+			if (indexed) {
+				store.putEmail(record, trimmed);
+			}
+		}
+
+		/** Reads the member's email address from their record */
+		@Override
+		public String getEmail() {
+			return store.readText(record, EMAIL_OFFSET);
+		}
+
+		/** Validates the member's phone number and writes it to their record */
+		@Override
+		public void setPhoneNumber(String phoneNumber) {
+			super.setPhoneNumber(phoneNumber);
+			checkLength("phone number", phoneNumber, MAX_PHONE_NUMBER_LENGTH);
+			store.writeText(record, PHONE_NUMBER_OFFSET, phoneNumber);
+		}
+
+		/** Reads the member's phone number from their record */
+		@Override
+		public String getPhoneNumber() {
+			return store.readText(record, PHONE_NUMBER_OFFSET);
+		}
+
+		/**
+		 * Returns the E.164 form of the phone number in the member's record
+		 * (from the validation cache, as only the phone number as it was
+		 * provided is stored)
+		 */
+		@Override
+		public String getCanonicalPhoneNumber() {
+			return Member.toCanonicalPhoneNumber(getPhoneNumber());
+		}
+	}
+}
@@ -23,7 +23,7 @@ public class Menu {
 	/** The message that will be displayed as the Menu's prompt **/
 	private String promptMessage;
 	/** A scanner to read the user's menu selection **/
-	private Scanner inputScanner = new Scanner(System.in);
+	private Scanner inputScanner;
 	/** Stores the user's choice **/
 	private int chosenIndex = -1;
 	
@@ -44,6 +44,34 @@ public class Menu {
 	 */
 	public Menu(String headerText, String promptMessage,
 			Map<String, Consumer<Void>> choices) {
+		this(headerText, promptMessage, choices, new Scanner(System.in));
+	}
+
+	/**
+	 * Constructor:
+	 * Instantiates Menu objects that read the user's selection from the
+	 * provided scanner, for example one reading a terminal session's input
+	 * 
+	 * @param headerText - The text to be displayed in the menu's header (String)
+	 *           
+	 * @param promptMessage - The prompt message to be displayed to the user (String)
+	 * 
+	 * @param choices - The list of choices and presented to the user 
+	 *                  and associated lambdas (May<String, Consumer<Void>>);
+	 * 
+	 * @param inputScanner - The scanner that reads the user's input (Scanner)
+	 * 
+	 * @throws IllegalArgumentException - If choices is null or has a size less than 2 
+	 *                                    since a menu with less that 2 choices is
+	 *                                    redundant, or the scanner is null
+	 */
+	public Menu(String headerText, String promptMessage,
+			Map<String, Consumer<Void>> choices, Scanner inputScanner) {
+		// Guard clause that prevents Menus from reading a missing scanner
+		if (inputScanner == null) {
+			throw new IllegalArgumentException(
+					"Cannot create menu, inputScanner is null");
+		}
 		// Guard clause that prevents Menus from being created if choices is null
 		if (choices == null) {
 			throw new IllegalArgumentException(
@@ -70,6 +98,7 @@ public class Menu {
 		}
 
 		this.choices = choices;
+		this.inputScanner = inputScanner;
 	}
 
 	/**
@@ -0,0 +1,836 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A repository that keeps a library's members, books and loans in a file of
+ * fixed-size pages, so that the library is restored when the file is opened
+ * again. What is stored is also held on the heap, as the InMemoryRepository
+ * holds it, so reading the library never touches the file.
+ *
+ * Each page is a slotted page of {@value #PAGE_SIZE} bytes: a header (a
+ * magic number, a CRC32 checksum of the rest of the page, the number of
+ * slots, where the records start and the highest ID number ever stored in
+ * the page, so that ID numbers are not issued again once their records
+ * are removed), a directory of slots, each holding
+ * the offset and length of a record, growing from the front of the page and
+ * the records growing from the back. A record is a type byte followed by a
+ * member's or book's ID number and details, or a loan's ID numbers and
+ * epoch days, in the same form as the journal's records.
+ *
+ * Every change reads the page it changes, updates it and writes it back
+ * whole. A removed record's slot is emptied and its space reused by later
+ * records, the page being compacted when its free space is in pieces, so
+ * the file holds only what is stored now rather than its history (compare
+ * the Journal class) and opening it reads only that. Pages are written to
+ * the operating system as each change is made, so changes survive the
+ * process stopping; sync, or close, forces them to disk.
+ *
+ * So that a page left part written, when the machine stops part way through
+ * writing it, does not stop the file being opened, the store keeps a
+ * rollback file beside it (its name followed by ".rollback"). Before the
+ * first change after a sync the number of pages is added to the rollback
+ * file, and before a page that was in the file at the last sync is first
+ * written over its contents at the sync are added, with a checksum; each is
+ * forced to disk before the page is written. Sync empties the rollback file,
+ * and close deletes it.
+ *
+ * When the file is opened a page that was only partly added to its end is
+ * cut off. If a page's checksum does not match, or a loan's member or book
+ * is missing, the file is put back as it was at the last sync from the
+ * rollback file, losing only the changes made since, and read again; it is
+ * only refused if there is nothing to roll back.
+ *
+ * @see <a href="LibraryRepository.html">LibraryRepository</a>
+ * @see <a href="Journal.html">Journal</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class PageStoreRepository extends InMemoryRepository {
+	/** The size of a page in bytes */
+	public static final int PAGE_SIZE = 4096;
+	/** The magic number that starts every page ("LPAG") */
+	private static final int MAGIC = 0x4C504147;
+	/**
+	 * The size of a page's header: magic, checksum, slot count, records
+	 * start and highest ID number
+	 */
+	private static final int HEADER_SIZE = 16;
+	/** The size of a slot: a record's offset and length */
+	private static final int SLOT_SIZE = 4;
+	/** The longest record that fits in a page */
+	static final int MAX_RECORD_SIZE = PAGE_SIZE - HEADER_SIZE - SLOT_SIZE;
+	/** The free space that puts a page back in use for new records */
+	private static final int ROOMY = PAGE_SIZE / 4;
+	/** The size of the rollback file's header: the magic and the number of pages at the last sync */
+	private static final int ROLLBACK_HEADER_SIZE = 8;
+	/** The size of a record of the rollback file: a page number, a checksum and the page */
+	private static final int ROLLBACK_RECORD_SIZE = 8 + PAGE_SIZE;
+
+	/** The type of a member's record */
+	private static final byte MEMBER = 1;
+	/** The type of a book's record */
+	private static final byte BOOK = 2;
+	/** The type of a loan's record */
+	private static final byte LOAN = 3;
+
+	/** The page file */
+	private final FileChannel file;
+	/** The path of the rollback file */
+	private final Path rollbackPath;
+	/** The rollback file, holding pages as they were at the last sync */
+	private final FileChannel rollback;
+	/** The length of the rollback file, which is 0 until the first change after a sync */
+	private long rollbackLength;
+	/** The pages held in the rollback file */
+	private final BitSet savedPages = new BitSet();
+	/** The number of pages in the file at the last sync */
+	private int syncedPageCount;
+	/** The number of pages in the file */
+	private int pageCount;
+	/** The free bytes of each page, including the space of emptied slots */
+	private int[] freeBytes = new int[16];
+	/**
+	 * The pages, other than the last, that records have been removed from
+	 * and that have room for new records again
+	 */
+	private final ArrayDeque<Integer> roomyPages = new ArrayDeque<Integer>();
+	/** The pages in roomyPages */
+	private final BitSet roomy = new BitSet();
+	/** The location of each member's record by their ID number */
+	private final HashMap<Integer, Long> memberLocations = new HashMap<Integer, Long>();
+	/** The location of each book's record by its ID number */
+	private final HashMap<Integer, Long> bookLocations = new HashMap<Integer, Long>();
+	/**
+	 * The location of each loan's record by the loan itself, so that a later
+	 * loan of the same book is never mistaken for it
+	 */
+	private final IdentityHashMap<Loan, Long> loanLocations = new IdentityHashMap<Loan, Long>();
+	/** The page being changed */
+	private final ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+	/** The number of pages written */
+	private long pageWrites;
+	/** The highest ID number ever stored */
+	private int highestIDNumber;
+
+	/**
+	 * Constructor:
+	 * Opens the page file at the provided path, creating it if it does not
+	 * exist, and reads back the members, books and loans stored in it.
+	 * Members and books are read back in ID number order. A damaged file is
+	 * put back as it was at the last sync, if its rollback file holds it.
+	 *
+	 * @param path - The page file (Path)
+	 *
+	 * @throws IOException - If the file cannot be opened or read, or is
+	 *                       damaged and cannot be recovered
+	 */
+	public PageStoreRepository(Path path) throws IOException {
+		file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		rollbackPath = rollbackPathOf(path);
+		try {
+			rollback = FileChannel.open(rollbackPath, StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+		} catch (IOException | RuntimeException e) {
+			file.close();
+			throw e;
+		}
+		try {
+			// Cut off a page that was only partly added to the file
+			long size = file.size();
+			if (size % PAGE_SIZE != 0) {
+				file.truncate(size - size % PAGE_SIZE);
+			}
+			try {
+				load((int) (size / PAGE_SIZE));
+			} catch (IOException e) {
+				// Put a file left part way through a change back as it was
+				// at the last sync, and read it again
+				if (!rollBack()) {
+					throw e;
+				}
+				load((int) (file.size() / PAGE_SIZE));
+			}
+
+			// The pages read back are forced to disk before the pages they
+			// replaced are no longer kept
+			file.force(false);
+			rollback.truncate(0);
+			rollback.force(true);
+			syncedPageCount = pageCount;
+		} catch (IOException | RuntimeException e) {
+			file.close();
+			boolean emptyRollback = rollback.size() == 0;
+			rollback.close();
+			if (emptyRollback) {
+				Files.deleteIfExists(rollbackPath);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * A utility method that returns the path of the rollback file kept
+	 * beside a page file
+	 *
+	 * @param path - The page file (Path)
+	 *
+	 * @return rollbackPath - The rollback file (Path)
+	 */
+	static Path rollbackPathOf(Path path) {
+		return path.resolveSibling(path.getFileName() + ".rollback");
+	}
+
+	@Override
+	public synchronized void addMember(Member member) {
+		memberLocations.put(member.getIDNumber(),
+				insert(encode(MEMBER, member), member.getIDNumber()));
+		super.addMember(member);
+	}
+
+	@Override
+	public synchronized void removeMember(Member member) {
+		Long location = memberLocations.remove(member.getIDNumber());
+		if (location != null) {
+			delete(location);
+		}
+		super.removeMember(member);
+	}
+
+	@Override
+	public synchronized void addBook(Book book) {
+		bookLocations.put(book.getIDNumber(), insert(encode(BOOK, book), book.getIDNumber()));
+		super.addBook(book);
+	}
+
+	@Override
+	public synchronized void removeBook(Book book) {
+		Long location = bookLocations.remove(book.getIDNumber());
+		if (location != null) {
+			delete(location);
+		}
+		super.removeBook(book);
+	}
+
+	@Override
+	public synchronized void addLoan(Loan loan) {
+		loanLocations.put(loan, insert(encode(LOAN, loan), 0));
+		super.addLoan(loan);
+	}
+
+	@Override
+	public synchronized void removeLoan(Loan loan) {
+		// Guard clause that ignores a loan that has already been removed
+		Long location = loanLocations.remove(loan);
+		if (location == null) {
+			return;
+		}
+		delete(location);
+		super.removeLoan(loan);
+	}
+
+	@Override
+	public synchronized int getHighestIDNumber() {
+		return highestIDNumber;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of pages in the file
+	 *
+	 * @return pageCount - The number of pages (int)
+	 */
+	public synchronized int getPageCount() {
+		return pageCount;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of pages written since the file was opened
+	 *
+	 * @return pageWrites - The number of pages written (long)
+	 */
+	public synchronized long getPageWrites() {
+		return pageWrites;
+	}
+
+	/**
+	 * Forces the pages written so far to disk, and empties the rollback file
+	 *
+	 * @throws IOException - If the files cannot be forced
+	 */
+	public synchronized void sync() throws IOException {
+		file.force(false);
+
+		// The file is whole on disk, so the pages it held before are no
+		// longer needed
+		rollback.truncate(0);
+		rollback.force(true);
+		rollbackLength = 0;
+		savedPages.clear();
+		syncedPageCount = pageCount;
+	}
+
+	/**
+	 * Forces the pages written so far to disk, closes the file and deletes
+	 * its rollback file
+	 *
+	 * @throws IOException - If the file cannot be forced or closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			sync();
+		} finally {
+			file.close();
+			rollback.close();
+		}
+		Files.deleteIfExists(rollbackPath);
+	}
+
+	/**
+	 * A utility method that reads back every page of the file, storing the
+	 * members and books first and then the loans, whose members and books
+	 * they refer to. Nothing is stored unless every page is read back, so
+	 * the file may be read again once it has been rolled back.
+	 *
+	 * @param pages - The number of pages in the file (int)
+	 *
+	 * @throws IOException - If a page cannot be read or is damaged
+	 */
+	private void load(int pages) throws IOException {
+		pageCount = 0;
+		highestIDNumber = 0;
+		roomyPages.clear();
+		roomy.clear();
+		memberLocations.clear();
+		bookLocations.clear();
+		loanLocations.clear();
+
+		List<Member> members = new ArrayList<Member>();
+		List<Book> books = new ArrayList<Book>();
+		List<long[]> loans = new ArrayList<long[]>();
+		for (int pageNumber = 0; pageNumber < pages; pageNumber++) {
+			readPage(pageNumber);
+			highestIDNumber = Math.max(highestIDNumber, page.getInt(12));
+			freeBytes = ensureCapacity(freeBytes, pageNumber);
+			freeBytes[pageNumber] = freeSpace();
+			pageCount = pageNumber + 1;
+			if (freeBytes[pageNumber] >= ROOMY) {
+				markRoomy(pageNumber);
+			}
+
+			for (int slot = 0; slot < slotCount(); slot++) {
+				int length = slotLength(slot);
+				if (length == 0) {
+					continue;
+				}
+				long location = toLocation(pageNumber, slot);
+				DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+						page.array(), slotOffset(slot), length));
+				try {
+					byte type = in.readByte();
+					int idNumber = in.readInt();
+					if (type == MEMBER) {
+						members.add(Journal.readMember(in, idNumber));
+						memberLocations.put(idNumber, location);
+					} else if (type == BOOK) {
+						books.add(Journal.readBook(in, idNumber));
+						bookLocations.put(idNumber, location);
+					} else if (type == LOAN) {
+						loans.add(new long[] {location, idNumber, in.readInt(), in.readInt(),
+								in.readInt()});
+					} else {
+						throw new IOException("Unknown record type " + type);
+					}
+				} catch (Exception e) {
+					throw new IOException("The page store is damaged at page " + pageNumber
+							+ ": " + e.getMessage(), e);
+				}
+			}
+		}
+
+		// Find each loan's member and book
+		HashMap<Integer, Member> membersByID = new HashMap<Integer, Member>();
+		for (Member member : members) {
+			membersByID.put(member.getIDNumber(), member);
+		}
+		HashMap<Integer, Book> booksByID = new HashMap<Integer, Book>();
+		for (Book book : books) {
+			booksByID.put(book.getIDNumber(), book);
+		}
+		List<Loan> restoredLoans = new ArrayList<Loan>(loans.size());
+		for (long[] record : loans) {
+			Member member = membersByID.get((int) record[1]);
+			Book book = booksByID.get((int) record[2]);
+			if (member == null || book == null) {
+				throw new IOException("The page store is damaged: a loan's member or book is missing");
+			}
+			Loan loan = new Loan(member, book, LocalDate.ofEpochDay(record[3]),
+					LocalDate.ofEpochDay(record[4]));
+			loanLocations.put(loan, record[0]);
+			restoredLoans.add(loan);
+		}
+
+		// Store the members and books in the order they were issued their
+		// ID numbers
+		members.sort(Comparator.comparingInt(Member::getIDNumber));
+		for (Member member : members) {
+			super.addMember(member);
+		}
+		books.sort(Comparator.comparingInt(Book::getIDNumber));
+		for (Book book : books) {
+			super.addBook(book);
+		}
+		for (Loan loan : restoredLoans) {
+			super.addLoan(loan);
+		}
+	}
+
+	/**
+	 * A utility method that writes a record into a page with room for it,
+	 * adding a page to the file if none has room
+	 *
+	 * @param record - The record (byte[])
+	 *
+	 * @param idNumber - The ID number of the member or book, or 0 (int)
+	 *
+	 * @return location - The record's page and slot (long)
+	 *
+	 * @throws UncheckedIOException - If the page cannot be read or written
+	 */
+	private long insert(byte[] record, int idNumber) throws UncheckedIOException {
+		int needed = record.length + SLOT_SIZE;
+		int pageNumber = findRoom(needed);
+		try {
+			if (pageNumber == pageCount) {
+				clearPage();
+				freeBytes = ensureCapacity(freeBytes, pageNumber);
+				freeBytes[pageNumber] = PAGE_SIZE - HEADER_SIZE;
+				pageCount++;
+			} else {
+				readPage(pageNumber);
+			}
+
+			// Reuse an emptied slot if there is one
+			int slot = 0;
+			while (slot < slotCount() && slotLength(slot) != 0) {
+				slot++;
+			}
+			int slotsEnd = HEADER_SIZE + SLOT_SIZE * Math.max(slotCount(), slot + 1);
+			if (recordsStart() - record.length < slotsEnd) {
+				compact();
+			}
+
+			int offset = recordsStart() - record.length;
+			System.arraycopy(record, 0, page.array(), offset, record.length);
+			if (slot == slotCount()) {
+				page.putShort(8, (short) (slot + 1));
+				freeBytes[pageNumber] -= SLOT_SIZE;
+			}
+			page.putShort(10, (short) offset);
+			page.putInt(12, Math.max(page.getInt(12), idNumber));
+			page.putShort(HEADER_SIZE + SLOT_SIZE * slot, (short) offset);
+			page.putShort(HEADER_SIZE + SLOT_SIZE * slot + 2, (short) record.length);
+			freeBytes[pageNumber] -= record.length;
+			writePage(pageNumber);
+			highestIDNumber = Math.max(highestIDNumber, idNumber);
+			return toLocation(pageNumber, slot);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * A utility method that empties the slot of a record, so that its space
+	 * can be reused, and puts its page back in use once it has room
+	 *
+	 * @param location - The record's page and slot (long)
+	 *
+	 * @throws UncheckedIOException - If the page cannot be read or written
+	 */
+	private void delete(long location) throws UncheckedIOException {
+		int pageNumber = (int) (location >>> 16);
+		int slot = (int) (location & 0xFFFF);
+		try {
+			readPage(pageNumber);
+			freeBytes[pageNumber] += slotLength(slot);
+			page.putShort(HEADER_SIZE + SLOT_SIZE * slot + 2, (short) 0);
+
+			// Start an empty page afresh, so that its slots are reused from
+			// the front, keeping its highest ID number
+			boolean empty = true;
+			for (int i = 0; i < slotCount() && empty; i++) {
+				empty = slotLength(i) == 0;
+			}
+			if (empty) {
+				int pageHighestIDNumber = page.getInt(12);
+				clearPage();
+				page.putInt(12, pageHighestIDNumber);
+				freeBytes[pageNumber] = PAGE_SIZE - HEADER_SIZE;
+			}
+			writePage(pageNumber);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		if (freeBytes[pageNumber] >= ROOMY && pageNumber < pageCount - 1) {
+			markRoomy(pageNumber);
+		}
+	}
+
+	/**
+	 * A utility method that finds a page with room for a record: the last
+	 * page, or a page records have been removed from, or else a new page
+	 * at the end of the file
+	 *
+	 * @param needed - The bytes the record and its slot need (int)
+	 *
+	 * @return pageNumber - The page (int)
+	 */
+	private int findRoom(int needed) {
+		if (pageCount > 0 && freeBytes[pageCount - 1] >= needed) {
+			return pageCount - 1;
+		}
+
+		// Pages that have filled up again are dropped until they have room
+		while (!roomyPages.isEmpty()) {
+			int pageNumber = roomyPages.peek();
+			if (freeBytes[pageNumber] >= needed) {
+				return pageNumber;
+			}
+			roomyPages.poll();
+			roomy.clear(pageNumber);
+		}
+		return pageCount;
+	}
+
+	/**
+	 * A utility method that moves a page's records to its back, one after
+	 * the other, so that its free space is in one piece
+	 */
+	private void compact() {
+		byte[] copy = page.array().clone();
+		int offset = PAGE_SIZE;
+		for (int slot = 0; slot < slotCount(); slot++) {
+			int length = slotLength(slot);
+			if (length > 0) {
+				offset -= length;
+				System.arraycopy(copy, slotOffset(slot), page.array(), offset, length);
+				page.putShort(HEADER_SIZE + SLOT_SIZE * slot, (short) offset);
+			}
+		}
+		page.putShort(10, (short) offset);
+	}
+
+	/**
+	 * A utility method that reads a page of the file and checks it
+	 *
+	 * @param pageNumber - The page (int)
+	 *
+	 * @throws IOException - If the page cannot be read or is damaged
+	 */
+	private void readPage(int pageNumber) throws IOException {
+		page.clear();
+		long position = (long) pageNumber * PAGE_SIZE;
+		while (page.hasRemaining()) {
+			if (file.read(page, position + page.position()) < 0) {
+				throw new IOException("The page store ends within page " + pageNumber);
+			}
+		}
+		if (page.getInt(0) != MAGIC || page.getInt(4) != checksum()) {
+			throw new IOException("The page store is damaged at page " + pageNumber);
+		}
+	}
+
+	/**
+	 * A utility method that writes the page being changed to the file,
+	 * with its checksum, once what it replaces has been saved
+	 *
+	 * @param pageNumber - The page (int)
+	 *
+	 * @throws IOException - If the page cannot be saved or written
+	 */
+	private void writePage(int pageNumber) throws IOException {
+		savePage(pageNumber);
+		page.putInt(0, MAGIC);
+		page.putInt(4, checksum());
+		page.clear();
+		long position = (long) pageNumber * PAGE_SIZE;
+		while (page.hasRemaining()) {
+			file.write(page, position + page.position());
+		}
+		pageWrites++;
+	}
+
+	/**
+	 * A utility method that adds a page's contents at the last sync to the
+	 * rollback file, and forces it to disk, before the page is first written
+	 * over, starting the rollback file with the number of pages at the last
+	 * sync before the first change after it. Pages added since the last sync
+	 * are not saved, as rolling back drops them.
+	 *
+	 * @param pageNumber - The page (int)
+	 *
+	 * @throws IOException - If the page cannot be read or saved
+	 */
+	private void savePage(int pageNumber) throws IOException {
+		if (rollbackLength == 0) {
+			ByteBuffer header = ByteBuffer.allocate(ROLLBACK_HEADER_SIZE);
+			header.putInt(0, MAGIC).putInt(4, syncedPageCount);
+			while (header.hasRemaining()) {
+				rollback.write(header, header.position());
+			}
+			rollback.force(false);
+			rollbackLength = ROLLBACK_HEADER_SIZE;
+		}
+
+		if (pageNumber >= syncedPageCount || savedPages.get(pageNumber)) {
+			return;
+		}
+
+		ByteBuffer record = ByteBuffer.allocate(ROLLBACK_RECORD_SIZE);
+		record.position(8);
+		long position = (long) pageNumber * PAGE_SIZE;
+		while (record.hasRemaining() && file.read(record, position + record.position() - 8) >= 0) {
+			continue;
+		}
+		CRC32 checksum = new CRC32();
+		checksum.update(record.array(), 8, PAGE_SIZE);
+		record.putInt(0, pageNumber);
+		record.putInt(4, (int) checksum.getValue());
+
+		record.clear();
+		while (record.hasRemaining()) {
+			rollback.write(record, rollbackLength + record.position());
+		}
+		rollback.force(false);
+		rollbackLength += ROLLBACK_RECORD_SIZE;
+		savedPages.set(pageNumber);
+	}
+
+	/**
+	 * A utility method that puts the file back as it was at the last sync,
+	 * by writing back the pages held in the rollback file and dropping the
+	 * pages added since. A record cut short, or whose checksum does not
+	 * match, was being saved when the file was left, so its page, and any
+	 * after it, were not yet written over.
+	 *
+	 * @return rolledBack - Whether the file was put back, which it is not if
+	 *                      the rollback file does not hold the number of
+	 *                      pages at the last sync (boolean)
+	 *
+	 * @throws IOException - If the files cannot be read or written
+	 */
+	private boolean rollBack() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(ROLLBACK_HEADER_SIZE);
+		while (header.hasRemaining() && rollback.read(header, header.position()) >= 0) {
+			continue;
+		}
+
+		// Guard clause that refuses a rollback file without its header
+		if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+			return false;
+		}
+
+		ByteBuffer record = ByteBuffer.allocate(ROLLBACK_RECORD_SIZE);
+		for (long position = ROLLBACK_HEADER_SIZE;; position += ROLLBACK_RECORD_SIZE) {
+			record.clear();
+			while (record.hasRemaining()
+					&& rollback.read(record, position + record.position()) >= 0) {
+				continue;
+			}
+			CRC32 checksum = new CRC32();
+			checksum.update(record.array(), 8, PAGE_SIZE);
+			if (record.hasRemaining() || record.getInt(4) != (int) checksum.getValue()) {
+				break;
+			}
+
+			int pageNumber = record.getInt(0);
+			record.position(8);
+			while (record.hasRemaining()) {
+				file.write(record, (long) pageNumber * PAGE_SIZE + record.position() - 8);
+			}
+		}
+
+		file.truncate((long) header.getInt(4) * PAGE_SIZE);
+		file.force(true);
+		return true;
+	}
+
+	/**
+	 * A utility method that sets the page being changed to an empty page
+	 */
+	private void clearPage() {
+		Arrays.fill(page.array(), (byte) 0);
+		page.putShort(10, (short) PAGE_SIZE);
+	}
+
+	/**
+	 * A utility method that computes the checksum of the page being changed,
+	 * covering everything after the checksum itself
+	 *
+	 * @return checksum - The checksum (int)
+	 */
+	private int checksum() {
+		CRC32 crc = new CRC32();
+		crc.update(page.array(), 8, PAGE_SIZE - 8);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * A utility method that adds up the free bytes of the page being read
+	 *
+	 * @return freeBytes - The free bytes (int)
+	 */
+	private int freeSpace() {
+		int free = PAGE_SIZE - HEADER_SIZE - SLOT_SIZE * slotCount();
+		for (int slot = 0; slot < slotCount(); slot++) {
+			free -= slotLength(slot);
+		}
+		return free;
+	}
+
+	/**
+	 * A utility method that puts a page back in use for new records, unless
+	 * it already is
+	 *
+	 * @param pageNumber - The page (int)
+	 */
+	private void markRoomy(int pageNumber) {
+		if (!roomy.get(pageNumber)) {
+			roomy.set(pageNumber);
+			roomyPages.add(pageNumber);
+		}
+	}
+
+	/**
+	 * A utility method that returns the number of slots of the page being
+	 * changed
+	 *
+	 * @return slotCount - The number of slots (int)
+	 */
+	private int slotCount() {
+		return page.getShort(8) & 0xFFFF;
+	}
+
+	/**
+	 * A utility method that returns where the records of the page being
+	 * changed start
+	 *
+	 * @return recordsStart - The offset of the first record (int)
+	 */
+	private int recordsStart() {
+		return page.getShort(10) & 0xFFFF;
+	}
+
+	/**
+	 * A utility method that returns the offset of a slot's record in the
+	 * page being changed
+	 *
+	 * @param slot - The slot (int)
+	 *
+	 * @return offset - The record's offset (int)
+	 */
+	private int slotOffset(int slot) {
+		return page.getShort(HEADER_SIZE + SLOT_SIZE * slot) & 0xFFFF;
+	}
+
+	/**
+	 * A utility method that returns the length of a slot's record in the
+	 * page being changed
+	 *
+	 * @param slot - The slot (int)
+	 *
+	 * @return length - The record's length, or 0 if the slot is empty (int)
+	 */
+	private int slotLength(int slot) {
+		return page.getShort(HEADER_SIZE + SLOT_SIZE * slot + 2) & 0xFFFF;
+	}
+
+	/**
+	 * A utility method that combines a page and slot into a record's
+	 * location
+	 *
+	 * @param pageNumber - The page (int)
+	 *
+	 * @param slot - The slot (int)
+	 *
+	 * @return location - The location (long)
+	 */
+	private static long toLocation(int pageNumber, int slot) {
+		return ((long) pageNumber << 16) | slot;
+	}
+
+	/**
+	 * A utility method that makes sure an array has an element at an index,
+	 * doubling it if it does not
+	 *
+	 * @param array - The array (int[])
+	 *
+	 * @param index - The index (int)
+	 *
+	 * @return array - The array, or a larger copy of it (int[])
+	 */
+	private static int[] ensureCapacity(int[] array, int index) {
+		return index < array.length ? array
+				: Arrays.copyOf(array, Math.max(index + 1, array.length * 2));
+	}
+
+	/**
+	 * A utility method that encodes a member's, book's or loan's record
+	 *
+	 * @param type - The record's type (byte)
+	 *
+	 * @param value - The member, book or loan (Object)
+	 *
+	 * @return record - The record (byte[])
+	 *
+	 * @throws IllegalArgumentException - If the record is too long to fit in
+	 *                                    a page
+	 */
+	private static byte[] encode(byte type, Object value) throws IllegalArgumentException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(type);
+			if (type == MEMBER) {
+				Journal.writeMember(out, (Member) value);
+			} else if (type == BOOK) {
+				Journal.writeBook(out, (Book) value);
+			} else {
+				Journal.writeLoan(out, (Loan) value);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		// Guard clause that prevents records that do not fit in a page
+		if (bytes.size() > MAX_RECORD_SIZE) {
+			throw new IllegalArgumentException("The details are too long to be stored");
+		}
+		return bytes.toByteArray();
+	}
+}
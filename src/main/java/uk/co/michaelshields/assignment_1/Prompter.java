@@ -13,7 +13,7 @@ import java.util.Scanner;
  * @version 1.0
  */
 public class Prompter {
-	private Scanner inputScanner = new Scanner(System.in);
+	private Scanner inputScanner;
 	private String YELLOW = "\u001B[33m";
 	private String RESET = "\u001B[0m";
 	private String[] prompts;
@@ -28,6 +28,27 @@ public class Prompter {
 	 * @throws IllegalArgumentException - If the prompts list is null or empty
 	 */
 	public Prompter(String[] prompts) {
+		this(prompts, new Scanner(System.in));
+	}
+
+	/**
+	 * Constructor:
+	 * Instantiates prompter objects that read the user's responses from the
+	 * provided scanner, for example one reading a terminal session's input
+	 * 
+	 * @param prompts - The list of prompts that will be issued to the user (String[])
+	 * 
+	 * @param inputScanner - The scanner that reads the user's input (Scanner)
+	 * 
+	 * @throws IllegalArgumentException - If the prompts list is null or empty,
+	 *                                    or the scanner is null
+	 */
+	public Prompter(String[] prompts, Scanner inputScanner) {
+		// Guard clause that prevents reading a missing scanner
+		if(inputScanner == null) {
+			throw new IllegalArgumentException("Cannot create prompter with null inputScanner");
+		}
+		
 		// Guard clause that prevents null prompts list
 		if(prompts == null) {
 			throw new IllegalArgumentException("Cannot create prompter with null prompts");
@@ -39,6 +60,7 @@ public class Prompter {
 		}
 		
 		this.prompts = prompts;
+		this.inputScanner = inputScanner;
 	}
 
 	/**
@@ -0,0 +1,665 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A library whose members, and their loans, are partitioned between a
+ * number of independent shards, so that operations on members of
+ * different shards never contend with one another.
+ *
+ * Each shard holds its members in a Library of its own and its members'
+ * loans in indexes of its own, and runs every operation that changes them
+ * on its own thread, so a shard's loan indexes need no locks. A member's
+ * shard is chosen by the hash of their email address when they are added
+ * (so two members with the same email address meet in the same shard and
+ * the second is refused) and their ID number is issued so that it
+ * identifies their shard, so a member's shard is found from their ID
+ * number alone.
+ *
+ * Books are held in one catalogue shared by every shard, and a book is
+ * claimed for a loan in a concurrent map of loans by book, so a book is
+ * never loaned by two shards at once. Catalogue-wide queries, such as
+ * finding the expired loans, are run on every shard at once and their
+ * results are merged.
+ *
+ * A sharded library must be closed to stop its shards' threads.
+ *
+ * @see <a href="Library.html">Library</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class ShardedLibrary implements Closeable {
+	/** The library's shards */
+	private final Shard[] shards;
+	/** The catalogue of books shared by every shard */
+	private final Library catalogue;
+	/**
+	 * The loan of each book on loan by the ID number of the book. A book is
+	 * claimed by putting its loan, so it can only be on loan in one shard.
+	 */
+	private final ConcurrentHashMap<Integer, Loan> loansByBook =
+			new ConcurrentHashMap<Integer, Loan>();
+	/** The duration of loans in days */
+	private final int loanDurationInDays = 21;
+
+	/**
+	 * Constructor:
+	 * Instantiates a library with the provided number of shards, each with
+	 * a thread of its own
+	 *
+	 * @param shardCount - The number of shards (int)
+	 *
+	 * @throws IllegalArgumentException - If the number of shards is not
+	 *                                    positive
+	 */
+	public ShardedLibrary(int shardCount) throws IllegalArgumentException {
+		// Guard clause that prevents a library without shards
+		if (shardCount <= 0) {
+			throw new IllegalArgumentException("The number of shards must be positive");
+		}
+
+		// ID numbers are interleaved between the shards and the catalogue,
+		// so that an ID number's remainder identifies who issued it
+		int stride = shardCount + 1;
+		shards = new Shard[shardCount];
+		for (int i = 0; i < shardCount; i++) {
+			shards[i] = new Shard(i, new Library(new StridedIDAllocator(stride, i)));
+		}
+		catalogue = new Library(new StridedIDAllocator(stride, shardCount));
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of shards
+	 *
+	 * @return shardCount - The number of shards (int)
+	 */
+	public int getShardCount() {
+		return shards.length;
+	}
+
+	/**
+	 * Mutator Method:
+	 * Adds a member to the shard chosen by their email address, which issues
+	 * their ID number
+	 *
+	 * @param member - A member (Member)
+	 *
+	 * @throws IllegalArgumentException - If provided member is null or their
+	 *                                    email matches an existing member's email
+	 */
+	public void addMember(Member member) throws IllegalArgumentException {
+		// Guard clause to prevent null values being added as members
+		if (member == null) {
+			throw new IllegalArgumentException("Cannot add null member");
+		}
+
+		int hash = member.getEmail().trim().toLowerCase(Locale.ROOT).hashCode();
+		Shard shard = shards[Math.floorMod(hash, shards.length)];
+		shard.run(() -> {
+			shard.members.addMember(member);
+			return null;
+		});
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the member with the provided ID number
+	 *
+	 * @param idNumber - The ID number of the member (int)
+	 *
+	 * @return member - The member with the provided ID number (Member)
+	 *
+	 * @throws NoSuchElementException - If no member is found
+	 */
+	public Member getMemberByID(int idNumber) throws NoSuchElementException {
+		return shardOf(idNumber).members.getMemberByID(idNumber);
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes the member with the provided ID number
+	 *
+	 * @param idNumber - The ID number of the member (int)
+	 *
+	 * @throws IllegalStateException - If the member has books that need returning
+	 *
+	 * @throws NoSuchElementException - If no member is found
+	 */
+	public void removeMemberByID(int idNumber)
+			throws NoSuchElementException, IllegalStateException {
+		Shard shard = shardOf(idNumber);
+		shard.run(() -> {
+			// Guard clause to check if the member has books to return
+			if (shard.loansByMember.containsKey(idNumber)) {
+				throw new IllegalStateException("Cannot remove member, they have books to return");
+			}
+
+			shard.members.removeMemberByID(idNumber);
+			return null;
+		});
+	}
+
+	/**
+	 * Mutator Method:
+	 * Adds a book to the catalogue
+	 *
+	 * @param book - A book (Book)
+	 *
+	 * @throws IllegalArgumentException - If the book is null
+	 *
+	 * @throws IllegalStateException - If the book's ISBN number matches
+	 *                                 an existing book's ISBN number
+	 */
+	public void addBook(Book book) throws IllegalArgumentException, IllegalStateException {
+		catalogue.addBook(book);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the book with the provided ID number
+	 *
+	 * @param idNumber - The ID number of the book (int)
+	 *
+	 * @return book - The book with the provided ID number (Book)
+	 *
+	 * @throws NoSuchElementException - If no book is found
+	 */
+	public Book getBookByID(int idNumber) throws NoSuchElementException {
+		return catalogue.getBookByID(idNumber);
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes the book with the provided ID number from the catalogue. The
+	 * book's entry in the loans by book map is held while it is removed, so
+	 * it cannot be loaned part way through.
+	 *
+	 * @param idNumber - The ID number of the book to be removed (int)
+	 *
+	 * @throws NoSuchElementException - If the book cannot be found
+	 *
+	 * @throws IllegalStateException - If the book is on loan
+	 */
+	public void removeBookByID(int idNumber) throws NoSuchElementException, IllegalStateException {
+		loansByBook.compute(idNumber, (key, loan) -> {
+			// Guard clause preventing the book from being removed
+			// if it is out on loan
+			if (loan != null) {
+				throw new IllegalStateException("Cannot remove book, the book is on loan");
+			}
+
+			catalogue.removeBookByID(idNumber);
+			return null;
+		});
+	}
+
+	/**
+	 * Returns the catalogue of books shared by the shards, for searching and
+	 * displaying books
+	 *
+	 * @return catalogue - The catalogue (Library)
+	 */
+	public Library getCatalogue() {
+		return catalogue;
+	}
+
+	/**
+	 * Mutator Method:
+	 * Loans a book to a member, on the member's shard
+	 *
+	 * @param member - The member borrowing the book (Member)
+	 *
+	 * @param book - The book that is being borrowed (Book)
+	 *
+	 * @return loan - The loan (Loan)
+	 *
+	 * @throws IllegalArgumentException - If the book or member is null
+	 *
+	 * @throws NoSuchElementException - If member or book do not exist
+	 *
+	 * @throws IllegalStateException - If the book is already on loan
+	 */
+	public Loan addLoan(Member member, Book book)
+			throws IllegalArgumentException, NoSuchElementException, IllegalStateException {
+		// Guard clause to prevent null books or members being loaned
+		if (member == null || book == null) {
+			throw new IllegalArgumentException("Cannot create loan, member or book is null");
+		}
+
+		Shard shard = shardOf(member.getIDNumber());
+		return shard.run(() -> {
+			// Guard clause to prevent loan being created with unknown member
+			if (!isMemberOf(shard, member)) {
+				throw new NoSuchElementException("Cannot add loan, non-existent member");
+			}
+
+			LocalDate issueDate = LocalDate.now();
+			Loan loan = new Loan(member, book, issueDate,
+					issueDate.plusDays(loanDurationInDays));
+
+			// Claim the book, which fails if any shard loaned it first
+			if (loansByBook.putIfAbsent(book.getIDNumber(), loan) != null) {
+				throw new IllegalStateException("Cannot add loan, this book is already on loan");
+			}
+
+			// Guard clause to prevent loan being created with unknown book,
+			// checked once the book is claimed so that it cannot be removed
+			// after the check
+			if (!isInCatalogue(book)) {
+				loansByBook.remove(book.getIDNumber(), loan);
+				throw new NoSuchElementException("Cannot add loan, non-existent book");
+			}
+
+			shard.index(loan);
+			return loan;
+		});
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the loan of the provided book to the provided member
+	 *
+	 * @param member - The member who borrowed the book (Member)
+	 *
+	 * @param book - The book that the member borrowed (Book)
+	 *
+	 * @return loan - The loan (Loan)
+	 *
+	 * @throws NoSuchElementException - If no loan was found
+	 */
+	public Loan getLoan(Member member, Book book) throws NoSuchElementException {
+		Loan loan = findLoan(member, book);
+		if (loan == null) {
+			throw new NoSuchElementException("Loan not found");
+		}
+		return loan;
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes the loan of a book to a member, on the member's shard
+	 *
+	 * @param member - The member who borrowed the book (Member)
+	 *
+	 * @param book - The book that was borrowed (Book)
+	 *
+	 * @throws IllegalArgumentException - If member of book is null
+	 *
+	 * @throws NoSuchElementException - If loan is not found
+	 */
+	public void removeLoan(Member member, Book book)
+			throws IllegalArgumentException, NoSuchElementException {
+		// Guard clause to prevent null books or members being returned
+		if (member == null || book == null) {
+			throw new IllegalArgumentException("Cannot remove loan, member or book is null");
+		}
+
+		Shard shard = shardOf(member.getIDNumber());
+		shard.run(() -> {
+			Loan loan = findLoan(member, book);
+			if (loan == null || !isMemberOf(shard, member)) {
+				throw new NoSuchElementException("Could not remove loan, loan not found!");
+			}
+
+			shard.unindex(loan);
+			loansByBook.remove(book.getIDNumber(), loan);
+			return null;
+		});
+	}
+
+	/**
+	 * Returns the loans that expire before the provided date, ordered by
+	 * expiry date. Every shard finds its expired loans at once, and their
+	 * lists (each in expiry order) are merged.
+	 *
+	 * @param expiryDate - The cutoff date (LocalDate)
+	 *
+	 * @return expiredLoans - The expired loans (List<Loan>)
+	 *
+	 * @throws IllegalArgumentException - If the expiryDate is null
+	 */
+	public List<Loan> getExpiredLoans(LocalDate expiryDate) throws IllegalArgumentException {
+		// Guard clause preventing null expiryDate being provided
+		if (expiryDate == null) {
+			throw new IllegalArgumentException("Cannot get expired loans, expiryDate is null");
+		}
+
+		long cutoff = Library.toExpiryKey(expiryDate.toEpochDay(), 0);
+		return fanOut(shard -> new ArrayList<Loan>(
+				shard.loansByExpiry.headMap(cutoff).values()));
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns every shard's loans, ordered by expiry date
+	 *
+	 * @return loans - The loans (List<Loan>)
+	 */
+	public List<Loan> getLoans() {
+		return fanOut(shard -> new ArrayList<Loan>(shard.loansByExpiry.values()));
+	}
+
+	/**
+	 * Stops the shards' threads, once the operations already submitted to
+	 * them have run
+	 */
+	@Override
+	public void close() {
+		for (Shard shard : shards) {
+			shard.executor.shutdown();
+		}
+	}
+
+	/**
+	 * A utility method that runs a query returning loans in expiry order on
+	 * every shard at once, and merges the results in expiry order
+	 *
+	 * @param query - The query (ShardQuery)
+	 *
+	 * @return loans - The merged loans (List<Loan>)
+	 */
+	private List<Loan> fanOut(ShardQuery query) {
+		List<Future<List<Loan>>> results = new ArrayList<Future<List<Loan>>>(shards.length);
+		for (Shard shard : shards) {
+			results.add(shard.executor.submit(() -> query.run(shard)));
+		}
+
+		// Merge the shards' lists, taking the loan that expires first
+		// from the heads of the lists each time
+		PriorityQueue<MergeCursor> heads = new PriorityQueue<MergeCursor>();
+		int total = 0;
+		for (Future<List<Loan>> result : results) {
+			List<Loan> loans = Shard.await(result);
+			total += loans.size();
+			if (!loans.isEmpty()) {
+				heads.add(new MergeCursor(loans));
+			}
+		}
+
+		ArrayList<Loan> merged = new ArrayList<Loan>(total);
+		while (!heads.isEmpty()) {
+			MergeCursor head = heads.poll();
+			merged.add(head.loans.get(head.position++));
+			if (head.position < head.loans.size()) {
+				heads.add(head);
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * A utility method that returns the loan of the provided book if it is
+	 * to the provided member
+	 *
+	 * @param member - The borrower (Member)
+	 *
+	 * @param book - The loaned book (Book)
+	 *
+	 * @return loan - The loan, or null (Loan)
+	 */
+	private Loan findLoan(Member member, Book book) {
+		Loan loan = loansByBook.get(book.getIDNumber());
+		if (loan != null && loan.getBook() == book
+				&& loan.getMemberIDNumber() == member.getIDNumber()) {
+			return loan;
+		}
+		return null;
+	}
+
+	/**
+	 * A utility method that checks whether a member is registered with the
+	 * provided shard
+	 *
+	 * @param shard - The shard (Shard)
+	 *
+	 * @param member - The member (Member)
+	 *
+	 * @return isMember - Whether the member is registered (boolean)
+	 */
+	private static boolean isMemberOf(Shard shard, Member member) {
+		try {
+			return shard.members.getMemberByID(member.getIDNumber()) == member;
+		} catch (NoSuchElementException | IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * A utility method that checks whether a book is in the catalogue
+	 *
+	 * @param book - The book (Book)
+	 *
+	 * @return isInCatalogue - Whether the book is in the catalogue (boolean)
+	 */
+	private boolean isInCatalogue(Book book) {
+		try {
+			return catalogue.getBookByID(book.getIDNumber()) == book;
+		} catch (NoSuchElementException | IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * A utility method that returns the shard that issued a member's ID
+	 * number
+	 *
+	 * @param idNumber - The member's ID number (int)
+	 *
+	 * @return shard - The member's shard (Shard)
+	 *
+	 * @throws NoSuchElementException - If the ID number is not a member's
+	 */
+	private Shard shardOf(int idNumber) throws NoSuchElementException {
+		int issuer = (idNumber - 1) % (shards.length + 1);
+
+		// Guard clause for ID numbers that no shard could have issued
+		if (idNumber <= 0 || issuer == shards.length) {
+			throw new NoSuchElementException("A member with that ID number was not found");
+		}
+
+		return shards[issuer];
+	}
+
+	/**
+	 * A query that is run on a shard's thread and returns loans in expiry
+	 * order
+	 */
+	private interface ShardQuery {
+		/**
+		 * Runs the query on a shard
+		 *
+		 * @param shard - The shard (Shard)
+		 *
+		 * @return loans - The loans found, in expiry order (List<Loan>)
+		 */
+		List<Loan> run(Shard shard);
+	}
+
+	/**
+	 * One of the library's shards: its members, its members' loans and the
+	 * thread every change to them runs on
+	 */
+	private static class Shard {
+		/** The shard's members */
+		private final Library members;
+		/** The thread the shard's changes run on */
+		private final ExecutorService executor;
+		/**
+		 * The shard's loans ordered by expiry date (only used on the shard's
+		 * thread)
+		 */
+		private final TreeMap<Long, Loan> loansByExpiry = new TreeMap<Long, Loan>();
+		/**
+		 * The loans of each of the shard's members with loans (only used on
+		 * the shard's thread)
+		 */
+		private final HashMap<Integer, ArrayList<Loan>> loansByMember =
+				new HashMap<Integer, ArrayList<Loan>>();
+
+		/**
+		 * Constructor:
+		 * Instantiates a shard with a thread of its own
+		 *
+		 * @param index - The shard's position (int)
+		 *
+		 * @param members - The library holding the shard's members (Library)
+		 */
+		private Shard(int index, Library members) {
+			this.members = members;
+			this.executor = Executors.newSingleThreadExecutor(task -> {
+				Thread thread = new Thread(task, "library-shard-" + index);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		/**
+		 * Runs an operation on the shard's thread and waits for its result
+		 *
+		 * @param operation - The operation (Callable<T>)
+		 *
+		 * @return result - The operation's result (T)
+		 */
+		private <T> T run(Callable<T> operation) {
+			return await(executor.submit(operation));
+		}
+
+		/**
+		 * Waits for an operation run on a shard's thread, rethrowing any
+		 * error it threw
+		 *
+		 * @param result - The operation's pending result (Future<T>)
+		 *
+		 * @return result - The operation's result (T)
+		 */
+		private static <T> T await(Future<T> result) {
+			try {
+				return result.get();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted waiting for a shard", e);
+			}
+		}
+
+		/**
+		 * Adds a loan to the shard's loan indexes (on the shard's thread)
+		 *
+		 * @param loan - The loan (Loan)
+		 */
+		private void index(Loan loan) {
+			loansByExpiry.put(Library.toExpiryKey(loan), loan);
+			ArrayList<Loan> memberLoans = loansByMember.get(loan.getMemberIDNumber());
+			if (memberLoans == null) {
+				memberLoans = new ArrayList<Loan>(2);
+				loansByMember.put(loan.getMemberIDNumber(), memberLoans);
+			}
+			memberLoans.add(loan);
+		}
+
+		/**
+		 * Removes a loan from the shard's loan indexes (on the shard's
+		 * thread), dropping the member's entry once they have no loans
+		 *
+		 * @param loan - The loan (Loan)
+		 */
+		private void unindex(Loan loan) {
+			loansByExpiry.remove(Library.toExpiryKey(loan));
+			ArrayList<Loan> memberLoans = loansByMember.get(loan.getMemberIDNumber());
+			memberLoans.remove(loan);
+			if (memberLoans.isEmpty()) {
+				loansByMember.remove(loan.getMemberIDNumber());
+			}
+		}
+	}
+
+	/**
+	 * The position reached in one shard's list of loans while merging
+	 */
+	private static class MergeCursor implements Comparable<MergeCursor> {
+		/** The shard's loans, in expiry order */
+		private final List<Loan> loans;
+		/** The position of the next loan to be merged */
+		private int position;
+
+		/**
+		 * Constructor:
+		 * Instantiates a cursor at the start of a list of loans
+		 *
+		 * @param loans - The loans, in expiry order (List<Loan>)
+		 */
+		private MergeCursor(List<Loan> loans) {
+			this.loans = loans;
+		}
+
+		/** Orders cursors by the expiry key of their next loan */
+		@Override
+		public int compareTo(MergeCursor other) {
+			return Long.compare(Library.toExpiryKey(loans.get(position)),
+					Library.toExpiryKey(other.loans.get(other.position)));
+		}
+	}
+
+	/**
+	 * An ID number allocator that issues every stride-th ID number, starting
+	 * from offset + 1, so that the allocators of the shards and the
+	 * catalogue never issue the same ID number and an ID number's remainder
+	 * identifies the allocator that issued it
+	 */
+	private static class StridedIDAllocator extends IDAllocator {
+		/** The number of allocators the ID numbers are interleaved between */
+		private final int stride;
+		/** The remainder of the ID numbers issued (less one) */
+		private final int offset;
+
+		/**
+		 * Constructor:
+		 * Instantiates a strided allocator
+		 *
+		 * @param stride - The number of interleaved allocators (int)
+		 *
+		 * @param offset - The allocator's position (int)
+		 */
+		private StridedIDAllocator(int stride, int offset) {
+			this.stride = stride;
+			this.offset = offset;
+		}
+
+		/**
+		 * Issues the next ID number of this allocator's interleaved sequence
+		 *
+		 * @throws IllegalStateException - If every ID number has been issued
+		 */
+		@Override
+		public int next() throws IllegalStateException {
+			long idNumber = (long) (super.next() - 1) * stride + offset + 1;
+
+			// Guard clause that prevents ID numbers wrapping around
+			if (idNumber > Integer.MAX_VALUE) {
+				throw new IllegalStateException("Every ID number has been issued");
+			}
+
+			return (int) idNumber;
+		}
+	}
+}
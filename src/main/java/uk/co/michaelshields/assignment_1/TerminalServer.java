@@ -0,0 +1,402 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Serves the application's menus to terminals connecting to a TCP port on
+ * the loopback address (for example with telnet or nc), so that a whole
+ * front desk can work from one process.
+ *
+ * Each connection is a session of its own: an App with its own menus,
+ * prompters and scanner reading the connection's input, while every
+ * session shares one library. The menus, and the library's display
+ * methods, print to System.out, so while sessions are being served
+ * System.out is replaced by a stream that passes each thread's output to
+ * the PrintStream of the session the thread is running, and any other
+ * thread's output to the original System.out. The replacement holds no
+ * lock of its own, so a session whose terminal is slow to read only holds
+ * up its own output. The original System.out is restored once every
+ * server that started has been closed.
+ *
+ * Sessions run on a thread each, a virtual thread where the JDK provides
+ * them (see LibraryServer.newRequestExecutor), and end when the operator
+ * quits or disconnects.
+ *
+ * @see <a href="App.html">App</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class TerminalServer implements Closeable {
+	/** The output of the session each thread is running */
+	private static final ThreadLocal<PrintStream> SESSION_OUTPUT = new ThreadLocal<>();
+	/** The number of servers started and not yet closed (guarded by the class) */
+	private static int startedServers;
+
+	/** The library shared by the sessions */
+	private final Library library;
+	/** The socket accepting connections */
+	private final ServerSocket serverSocket;
+	/** The executor the sessions, and the accepting loop, run on */
+	private final ExecutorService executor;
+	/** The connections of the sessions being served */
+	private final Set<Socket> sessions = ConcurrentHashMap.newKeySet();
+	/** Whether the server has started and not yet closed */
+	private boolean started;
+
+	/**
+	 * Constructor:
+	 * Instantiates a server of sessions sharing the provided library, on the
+	 * provided port of the loopback address. Connections are accepted once
+	 * the server is started.
+	 *
+	 * @param library - The library (Library)
+	 *
+	 * @param port - The port, or 0 for any free port (int)
+	 *
+	 * @throws IllegalArgumentException - If the library is null or the port
+	 *                                    is out of range
+	 *
+	 * @throws IOException - If the port cannot be bound
+	 */
+	public TerminalServer(Library library, int port)
+			throws IllegalArgumentException, IOException {
+		// Guard clause that prevents serving a missing library
+		if (library == null) {
+			throw new IllegalArgumentException("The library cannot be null");
+		}
+
+		this.library = library;
+		this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		this.executor = LibraryServer.newRequestExecutor();
+	}
+
+	/**
+	 * Starts accepting connections, routing System.out to the sessions
+	 */
+	public synchronized void start() {
+		// Guard clause that prevents starting the server twice
+		if (started) {
+			return;
+		}
+
+		started = true;
+		routeStandardOutput();
+		executor.execute(this::acceptSessions);
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the port that the server is bound to
+	 *
+	 * @return port - The port (int)
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of sessions being served
+	 *
+	 * @return sessionCount - The number of sessions (int)
+	 */
+	public int getSessionCount() {
+		return sessions.size();
+	}
+
+	/**
+	 * Stops accepting connections and disconnects every session, restoring
+	 * the original System.out if no other server is serving sessions
+	 *
+	 * @throws IOException - If the server socket cannot be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try {
+			serverSocket.close();
+			for (Socket session : sessions) {
+				session.close();
+			}
+			executor.shutdown();
+		} finally {
+			if (started) {
+				started = false;
+				restoreStandardOutput();
+			}
+		}
+	}
+
+	/**
+	 * A utility method that accepts connections until the server is closed,
+	 * starting a session for each
+	 */
+	private void acceptSessions() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				sessions.add(socket);
+				executor.execute(() -> runSession(socket));
+			} catch (IOException e) {
+				// The server socket has been closed
+				return;
+			}
+		}
+	}
+
+	/**
+	 * A utility method that runs a session on a connection until the operator
+	 * quits or disconnects
+	 *
+	 * @param socket - The connection (Socket)
+	 */
+	private void runSession(Socket socket) {
+		try {
+			socket.setTcpNoDelay(true);
+			SESSION_OUTPUT.set(new PrintStream(socket.getOutputStream(), true));
+			new App(library, socket.getInputStream()).run();
+		} catch (IOException e) {
+			// The connection was lost, so the session is over
+		} finally {
+			SESSION_OUTPUT.remove();
+			sessions.remove(socket);
+			try {
+				socket.close();
+			} catch (IOException e) {
+				// The connection is already closed
+			}
+		}
+	}
+
+	/**
+	 * A utility method that replaces System.out with a stream routing each
+	 * session's output to its connection, unless another server already has
+	 */
+	private static synchronized void routeStandardOutput() {
+		startedServers++;
+		if (!(System.out instanceof SessionPrintStream)) {
+			System.setOut(new SessionPrintStream(System.out));
+		}
+	}
+
+	/**
+	 * A utility method that restores the original System.out once no server
+	 * is serving sessions
+	 */
+	private static synchronized void restoreStandardOutput() {
+		if (--startedServers == 0 && System.out instanceof SessionPrintStream) {
+			System.setOut(((SessionPrintStream) System.out).console);
+		}
+	}
+
+	/**
+	 * The System.out used while sessions are served. Every method passes
+	 * straight on to the PrintStream of the session the calling thread is
+	 * running, or to the original System.out, without taking this stream's
+	 * own lock, so sessions print at once without waiting for each other.
+	 */
+	private static class SessionPrintStream extends PrintStream {
+		/** The original System.out */
+		private final PrintStream console;
+
+		/**
+		 * Constructor:
+		 * Instantiates a stream routing session output, falling back to the
+		 * provided stream
+		 *
+		 * @param console - The original System.out (PrintStream)
+		 */
+		private SessionPrintStream(PrintStream console) {
+			super(console, true);
+			this.console = console;
+		}
+
+		/**
+		 * A utility method that returns the stream the calling thread's
+		 * output goes to
+		 *
+		 * @return stream - The session's stream, or the original System.out
+		 *                  (PrintStream)
+		 */
+		private PrintStream current() {
+			PrintStream session = SESSION_OUTPUT.get();
+			return session == null ? console : session;
+		}
+
+		@Override
+		public void flush() {
+			current().flush();
+		}
+
+		@Override
+		public void close() {
+			current().close();
+		}
+
+		@Override
+		public boolean checkError() {
+			return current().checkError();
+		}
+
+		@Override
+		public void write(int b) {
+			current().write(b);
+		}
+
+		@Override
+		public void write(byte[] bytes) throws IOException {
+			current().write(bytes);
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) {
+			current().write(bytes, offset, length);
+		}
+
+		@Override
+		public void print(boolean b) {
+			current().print(b);
+		}
+
+		@Override
+		public void print(char c) {
+			current().print(c);
+		}
+
+		@Override
+		public void print(int i) {
+			current().print(i);
+		}
+
+		@Override
+		public void print(long l) {
+			current().print(l);
+		}
+
+		@Override
+		public void print(float f) {
+			current().print(f);
+		}
+
+		@Override
+		public void print(double d) {
+			current().print(d);
+		}
+
+		@Override
+		public void print(char[] s) {
+			current().print(s);
+		}
+
+		@Override
+		public void print(String s) {
+			current().print(s);
+		}
+
+		@Override
+		public void print(Object obj) {
+			current().print(obj);
+		}
+
+		@Override
+		public void println() {
+			current().println();
+		}
+
+		@Override
+		public void println(boolean x) {
+			current().println(x);
+		}
+
+		@Override
+		public void println(char x) {
+			current().println(x);
+		}
+
+		@Override
+		public void println(int x) {
+			current().println(x);
+		}
+
+		@Override
+		public void println(long x) {
+			current().println(x);
+		}
+
+		@Override
+		public void println(float x) {
+			current().println(x);
+		}
+
+		@Override
+		public void println(double x) {
+			current().println(x);
+		}
+
+		@Override
+		public void println(char[] x) {
+			current().println(x);
+		}
+
+		@Override
+		public void println(String x) {
+			current().println(x);
+		}
+
+		@Override
+		public void println(Object x) {
+			current().println(x);
+		}
+
+		@Override
+		public PrintStream printf(String format, Object... args) {
+			current().printf(format, args);
+			return this;
+		}
+
+		@Override
+		public PrintStream printf(Locale l, String format, Object... args) {
+			current().printf(l, format, args);
+			return this;
+		}
+
+		@Override
+		public PrintStream format(String format, Object... args) {
+			current().format(format, args);
+			return this;
+		}
+
+		@Override
+		public PrintStream format(Locale l, String format, Object... args) {
+			current().format(l, format, args);
+			return this;
+		}
+
+		@Override
+		public PrintStream append(CharSequence csq) {
+			current().append(csq);
+			return this;
+		}
+
+		@Override
+		public PrintStream append(CharSequence csq, int start, int end) {
+			current().append(csq, start, end);
+			return this;
+		}
+
+		@Override
+		public PrintStream append(char c) {
+			current().append(c);
+			return this;
+		}
+	}
+}
@@ -0,0 +1,250 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * A trigram inverted index over book titles, used to find the books whose
+ * titles contain a search query without matching every title.
+ *
+ * Each title is case folded and broken into its overlapping three character
+ * sequences (trigrams). For each trigram the index keeps a posting list of the
+ * ID numbers of the books whose titles contain it. Every title that contains
+ * a query must contain all of the query's trigrams, so intersecting the posting
+ * lists of the query's trigrams leaves a small set of candidates that only
+ * needs to be verified against the query.
+ *
+ * Queries shorter than a trigram cannot be looked up and must be answered by
+ * searching the titles instead.
+ *
+ * Searches only read the index, so many threads may search it at once, but
+ * titles must not be added or removed while it is searched (the Library
+ * changes it under its write lock).
+ *
+ * @see <a href="Library.html">Library</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class TitleIndex {
+	/** The length of the character sequences that are indexed */
+	public static final int GRAM_LENGTH = 3;
+	/** The posting lists of book ID numbers, keyed by packed trigram */
+	private HashMap<Long, Postings> postings = new HashMap<>();
+
+	/**
+	 * Mutator Method:
+	 * Adds a book's title to the index
+	 *
+	 * @param idNumber - The ID number of the book (int)
+	 *
+	 * @param title - The book's title (String)
+	 */
+	public void add(int idNumber, String title) {
+		for (long trigram : trigramsOf(fold(title))) {
+			Postings list = postings.get(trigram);
+			if (list == null) {
+				list = new Postings();
+				postings.put(trigram, list);
+			}
+			list.add(idNumber);
+		}
+	}
+
+	/**
+	 * Mutator Method:
+	 * Removes a book's title from the index
+	 *
+	 * @param idNumber - The ID number of the book (int)
+	 *
+	 * @param title - The book's title, as it was when it was added (String)
+	 */
+	public void remove(int idNumber, String title) {
+		for (long trigram : trigramsOf(fold(title))) {
+			Postings list = postings.get(trigram);
+			if (list != null) {
+				list.remove(idNumber);
+				// Drop trigrams that no longer occur in any title
+				if (list.size == 0) {
+					postings.remove(trigram);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the ID numbers of the books whose titles may contain the query,
+	 * in ascending order. Every book whose title does contain the query is
+	 * included, but the candidates still need to be verified.
+	 *
+	 * @param query - The search query (String)
+	 *
+	 * @return candidates - The candidate book ID numbers (int[])
+	 *
+	 * @throws IllegalArgumentException - If the query is null or shorter than
+	 *                                    a trigram
+	 */
+	public int[] candidates(String query) throws IllegalArgumentException {
+		// Guard clause that prevents queries that cannot be looked up
+		if (query == null || query.length() < GRAM_LENGTH) {
+			throw new IllegalArgumentException(
+					"Cannot search the title index with fewer than "
+							+ GRAM_LENGTH + " characters");
+		}
+
+		// Collect the posting lists of the query's trigrams
+		long[] trigrams = trigramsOf(fold(query));
+		Postings[] lists = new Postings[trigrams.length];
+		for (int i = 0; i < trigrams.length; i++) {
+			lists[i] = postings.get(trigrams[i]);
+
+			// No title contains this trigram so no title matches
+			if (lists[i] == null) {
+				return new int[0];
+			}
+		}
+
+		// Intersect the lists, shortest first, so the candidates
+		// shrink as quickly as possible
+		Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+		int[] candidates = lists[0].toSortedArray();
+		int count = candidates.length;
+		for (int i = 1; i < lists.length && count > 0; i++) {
+			count = lists[i].retainAll(candidates, count);
+		}
+
+		return Arrays.copyOf(candidates, count);
+	}
+
+	/**
+	 * A utility method that case folds text so that searches are case
+	 * insensitive
+	 *
+	 * @param text - The text (String)
+	 *
+	 * @return folded - The case folded text (String)
+	 */
+	public static String fold(String text) {
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * A utility method that returns the distinct trigrams of some text, each
+	 * packed into a long as three 16 bit characters
+	 *
+	 * @param text - The (case folded) text (String)
+	 *
+	 * @return trigrams - The distinct packed trigrams (long[])
+	 */
+	static long[] trigramsOf(String text) {
+		int count = Math.max(0, text.length() - GRAM_LENGTH + 1);
+		long[] trigrams = new long[count];
+
+		for (int i = 0; i < count; i++) {
+			trigrams[i] = ((long) text.charAt(i) << 32)
+					| ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+		}
+
+		// Remove repeated trigrams so a title is only posted once per trigram
+		Arrays.sort(trigrams);
+		int distinct = 0;
+		for (int i = 0; i < count; i++) {
+			if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+				trigrams[distinct++] = trigrams[i];
+			}
+		}
+
+		return Arrays.copyOf(trigrams, distinct);
+	}
+
+	/**
+	 * A growable list of book ID numbers held in a primitive array, kept in
+	 * ascending order as ID numbers are added. Books are normally added in ID
+	 * number order, so an ID number is usually appended, and one that arrives
+	 * out of order (for example from another thread's block of ID numbers)
+	 * is inserted in its place. The list is only changed while the library's
+	 * write lock is held, so searches under the read lock only read it.
+	 */
+	private static class Postings {
+		/** The ID numbers, only the first size elements are in use */
+		private int[] ids = new int[4];
+		/** The number of ID numbers in the list */
+		private int size;
+
+		/**
+		 * Adds an ID number to the list in ascending order
+		 *
+		 * @param idNumber - The ID number (int)
+		 */
+		private void add(int idNumber) {
+			// Append ID numbers that arrive in order, otherwise find their place
+			int index = size == 0 || ids[size - 1] < idNumber ? size
+					: Arrays.binarySearch(ids, 0, size, idNumber);
+
+			// The ID number is already in the list
+			if (index >= 0 && index < size) {
+				return;
+			}
+			if (index < 0) {
+				index = -index - 1;
+			}
+
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			System.arraycopy(ids, index, ids, index + 1, size - index);
+			ids[index] = idNumber;
+			size++;
+		}
+
+		/**
+		 * Removes an ID number from the list, preserving the order of the
+		 * remaining ID numbers
+		 *
+		 * @param idNumber - The ID number (int)
+		 */
+		private void remove(int idNumber) {
+			int index = Arrays.binarySearch(ids, 0, size, idNumber);
+			if (index >= 0) {
+				System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+				size--;
+			}
+		}
+
+		/**
+		 * Returns a copy of the ID numbers in ascending order
+		 *
+		 * @return ids - The sorted ID numbers (int[])
+		 */
+		private int[] toSortedArray() {
+			return Arrays.copyOf(ids, size);
+		}
+
+		/**
+		 * Removes the ID numbers that are not in this list from the start of
+		 * a sorted array of candidates, compacting the survivors to the front
+		 *
+		 * @param candidates - The sorted candidate ID numbers (int[])
+		 *
+		 * @param count - The number of candidates in use (int)
+		 *
+		 * @return count - The number of candidates that survived (int)
+		 */
+		private int retainAll(int[] candidates, int count) {
+			int kept = 0;
+			int from = 0;
+			for (int i = 0; i < count; i++) {
+				int found = Arrays.binarySearch(ids, from, size, candidates[i]);
+				if (found >= 0) {
+					candidates[kept++] = candidates[i];
+					from = found + 1;
+				} else {
+					from = -found - 1;
+				}
+			}
+			return kept;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of validation results keyed on the raw input that was
+ * validated, used to avoid repeating expensive validation (e.g. parsing a
+ * phone number) when the same input is seen again.
+ *
+ * Once the cache is full, the least recently used result is discarded to
+ * make room for a new one. The cache may be shared between threads;
+ * validation runs outside of the cache's lock, so two threads validating
+ * the same new input at once may both validate it.
+ *
+ * @param <V> - The type of validation result
+ *
+ * @see <a href="Member.html">Member</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class ValidationCache<V> {
+	/** The maximum number of results held */
+	private final int capacity;
+	/** The results by raw input, from least to most recently used */
+	private final LinkedHashMap<String, V> results;
+
+	/**
+	 * Constructor:
+	 * Instantiates an empty cache
+	 *
+	 * @param capacity - The maximum number of results held (int)
+	 *
+	 * @throws IllegalArgumentException - If the capacity is not positive
+	 */
+	public ValidationCache(int capacity) throws IllegalArgumentException {
+		// Guard clause that prevents a cache that cannot hold a result
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity must be positive");
+		}
+
+		this.capacity = capacity;
+		this.results = new LinkedHashMap<String, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return size() > ValidationCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the result of validating the provided input, validating it
+	 * only if its result is not held
+	 *
+	 * @param input - The raw input (String)
+	 *
+	 * @param validator - Validates an input and returns its result, which
+	 *                    must not be null (Function<String, V>)
+	 *
+	 * @return result - The input's validation result (V)
+	 */
+	public V get(String input, Function<String, V> validator) {
+		V result;
+		synchronized (results) {
+			result = results.get(input);
+		}
+		if (result != null) {
+			return result;
+		}
+
+		result = validator.apply(input);
+		synchronized (results) {
+			results.put(input, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the number of results held
+	 *
+	 * @return size - The number of results held (int)
+	 */
+	public int size() {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+
+	/**
+	 * Accessor Method:
+	 * Returns the maximum number of results held
+	 *
+	 * @return capacity - The capacity (int)
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+}
@@ -0,0 +1,135 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the BPlusTree class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="BPlusTree.html">BPlusTree</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("BPlusTree Tests")
+public class BPlusTreeTest {
+	/**
+	 * Verifies that a tree of many pages, held in a pool of few frames,
+	 * agrees with a TreeMap as random keys are inserted and removed, in
+	 * lookups and in range scans
+	 */
+	@Test
+	@DisplayName("a tree agrees with a sorted map")
+	public void randomChanges() {
+		try {
+			Path path = Files.createTempFile("tree", ".pages");
+			try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				BufferPool pool = new BufferPool(file, 16, 1, 0);
+				BPlusTree tree = new BPlusTree(pool, 0);
+				TreeMap<Long, Long> expected = new TreeMap<Long, Long>();
+				Random random = new Random(42);
+
+				for (int n = 0; n < 200_000; n++) {
+					long key = random.nextInt(100_000);
+					if (random.nextInt(3) > 0) {
+						assertEquals(!expected.containsKey(key), tree.insert(key, n),
+								"a key should only be inserted once");
+						expected.putIfAbsent(key, (long) n);
+					} else {
+						Long value = expected.remove(key);
+						assertEquals(value == null ? BPlusTree.NONE : value, tree.remove(key),
+								"the removed key's value should be returned");
+					}
+				}
+
+				for (long key = 0; key < 100_000; key++) {
+					Long value = expected.get(key);
+					assertEquals(value == null ? BPlusTree.NONE : value, tree.get(key),
+							"the key's value should be found");
+				}
+				assertEquals(new ArrayList<Long>(expected.subMap(2_000L, 60_000L).keySet()),
+						scan(tree, 2_000, 60_000), "the range should be scanned in order");
+				assertTrue(pool.getReads() > 0, "the tree should not fit in the pool");
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that a tree emptied of its keys frees its pages for reuse and
+	 * can be filled again, and that a tree is opened again from its root
+	 */
+	@Test
+	@DisplayName("an emptied tree frees its pages")
+	public void emptied() {
+		try {
+			Path path = Files.createTempFile("tree", ".pages");
+			try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				BufferPool pool = new BufferPool(file, BufferPool.MIN_FRAMES, 1, 0);
+				BPlusTree tree = new BPlusTree(pool, 0);
+				for (long key = 0; key < 50_000; key++) {
+					tree.insert(key, key * 2);
+				}
+				int pages = pool.getPageCount();
+				for (long key = 0; key < 50_000; key++) {
+					assertEquals(key * 2, tree.remove(key), "the key should be removed");
+				}
+				assertEquals(new ArrayList<Long>(), scan(tree, 0, Long.MAX_VALUE),
+						"the tree should be empty");
+
+				for (long key = 0; key < 50_000; key++) {
+					tree.insert(key, key);
+				}
+				assertEquals(pages, pool.getPageCount(), "the freed pages should be reused");
+
+				BPlusTree reopened = new BPlusTree(pool, tree.getRoot());
+				assertEquals(49_999, reopened.get(49_999), "the tree should open from its root");
+				assertFalse(reopened.insert(0, 1), "the keys should still be there");
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * A utility method that returns a tree's keys in a range
+	 *
+	 * @param tree - The tree (BPlusTree)
+	 *
+	 * @param first - The first key (long)
+	 *
+	 * @param last - The key to stop before (long)
+	 *
+	 * @return keys - The keys (List<Long>)
+	 */
+	private static List<Long> scan(BPlusTree tree, long first, long last) {
+		List<Long> keys = new ArrayList<Long>();
+		tree.scan(first, last, (key, value) -> keys.add(key));
+		return keys;
+	}
+}
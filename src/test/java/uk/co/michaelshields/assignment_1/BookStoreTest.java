@@ -0,0 +1,136 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the BookStore class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="BookStore.html">BookStore</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("BookStore Tests")
+public class BookStoreTest {
+	/**
+	 * Creates a store holding three books with ID numbers 1, 2 and 3
+	 *
+	 * @return store - The store (BookStore)
+	 */
+	private static BookStore createStore() {
+		BookStore store = new BookStore();
+		Book musimathics = new Book("Gareth Loy", "Musimathics Vol 1",
+				"Non Fiction", "0-262-51655-1");
+		musimathics.setIDNumber(1);
+		Book bible = new Book("Christopher Negus", "Linux Bible",
+				"Computing", "9781119578888");
+		bible.setIDNumber(2);
+		Book mathematics = new Book("David Benson",
+				"Music: A Mathematical Offering", "Non Fiction",
+				"9780521619998");
+		mathematics.setIDNumber(3);
+		store.add(musimathics);
+		store.add(bible);
+		store.add(mathematics);
+		return store;
+	}
+
+	/**
+	 * Verifies that getBookByID returns a view holding the book's details,
+	 * with the ISBN number in ISBN-13 form
+	 */
+	@Test
+	@DisplayName("getBookByID returns a view of the stored book")
+	public void getBookByID() {
+		BookStore store = createStore();
+
+		Book book = store.getBookByID(1);
+
+		assertEquals(1, book.getIDNumber(), "the ID number should be stored");
+		assertEquals("Gareth Loy", book.getAuthor(), "the author should be stored");
+		assertEquals("Musimathics Vol 1", book.getTitle(),
+				"the title should be stored");
+		assertEquals("Non Fiction", book.getGenre(), "the genre should be stored");
+		assertEquals("9780262516556", book.getISBNNumber(),
+				"the ISBN number should be stored in ISBN-13 form");
+		assertEquals(3, store.size(), "every book added should be counted");
+	}
+
+	/**
+	 * Verifies that add throws if books are not added in ascending ID number
+	 * order
+	 */
+	@Test
+	@DisplayName("add throws if ID numbers are out of order")
+	public void addOutOfOrder() {
+		BookStore store = createStore();
+		Book book = new Book("Gareth Loy", "Musimathics Vol 2", "Non Fiction",
+				"9780262518253");
+		book.setIDNumber(2);
+
+		assertThrows(IllegalArgumentException.class, () -> store.add(book),
+				"an error should be thrown if the ID number is out of order");
+	}
+
+	/**
+	 * Verifies that findByGenre returns the ID numbers of the books with the
+	 * genre, in order
+	 */
+	@Test
+	@DisplayName("findByGenre returns the books of the genre")
+	public void findByGenre() {
+		BookStore store = createStore();
+
+		assertArrayEquals(new int[]{1, 3}, store.findByGenre("Non Fiction"),
+				"books of the genre should be returned");
+		assertArrayEquals(new int[0], store.findByGenre("Poetry"),
+				"no books should be returned for an unknown genre");
+	}
+
+	/**
+	 * Verifies that findByTitle returns the ID numbers of the books whose
+	 * titles contain the query, ignoring case
+	 */
+	@Test
+	@DisplayName("findByTitle returns titles containing the query")
+	public void findByTitle() {
+		BookStore store = createStore();
+
+		assertArrayEquals(new int[]{1, 3}, store.findByTitle("MUSI"),
+				"titles containing the query should be returned");
+		assertArrayEquals(new int[0], store.findByTitle("Negus"),
+				"authors should not be searched");
+		assertThrows(IllegalArgumentException.class,
+				() -> store.findByTitle(""),
+				"an error should be thrown if the query is empty");
+	}
+
+	/**
+	 * Verifies that removed books are no longer found
+	 */
+	@Test
+	@DisplayName("remove removes the book from the store")
+	public void remove() {
+		BookStore store = createStore();
+
+		assertEquals(true, store.remove(1), "a stored book should be removed");
+		assertEquals(false, store.remove(1),
+				"a removed book should not be removed again");
+		assertEquals(2, store.size(), "a removed book should not be counted");
+		assertEquals(-1, store.findRow(1), "a removed book should not be found");
+		assertThrows(NoSuchElementException.class, () -> store.getBookByID(1),
+				"an error should be thrown when viewing a removed book");
+		assertArrayEquals(new int[]{3}, store.findByGenre("Non Fiction"),
+				"a removed book should not be returned by scans");
+		assertEquals("Linux Bible", store.getBookByID(2).getTitle(),
+				"the remaining books should be unaffected");
+	}
+}
@@ -8,6 +8,9 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * A suite of JUnit tests for the Book class
@@ -282,4 +285,21 @@ public class BookTest {
 
 		System.setOut(System.out); // Reinstate the standard output stream
 	}
+
+	/**
+	 * Verifies that <code>getDetails()</code> returns the book's details
+	 * labelled and in display order
+	 */
+	@Test
+	@DisplayName("getDetails()")
+	public void testGetDetails() {
+		Book book = new Book("Robert C. Martin", "Clean Code", "Non Fiction", "9780132350884", 1);
+
+		Map<String, Object> details = book.getDetails();
+
+		assertEquals(Arrays.asList("ID Number", "Author", "Title", "ISBN Number", "Genre"),
+				new ArrayList<>(details.keySet()), "the details should be labelled in display order");
+		assertEquals(1, details.get("ID Number"), "the details should include the ID number");
+		assertEquals("Clean Code", details.get("Title"), "the details should include the title");
+	}
 }
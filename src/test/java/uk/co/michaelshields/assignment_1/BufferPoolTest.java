@@ -0,0 +1,150 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the BufferPool class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="BufferPool.html">BufferPool</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("BufferPool Tests")
+public class BufferPoolTest {
+	/**
+	 * Verifies that pages changed in more pages than the pool has frames are
+	 * written back when they are evicted, and read back unchanged, and that
+	 * a page used since the clock hand passed it is given a second chance
+	 */
+	@Test
+	@DisplayName("evicted pages are written back and read again")
+	public void eviction() {
+		try {
+			Path path = Files.createTempFile("pool", ".pages");
+			try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				BufferPool pool = new BufferPool(file, BufferPool.MIN_FRAMES, 0, 0);
+				for (int n = 0; n < 100; n++) {
+					int page = pool.allocate();
+					pool.pin(page).putInt(100, n);
+					pool.unpin(page, true);
+					pool.unpin(page, false);
+				}
+				assertEquals(100, pool.getPageCount(), "a page should be allocated each time");
+				assertEquals(100 - BufferPool.MIN_FRAMES, pool.getWrites(),
+						"the evicted pages should have been written");
+
+				for (int n = 0; n < 100; n++) {
+					assertEquals(n, pool.pin(n).getInt(100), "the page should be read back");
+					pool.unpin(n, false);
+				}
+
+				// Fill the frames, then read a page past them: the hand clears
+				// every page's reference and replaces the first page
+				for (int n = 0; n < BufferPool.MIN_FRAMES; n++) {
+					pool.pin(n);
+					pool.unpin(n, false);
+				}
+				pool.pin(BufferPool.MIN_FRAMES);
+				pool.unpin(BufferPool.MIN_FRAMES, false);
+
+				// Use the second page again, so that the next page read
+				// replaces the third page rather than the second
+				long reads = pool.getReads();
+				pool.pin(1);
+				pool.unpin(1, false);
+				assertEquals(reads, pool.getReads(), "the second page should still be held");
+				pool.pin(BufferPool.MIN_FRAMES + 1);
+				pool.unpin(BufferPool.MIN_FRAMES + 1, false);
+				pool.pin(1);
+				pool.unpin(1, false);
+				assertEquals(reads + 1, pool.getReads(),
+						"the page used again should have been given a second chance");
+				pool.pin(2);
+				pool.unpin(2, false);
+				assertEquals(reads + 2, pool.getReads(), "the third page should have been replaced");
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that freed pages are reused before the file grows
+	 */
+	@Test
+	@DisplayName("freed pages are reused")
+	public void freeList() {
+		try {
+			Path path = Files.createTempFile("pool", ".pages");
+			try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				BufferPool pool = new BufferPool(file, BufferPool.MIN_FRAMES, 1, 0);
+				int first = pool.allocate();
+				int second = pool.allocate();
+				pool.free(first);
+				pool.free(second);
+				assertEquals(second, pool.getFreeHead(), "the last page freed should be first");
+
+				assertEquals(second, pool.allocate(), "the freed page should be reused");
+				assertEquals(first, pool.allocate(), "the freed page should be reused");
+				assertEquals(0, pool.getFreeHead(), "the free list should be empty");
+				assertEquals(3, pool.getPageCount(), "the file should not have grown");
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that a page cannot be pinned when every frame is pinned, and
+	 * that too small a pool is refused
+	 */
+	@Test
+	@DisplayName("a full pool is reported")
+	public void allPinned() {
+		try {
+			Path path = Files.createTempFile("pool", ".pages");
+			try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				assertThrows(IllegalArgumentException.class,
+						() -> new BufferPool(file, BufferPool.MIN_FRAMES - 1, 0, 0),
+						"too few frames should be refused");
+
+				BufferPool pool = new BufferPool(file, BufferPool.MIN_FRAMES, 0, 0);
+				for (int n = 0; n < BufferPool.MIN_FRAMES; n++) {
+					pool.pin(n);
+				}
+				assertThrows(IllegalStateException.class, () -> pool.pin(BufferPool.MIN_FRAMES),
+						"a page should not be pinned while every frame is");
+				assertThrows(IllegalStateException.class,
+						() -> pool.unpin(BufferPool.MIN_FRAMES, false),
+						"a page that is not pinned should not be unpinned");
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A stand-alone benchmark of how long a library of books takes to be ready
+ * when its books are built and added on the heap, against opening them from
+ * a memory-mapped catalogue, and of looking books up and searching their
+ * titles in each. It is run from its main method rather than as part of the
+ * JUnit suite, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=uk.co.michaelshields.assignment_1.CatalogBenchmark \
+ *     -Dexec.args="1000000"
+ * </pre>
+ *
+ * The argument is the number of books in the catalogue.
+ *
+ * @see <a href="MappedCatalog.html">MappedCatalog</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class CatalogBenchmark {
+	/** The number of books looked up by ID number */
+	private static final int LOOKUPS = 1_000_000;
+
+	/** The number of title searches */
+	private static final int SEARCHES = 20;
+
+	/**
+	 * Runs the benchmark
+	 *
+	 * @param args - The number of books in the catalogue
+	 *
+	 * @throws Exception - If the catalogue cannot be written or read
+	 */
+	public static void main(String[] args) throws Exception {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+		Path path = Files.createTempFile("catalogue", ".bin");
+		try {
+			List<Book> books = createBooks(size);
+			MappedCatalog.write(path, books);
+			books = null;
+			System.out.printf("catalogue %,10d books written, %,d MB%n", size,
+					Files.size(path) >> 20);
+
+			long start = System.nanoTime();
+			Library heap = new Library();
+			heap.addBooks(createBooks(size));
+			report("heap", "ready", start, 1);
+			measure("heap", heap, size);
+			heap = null;
+
+			start = System.nanoTime();
+			Library mapped = new Library(new MappedCatalog(path));
+			report("mapped", "ready", start, 1);
+			measure("mapped", mapped, size);
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	/**
+	 * Measures looking books up by ID number and searching their titles
+	 *
+	 * @param name - The name of the library (String)
+	 *
+	 * @param library - The library (Library)
+	 *
+	 * @param size - The number of books in the library (int)
+	 */
+	private static void measure(String name, Library library, int size) {
+		Random random = new Random(42);
+		long checksum = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < LOOKUPS; i++) {
+			checksum += library.getBookByID(1 + random.nextInt(size)).getIDNumber();
+		}
+		report(name, "getBookByID", start, LOOKUPS);
+
+		start = System.nanoTime();
+		for (int i = 0; i < SEARCHES; i++) {
+			checksum += library.findBooksByTitleQuery("title " + random.nextInt(size)).size();
+		}
+		report(name, "title search", start, SEARCHES);
+
+		if (checksum == 0) {
+			System.out.println("no books were found");
+		}
+	}
+
+	/**
+	 * Prints how long an operation took in all and on average
+	 *
+	 * @param name - The name of the library (String)
+	 *
+	 * @param operation - The name of the operation (String)
+	 *
+	 * @param start - When the operation started (long)
+	 *
+	 * @param count - The number of times it was performed (int)
+	 */
+	private static void report(String name, String operation, long start, int count) {
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%-9s %-12s %,8d ms  %,12d ns/op%n", name, operation,
+				elapsed / 1_000_000, elapsed / count);
+	}
+
+	/**
+	 * Creates books with ID numbers from one and unique, valid ISBN-13
+	 * numbers
+	 *
+	 * @param size - The number of books (int)
+	 *
+	 * @return books - The books (List<Book>)
+	 */
+	private static List<Book> createBooks(int size) {
+		List<Book> books = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			books.add(new Book("Author " + i, "Title " + i, "Fiction",
+					LibraryBenchmark.isbn13(i), i + 1));
+		}
+		return books;
+	}
+}
@@ -0,0 +1,136 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the CsvImporter class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="CsvImporter.html">CsvImporter</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("CsvImporter Tests")
+public class CsvImporterTest {
+	/**
+	 * Verifies that the constructor throws with a null library or pool, or a
+	 * chunk size that is not positive
+	 */
+	@Test
+	@DisplayName("constructor throws with invalid arguments")
+	public void constructorInvalid() {
+		Library library = new Library();
+
+		assertThrows(IllegalArgumentException.class, () -> new CsvImporter(null),
+				"an error should be thrown if the library is null");
+		assertThrows(IllegalArgumentException.class,
+				() -> new CsvImporter(library, null, 10),
+				"an error should be thrown if the pool is null");
+		assertThrows(IllegalArgumentException.class,
+				() -> new CsvImporter(library, ForkJoinPool.commonPool(), 0),
+				"an error should be thrown if the chunk size is not positive");
+	}
+
+	/**
+	 * Verifies that parseFields splits a row at commas outside of quotes
+	 */
+	@Test
+	@DisplayName("parseFields splits quoted and unquoted fields")
+	public void parseFields() {
+		assertArrayEquals(new String[] {"a", "b, c", "say \"hi\"", ""},
+				CsvImporter.parseFields("a,\"b, c\",\"say \"\"hi\"\"\","),
+				"quoted fields should keep commas and doubled quotes");
+		assertThrows(IllegalArgumentException.class,
+				() -> CsvImporter.parseFields("a,\"b"),
+				"an error should be thrown if a quoted field is not closed");
+	}
+
+	/**
+	 * Verifies that importBooks adds the valid rows in file order, across
+	 * chunks, and reports the invalid and duplicate rows by line number
+	 */
+	@Test
+	@DisplayName("importBooks imports valid rows and reports rejected rows")
+	public void importBooks() {
+		try {
+			Library library = new Library();
+			String csv = "Author,Title,Genre,ISBN Number\n"
+					+ "G. Loy,Musimathics Vol 1,Non Fiction,9780262516556\n"
+					+ "G. Loy,\"Musimathics, Vol 2\",Non Fiction,9780262516563\n"
+					+ "\n"
+					+ "J. Smith,Bad ISBN,Fiction,1234\n"
+					+ "J. Smith,Too Few,Fiction\n"
+					+ "G. Loy,Duplicate,Non Fiction,978-0-262-51656-3\n"
+					+ "J. Bloch,Effective Java,Non Fiction,978-0-13-468599-1\n";
+
+			ImportReport report = new CsvImporter(library,
+					ForkJoinPool.commonPool(), 2).importBooks(new StringReader(csv));
+
+			assertEquals(3, report.getImportedCount(), "three rows should be imported");
+			List<Book> books = library.getBooks();
+			assertEquals("Musimathics, Vol 2", books.get(1).getTitle(),
+					"a quoted field should keep its comma");
+			assertTrue(books.get(0).getIDNumber() < books.get(1).getIDNumber()
+					&& books.get(1).getIDNumber() < books.get(2).getIDNumber(),
+					"ID numbers should be issued in file order");
+
+			List<ImportReport.Rejection> rejections = report.getRejections();
+			assertEquals(3, rejections.size(), "three rows should be rejected");
+			assertEquals(5, rejections.get(0).getLineNumber(),
+					"an invalid ISBN number should be rejected");
+			assertEquals(6, rejections.get(1).getLineNumber(),
+					"a row with missing fields should be rejected");
+			assertEquals("Expected 4 fields but found 3", rejections.get(1).getReason(),
+					"the reason should be reported");
+			assertEquals(7, rejections.get(2).getLineNumber(),
+					"a duplicate ISBN number should be rejected");
+			assertTrue(report.getRecordsPerSecond() > 0, "the rate should be measured");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that importMembers validates email addresses and phone numbers
+	 * and rejects duplicate email addresses
+	 */
+	@Test
+	@DisplayName("importMembers imports valid rows and reports rejected rows")
+	public void importMembers() {
+		try {
+			Library library = new Library();
+			String csv = "First Name,Last Name,Email,Phone Number\n"
+					+ "Michael,Shields,abc@xyz.com,07777777777\n"
+					+ "Jim,Jones,not an email,07777777777\n"
+					+ "Tom,Ong,tom@xyz.com,123\n"
+					+ "Tim,Shields,ABC@xyz.com,07777777777\n";
+
+			ImportReport report = new CsvImporter(library)
+					.importMembers(new StringReader(csv));
+
+			assertEquals(1, report.getImportedCount(), "one row should be imported");
+			assertEquals("Shields", library.getMembers().get(0).getLastName(),
+					"the valid member should be added");
+			assertEquals(3, report.getRejections().size(),
+					"three rows should be rejected");
+			assertEquals(5, report.getRejections().get(2).getLineNumber(),
+					"a duplicate email address should be rejected");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the IDAllocator class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="IDAllocator.html">IDAllocator</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("IDAllocator Tests")
+public class IDAllocatorTest {
+	/**
+	 * Verifies that the constructors throw if the block size is not positive
+	 * or the file is null
+	 */
+	@Test
+	@DisplayName("constructor throws with invalid arguments")
+	public void constructorInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> new IDAllocator(0),
+				"an error should be thrown if the block size is not positive");
+		assertThrows(IllegalArgumentException.class,
+				() -> new IDAllocator(null, 8),
+				"an error should be thrown if the file is null");
+	}
+
+	/**
+	 * Verifies that a single thread is issued consecutive ID numbers from 1,
+	 * across the end of its blocks
+	 */
+	@Test
+	@DisplayName("next issues consecutive ID numbers to a thread")
+	public void nextConsecutive() {
+		IDAllocator allocator = new IDAllocator(4);
+
+		for (int expected = 1; expected <= 10; expected++) {
+			assertEquals(expected, allocator.next(),
+					"a thread should be issued consecutive ID numbers");
+		}
+	}
+
+	/**
+	 * Verifies that short lived threads, such as those handling a server's
+	 * requests, each issuing one ID number, are issued consecutive ID
+	 * numbers from one shared block rather than each leasing a block
+	 */
+	@Test
+	@DisplayName("next shares a block between short lived threads")
+	public void nextShortLivedThreads() {
+		try {
+			IDAllocator allocator = new IDAllocator();
+			int[] issued = new int[1];
+			for (int expected = 1; expected <= 10; expected++) {
+				Thread thread = new Thread(() -> issued[0] = allocator.next());
+				thread.start();
+				thread.join();
+				assertEquals(expected, issued[0],
+						"each thread should be issued the next ID number");
+			}
+			assertEquals(IDAllocator.DEFAULT_BLOCK_SIZE, allocator.getHighWaterMark(),
+					"only one block should have been leased");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that threads issuing ID numbers at once are never issued the
+	 * same ID number
+	 */
+	@Test
+	@DisplayName("next issues unique ID numbers across threads")
+	public void nextConcurrent() {
+		IDAllocator allocator = new IDAllocator(8);
+		Set<Integer> issued = ConcurrentHashMap.newKeySet();
+		int threads = 4;
+		int perThread = 1000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Callable<Object>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				tasks.add(() -> {
+					for (int i = 0; i < perThread; i++) {
+						assertTrue(issued.add(allocator.next()),
+								"an ID number should only be issued once");
+					}
+					return null;
+				});
+			}
+			for (Future<Object> task : executor.invokeAll(tasks)) {
+				task.get();
+			}
+
+			assertEquals(threads * perThread, issued.size(),
+					"every ID number issued should be unique");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Verifies that a persisted high water mark is shared between allocators
+	 * using the same file, and that issuing resumes after a restart without
+	 * reusing ID numbers
+	 */
+	@Test
+	@DisplayName("persisted allocators never reuse ID numbers")
+	public void persisted() {
+		try {
+			Path path = Files.createTempFile("ids", ".bin");
+			try {
+				IDAllocator first = new IDAllocator(path, 10);
+				IDAllocator second = new IDAllocator(path, 10);
+
+				assertEquals(1, first.next(), "the first block should start at 1");
+				assertEquals(11, second.next(),
+						"allocators sharing a file should lease separate blocks");
+				assertEquals(2, first.next(),
+						"an allocator should issue from its own block");
+				first.close();
+				second.close();
+
+				IDAllocator restarted = new IDAllocator(path, 10);
+				assertEquals(21, restarted.next(),
+						"issuing should resume after the last leased block");
+				restarted.close();
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the IDIndex class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="IDIndex.html">IDIndex</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("IDIndex Tests")
+public class IDIndexTest {
+	/**
+	 * Verifies that put throws if the value is null
+	 */
+	@Test
+	@DisplayName("put throws if value is null")
+	public void putNullValue() {
+		IDIndex<String> index = new IDIndex<>();
+
+		assertThrows(IllegalArgumentException.class, () -> index.put(1, null),
+				"an error should be thrown if the value is null");
+	}
+
+	/**
+	 * Verifies that get returns the value indexed under an ID number
+	 */
+	@Test
+	@DisplayName("get returns the indexed value")
+	public void get() {
+		IDIndex<String> index = new IDIndex<>();
+		index.put(1, "one");
+		index.put(0, "zero");
+
+		assertEquals("one", index.get(1), "the value should be returned");
+		assertEquals("zero", index.get(0), "ID number 0 should be indexable");
+		assertNull(index.get(2), "null should be returned for unknown IDs");
+	}
+
+	/**
+	 * Verifies that put replaces the value indexed under an existing ID number
+	 */
+	@Test
+	@DisplayName("put replaces an existing value")
+	public void putReplaces() {
+		IDIndex<String> index = new IDIndex<>();
+		index.put(1, "one");
+
+		assertEquals("one", index.put(1, "uno"),
+				"the previous value should be returned");
+		assertEquals("uno", index.get(1), "the value should be replaced");
+		assertEquals(1, index.size(), "the size should be unchanged");
+	}
+
+	/**
+	 * Verifies that remove removes only the value with the ID number
+	 */
+	@Test
+	@DisplayName("remove removes the indexed value")
+	public void remove() {
+		IDIndex<String> index = new IDIndex<>();
+		index.put(1, "one");
+		index.put(2, "two");
+
+		assertEquals("one", index.remove(1),
+				"the removed value should be returned");
+		assertNull(index.remove(1), "null should be returned for unknown IDs");
+		assertNull(index.get(1), "the value should have been removed");
+		assertEquals("two", index.get(2), "other values should remain");
+		assertEquals(1, index.size(), "the size should be decremented");
+	}
+
+	/**
+	 * Verifies that the index stays consistent when it grows and when entries
+	 * are removed from the middle of probe sequences
+	 */
+	@Test
+	@DisplayName("index stays consistent across resizes and removals")
+	public void resizeAndRemove() {
+		IDIndex<Integer> index = new IDIndex<>();
+		int count = 10000;
+
+		for (int i = 1; i <= count; i++) {
+			index.put(i, i);
+		}
+
+		// Remove every third entry
+		for (int i = 1; i <= count; i += 3) {
+			index.remove(i);
+		}
+
+		for (int i = 1; i <= count; i++) {
+			if ((i - 1) % 3 == 0) {
+				assertNull(index.get(i), "removed IDs should not be found");
+			} else {
+				assertEquals(i, (int) index.get(i),
+						"remaining IDs should still be found");
+			}
+		}
+
+		assertEquals(count - (count + 2) / 3, index.size(),
+				"the size should reflect the removals");
+		assertTrue(index.containsID(2), "containsID should find indexed IDs");
+	}
+
+	/**
+	 * Verifies that clear empties the index
+	 */
+	@Test
+	@DisplayName("clear empties the index")
+	public void clear() {
+		IDIndex<String> index = new IDIndex<>();
+		index.put(1, "one");
+		index.clear();
+
+		assertTrue(index.isEmpty(), "the index should be empty");
+		assertNull(index.get(1), "no values should be found");
+	}
+}
@@ -0,0 +1,60 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the InMemoryRepository class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="InMemoryRepository.html">InMemoryRepository</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("InMemoryRepository Tests")
+public class InMemoryRepositoryTest {
+	/**
+	 * Verifies that loans are listed in expiry date order, that only those
+	 * expiring before a day are listed as expiring before it, and that
+	 * removing a loan does not remove a later loan of the same book
+	 */
+	@Test
+	@DisplayName("loans are ordered by expiry date")
+	public void loans() {
+		try {
+			InMemoryRepository repository = new InMemoryRepository();
+			Member jane = new Member("Jane", "Smith", "a@xyz.com", "07777777777", 1);
+			Book book = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction", "9780262516556", 2);
+			Book other = new Book("J. Bloch", "Effective Java", "Non Fiction",
+					"978-0-13-468599-1", 3);
+			LocalDate today = LocalDate.now();
+			Loan late = new Loan(jane, book, today, today.plusDays(21));
+			Loan early = new Loan(jane, other, today, today.plusDays(7));
+			repository.addLoan(late);
+			repository.addLoan(early);
+
+			List<Loan> loans = new ArrayList<>(repository.getLoans());
+			assertSame(early, loans.get(0), "the earliest expiring loan should be first");
+			assertEquals(1, repository.getLoansExpiringBefore(today.plusDays(8).toEpochDay()).size(),
+					"only the loan expiring before the day should be listed");
+
+			Loan later = new Loan(jane, book, today, today.plusDays(21));
+			repository.removeLoan(late);
+			repository.addLoan(later);
+			repository.removeLoan(late);
+			assertEquals(2, repository.getLoans().size(), "the later loan should be kept");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+}
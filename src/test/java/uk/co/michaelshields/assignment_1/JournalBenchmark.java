@@ -0,0 +1,145 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stand-alone benchmark of how long a journalled library takes to be
+ * ready after a restart, replaying its whole history from the journal
+ * against loading a checkpoint and replaying only the journal behind it.
+ * The history is a tenth members, a tenth books and the rest loans being
+ * issued and returned. It is run from its main method rather than as part
+ * of the JUnit suite, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=uk.co.michaelshields.assignment_1.JournalBenchmark \
+ *     -Dexec.args="10000000"
+ * </pre>
+ *
+ * The argument is the number of records of history in the journal.
+ *
+ * @see <a href="Journal.html">Journal</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class JournalBenchmark {
+	/** The number of changes made by each batch */
+	private static final int BATCH_SIZE = 10_000;
+
+	/**
+	 * Runs the benchmark
+	 *
+	 * @param args - The number of records of history in the journal
+	 *
+	 * @throws Exception - If the journal cannot be written or read
+	 */
+	public static void main(String[] args) throws Exception {
+		int records = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+		int size = records / 10;
+		int loanRounds = (records - 2 * size) / (2 * BATCH_SIZE);
+
+		Path directory = Files.createTempDirectory("journal");
+		Path path = directory.resolve("library.journal");
+		try {
+			// Record the history
+			long start = System.nanoTime();
+			try (Journal journal = new Journal(path)) {
+				recordHistory(new Library(journal), size, loanRounds);
+			}
+			System.out.printf("history      %,12d records  written in %,8d ms, journal %,d MB%n",
+					records, (System.nanoTime() - start) / 1_000_000, Files.size(path) >> 20);
+
+			// Restart by replaying the whole history, then checkpoint it
+			// and record a little more
+			Library library;
+			try (Journal journal = new Journal(path)) {
+				start = System.nanoTime();
+				library = new Library(journal);
+				System.out.printf("journal only %,12d replayed ready in %,8d ms%n",
+						journal.getReplayedCount(), (System.nanoTime() - start) / 1_000_000);
+
+				start = System.nanoTime();
+				library.checkpoint();
+				System.out.printf("checkpoint   %,12d loans    written in %,8d ms, checkpoint %,d MB%n",
+						library.getLoans().size(), (System.nanoTime() - start) / 1_000_000,
+						Files.size(directory.resolve("library.journal.checkpoint")) >> 20);
+
+				recordLoans(library, size, loanRounds, 1);
+			}
+			library = null;
+
+			// Restart from the checkpoint and the journal behind it
+			try (Journal journal = new Journal(path)) {
+				start = System.nanoTime();
+				library = new Library(journal);
+				System.out.printf("checkpoint   %,12d replayed ready in %,8d ms%n",
+						journal.getReplayedCount(), (System.nanoTime() - start) / 1_000_000);
+			}
+		} finally {
+			JournalTest.deleteDirectory(directory);
+		}
+	}
+
+	/**
+	 * Records the history of a library: its members and books, and rounds
+	 * of loans being issued and returned, leaving the last round on loan
+	 *
+	 * @param library - The journalled library (Library)
+	 *
+	 * @param size - The number of members, and of books (int)
+	 *
+	 * @param loanRounds - The number of rounds of loans (int)
+	 *
+	 * @throws Exception - If a member or book cannot be created
+	 */
+	private static void recordHistory(Library library, int size, int loanRounds)
+			throws Exception {
+		for (int n = 0; n < size; n += BATCH_SIZE) {
+			List<Member> members = new ArrayList<>();
+			List<Book> books = new ArrayList<>();
+			for (int i = n; i < Math.min(n + BATCH_SIZE, size); i++) {
+				members.add(new Member("Member", "Surname" + i, "member" + i + "@xyz.com",
+						"07777777777"));
+				books.add(LibraryBenchmark.createBook(i));
+			}
+			library.addMembers(members);
+			library.addBooks(books);
+		}
+
+		recordLoans(library, size, 0, loanRounds);
+	}
+
+	/**
+	 * Records rounds of loans being issued and returned, each round loaning
+	 * the next books to the next members, and leaving the last round on loan
+	 *
+	 * @param library - The journalled library (Library)
+	 *
+	 * @param size - The number of members, and of books (int)
+	 *
+	 * @param firstRound - The number of rounds recorded before (int)
+	 *
+	 * @param loanRounds - The number of rounds of loans (int)
+	 */
+	private static void recordLoans(Library library, int size, int firstRound,
+			int loanRounds) {
+		List<Member> members = library.getMembers();
+		List<Book> books = library.getBooks();
+		List<LoanRequest> requests = null;
+		for (int round = firstRound; round < firstRound + loanRounds; round++) {
+			if (requests != null) {
+				library.removeLoans(requests);
+			}
+			requests = new ArrayList<>();
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				int n = (int) (((long) round * BATCH_SIZE + i) % size);
+				requests.add(new LoanRequest(members.get(n), books.get(n)));
+			}
+			library.addLoans(requests);
+		}
+	}
+}
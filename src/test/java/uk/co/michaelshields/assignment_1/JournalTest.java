@@ -0,0 +1,338 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the Journal class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="Journal.html">Journal</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("Journal Tests")
+public class JournalTest {
+	/**
+	 * Verifies that replaying a journal restores the members, books and
+	 * loans of a library, with their ID numbers and dates, and that new ID
+	 * numbers follow the restored ones
+	 */
+	@Test
+	@DisplayName("replaying a journal restores the library")
+	public void replay() {
+		try {
+			Path path = Files.createTempFile("journal", ".log");
+			try {
+				int janeID;
+				int bookID;
+				Loan loan;
+				try (Journal journal = new Journal(path)) {
+					Library library = new Library(journal);
+					Member jane = new Member("Jane", "Smith", "a@xyz.com", "07777777777");
+					Member jim = new Member("Jim", "Jones", "b@xyz.com", "07777777777");
+					Book book = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+							"9780262516556");
+					Book other = new Book("J. Bloch", "Effective Java", "Non Fiction",
+							"978-0-13-468599-1");
+					library.addMember(jane);
+					library.addMember(jim);
+					library.addBook(book);
+					library.addBook(other);
+					library.addLoan(jim, other);
+					library.removeLoan(jim, other);
+					library.addLoan(jane, book);
+					library.removeMemberByID(jim.getIDNumber());
+					library.removeBookByID(other.getIDNumber());
+					janeID = jane.getIDNumber();
+					bookID = book.getIDNumber();
+					loan = library.getLoan(jane, book);
+				}
+
+				try (Journal journal = new Journal(path)) {
+					Library restored = new Library(journal);
+
+					assertEquals(9, journal.getReplayedCount(), "every change should be replayed");
+					assertEquals(1, restored.getMembers().size(), "one member should be restored");
+					assertEquals("a@xyz.com", restored.getMemberByID(janeID).getEmail(),
+							"the member should keep their ID number");
+					assertEquals(1, restored.getBooks().size(), "one book should be restored");
+					Loan restoredLoan = restored.getLoan(restored.getMemberByID(janeID),
+							restored.getBookByID(bookID));
+					assertEquals(loan.getExpiryDate(), restoredLoan.getExpiryDate(),
+							"the loan should keep its dates");
+
+					Member ann = new Member("Ann", "Lee", "c@xyz.com", "07777777777");
+					restored.addMember(ann);
+					assertTrue(ann.getIDNumber() > 4,
+							"new ID numbers should follow the restored ones");
+					assertThrows(NoSuchElementException.class,
+							() -> restored.getBookByID(4), "the removed book should stay removed");
+				}
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that a partly written record at the end of the journal is cut
+	 * off, and new records follow the last whole one
+	 */
+	@Test
+	@DisplayName("a partly written record is cut off")
+	public void tornRecord() {
+		try {
+			Path path = Files.createTempFile("journal", ".log");
+			try {
+				try (Journal journal = new Journal(path)) {
+					Library library = new Library(journal);
+					library.addMember(new Member("Jane", "Smith", "a@xyz.com", "07777777777"));
+					library.addMember(new Member("Jim", "Jones", "b@xyz.com", "07777777777"));
+				}
+				try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+					file.truncate(file.size() - 3);
+				}
+
+				try (Journal journal = new Journal(path)) {
+					Library library = new Library(journal);
+					assertEquals(1, journal.getReplayedCount(),
+							"only the whole record should be replayed");
+					library.addMember(new Member("Ann", "Lee", "c@xyz.com", "07777777777"));
+				}
+				try (Journal journal = new Journal(path)) {
+					Library library = new Library(journal);
+					assertEquals(2, library.getMembers().size(),
+							"the new record should follow the whole one");
+				}
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that changes made by threads at once are all durable, with
+	 * fewer flushes to disk than changes
+	 */
+	@Test
+	@DisplayName("concurrent commits are grouped")
+	public void groupCommit() {
+		int threads = 8;
+		int perThread = 50;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			Path path = Files.createTempFile("journal", ".log");
+			try {
+				try (Journal journal = new Journal(path)) {
+					Library library = new Library(journal);
+					List<Callable<Object>> tasks = new ArrayList<>();
+					for (int t = 0; t < threads; t++) {
+						int thread = t;
+						tasks.add(() -> {
+							for (int i = 0; i < perThread; i++) {
+								library.addMember(new Member("Jane", "Smith",
+										"jane" + thread + "." + i + "@xyz.com", "07777777777"));
+							}
+							return null;
+						});
+					}
+					for (Future<Object> task : executor.invokeAll(tasks)) {
+						task.get();
+					}
+
+					assertTrue(journal.getFlushCount() <= threads * perThread,
+							"there should be no more flushes than changes");
+				}
+
+				try (Journal journal = new Journal(path)) {
+					assertEquals(threads * perThread, new Library(journal).getMembers().size(),
+							"every member should be restored");
+				}
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Verifies that a library restarted from a checkpoint has the changes
+	 * made before and after it, replays only those made after it and issues
+	 * no ID number again, and that the journal behind the checkpoint is
+	 * deleted
+	 */
+	@Test
+	@DisplayName("a checkpoint replaces the journal behind it")
+	public void checkpoint() {
+		try {
+			Path directory = Files.createTempDirectory("journal");
+			Path path = directory.resolve("library.journal");
+			try {
+				int janeID;
+				int jimID;
+				int bookID;
+				try (Journal journal = new Journal(path)) {
+					Library library = new Library(journal);
+					Member jane = new Member("Jane", "Smith", "a@xyz.com", "07777777777");
+					Member jim = new Member("Jim", "Jones", "b@xyz.com", "07777777777");
+					Book book = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+							"9780262516556");
+					library.addMember(jane);
+					library.addMember(jim);
+					library.addBook(book);
+					library.addLoan(jane, book);
+					janeID = jane.getIDNumber();
+					jimID = jim.getIDNumber();
+					bookID = book.getIDNumber();
+
+					assertTrue(library.checkpoint(), "a checkpoint should be written");
+					assertFalse(library.checkpoint(),
+							"nothing should be checkpointed when nothing has changed");
+
+					library.removeLoan(jane, book);
+					library.removeMemberByID(jimID);
+				}
+				assertTrue(Files.exists(directory.resolve("library.journal.checkpoint")),
+						"the checkpoint should have been written");
+				assertFalse(Files.exists(directory.resolve("library.journal.1")),
+						"the journal behind the checkpoint should have been deleted");
+
+				try (Journal journal = new Journal(path)) {
+					Library restored = new Library(journal);
+
+					assertEquals(2, journal.getReplayedCount(),
+							"only the changes after the checkpoint should be replayed");
+					assertEquals(1, restored.getMembers().size(), "one member should be restored");
+					assertEquals("a@xyz.com", restored.getMemberByID(janeID).getEmail(),
+							"the member should keep their ID number");
+					assertTrue(restored.getLoans().isEmpty(), "the loan should have been removed");
+					restored.addLoan(restored.getMemberByID(janeID), restored.getBookByID(bookID));
+
+					Member ann = new Member("Ann", "Lee", "c@xyz.com", "07777777777");
+					restored.addMember(ann);
+					assertTrue(ann.getIDNumber() > jimID,
+							"ID numbers issued before the checkpoint should not be issued again");
+				}
+			} finally {
+				deleteDirectory(directory);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that changes made while a checkpoint is being taken are all
+	 * restored, whether the checkpoint or the journal holds them
+	 */
+	@Test
+	@DisplayName("changes made while checkpointing are kept")
+	public void checkpointWhileChanging() {
+		int threads = 4;
+		int perThread = 100;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			Path directory = Files.createTempDirectory("journal");
+			Path path = directory.resolve("library.journal");
+			try {
+				try (Journal journal = new Journal(path)) {
+					Library library = new Library(journal);
+					List<Callable<Object>> tasks = new ArrayList<>();
+					for (int t = 0; t < threads; t++) {
+						int thread = t;
+						tasks.add(() -> {
+							for (int i = 0; i < perThread; i++) {
+								library.addMember(new Member("Jane", "Smith",
+										"jane" + thread + "." + i + "@xyz.com", "07777777777"));
+							}
+							return null;
+						});
+					}
+					List<Future<Object>> results = new ArrayList<>();
+					for (Callable<Object> task : tasks) {
+						results.add(executor.submit(task));
+					}
+					for (int i = 0; i < 5; i++) {
+						library.checkpoint();
+					}
+					for (Future<Object> result : results) {
+						result.get();
+					}
+				}
+
+				try (Journal journal = new Journal(path)) {
+					assertEquals(threads * perThread, new Library(journal).getMembers().size(),
+							"every member should be restored");
+				}
+			} finally {
+				deleteDirectory(directory);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Verifies that a library without a journal cannot be checkpointed
+	 */
+	@Test
+	@DisplayName("a library without a journal cannot be checkpointed")
+	public void checkpointWithoutJournal() {
+		assertThrows(IllegalStateException.class, () -> new Library().checkpoint(),
+				"a library without a journal should not be checkpointed");
+	}
+
+	/**
+	 * Deletes a directory and everything in it
+	 *
+	 * @param directory - The directory (Path)
+	 *
+	 * @throws IOException - If the directory cannot be deleted
+	 */
+	static void deleteDirectory(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			List<Path> sorted = new ArrayList<>();
+			paths.sorted(Comparator.reverseOrder()).forEach(sorted::add);
+			for (Path path : sorted) {
+				Files.delete(path);
+			}
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the LastNameIndex class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="LastNameIndex.html">LastNameIndex</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("LastNameIndex Tests")
+public class LastNameIndexTest {
+	/**
+	 * Verifies that withPrefix throws if the prefix is null or empty
+	 */
+	@Test
+	@DisplayName("withPrefix throws if prefix is null or empty")
+	public void withPrefixInvalidPrefix() {
+		LastNameIndex index = new LastNameIndex();
+
+		assertThrows(IllegalArgumentException.class,
+				() -> index.withPrefix(null),
+				"an error should be thrown if the prefix is null");
+		assertThrows(IllegalArgumentException.class,
+				() -> index.withPrefix(""),
+				"an error should be thrown if the prefix is empty");
+	}
+
+	/**
+	 * Verifies that withPrefix returns the members whose last names start
+	 * with the prefix, ignoring case, ordered by last name
+	 */
+	@Test
+	@DisplayName("withPrefix returns matching members in last name order")
+	public void withPrefix() {
+		try {
+			Member smith = new Member("Jane", "Smith", "a@xyz.com",
+					"07777777777");
+			Member shields = new Member("Michael", "Shields", "b@xyz.com",
+					"07777777777");
+			Member jones = new Member("Jim", "Jones", "c@xyz.com",
+					"07777777777");
+			LastNameIndex index = new LastNameIndex();
+			index.add(smith);
+			index.add(shields);
+			index.add(jones);
+
+			assertEquals(Arrays.asList(shields, smith), index.withPrefix("S"),
+					"members starting with the prefix should be returned in order");
+			assertEquals(Arrays.asList(jones), index.withPrefix("JON"),
+					"the prefix should match regardless of case");
+			assertTrue(index.withPrefix("ones").isEmpty(),
+					"last names only containing the prefix should not match");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that members sharing a last name are all returned and that
+	 * removed members are not
+	 */
+	@Test
+	@DisplayName("remove removes only the provided member")
+	public void remove() {
+		try {
+			Member jim = new Member("Jim", "Jones", "a@xyz.com",
+					"07777777777");
+			Member jane = new Member("Jane", "Jones", "b@xyz.com",
+					"07777777777");
+			LastNameIndex index = new LastNameIndex();
+			index.add(jim);
+			index.add(jane);
+
+			assertEquals(Arrays.asList(jim, jane), index.withPrefix("jones"),
+					"members sharing a last name should be returned in the order added");
+
+			index.remove(jim);
+			List<Member> matches = index.withPrefix("jones");
+
+			assertEquals(Arrays.asList(jane), matches,
+					"a removed member should not be returned");
+
+			index.remove(jane);
+
+			assertTrue(index.withPrefix("j").isEmpty(),
+					"no members should be returned once all are removed");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,826 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * A stand-alone benchmark for the Library class. It is run from its main
+ * method rather than as part of the JUnit suite, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=uk.co.michaelshields.assignment_1.LibraryBenchmark \
+ *     -Dexec.args="1000 10000 100000"
+ * </pre>
+ *
+ * The arguments are the catalogue sizes to be measured.
+ *
+ * @see <a href="Library.html">Library</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class LibraryBenchmark {
+	/** The number of lookups timed for each catalogue size */
+	private static final int LOOKUPS = 1_000_000;
+
+	/**
+	 * Runs the benchmark
+	 *
+	 * @param args - The catalogue sizes to be measured
+	 */
+	public static void main(String[] args) {
+		int[] sizes = {1_000, 10_000, 100_000};
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				sizes[i] = Integer.parseInt(args[i]);
+			}
+		}
+
+		for (int size : sizes) {
+			benchmarkLookups(size);
+			benchmarkTitleSearch(size);
+			benchmarkBookFootprint(size);
+			benchmarkLoanFootprint(size);
+			benchmarkColumnarScans(size);
+			benchmarkMemberFootprint(size);
+			benchmarkConcurrentLookups(size);
+			benchmarkImport(size);
+			benchmarkSnapshots(size);
+		}
+		benchmarkIDAllocation();
+		benchmarkCheckouts();
+		benchmarkShardedCheckouts();
+		benchmarkBatchCheckouts();
+		benchmarkMemberValidation();
+		benchmarkJournal();
+	}
+
+	/**
+	 * Times getBookByID against a library holding the provided number of books
+	 *
+	 * @param size - The number of books in the library (int)
+	 */
+	private static void benchmarkLookups(int size) {
+		// Create the books up front so that only addBook is timed
+		Book[] books = new Book[size];
+		for (int i = 0; i < size; i++) {
+			books[i] = createBook(i);
+		}
+
+		Library library = new Library();
+		long loadStart = System.nanoTime();
+		for (Book book : books) {
+			library.addBook(book);
+		}
+		long loadElapsed = System.nanoTime() - loadStart;
+
+		System.out.printf("addBook      %,12d books  %8.1f ns/add%n", size,
+				(double) loadElapsed / size);
+
+		// Warm up, then time random lookups across the whole ID range
+		long checksum = lookup(library, size, LOOKUPS);
+		long start = System.nanoTime();
+		checksum += lookup(library, size, LOOKUPS);
+		long elapsed = System.nanoTime() - start;
+
+		System.out.printf("getBookByID  %,12d books  %8.1f ns/lookup  (%d)%n",
+				size, (double) elapsed / LOOKUPS, checksum);
+	}
+
+	/**
+	 * Times displayBooksByTitleQuery against a library holding the provided
+	 * number of books. The matching book is printed to a discarded stream.
+	 *
+	 * @param size - The number of books in the library (int)
+	 */
+	private static void benchmarkTitleSearch(int size) {
+		Library library = new Library();
+		for (int i = 0; i < size; i++) {
+			library.addBook(createBook(i));
+		}
+
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(new ByteArrayOutputStream()));
+		int searches = 1000;
+		long start = System.nanoTime();
+		try {
+			for (int i = 0; i < searches; i++) {
+				library.displayBooksByTitleQuery("title " + ((i * 7919) % size));
+			}
+		} finally {
+			System.setOut(out);
+		}
+		long elapsed = System.nanoTime() - start;
+
+		System.out.printf("title search %,12d books  %8.1f us/search%n", size,
+				elapsed / 1000.0 / searches);
+	}
+
+	/**
+	 * Estimates the heap retained per Book, and the extra heap each book
+	 * would retain if its details were held in a LinkedHashMap as they used
+	 * to be. Sizes are taken from the change in used heap after garbage
+	 * collection, so they are approximate.
+	 *
+	 * @param size - The number of books to measure (int)
+	 */
+	private static void benchmarkBookFootprint(int size) {
+		long before = usedHeap();
+		Book[] books = new Book[size];
+		for (int i = 0; i < size; i++) {
+			books[i] = createBook(i);
+		}
+		long withBooks = usedHeap();
+
+		// Recreate the old per-book map layout around the same strings
+		Object[] maps = new Object[size];
+		for (int i = 0; i < size; i++) {
+			Map<String, Object> details = new LinkedHashMap<>();
+			details.put("ID Number", Integer.valueOf(books[i].getIDNumber() + 1000));
+			details.put("Author", books[i].getAuthor());
+			details.put("Title", books[i].getTitle());
+			details.put("ISBN Number", books[i].getISBNNumber());
+			details.put("Genre", books[i].getGenre());
+			maps[i] = details;
+		}
+		long withMaps = usedHeap();
+
+		System.out.printf(
+				"footprint    %,12d books  %8.1f bytes/book, map layout adds %.1f bytes/book (%d)%n",
+				size, (double) (withBooks - before) / size,
+				(double) (withMaps - withBooks) / size,
+				books.length + maps.length);
+	}
+
+	/**
+	 * Estimates the heap retained per Loan, and the extra heap each loan
+	 * would retain if its details were held in a LinkedHashMap of objects and
+	 * LocalDates as they used to be. All loans share one member and one book,
+	 * so only the loans themselves are measured.
+	 *
+	 * @param size - The number of loans to measure (int)
+	 */
+	private static void benchmarkLoanFootprint(int size) {
+		Member member;
+		try {
+			member = new Member("Michael", "Shields", "abc@xyz.com",
+					"07777777777", 1);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		Book book = createBook(1);
+		book.setIDNumber(1);
+		LocalDate today = LocalDate.now();
+
+		long before = usedHeap();
+		Loan[] loans = new Loan[size];
+		for (int i = 0; i < size; i++) {
+			LocalDate issueDate = today.minusDays(i % 1000);
+			loans[i] = new Loan(member, book, issueDate, issueDate.plusDays(21));
+		}
+		long withLoans = usedHeap();
+
+		// Recreate the old per-loan map layout, with its own dates
+		Object[] maps = new Object[size];
+		for (int i = 0; i < size; i++) {
+			Map<String, Object> details = new LinkedHashMap<>();
+			details.put("Member", member);
+			details.put("Book", book);
+			details.put("Issue Date", loans[i].getIssueDate());
+			details.put("Expiry Date", loans[i].getExpiryDate());
+			maps[i] = details;
+		}
+		long withMaps = usedHeap();
+
+		System.out.printf(
+				"footprint    %,12d loans  %8.1f bytes/loan, map layout adds %.1f bytes/loan (%d)%n",
+				size, (double) (withLoans - before) / size,
+				(double) (withMaps - withLoans) / size,
+				loans.length + maps.length);
+	}
+
+	/**
+	 * Times genre filtering and title search over the provided number of
+	 * books, held both as a list of Books and in a columnar BookStore, and
+	 * estimates the heap each layout retains per book
+	 *
+	 * @param size - The number of books (int)
+	 */
+	private static void benchmarkColumnarScans(int size) {
+		String[] genres = {"Fiction", "Non Fiction", "Poetry", "Computing"};
+
+		long before = usedHeap();
+		ArrayList<Book> books = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Book book = new Book("Author " + i, "Title " + i, genres[i % 4],
+					isbn13(i));
+			book.setIDNumber(i + 1);
+			books.add(book);
+		}
+		long withBooks = usedHeap();
+
+		BookStore store = new BookStore();
+		for (Book book : books) {
+			store.add(book);
+		}
+		long withStore = usedHeap();
+
+		String query = "title " + (size / 2);
+		int runs = 20;
+		long checksum = 0;
+		long start = System.nanoTime();
+		for (int run = 0; run < runs; run++) {
+			for (Book book : books) {
+				if (book.getGenre().equals("Poetry")) {
+					checksum++;
+				}
+				if (book.getTitle().toLowerCase(Locale.ROOT).contains(query)) {
+					checksum++;
+				}
+			}
+		}
+		long listElapsed = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int run = 0; run < runs; run++) {
+			checksum += store.findByGenre("Poetry").length;
+			checksum += store.findByTitle(query).length;
+		}
+		long storeElapsed = System.nanoTime() - start;
+
+		System.out.printf(
+				"columnar     %,12d books  list %8.1f ms/scan %6.1f bytes/book, store %8.1f ms/scan %6.1f bytes/book (%d)%n",
+				size, listElapsed / 1e6 / runs,
+				(double) (withBooks - before) / size,
+				storeElapsed / 1e6 / runs,
+				(double) (withStore - withBooks) / size, checksum);
+	}
+
+	/**
+	 * Estimates the heap retained per member by a library holding its
+	 * members on the heap, and by one holding them in a MemberStore, and
+	 * times getMemberByID against the store
+	 *
+	 * @param size - The number of members (int)
+	 */
+	private static void benchmarkMemberFootprint(int size) {
+		long before = usedHeap();
+		Library heapLibrary = new Library();
+		addMembers(heapLibrary, size);
+		long withHeapMembers = usedHeap();
+		heapLibrary = null;
+
+		long beforeStore = usedHeap();
+		Library storeLibrary = new Library(new MemberStore());
+		addMembers(storeLibrary, size);
+		long withStoreMembers = usedHeap();
+
+		long checksum = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < LOOKUPS; i++) {
+			checksum += storeLibrary.getMemberByID(1 + (int) ((i * 7919L) % size))
+					.getLastName().length();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		System.out.printf(
+				"members      %,12d members  heap %8.1f bytes/member, store %8.1f bytes/member on heap, %.1f ns/lookup (%d)%n",
+				size, (double) (withHeapMembers - before) / size,
+				(double) (withStoreMembers - beforeStore) / size,
+				(double) elapsed / LOOKUPS, checksum);
+	}
+
+	/**
+	 * Adds members with unique email addresses to a library
+	 *
+	 * @param library - The library (Library)
+	 *
+	 * @param size - The number of members to add (int)
+	 */
+	private static void addMembers(Library library, int size) {
+		try {
+			for (int i = 0; i < size; i++) {
+				library.addMember(new Member("First " + i, "Last " + i,
+						"member" + i + "@xyz.com", "07777777777"));
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Measures the throughput of a library shared between 1, 2, 4 and 8
+	 * threads, each performing pseudo random getBookByID lookups with one
+	 * addBook in every thousand operations
+	 *
+	 * @param size - The number of books in the library at the start (int)
+	 */
+	private static void benchmarkConcurrentLookups(int size) {
+		Library library = new Library();
+		for (int i = 0; i < size; i++) {
+			library.addBook(createBook(i));
+		}
+		AtomicInteger nextBook = new AtomicInteger(size);
+
+		for (int threads = 1; threads <= 8; threads *= 2) {
+			int operations = LOOKUPS / threads;
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			List<Callable<Long>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int seed = 12345 + t;
+				tasks.add(() -> {
+					long checksum = 0;
+					int random = seed;
+					for (int i = 0; i < operations; i++) {
+						if (i % 1000 == 999) {
+							library.addBook(createBook(nextBook.getAndIncrement()));
+						} else {
+							random = random * 1103515245 + 12345;
+							checksum += library.getBookByID(1 + ((random >>> 1) % size))
+									.getIDNumber();
+						}
+					}
+					return checksum;
+				});
+			}
+
+			long checksum = 0;
+			long start = System.nanoTime();
+			try {
+				for (Future<Long> result : executor.invokeAll(tasks)) {
+					checksum += result.get();
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				throw new IllegalStateException(e);
+			} finally {
+				executor.shutdown();
+			}
+			long elapsed = System.nanoTime() - start;
+
+			System.out.printf(
+					"concurrent   %,12d books  %d threads  %8.2f M ops/s  (%d)%n",
+					size, threads,
+					(double) operations * threads / elapsed * 1000, checksum);
+		}
+	}
+
+	/**
+	 * Measures how many records per second a CsvImporter imports from a file
+	 * of the provided number of books, validating on one thread and on the
+	 * common fork-join pool
+	 *
+	 * @param size - The number of books in the file (int)
+	 */
+	private static void benchmarkImport(int size) {
+		StringBuilder csv = new StringBuilder("Author,Title,Genre,ISBN Number\n");
+		for (int i = 0; i < size; i++) {
+			csv.append("Author ").append(i).append(",Title ").append(i)
+					.append(",Fiction,").append(isbn13(i)).append('\n');
+		}
+		String file = csv.toString();
+
+		ForkJoinPool singleThread = new ForkJoinPool(1);
+		try {
+			for (ForkJoinPool pool : new ForkJoinPool[] {singleThread,
+					ForkJoinPool.commonPool()}) {
+				ImportReport report = new CsvImporter(new Library(), pool,
+						CsvImporter.DEFAULT_CHUNK_SIZE).importBooks(new StringReader(file));
+
+				System.out.printf("import       %,12d books  %d threads  %,12.0f records/s%n",
+						size, pool.getParallelism(), report.getRecordsPerSecond());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			singleThread.shutdown();
+		}
+	}
+
+	/**
+	 * Times copying the books with getBooks against taking a snapshot of an
+	 * unchanged library, and of a library whose loans have changed
+	 *
+	 * @param size - The number of books in the library (int)
+	 */
+	private static void benchmarkSnapshots(int size) {
+		Library library = new Library();
+		Member member;
+		try {
+			member = new Member("Desk", "Desk", "desk@xyz.com", "07777777777");
+			library.addMember(member);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+		for (int i = 0; i < size; i++) {
+			library.addBook(createBook(i));
+		}
+		Book book = library.getBooks().get(0);
+		int reads = 1000;
+
+		long checksum = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < reads; i++) {
+			checksum += library.getBooks().size();
+		}
+		long copyElapsed = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < reads; i++) {
+			checksum += library.getSnapshot().getBooks().size();
+		}
+		long unchangedElapsed = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < reads; i++) {
+			library.addLoan(member, book);
+			checksum += library.getSnapshot().getBooks().size();
+			library.removeLoan(member, book);
+		}
+		long changedElapsed = System.nanoTime() - start;
+
+		System.out.printf(
+				"snapshot     %,12d books  getBooks %8.1f us, unchanged %8.3f us, after a loan %8.1f us  (%d)%n",
+				size, copyElapsed / 1000.0 / reads, unchangedElapsed / 1000.0 / reads,
+				changedElapsed / 1000.0 / reads, checksum);
+	}
+
+	/**
+	 * Measures how many ID numbers per second 1, 2, 4 and 8 threads are
+	 * issued by an IDAllocator, and by a synchronized counter for comparison
+	 */
+	private static void benchmarkIDAllocation() {
+		int perThread = 10_000_000;
+		IDAllocator allocator = new IDAllocator(1024);
+		Object counterLock = new Object();
+		int[] counter = new int[1];
+
+		for (int threads = 1; threads <= 8; threads *= 2) {
+			double allocatorRate = measureIDRate(threads, perThread,
+					allocator::next);
+			double counterRate = measureIDRate(threads, perThread, () -> {
+				synchronized (counterLock) {
+					return ++counter[0];
+				}
+			});
+
+			System.out.printf(
+					"ID numbers   %d threads  allocator %8.1f M/s, synchronized counter %8.1f M/s%n",
+					threads, allocatorRate, counterRate);
+		}
+	}
+
+	/**
+	 * Measures how many ID numbers per second some threads are issued
+	 *
+	 * @param threads - The number of threads (int)
+	 *
+	 * @param perThread - The number of ID numbers issued to each thread (int)
+	 *
+	 * @param issuer - Issues an ID number (IntSupplier)
+	 *
+	 * @return rate - Millions of ID numbers issued per second (double)
+	 */
+	private static double measureIDRate(int threads, int perThread,
+			IntSupplier issuer) {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Callable<Long>> tasks = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			tasks.add(() -> {
+				long checksum = 0;
+				for (int i = 0; i < perThread; i++) {
+					checksum += issuer.getAsInt();
+				}
+				return checksum;
+			});
+		}
+
+		long start = System.nanoTime();
+		try {
+			for (Future<Long> result : executor.invokeAll(tasks)) {
+				result.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			executor.shutdown();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		return (double) threads * perThread / elapsed * 1000;
+	}
+
+	/**
+	 * Measures how many loans per second 1, 2, 4 and 8 desks add and remove,
+	 * each desk loaning its own books, so that only the library itself is
+	 * shared between them
+	 */
+	private static void benchmarkCheckouts() {
+		int perThread = 1_000_000;
+		int booksPerThread = 64;
+
+		for (int threads = 1; threads <= 8; threads *= 2) {
+			Library library = new Library();
+			Member[] desks = new Member[threads];
+			Book[][] books = new Book[threads][booksPerThread];
+			try {
+				for (int t = 0; t < threads; t++) {
+					desks[t] = new Member("Desk", "Desk", "desk" + t + "@xyz.com",
+							"07777777777");
+					library.addMember(desks[t]);
+					for (int b = 0; b < booksPerThread; b++) {
+						books[t][b] = createBook(t * booksPerThread + b);
+						library.addBook(books[t][b]);
+					}
+				}
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			List<Callable<Long>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				Member desk = desks[t];
+				Book[] deskBooks = books[t];
+				tasks.add(() -> {
+					for (int i = 0; i < perThread; i++) {
+						Book book = deskBooks[i % booksPerThread];
+						library.addLoan(desk, book);
+						library.removeLoan(desk, book);
+					}
+					return 0L;
+				});
+			}
+
+			long start = System.nanoTime();
+			try {
+				for (Future<Long> result : executor.invokeAll(tasks)) {
+					result.get();
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				throw new IllegalStateException(e);
+			} finally {
+				executor.shutdown();
+			}
+			long elapsed = System.nanoTime() - start;
+
+			System.out.printf("checkouts    %d threads  %8.2f M loans/s%n", threads,
+					(double) threads * perThread / elapsed * 1000);
+		}
+	}
+
+	/**
+	 * Measures how many loans per second 1, 2, 4 and 8 desks add and remove
+	 * on a sharded library with a shard per desk, for comparison with
+	 * benchmarkCheckouts
+	 */
+	private static void benchmarkShardedCheckouts() {
+		int perThread = 200_000;
+		int booksPerThread = 64;
+
+		for (int threads = 1; threads <= 8; threads *= 2) {
+			ShardedLibrary library = new ShardedLibrary(threads);
+			Member[] desks = new Member[threads];
+			Book[][] books = new Book[threads][booksPerThread];
+			try {
+				for (int t = 0; t < threads; t++) {
+					desks[t] = new Member("Desk", "Desk", "desk" + t + "@xyz.com",
+							"07777777777");
+					library.addMember(desks[t]);
+					for (int b = 0; b < booksPerThread; b++) {
+						books[t][b] = createBook(t * booksPerThread + b);
+						library.addBook(books[t][b]);
+					}
+				}
+			} catch (Exception e) {
+				library.close();
+				throw new IllegalStateException(e);
+			}
+
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			List<Callable<Long>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				Member desk = desks[t];
+				Book[] deskBooks = books[t];
+				tasks.add(() -> {
+					for (int i = 0; i < perThread; i++) {
+						Book book = deskBooks[i % booksPerThread];
+						library.addLoan(desk, book);
+						library.removeLoan(desk, book);
+					}
+					return 0L;
+				});
+			}
+
+			long start = System.nanoTime();
+			try {
+				for (Future<Long> result : executor.invokeAll(tasks)) {
+					result.get();
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				throw new IllegalStateException(e);
+			} finally {
+				executor.shutdown();
+				library.close();
+			}
+			long elapsed = System.nanoTime() - start;
+
+			System.out.printf("sharded      %d threads  %8.2f M loans/s%n", threads,
+					(double) threads * perThread / elapsed * 1000);
+		}
+	}
+
+	/**
+	 * Compares loaning and returning batches of books with addLoans and
+	 * removeLoans against calling addLoan and removeLoan for each book
+	 */
+	private static void benchmarkBatchCheckouts() {
+		int batchSize = 500;
+		int rounds = 2000;
+		Library library = new Library();
+		List<LoanRequest> requests = new ArrayList<>();
+		try {
+			Member member = new Member("Desk", "Desk", "desk@xyz.com", "07777777777");
+			library.addMember(member);
+			for (int b = 0; b < batchSize; b++) {
+				Book book = createBook(b);
+				library.addBook(book);
+				requests.add(new LoanRequest(member, book));
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+
+		for (int pass = 0; pass < 2; pass++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < rounds; i++) {
+				for (LoanRequest request : requests) {
+					library.addLoan(request.getMember(), request.getBook());
+				}
+				for (LoanRequest request : requests) {
+					library.removeLoan(request.getMember(), request.getBook());
+				}
+			}
+			long singleElapsed = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < rounds; i++) {
+				library.addLoans(requests);
+				library.removeLoans(requests);
+			}
+			long batchElapsed = System.nanoTime() - start;
+
+			System.out.printf(
+					"batch loans  %d per batch  single %8.1f ns/loan, batch %8.1f ns/loan%n",
+					batchSize, (double) singleElapsed / rounds / batchSize,
+					(double) batchElapsed / rounds / batchSize);
+		}
+	}
+
+	/**
+	 * Times creating members whose email addresses and phone numbers repeat
+	 * (so their validation results are cached), against members whose phone
+	 * numbers are all different
+	 */
+	private static void benchmarkMemberValidation() {
+		int count = 200_000;
+		for (int distinct : new int[] {1000, count}) {
+			long start = System.nanoTime();
+			try {
+				for (int i = 0; i < count; i++) {
+					int n = i % distinct;
+					new Member("First", "Last", "member" + n + "@xyz.com",
+							"0777" + String.format("%07d", n));
+				}
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+			long elapsed = System.nanoTime() - start;
+
+			System.out.printf("new Member   %,12d distinct  %8.1f ns/member%n", distinct,
+					(double) elapsed / count);
+		}
+	}
+
+	/**
+	 * Measures how long adding a member takes when each addition is made
+	 * durable by a journal, for 1, 4 and 16 threads adding at once, and how
+	 * many flushes to disk the journal's group commit needed
+	 */
+	private static void benchmarkJournal() {
+		int total = 4_000;
+		for (int threads = 1; threads <= 16; threads *= 4) {
+			int perThread = total / threads;
+			int thread = threads;
+			try {
+				Path path = Files.createTempFile("journal", ".log");
+				try (Journal journal = new Journal(path)) {
+					Library library = new Library(journal);
+					AtomicInteger counter = new AtomicInteger();
+					double rate = measureIDRate(threads, perThread, () -> {
+						int n = counter.incrementAndGet();
+						try {
+							library.addMember(new Member("First", "Last",
+									"member" + n + "@xyz.com", "07777777777"));
+						} catch (Exception e) {
+							throw new IllegalStateException(e);
+						}
+						return n;
+					});
+
+					System.out.printf(
+							"journal      %d threads  %8.1f us/member, %,d flushes for %,d members%n",
+							thread, 1.0 / rate, journal.getFlushCount(), thread * perThread);
+				} finally {
+					Files.deleteIfExists(path);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the heap in use after requesting garbage collection
+	 *
+	 * @return usedHeap - The heap in use in bytes (long)
+	 */
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Performs a number of pseudo random getBookByID lookups
+	 *
+	 * @param library - The library (Library)
+	 *
+	 * @param size - The number of books in the library (int)
+	 *
+	 * @param lookups - The number of lookups (int)
+	 *
+	 * @return checksum - A value derived from the results so that the lookups
+	 *                    cannot be optimised away (long)
+	 */
+	private static long lookup(Library library, int size, int lookups) {
+		long checksum = 0;
+		int seed = 12345;
+		for (int i = 0; i < lookups; i++) {
+			seed = seed * 1103515245 + 12345;
+			int idNumber = 1 + ((seed >>> 1) % size);
+			checksum += library.getBookByID(idNumber).getIDNumber();
+		}
+		return checksum;
+	}
+
+	/**
+	 * Creates a book with a unique, valid ISBN-13 number
+	 *
+	 * @param n - The sequence number of the book (int)
+	 *
+	 * @return book - The book (Book)
+	 */
+	static Book createBook(int n) {
+		return new Book("Author " + n, "Title " + n, "Fiction", isbn13(n));
+	}
+
+	/**
+	 * Generates a valid ISBN-13 number in the 978 prefix range
+	 *
+	 * @param n - The sequence number of the ISBN (long)
+	 *
+	 * @return isbn - The ISBN-13 number (String)
+	 */
+	static String isbn13(long n) {
+		String digits = "978" + String.format("%09d", n);
+		int sum = 0;
+		for (int i = 0; i < 12; i++) {
+			int digit = digits.charAt(i) - '0';
+			sum += (i % 2 == 0) ? digit : digit * 3;
+		}
+		return digits + ((10 - sum % 10) % 10);
+	}
+}
@@ -0,0 +1,168 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A stand-alone load test for the LibraryServer class. Concurrent clients
+ * repeatedly look up members and books and search titles over HTTP, and the
+ * p50 and p99 latencies of their requests are reported. It is run from its
+ * main method rather than as part of the JUnit suite, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=uk.co.michaelshields.assignment_1.LibraryServerBenchmark \
+ *     -Dexec.args="10 100 1000"
+ * </pre>
+ *
+ * The arguments are the numbers of concurrent clients to be measured.
+ *
+ * @see <a href="LibraryServer.html">LibraryServer</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class LibraryServerBenchmark {
+	/** The number of books and of members in the library */
+	private static final int SIZE = 10_000;
+	/** The number of requests each client sends */
+	private static final int REQUESTS = 20_000;
+
+	/**
+	 * Runs the load test
+	 *
+	 * @param args - The numbers of concurrent clients to be measured
+	 *
+	 * @throws Exception - If the library cannot be set up or served
+	 */
+	public static void main(String[] args) throws Exception {
+		int[] clientCounts = {10, 100, 1000};
+		if (args.length > 0) {
+			clientCounts = new int[args.length];
+			for (int i = 0; i < args.length; i++) {
+				clientCounts[i] = Integer.parseInt(args[i]);
+			}
+		}
+
+		Library library = new Library();
+		for (int n = 0; n < SIZE; n++) {
+			library.addBook(LibraryBenchmark.createBook(n));
+			library.addMember(new Member("Member", "Surname" + n, "member" + n + "@xyz.com",
+					"07777777777"));
+		}
+
+		try (LibraryServer server = new LibraryServer(library, 0)) {
+			server.start();
+			String base = "http://localhost:" + server.getPort();
+			String[] paths = {"/books/", "/members/", "/search/books?q=Title+"};
+
+			for (int clients : clientCounts) {
+				long[] latencies = run(base, paths, clients, Math.max(1, REQUESTS / clients));
+				System.out.printf("http  %5d clients  %8d requests  p50 %8.1f us  p99 %8.1f us%n",
+						clients, latencies.length, percentile(latencies, 50) / 1000.0,
+						percentile(latencies, 99) / 1000.0);
+			}
+		}
+	}
+
+	/**
+	 * Runs the clients, each on a thread of its own, and returns every
+	 * request's latency in nanoseconds, sorted
+	 *
+	 * @param base - The server's address (String)
+	 *
+	 * @param paths - The paths requested, which an ID number is appended to
+	 *                (String[])
+	 *
+	 * @param clients - The number of clients (int)
+	 *
+	 * @param perClient - The number of requests each client sends (int)
+	 *
+	 * @return latencies - The sorted latencies (long[])
+	 *
+	 * @throws InterruptedException - If interrupted while waiting for the clients
+	 *
+	 * @throws ExecutionException - If a request fails
+	 */
+	private static long[] run(String base, String[] paths, int clients, int perClient)
+			throws InterruptedException, ExecutionException {
+		ExecutorService executor = LibraryServer.newRequestExecutor();
+		List<Callable<long[]>> tasks = new ArrayList<>();
+		for (int c = 0; c < clients; c++) {
+			int client = c;
+			tasks.add(() -> {
+				long[] latencies = new long[perClient];
+				for (int i = 0; i < perClient; i++) {
+					int n = (client * perClient + i) % SIZE;
+					String path = paths[i % paths.length];
+					// Books and members were added in turn, so books have odd ID
+					// numbers and members even ones
+					String id = path.equals("/books/") ? Integer.toString(2 * n + 1)
+							: path.equals("/members/") ? Integer.toString(2 * n + 2)
+							: Integer.toString(n);
+					long start = System.nanoTime();
+					get(base + path + id);
+					latencies[i] = System.nanoTime() - start;
+				}
+				return latencies;
+			});
+		}
+
+		long[] all = new long[clients * perClient];
+		int filled = 0;
+		try {
+			for (Future<long[]> result : executor.invokeAll(tasks)) {
+				long[] latencies = result.get();
+				System.arraycopy(latencies, 0, all, filled, latencies.length);
+				filled += latencies.length;
+			}
+		} finally {
+			executor.shutdown();
+		}
+		Arrays.sort(all);
+		return all;
+	}
+
+	/**
+	 * Sends a GET request and reads its response
+	 *
+	 * @param address - The URL (String)
+	 *
+	 * @throws IOException - If the request fails or is refused
+	 */
+	private static void get(String address) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(address).openConnection();
+		if (connection.getResponseCode() != 200) {
+			throw new IOException(address + " returned " + connection.getResponseCode());
+		}
+		try (InputStream in = connection.getInputStream()) {
+			byte[] buffer = new byte[4096];
+			while (in.read(buffer) != -1) {
+				// Read the whole response so the connection can be reused
+			}
+		}
+	}
+
+	/**
+	 * Returns a percentile of sorted latencies
+	 *
+	 * @param sorted - The sorted latencies (long[])
+	 *
+	 * @param percentile - The percentile (int)
+	 *
+	 * @return latency - The latency (long)
+	 */
+	private static long percentile(long[] sorted, int percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, index)];
+	}
+}
@@ -0,0 +1,187 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the LibraryServer class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="LibraryServer.html">LibraryServer</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("LibraryServer Tests")
+public class LibraryServerTest {
+	/**
+	 * Sends a request to a server and returns the status followed by the
+	 * body
+	 *
+	 * @param server - The server (LibraryServer)
+	 *
+	 * @param method - The HTTP method (String)
+	 *
+	 * @param path - The path and query string (String)
+	 *
+	 * @param form - The form encoded body, or null (String)
+	 *
+	 * @return response - The status, a space, and the body (String)
+	 *
+	 * @throws IOException - If the request fails
+	 */
+	static String send(LibraryServer server, String method, String path, String form)
+			throws IOException {
+		URL url = new URL("http://localhost:" + server.getPort() + path);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setRequestMethod(method);
+		if (form != null) {
+			connection.setDoOutput(true);
+			connection.setRequestProperty("Content-Type",
+					"application/x-www-form-urlencoded");
+			try (OutputStream out = connection.getOutputStream()) {
+				out.write(form.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+
+		int status = connection.getResponseCode();
+		InputStream in = status < 400 ? connection.getInputStream()
+				: connection.getErrorStream();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		try {
+			byte[] buffer = new byte[4096];
+			for (int read; (read = in.read(buffer)) != -1;) {
+				body.write(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+		return status + " " + new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Verifies that members and books are added, found, searched for and
+	 * removed through the API
+	 */
+	@Test
+	@DisplayName("members and books are managed through the API")
+	public void membersAndBooks() {
+		try (LibraryServer server = new LibraryServer(new Library(), 0)) {
+			server.start();
+
+			assertEquals("201 {\"idNumber\":1,\"firstName\":\"Jane\",\"lastName\":\"Smith\","
+					+ "\"email\":\"a@xyz.com\",\"phoneNumber\":\"07777777777\"}",
+					send(server, "POST", "/members",
+							"firstName=Jane&lastName=Smith&email=a%40xyz.com&phoneNumber=07777777777"),
+					"the added member should be returned");
+			assertTrue(send(server, "POST", "/books",
+					"author=G.+Loy&title=Musimathics+Vol+1&genre=Non+Fiction&isbnNumber=9780262516556")
+					.startsWith("201 {\"idNumber\":2"), "the added book should be returned");
+
+			assertTrue(send(server, "GET", "/members/1", null).contains("\"Smith\""),
+					"the member should be found by ID number");
+			assertTrue(send(server, "GET", "/search/books?q=musi", null)
+					.contains("\"Musimathics Vol 1\""), "the book should be found by title");
+			assertTrue(send(server, "GET", "/search/members?q=sm", null)
+					.contains("\"Smith\""), "the member should be found by last name");
+			assertEquals("200 []", send(server, "GET", "/search/books?q=java", null),
+					"no books should match");
+
+			assertEquals("404 {\"error\":\"No member with that ID number was found!\"}",
+					send(server, "GET", "/members/9", null),
+					"a missing member should not be found");
+			assertTrue(send(server, "GET", "/members/x", null).startsWith("400 "),
+					"an ID number that is not a number should be refused");
+			assertTrue(send(server, "POST", "/members", "firstName=Jim").startsWith("400 "),
+					"a member without details should be refused");
+			assertTrue(send(server, "PUT", "/books", null).startsWith("405 "),
+					"unsupported methods should be refused");
+
+			assertEquals("200 {\"deleted\":2}", send(server, "DELETE", "/books/2", null),
+					"the book should be removed");
+			assertEquals("200 []", send(server, "GET", "/books", null),
+					"no books should remain");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that loans are added, listed as overdue and returned through
+	 * the API, and that conflicting requests are refused
+	 */
+	@Test
+	@DisplayName("loans are managed through the API")
+	public void loans() {
+		try {
+			Library library = new Library();
+			Member member = new Member("Jane", "Smith", "a@xyz.com", "07777777777");
+			Book book = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+					"9780262516556");
+			library.addMember(member);
+			library.addBook(book);
+			String loan = "memberID=" + member.getIDNumber() + "&bookID=" + book.getIDNumber();
+
+			try (LibraryServer server = new LibraryServer(library, 0)) {
+				server.start();
+
+				assertTrue(send(server, "POST", "/loans", loan).startsWith("201 "),
+						"the loan should be added");
+				assertTrue(send(server, "POST", "/loans", loan).startsWith("409 "),
+						"a book on loan should not be loaned again");
+				assertTrue(send(server, "DELETE", "/members/" + member.getIDNumber(), null)
+						.startsWith("409 "), "a member with loans should not be removed");
+
+				assertEquals("200 []", send(server, "GET", "/overdue", null),
+						"no loan should be overdue today");
+				String overdue = send(server, "GET", "/overdue?date="
+						+ library.getLoan(member, book).getExpiryDate().plusDays(1), null);
+				assertTrue(overdue.startsWith("200 [{\"memberID\":" + member.getIDNumber()),
+						"the loan should be overdue after it expires");
+				assertTrue(send(server, "GET", "/overdue?date=soon", null).startsWith("400 "),
+						"an invalid date should be refused");
+
+				assertEquals("200 {\"deleted\":" + book.getIDNumber() + "}",
+						send(server, "DELETE", "/loans?" + loan, null),
+						"the loan should be returned");
+				assertEquals("200 []", send(server, "GET", "/loans", null),
+						"no loans should remain");
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that JSON strings are escaped and that maps, lists, numbers
+	 * and null are written as JSON
+	 */
+	@Test
+	@DisplayName("Json writes escaped JSON values")
+	public void json() {
+		Map<String, Object> object = new LinkedHashMap<>();
+		object.put("text", "say \"hi\"\\\n");
+		object.put("numbers", Arrays.asList(1, 2.5, true, null));
+
+		assertEquals("{\"text\":\"say \\\"hi\\\"\\\\\\u000a\",\"numbers\":[1,2.5,true,null]}",
+				LibraryServer.Json.write(object),
+				"the JSON should be escaped and nested");
+	}
+}
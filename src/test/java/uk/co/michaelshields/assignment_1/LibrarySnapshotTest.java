@@ -0,0 +1,157 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the LibrarySnapshot class and the Library's
+ * getSnapshot method
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="LibrarySnapshot.html">LibrarySnapshot</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("LibrarySnapshot Tests")
+public class LibrarySnapshotTest {
+	Library library;
+	Member member;
+	Book book1;
+	Book book2;
+
+	/**
+	 * Creates a library holding a member and two books
+	 *
+	 * @throws Exception - If the member cannot be created
+	 */
+	@BeforeEach
+	void instantiateLibrary() throws Exception {
+		library = new Library();
+		member = new Member("Michael", "Shields", "abc@xyz.com", "07777777777");
+		book1 = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction", "9780262516556");
+		book2 = new Book("G. Loy", "Musimathics Vol 2", "Non Fiction", "9780262516563");
+		library.addMember(member);
+		library.addBook(book1);
+		library.addBook(book2);
+	}
+
+	/**
+	 * Verifies that a snapshot does not change when the library does, and
+	 * that the same snapshot is returned until the library changes
+	 */
+	@Test
+	@DisplayName("getSnapshot returns a point in time view")
+	public void pointInTime() {
+		LibrarySnapshot before = library.getSnapshot();
+
+		assertSame(before, library.getSnapshot(),
+				"the snapshot should be reused while the library is unchanged");
+
+		library.addLoan(member, book1);
+		library.removeBookByID(book2.getIDNumber());
+		LibrarySnapshot after = library.getSnapshot();
+
+		assertEquals(2, before.getBooks().size(), "the old snapshot should not change");
+		assertTrue(before.getLoans().isEmpty(), "the old snapshot should not change");
+		assertEquals(1, after.getBooks().size(), "the new snapshot should see the removal");
+		assertEquals(1, after.getLoans().size(), "the new snapshot should see the loan");
+		assertNotEquals(before.getVersion(), after.getVersion(),
+				"the version should change with the library");
+		assertSame(before.getMembers(), after.getMembers(),
+				"unchanged collections should be shared between snapshots");
+		assertThrows(UnsupportedOperationException.class,
+				() -> after.getBooks().clear(), "the snapshot should be immutable");
+	}
+
+	/**
+	 * Verifies that getExpiredLoans returns the loans expiring before the
+	 * date, in expiry date order
+	 */
+	@Test
+	@DisplayName("getExpiredLoans returns the loans that expire before a date")
+	public void getExpiredLoans() {
+		try {
+			library.addLoan(member, book1);
+			library.addLoan(member, book2);
+			LibrarySnapshot snapshot = library.getSnapshot();
+			LocalDate expiry = library.getLoan(member, book1).getExpiryDate();
+
+			List<Loan> expired = snapshot.getExpiredLoans(expiry.plusDays(1));
+
+			assertEquals(2, expired.size(), "both loans should have expired");
+			assertSame(book1, expired.get(0).getBook(),
+					"loans should be ordered by expiry date and then book");
+			assertTrue(snapshot.getExpiredLoans(expiry).isEmpty(),
+					"loans expiring on the date should not have expired");
+			assertThrows(IllegalArgumentException.class,
+					() -> snapshot.getExpiredLoans(null),
+					"an error should be thrown if the date is null");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that snapshots taken while other threads loan and return
+	 * books hold each loaned book once, and that a snapshot taken once the
+	 * threads have finished sees every loan returned
+	 */
+	@Test
+	@DisplayName("getSnapshot copies loans that are changing")
+	public void changingLoans() {
+		try {
+			List<Book> books = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				Book book = new Book("Author " + i, "Title " + i, "Fiction",
+						LibraryBenchmark.isbn13(i));
+				library.addBook(book);
+				books.add(book);
+			}
+
+			List<Thread> desks = new ArrayList<>();
+			for (Book book : books) {
+				Thread desk = new Thread(() -> {
+					for (int n = 0; n < 2_000; n++) {
+						library.addLoan(member, book);
+						library.removeLoan(member, book);
+					}
+				});
+				desks.add(desk);
+				desk.start();
+			}
+
+			while (desks.stream().anyMatch(Thread::isAlive)) {
+				LibrarySnapshot snapshot = library.getSnapshot();
+				Set<Book> loaned = new HashSet<>();
+				for (Loan loan : snapshot.getLoans()) {
+					assertTrue(loaned.add(loan.getBook()), "a book should be loaned once");
+				}
+			}
+			for (Thread desk : desks) {
+				desk.join();
+			}
+
+			assertTrue(library.getSnapshot().getLoans().isEmpty(),
+					"every loan should have been returned");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+}
@@ -13,9 +13,23 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * A suite of JUnit tests for the Library class
@@ -172,6 +186,30 @@ public class LibraryTest {
 			fail(e.getMessage());
 		}
 	}
+
+	/**
+	 * Verifies that addMember throws if a member's email differs from an
+	 * existing member's email only by case
+	 */
+	@Test
+	@DisplayName("addMember throws if email is duplicate ignoring case")
+	public void addMemberWithDuplicateEmailIgnoringCase() {
+		try {
+			Member member = new Member("Michael", "Shields", "abc@xyz.com",
+					"07777777777");
+			Member memberDuplicateEmail = new Member("Jim", "Jones",
+					"ABC@xyz.com", "07777777777");
+			library.addMember(member);
+
+			assertThrows(IllegalArgumentException.class,
+					() -> library.addMember(memberDuplicateEmail),
+					"an error should be thrown if member's email differs only by case");
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
 	
 	/**
 	 * Verifies that getMemberByID throws if the ID number is invalid
@@ -505,6 +543,477 @@ public class LibraryTest {
 		}
 	}
 
+	/**
+	 * Verifies that displayMemberByLastNameQuery displays the members whose
+	 * last names start with the query first, followed by those whose last
+	 * names contain it elsewhere
+	 */
+	@Test
+	@DisplayName("displayMemberByLastNameQuery displays last name prefix matches first")
+	public void displayMemberByLastNameQueryPrefix() {
+		try {
+			Member member1 = new Member("Jim", "Jones", "abc@xyz.com",
+					"07777777777");
+			Member member2 = new Member("Tom", "Ong", "xyz@abc.com",
+					"07777777777");
+			library.addMember(member1);
+			library.addMember(member2);
+
+			// Create a test stream to accept a print stream
+			ByteArrayOutputStream testStream = new ByteArrayOutputStream();
+			PrintStream standardOut = System.out;
+
+			// Redirect the standard out to the test stream via a new print
+			// stream
+			System.setOut(new PrintStream(testStream));
+
+			library.displayMembersByLastNameQuery("ON");
+			String output = testStream.toString();
+
+			// Reinstate the standard output stream
+			System.setOut(standardOut);
+
+			assertTrue(output.contains("Jones"),
+					"members whose last names contain the query should be displayed");
+			assertTrue(output.indexOf("Ong") < output.indexOf("Jones"),
+					"members whose last names start with the query should be displayed first");
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that findMembersByLastNameQuery returns the members whose last
+	 * names start with a plain query, in last name order, followed by those
+	 * whose last names contain it elsewhere, whether the library holds its
+	 * members on the heap or in a member store
+	 */
+	@Test
+	@DisplayName("findMembersByLastNameQuery finds prefix and then substring matches")
+	public void findMembersByLastNameQuery() {
+		try {
+			for (Library searched : new Library[] { library, new Library(new MemberStore()) }) {
+				searched.addMember(new Member("Ann", "Goldsmith", "a@xyz.com", "07777777777"));
+				searched.addMember(new Member("Jane", "Smyth", "b@xyz.com", "07777777777"));
+				searched.addMember(new Member("Jim", "Jones", "c@xyz.com", "07777777777"));
+				searched.addMember(new Member("Tom", "Smith", "d@xyz.com", "07777777777"));
+
+				List<String> lastNames = new ArrayList<>();
+				for (Member member : searched.findMembersByLastNameQuery("SM")) {
+					lastNames.add(member.getLastName());
+				}
+				assertEquals(Arrays.asList("Smith", "Smyth", "Goldsmith"), lastNames,
+						"prefix matches should be followed by substring matches");
+				assertTrue(searched.findMembersByLastNameQuery("xyz").isEmpty(),
+						"no member should match");
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that a library holding its members in a member store finds,
+	 * searches, lends to and removes members as a library holding them on
+	 * the heap does
+	 */
+	@Test
+	@DisplayName("Library with a member store manages members")
+	public void memberStoreLibrary() {
+		try {
+			Library storeLibrary = new Library(new MemberStore());
+			storeLibrary.addMember(new Member("Jim", "Jones", "abc@xyz.com",
+					"07777777777"));
+			storeLibrary.addMember(new Member("Tom", "Ong", "xyz@abc.com",
+					"07777777777"));
+			Book book = new Book("Gareth Loy", "Musimathics Vol 1",
+					"Non Fiction", "9780262516556");
+			storeLibrary.addBook(book);
+
+			Member member = storeLibrary.getMemberByID(2);
+			assertEquals("Ong", member.getLastName(),
+					"the stored member should be found by ID number");
+
+			assertThrows(IllegalArgumentException.class,
+					() -> storeLibrary.addMember(new Member("Tim", "Jones",
+							"ABC@xyz.com", "07777777777")),
+					"an error should be thrown if the email is already registered");
+
+			storeLibrary.addLoan(member, book);
+			assertEquals(member.getIDNumber(),
+					storeLibrary.getLoan(storeLibrary.getMemberByID(2), book)
+							.getMemberIDNumber(),
+					"a loan should be found from another view of the member");
+			assertThrows(IllegalStateException.class,
+					() -> storeLibrary.removeMemberByID(2),
+					"an error should be thrown if the member has books to return");
+
+			ByteArrayOutputStream testStream = new ByteArrayOutputStream();
+			PrintStream standardOut = System.out;
+			System.setOut(new PrintStream(testStream));
+			storeLibrary.displayMembersByLastNameQuery("jo");
+			System.setOut(standardOut);
+
+			assertTrue(testStream.toString().contains("Jones"),
+					"members whose last names start with the query should be displayed");
+
+			storeLibrary.removeMemberByID(1);
+			assertThrows(NoSuchElementException.class,
+					() -> storeLibrary.getMemberByID(1),
+					"an error should be thrown if the member has been removed");
+			assertEquals(1, storeLibrary.getMembers().size(),
+					"a removed member should not be in the members collection");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that a library opened on a mapped catalogue finds, searches,
+	 * lends and removes the catalogue's books as a library holding them on
+	 * the heap does, alongside books added since
+	 */
+	@Test
+	@DisplayName("Library with a mapped catalogue manages books")
+	public void catalogueLibrary() {
+		try {
+			Path path = Files.createTempFile("catalogue", ".bin");
+			try {
+				MappedCatalog.write(path, MappedCatalogTest.createBooks());
+				Library catalogueLibrary = new Library(new MappedCatalog(path));
+				Member member = new Member("Jim", "Jones", "abc@xyz.com", "07777777777");
+				catalogueLibrary.addMember(member);
+				assertTrue(member.getIDNumber() > 7,
+						"ID numbers should be issued after the catalogue's");
+
+				Book book = catalogueLibrary.getBookByID(2);
+				assertEquals("Musimathics Vol 1", book.getTitle(),
+						"a catalogue book should be found by ID number");
+				assertTrue(book == catalogueLibrary.getBookByID(2),
+						"a catalogue book should be the same Book each time");
+
+				assertThrows(IllegalStateException.class,
+						() -> catalogueLibrary.addBook(new Book("G. Loy", "Musimathics",
+								"Non Fiction", "978-0-262-51655-6")),
+						"an error should be thrown if a catalogue book has the ISBN number");
+				Book added = new Book("A. Author", "Musical Java", "Non Fiction", "9780262516549");
+				catalogueLibrary.addBook(added);
+				assertEquals(4, catalogueLibrary.getBooks().size(),
+						"the books should include the catalogue's and those added");
+				assertEquals(4, catalogueLibrary.getBookCount(),
+						"the books should be counted without creating them");
+
+				List<Book> matches = catalogueLibrary.findBooksByTitleQuery("musi");
+				assertEquals(Arrays.asList(book, added), matches,
+						"catalogue books and added books should be searched by title");
+				assertEquals(1, catalogueLibrary.findBooksByTitleQuery("^eff").size(),
+						"catalogue titles should be matched against patterns");
+
+				catalogueLibrary.addLoan(member, book);
+				assertEquals(member.getIDNumber(),
+						catalogueLibrary.getLoan(member, book).getMemberIDNumber(),
+						"a catalogue book should be loaned");
+				assertThrows(IllegalStateException.class,
+						() -> catalogueLibrary.removeBookByID(2),
+						"an error should be thrown if the catalogue book is on loan");
+				catalogueLibrary.removeLoan(member, book);
+
+				catalogueLibrary.removeBookByID(2);
+				assertThrows(NoSuchElementException.class,
+						() -> catalogueLibrary.getBookByID(2),
+						"an error should be thrown if the catalogue book has been removed");
+				assertEquals(3, catalogueLibrary.getBooks().size(),
+						"a removed catalogue book should not be in the books collection");
+				assertEquals(3, catalogueLibrary.getBookCount(),
+						"a removed catalogue book should not be counted");
+				List<Book> books = catalogueLibrary.getBooks();
+				assertEquals(books, catalogueLibrary.getSnapshot().getBooks(),
+						"the snapshot should hold the same books");
+				catalogueLibrary.addBook(new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+						"9780262516556"));
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that books added by several threads at once are all added,
+	 * with unique ID numbers, while other threads look them up
+	 */
+	@Test
+	@DisplayName("Library can be shared between threads")
+	public void concurrentAddBook() {
+		int threads = 4;
+		int booksPerThread = 500;
+		ExecutorService executor = Executors.newFixedThreadPool(threads * 2);
+		try {
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int first = t * booksPerThread;
+				tasks.add(executor.submit(() -> {
+					for (int i = first; i < first + booksPerThread; i++) {
+						library.addBook(new Book("Author " + i, "Title " + i,
+								"Fiction", LibraryBenchmark.isbn13(i)));
+					}
+				}));
+				tasks.add(executor.submit(() -> {
+					for (int i = 0; i < booksPerThread; i++) {
+						for (Book book : library.getBooks()) {
+							library.getBookByID(book.getIDNumber());
+						}
+					}
+				}));
+			}
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+
+			Set<Integer> idNumbers = new HashSet<>();
+			for (Book book : library.getBooks()) {
+				idNumbers.add(book.getIDNumber());
+			}
+			assertEquals(threads * booksPerThread, library.getBooks().size(),
+					"every book should have been added");
+			assertEquals(threads * booksPerThread, idNumbers.size(),
+					"every book should have a unique ID number");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Verifies that title searches running on several threads, while books
+	 * are added from several threads with their own blocks of ID numbers
+	 * (so ID numbers reach the title index out of order), each find every
+	 * matching book once and leave the title index intact
+	 */
+	@Test
+	@DisplayName("findBooksByTitleQuery can run while books are added")
+	public void concurrentTitleSearch() {
+		int threads = 4;
+		int booksPerThread = 500;
+		ExecutorService executor = Executors.newFixedThreadPool(threads * 2);
+		try {
+			AtomicInteger duplicates = new AtomicInteger();
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int first = t * booksPerThread;
+				tasks.add(executor.submit(() -> {
+					for (int i = first; i < first + booksPerThread; i++) {
+						library.addBook(new Book("Author " + i, "Shared Title " + i,
+								"Fiction", LibraryBenchmark.isbn13(i)));
+					}
+				}));
+				tasks.add(executor.submit(() -> {
+					for (int i = 0; i < booksPerThread; i++) {
+						List<Book> matches = library.findBooksByTitleQuery("shared title");
+						if (new HashSet<>(matches).size() != matches.size()) {
+							duplicates.incrementAndGet();
+						}
+					}
+				}));
+			}
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+
+			assertEquals(0, duplicates.get(), "no search should find a book twice");
+			assertEquals(threads * booksPerThread,
+					library.findBooksByTitleQuery("shared title").size(),
+					"every book should be found by its title");
+			assertEquals(1, library.findBooksByTitleQuery("Title 1234").size(),
+					"a single book should be found by its title");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Verifies that desks loaning and returning a few books at once never
+	 * loan a book twice, across millions of contended loans. Each desk
+	 * counts itself in as a book's holder when its loan succeeds, so a
+	 * second holder of a book means the book was loaned twice.
+	 */
+	@Test
+	@DisplayName("addLoan never loans a book twice between threads")
+	public void concurrentAddLoan() {
+		int threads = 8;
+		int attemptsPerThread = 250_000;
+		int bookCount = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			Book[] books = new Book[bookCount];
+			for (int b = 0; b < bookCount; b++) {
+				books[b] = new Book("Author " + b, "Title " + b, "Fiction",
+						LibraryBenchmark.isbn13(b));
+				library.addBook(books[b]);
+			}
+			Member[] desks = new Member[threads];
+			for (int t = 0; t < threads; t++) {
+				desks[t] = new Member("Desk", "Desk", "desk" + t + "@xyz.com",
+						"07777777777");
+				library.addMember(desks[t]);
+			}
+			AtomicIntegerArray holders = new AtomicIntegerArray(bookCount);
+			AtomicInteger doubleLoans = new AtomicInteger();
+			AtomicInteger loansAdded = new AtomicInteger();
+
+			List<Future<?>> tasks = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				Member desk = desks[t];
+				int seed = t;
+				tasks.add(executor.submit(() -> {
+					for (int i = 0; i < attemptsPerThread; i++) {
+						int b = (i + seed) % bookCount;
+						try {
+							library.addLoan(desk, books[b]);
+						} catch (IllegalStateException e) {
+							// Another desk holds the book
+							continue;
+						}
+						if (holders.incrementAndGet(b) != 1
+								|| library.getLoan(desk, books[b]).getMemberIDNumber()
+										!= desk.getIDNumber()) {
+							doubleLoans.incrementAndGet();
+						}
+						loansAdded.incrementAndGet();
+						holders.decrementAndGet(b);
+						library.removeLoan(desk, books[b]);
+					}
+				}));
+			}
+			for (Future<?> task : tasks) {
+				task.get();
+			}
+
+			assertEquals(0, doubleLoans.get(), "no book should be loaned twice");
+			assertTrue(loansAdded.get() > 0, "books should have been loaned");
+			assertTrue(library.getLoans().isEmpty(),
+					"every loan should have been removed");
+			for (Book book : books) {
+				assertDoesNotThrow(() -> library.removeBookByID(book.getIDNumber()),
+						"a returned book should not be on loan");
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Verifies that a desk returning a loan while another desk is still
+	 * storing it, as a retried checkout and return would, waits for the loan
+	 * to be stored and counted before removing it, so no loan is left behind
+	 * and the member can be removed afterwards
+	 */
+	@Test
+	@DisplayName("removeLoan waits for the same loan to be added on another thread")
+	public void concurrentSameLoan() {
+		CountDownLatch storing = new CountDownLatch(1);
+		CountDownLatch returned = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		Library library = new Library(new InMemoryRepository() {
+			@Override
+			public void addLoan(Loan loan) {
+				// Hold up storing the slow book's loan until it is returned,
+				// or for long enough that it would have been
+				if (loan.getBook().getTitle().equals("Slow")) {
+					storing.countDown();
+					try {
+						returned.await(500, TimeUnit.MILLISECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				super.addLoan(loan);
+			}
+		});
+		try {
+			Book book = new Book("Author", "Slow", "Fiction", LibraryBenchmark.isbn13(1));
+			Book other = new Book("Author", "Other", "Fiction", LibraryBenchmark.isbn13(2));
+			Member member = new Member("Jane", "Smith", "a@xyz.com", "07777777777");
+			Member otherMember = new Member("Jim", "Jones", "b@xyz.com", "07777777777");
+			library.addBook(book);
+			library.addBook(other);
+			library.addMember(member);
+			library.addMember(otherMember);
+			library.addLoan(otherMember, other);
+
+			Future<?> checkout = executor.submit(() -> library.addLoan(member, book));
+			assertTrue(storing.await(5, TimeUnit.SECONDS), "the loan should be being stored");
+			Future<?> checkin = executor.submit(() -> {
+				try {
+					library.removeLoan(member, book);
+				} finally {
+					returned.countDown();
+				}
+			});
+			checkout.get();
+			checkin.get();
+
+			assertEquals(1, library.getLoans().size(), "only the other loan should be left");
+			assertDoesNotThrow(() -> library.removeMemberByID(member.getIDNumber()),
+					"a member whose loan was returned should be removed");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Verifies that forEachLoan passes each loan, in expiry order, straight
+	 * from the loans collection, so loans may be returned while they are
+	 * visited
+	 */
+	@Test
+	@DisplayName("forEachLoan visits the loans while they change")
+	public void forEachLoan() {
+		try {
+			Member member = new Member("Jane", "Smith", "a@xyz.com", "07777777777");
+			library.addMember(member);
+			List<Book> books = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				Book book = new Book("Author " + i, "Title " + i, "Fiction",
+						LibraryBenchmark.isbn13(i));
+				library.addBook(book);
+				library.addLoan(member, book);
+				books.add(book);
+			}
+
+			List<Book> visited = new ArrayList<>();
+			library.forEachLoan(loan -> {
+				visited.add(loan.getBook());
+				library.removeLoan(member, loan.getBook());
+			});
+
+			assertEquals(books, visited, "each loan should be visited in expiry order");
+			assertFalse("every loan should have been returned", library.hasLoans());
+			assertThrows(IllegalArgumentException.class, () -> library.forEachLoan(null),
+					"a missing action should be refused");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
 	/**
 	 * Verifies that addBook throws if the book is null
 	 */
@@ -604,6 +1113,42 @@ public class LibraryTest {
 		}, "an error should be thrown if book's ISBN number is duplicate");
 	}
 
+	/**
+	 * Verifies that addBook treats ISBN-10 and ISBN-13 forms of the same ISBN
+	 * number as duplicates
+	 */
+	@Test
+	@DisplayName("addBook throws if ISBN number is duplicate in another form")
+	public void addBookWithDuplicateISBNInAnotherForm() {
+		Book book1 = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+				"9780262516556");
+		Book book2 = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+				"0262516551");
+		library.addBook(book1);
+
+		assertThrows(IllegalStateException.class,
+				() -> library.addBook(book2),
+				"an error should be thrown if book's ISBN-10 number matches an existing ISBN-13 number");
+	}
+
+	/**
+	 * Verifies that a book's ISBN number can be reused once the book has been
+	 * removed
+	 */
+	@Test
+	@DisplayName("addBook accepts the ISBN number of a removed book")
+	public void addBookWithISBNOfRemovedBook() {
+		Book book1 = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+				"9780262516556");
+		Book book2 = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+				"9780262516556");
+		library.addBook(book1);
+		library.removeBookByID(book1.getIDNumber());
+
+		assertDoesNotThrow(() -> library.addBook(book2),
+				"the ISBN number of a removed book should be available");
+	}
+
 	/**
 	 * Verifies that getBookByID throws if books collection is empty
 	 */
@@ -787,6 +1332,29 @@ public class LibraryTest {
 				"an error should be thrown if no matching books found");
 	}
 
+	/**
+	 * Verifies that displayBooksByTitleQuery matches queries that are too
+	 * short for the title index and queries that are regular expressions
+	 */
+	@Test
+	@DisplayName("displayBooksByTitleQuery matches short and regex queries")
+	public void displayBooksByTitleQueryShortAndRegex() {
+		Book book = new Book("C. Negus", "Linux Bible", "Non Fiction",
+				"9781119578888");
+		library.addBook(book);
+
+		assertDoesNotThrow(() -> library.displayBooksByTitleQuery("bi"),
+				"queries shorter than a trigram should be matched");
+		assertDoesNotThrow(() -> library.displayBooksByTitleQuery("lin.x"),
+				"regular expression queries should be matched");
+		assertThrows(NoSuchElementException.class,
+				() -> library.displayBooksByTitleQuery("xq"),
+				"an error should be thrown if no short query matches");
+		assertThrows(NoSuchElementException.class,
+				() -> library.displayBooksByTitleQuery("bible x"),
+				"an error should be thrown if a candidate does not contain the query");
+	}
+
 	/**
 	 * Verifies that displayMemberBySurnameQuery prints a member's details
 	 */
@@ -919,6 +1487,54 @@ public class LibraryTest {
 				"an error should have been thrown if loans collection is empty");
 	}
 
+	/**
+	 * Verifies that getExpiredLoans only returns loans that expire before the
+	 * provided date and no longer returns loans that have been removed
+	 */
+	@Test
+	@DisplayName("getExpiredLoans returns loans expiring before the date")
+	public void getExpiredLoans() {
+		try {
+			Member member = new Member("Michael", "Shields", "abc@xyz.com",
+					"07777777777");
+			Book book1 = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+					"9780262516556");
+			Book book2 = new Book("C. Negus", "Linux Bible", "Non Fiction",
+					"9781119578888");
+			library.addMember(member);
+			library.addBook(book1);
+			library.addBook(book2);
+			library.addLoan(member, book1);
+			library.addLoan(member, book2);
+			LocalDate expiryDate = LocalDate.now()
+					.plusDays(library.getLoanDurationInDays());
+
+			assertThrows(NoSuchElementException.class,
+					() -> library.getExpiredLoans(expiryDate),
+					"loans expiring on the date should not have expired");
+
+			List<Loan> expiredLoans = library.getExpiredLoans(expiryDate.plusDays(1));
+
+			assertEquals(2, expiredLoans.size(),
+					"loans expiring before the date should be returned");
+			assertTrue(expiredLoans.get(0).getBook() == book1
+					&& expiredLoans.get(1).getBook() == book2,
+					"loans expiring on the same day should be ordered by book");
+
+			library.removeLoan(member, book1);
+			expiredLoans = library.getExpiredLoans(expiryDate.plusDays(1));
+
+			assertEquals(1, expiredLoans.size(),
+					"removed loans should not be returned");
+			assertTrue(expiredLoans.get(0).getBook() == book2,
+					"the remaining loan should be returned");
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
 	/**
 	 * Verifies that getLoan throws if loans collection is empty
 	 */
@@ -1073,6 +1689,143 @@ public class LibraryTest {
 		}
 	}
 
+	/**
+	 * Verifies that once a loan has been removed the book can be loaned again
+	 * and the member and book can be removed
+	 */
+	@Test
+	@DisplayName("removeLoan releases the member and book")
+	public void removeLoanReleasesMemberAndBook() {
+		try {
+			Member member1 = new Member("Michael", "Shields", "abc@xyz.com",
+					"07777777777");
+			Member member2 = new Member("Jim", "Jones", "xyz@abc.com",
+					"07777777777");
+			Book book = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+					"9780262516556");
+			library.addMember(member1);
+			library.addMember(member2);
+			library.addBook(book);
+			library.addLoan(member1, book);
+			library.removeLoan(member1, book);
+
+			assertDoesNotThrow(() -> library.removeMemberByID(member1.getIDNumber()),
+					"a member with no loans should be removable");
+
+			library.addLoan(member2, book);
+
+			assertTrue(library.getLoan(member2, book).getMember() == member2,
+					"the book should have been loaned to the second member");
+
+			library.removeLoan(member2, book);
+
+			assertDoesNotThrow(() -> library.removeBookByID(book.getIDNumber()),
+					"a book that is not on loan should be removable");
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that addLoans loans every book it can in one batch, with a
+	 * shared issue date, and reports the requests that fail without stopping
+	 * the batch
+	 */
+	@Test
+	@DisplayName("addLoans adds a batch of loans with per request results")
+	public void addLoans() {
+		try {
+			Member member1 = new Member("Michael", "Shields", "abc@xyz.com",
+					"07777777777");
+			Member member2 = new Member("Jim", "Jones", "xyz@abc.com",
+					"07777777777");
+			Book book1 = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+					"9780262516556");
+			Book book2 = new Book("G. Loy", "Musimathics Vol 2", "Non Fiction",
+					"9780262516563");
+			Book unknown = new Book("J. Smith", "Unknown", "Fiction",
+					"0-262-51655-1");
+			library.addMember(member1);
+			library.addMember(member2);
+			library.addBook(book1);
+			library.addBook(book2);
+
+			List<LoanResult> results = library.addLoans(Arrays.asList(
+					new LoanRequest(member1, book1),
+					new LoanRequest(member2, book1),
+					new LoanRequest(member2, unknown),
+					new LoanRequest(member2, book2)));
+
+			assertEquals(4, results.size(), "every request should have a result");
+			assertTrue(results.get(0).isSuccessful(), "the first request should succeed");
+			assertTrue(results.get(0).getLoan() == library.getLoan(member1, book1),
+					"the result should hold the added loan");
+			assertTrue(results.get(1).getError() instanceof IllegalStateException,
+					"a book requested twice should only be loaned once");
+			assertTrue(results.get(2).getError() instanceof NoSuchElementException,
+					"an unknown book should not be loaned");
+			assertTrue(results.get(3).isSuccessful(),
+					"requests after a failure should still be applied");
+			assertEquals(results.get(0).getLoan().getIssueDate(),
+					results.get(3).getLoan().getIssueDate(),
+					"the batch should share an issue date");
+			assertEquals(2, library.getLoans().size(), "two loans should have been added");
+			assertThrows(IllegalArgumentException.class, () -> library.addLoans(null),
+					"an error should be thrown if the requests are null");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that removeLoans removes every loan it can in one batch and
+	 * reports the requests that fail without stopping the batch
+	 */
+	@Test
+	@DisplayName("removeLoans removes a batch of loans with per request results")
+	public void removeLoans() {
+		try {
+			Member member1 = new Member("Michael", "Shields", "abc@xyz.com",
+					"07777777777");
+			Member member2 = new Member("Jim", "Jones", "xyz@abc.com",
+					"07777777777");
+			Book book1 = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+					"9780262516556");
+			Book book2 = new Book("G. Loy", "Musimathics Vol 2", "Non Fiction",
+					"9780262516563");
+			library.addMember(member1);
+			library.addMember(member2);
+			library.addBook(book1);
+			library.addBook(book2);
+			library.addLoan(member1, book1);
+			library.addLoan(member2, book2);
+
+			List<LoanResult> results = library.removeLoans(Arrays.asList(
+					new LoanRequest(member2, book1),
+					null,
+					new LoanRequest(member1, book1),
+					new LoanRequest(member2, book2)));
+
+			assertTrue(results.get(0).getError() instanceof NoSuchElementException,
+					"a book on loan to another member should not be returned");
+			assertTrue(results.get(1).getError() instanceof IllegalArgumentException,
+					"a null request should fail");
+			assertTrue(results.get(2).isSuccessful() && results.get(3).isSuccessful(),
+					"requests after a failure should still be applied");
+			assertTrue(results.get(3).getLoan().getBook() == book2,
+					"the result should hold the removed loan");
+			assertTrue(library.getLoans().isEmpty(), "every loan should have been removed");
+			assertDoesNotThrow(() -> library.removeMemberByID(member2.getIDNumber()),
+					"a member with no loans should be removable");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
 	/**
 	 * Verifies that displayExpiredLoans if expiryDate is null
 	 */
@@ -1421,6 +2174,31 @@ public class LibraryTest {
 		}
 	}
 
+	/**
+	 * Verifies that getMemberCount counts the members, and that
+	 * displayMemberByID refuses a member that is not found
+	 */
+	@Test
+	@DisplayName("getMemberCount counts the members")
+	public void getMemberCount() {
+		try {
+			assertEquals(0, library.getMemberCount(), "there should be no members yet");
+			Member member = new Member("Michael", "Shields", "abc@xyz.com", "07777777777");
+			library.addMember(member);
+			library.addMember(new Member("Jane", "Smith", "def@xyz.com", "07777777777"));
+			assertEquals(2, library.getMemberCount(), "the members should be counted");
+
+			library.removeMemberByID(member.getIDNumber());
+			assertEquals(1, library.getMemberCount(), "the removed member should not be counted");
+			assertThrows(NoSuchElementException.class,
+					() -> library.displayMemberByID(member.getIDNumber()),
+					"a removed member should not be displayed");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
 	/**
 	 * Verifies that displayByID prints the details of an object in the provided
 	 * collection that has the provided ID Number
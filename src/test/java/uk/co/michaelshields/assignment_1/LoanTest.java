@@ -258,6 +258,40 @@ public class LoanTest {
 
 	}
 
+	/**
+	 * Verifies that the ID number and epoch day accessors match the loan's
+	 * member, book and dates
+	 */
+	@Test
+	@DisplayName("ID number and epoch day accessors match the loan's details")
+	void compactAccessors() {
+		try {
+			Member member = new Member("Michael", "Shields", "abc@xyz.com",
+					"07777777777", 2);
+			Book book = new Book("C. Negus", "Linux Bible", "Non Fiction",
+					"9781119578888", 3);
+			LocalDate issueDate = LocalDate.of(2024, 2, 25);
+			LocalDate expiryDate = issueDate.plusDays(21);
+			Loan loan = new Loan(member, book, issueDate, expiryDate);
+
+			assertEquals(2, loan.getMemberIDNumber(),
+					"the member's ID number should have been returned");
+			assertEquals(3, loan.getBookIDNumber(),
+					"the book's ID number should have been returned");
+			assertEquals(issueDate.toEpochDay(), loan.getIssueEpochDay(),
+					"the issue date should be held as an epoch day");
+			assertEquals(expiryDate.toEpochDay(), loan.getExpiryEpochDay(),
+					"the expiry date should be held as an epoch day");
+			assertEquals(issueDate, loan.getIssueDate(),
+					"the issue date should be restored from the epoch day");
+			assertEquals(expiryDate, loan.getExpiryDate(),
+					"the expiry date should be restored from the epoch day");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
 	/**
 	 * Verifies that the displayDetails prints the loans details
 	 */
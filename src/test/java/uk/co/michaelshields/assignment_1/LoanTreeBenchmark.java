@@ -0,0 +1,129 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * A stand-alone benchmark of a loan tree holding many more loans than its
+ * buffer pool holds pages: how long loans take to be added, looked up and
+ * removed at random, and the loans expiring before a day to be listed,
+ * with the pages read and written and the heap used. It is run from its
+ * main method rather than as part of the JUnit suite, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=uk.co.michaelshields.assignment_1.LoanTreeBenchmark \
+ *     -Dexec.args="2000000 1024"
+ * </pre>
+ *
+ * The arguments are the number of loans and the number of buffer pool
+ * frames.
+ *
+ * @see <a href="LoanTree.html">LoanTree</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class LoanTreeBenchmark {
+	/** The number of loans looked up and removed at random */
+	private static final int LOOKUPS = 200_000;
+	/** The number of members the loans are spread over */
+	private static final int MEMBERS = 100_000;
+	/** The number of days the loans' expiry dates are spread over */
+	private static final int DAYS = 365;
+	/** The epoch day the loans are issued on */
+	private static final int ISSUE_DAY = 20_000;
+
+	/**
+	 * Runs the benchmark
+	 *
+	 * @param args - The number of loans and the number of frames
+	 *
+	 * @throws Exception - If the loan tree cannot be written or read
+	 */
+	public static void main(String[] args) throws Exception {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : LoanTree.DEFAULT_FRAMES;
+
+		Path path = Files.createTempFile("loans", ".tree");
+		Files.delete(path);
+		try (LoanTree loanTree = new LoanTree(path, frames)) {
+			long start = System.nanoTime();
+			for (int book = 1; book <= size; book++) {
+				loanTree.add(memberOf(book), book, ISSUE_DAY, ISSUE_DAY + book % DAYS);
+			}
+			report(loanTree, "add", start, size);
+
+			Random random = new Random(42);
+			start = System.nanoTime();
+			for (int i = 0; i < LOOKUPS; i++) {
+				int book = random.nextInt(size) + 1;
+				if (loanTree.get(memberOf(book), book) == null) {
+					throw new IllegalStateException("The loan of book " + book + " was not found");
+				}
+			}
+			report(loanTree, "get", start, LOOKUPS);
+
+			start = System.nanoTime();
+			int expired = 0;
+			for (int day = 1; day <= 30; day++) {
+				expired += loanTree.getExpiringBefore(ISSUE_DAY + day).size();
+			}
+			report(loanTree, "expired", start, expired);
+
+			start = System.nanoTime();
+			int removed = 0;
+			for (int i = 0; i < LOOKUPS; i++) {
+				int book = random.nextInt(size) + 1;
+				if (loanTree.remove(memberOf(book), book) != null) {
+					removed++;
+				}
+			}
+			report(loanTree, "remove", start, removed);
+
+			start = System.nanoTime();
+			loanTree.flush();
+			report(loanTree, "flush", start, 1);
+
+			Runtime runtime = Runtime.getRuntime();
+			System.gc();
+			System.out.printf("%,d loans in %,d frames: file %,d MB, heap used %,d MB%n",
+					loanTree.size(), frames, Files.size(path) >> 20,
+					(runtime.totalMemory() - runtime.freeMemory()) >> 20);
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	/**
+	 * A utility method that returns the member a book is loaned to
+	 *
+	 * @param book - The book's ID number (int)
+	 *
+	 * @return member - The member's ID number (int)
+	 */
+	private static int memberOf(int book) {
+		return book % MEMBERS + 1;
+	}
+
+	/**
+	 * Prints how long an operation took in all and on average, and the
+	 * pages the buffer pool has read and written so far
+	 *
+	 * @param loanTree - The loan tree (LoanTree)
+	 *
+	 * @param operation - The name of the operation (String)
+	 *
+	 * @param start - When the operation started (long)
+	 *
+	 * @param count - The number of loans it handled (int)
+	 */
+	private static void report(LoanTree loanTree, String operation, long start, int count) {
+		long elapsed = System.nanoTime() - start;
+		BufferPool pool = loanTree.getBufferPool();
+		System.out.printf("%-8s %,10d loans %,8d ms %,8d ns/loan  %,10d reads %,10d writes%n",
+				operation, count, elapsed / 1_000_000, elapsed / Math.max(count, 1),
+				pool.getReads(), pool.getWrites());
+	}
+}
@@ -0,0 +1,283 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the LoanTree class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="LoanTree.html">LoanTree</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("LoanTree Tests")
+public class LoanTreeTest {
+	/**
+	 * Verifies that a library keeping its loans in a loan tree adds, finds,
+	 * lists and removes loans, and refuses what a library on the heap does
+	 */
+	@Test
+	@DisplayName("a library keeps its loans in a loan tree")
+	public void library() {
+		try {
+			Path path = Files.createTempFile("loans", ".tree");
+			Files.delete(path);
+			try (LoanTree loanTree = new LoanTree(path, BufferPool.MIN_FRAMES)) {
+				Library library = new Library(new InMemoryRepository(), loanTree);
+				Member jane = new Member("Jane", "Smith", "a@xyz.com", "07777777777");
+				Member jim = new Member("Jim", "Jones", "b@xyz.com", "07777777777");
+				Book book = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+						"9780262516556");
+				Book other = new Book("J. Bloch", "Effective Java", "Non Fiction",
+						"978-0-13-468599-1");
+				library.addMember(jane);
+				library.addMember(jim);
+				library.addBook(book);
+				library.addBook(other);
+
+				assertThrows(IllegalStateException.class, () -> library.getLoan(jane, book),
+						"there should be no loans yet");
+				library.addLoan(jane, book);
+				library.addLoan(jim, other);
+				assertThrows(IllegalStateException.class, () -> library.addLoan(jim, book),
+						"a book should only be loaned once");
+				assertEquals(2, loanTree.size(), "the loans should be in the tree");
+
+				Loan loan = library.getLoan(jane, book);
+				assertEquals(book, loan.getBook(), "the loan should be of the library's book");
+				assertEquals(LocalDate.now().plusDays(library.getLoanDurationInDays()),
+						loan.getExpiryDate(), "the loan should keep its expiry date");
+				assertThrows(NoSuchElementException.class, () -> library.getLoan(jim, book),
+						"the book is not on loan to the other member");
+				assertThrows(IllegalStateException.class,
+						() -> library.removeBookByID(book.getIDNumber()),
+						"a book on loan should not be removed");
+				assertThrows(IllegalStateException.class,
+						() -> library.removeMemberByID(jim.getIDNumber()),
+						"a member with loans should not be removed");
+				assertEquals(2, library.getExpiredLoans(LocalDate.now().plusYears(1)).size(),
+						"the loans should expire within a year");
+				assertEquals(2, library.getLoans().size(), "the loans should be listed");
+				List<Loan> visited = new ArrayList<Loan>();
+				library.forEachLoan(visited::add);
+				assertEquals(2, visited.size(), "each loan should be visited");
+				assertEquals(library.getLoans().get(1).getBook(), visited.get(1).getBook(),
+						"the loans should be visited in expiry order");
+				assertTrue(library.hasLoans(), "the library should have loans");
+
+				library.removeLoan(jim, other);
+				assertThrows(NoSuchElementException.class, () -> library.removeLoan(jim, other),
+						"a loan should only be removed once");
+				library.removeMemberByID(jim.getIDNumber());
+				library.removeBookByID(other.getIDNumber());
+				assertEquals(1, library.getSnapshot().getLoans().size(),
+						"the snapshot should hold the remaining loan");
+				library.removeLoan(jane, book);
+				assertFalse(library.hasLoans(), "every loan should have been removed");
+			}
+
+			InMemoryRepository repository = new InMemoryRepository();
+			Library heapLibrary = new Library(repository);
+			Member ann = new Member("Ann", "Lee", "c@xyz.com", "07777777777");
+			Book book = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction", "9780262516556");
+			heapLibrary.addMember(ann);
+			heapLibrary.addBook(book);
+			heapLibrary.addLoan(ann, book);
+			try (LoanTree loanTree = new LoanTree(path)) {
+				assertThrows(IllegalArgumentException.class,
+						() -> new Library(repository, loanTree),
+						"loans should not be held in the repository and the tree");
+				assertThrows(IllegalArgumentException.class,
+						() -> new Library(new InMemoryRepository(), null),
+						"a missing tree should be refused");
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that a loan tree of many loans, held in a small buffer pool,
+	 * is opened again with its loans, and lists the loans expiring before a
+	 * date in expiry order
+	 */
+	@Test
+	@DisplayName("a loan tree is opened again with its loans")
+	public void reopen() {
+		try {
+			Path path = Files.createTempFile("loans", ".tree");
+			Files.delete(path);
+			try {
+				try (LoanTree loanTree = new LoanTree(path, BufferPool.MIN_FRAMES)) {
+					for (int book = 1; book <= 20_000; book++) {
+						assertTrue(loanTree.add(book % 100 + 1, book, 19_000, 19_000 + book % 30),
+								"the loan should be added");
+					}
+					for (int book = 1; book <= 20_000; book += 2) {
+						assertEquals(book, loanTree.remove(book % 100 + 1, book).getBookIDNumber(),
+								"the loan should be removed");
+					}
+				}
+
+				try (LoanTree loanTree = new LoanTree(path, BufferPool.MIN_FRAMES)) {
+					assertEquals(10_000, loanTree.size(), "the loans should be counted");
+					assertNull(loanTree.get(2, 1), "a removed loan should stay removed");
+					assertEquals(19_002, loanTree.get(3, 2).getExpiryEpochDay(),
+							"the loan should keep its dates");
+					assertEquals(3, loanTree.findBorrower(2), "the borrower should be found");
+					assertEquals(-1, loanTree.findBorrower(1), "a returned book has no borrower");
+					assertTrue(loanTree.hasLoans(3), "the member should have loans");
+					assertFalse(loanTree.hasLoans(2), "the member's loans were removed");
+					assertFalse(loanTree.add(4, 2, 19_000, 19_001),
+							"a book on loan should not be loaned again");
+
+					List<LoanTree.Entry> expiring = loanTree.getExpiringBefore(19_002);
+					assertEquals(10_000 / 15, expiring.size(),
+							"the loans expiring before the day should be listed");
+					for (int i = 1; i < expiring.size(); i++) {
+						LoanTree.Entry previous = expiring.get(i - 1);
+						LoanTree.Entry entry = expiring.get(i);
+						assertTrue(previous.getExpiryEpochDay() < entry.getExpiryEpochDay()
+								|| previous.getBookIDNumber() < entry.getBookIDNumber(),
+								"the loans should be in expiry order");
+					}
+					assertEquals(10_000, loanTree.getAll().size(), "every loan should be listed");
+
+					List<LoanTree.Entry> batches = new ArrayList<LoanTree.Entry>();
+					List<LoanTree.Entry> batch = loanTree.getAfter(null, 999);
+					while (!batch.isEmpty()) {
+						batches.addAll(batch);
+						batch = loanTree.getAfter(batch.get(batch.size() - 1), 999);
+					}
+					assertEquals(10_000, batches.size(), "every loan should be read in batches");
+					assertEquals(loanTree.getAll().get(5_000).getBookIDNumber(),
+							batches.get(5_000).getBookIDNumber(),
+							"the batches should follow each other in expiry order");
+				}
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that a loan tree that was not closed cleanly and has no
+	 * rollback file, or a file that is not a loan tree, is refused
+	 */
+	@Test
+	@DisplayName("an unrecoverable loan tree is refused")
+	public void unclean() {
+		try {
+			Path path = Files.createTempFile("loans", ".tree");
+			Path copy = Files.createTempFile("loans", ".copy");
+			Files.delete(path);
+			try {
+				try (LoanTree loanTree = new LoanTree(path)) {
+					loanTree.add(1, 2, 19_000, 19_021);
+					Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+				}
+				assertThrows(IOException.class, () -> new LoanTree(copy),
+						"a tree changed since it was flushed should be refused without its rollback file");
+				assertFalse(Files.exists(LoanTree.rollbackPathOf(copy)),
+						"no rollback file should be left behind");
+
+				try (LoanTree loanTree = new LoanTree(path)) {
+					assertEquals(1, loanTree.size(), "a closed tree should be opened");
+				}
+
+				Files.write(copy, new byte[100]);
+				assertThrows(IOException.class, () -> new LoanTree(copy),
+						"a file that is not a loan tree should be refused");
+			} finally {
+				Files.deleteIfExists(path);
+				Files.deleteIfExists(copy);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that a loan tree left part way through changes, with pages
+	 * written over since it was flushed, is put back as it was at the flush
+	 * from its rollback file, and can be changed again
+	 */
+	@Test
+	@DisplayName("an unclean loan tree is rolled back")
+	public void rollBack() {
+		try {
+			Path path = Files.createTempFile("loans", ".tree");
+			Path copy = Files.createTempFile("loans", ".copy");
+			Files.delete(path);
+			try {
+				try (LoanTree loanTree = new LoanTree(path, BufferPool.MIN_FRAMES)) {
+					for (int book = 1; book <= 10_000; book++) {
+						loanTree.add(book % 100 + 1, book, 19_000, 19_000 + book % 30);
+					}
+					loanTree.flush();
+
+					// Change enough loans that changed pages are evicted, then
+					// copy the files as a crash would leave them
+					for (int book = 1; book <= 10_000; book += 2) {
+						loanTree.remove(book % 100 + 1, book);
+					}
+					for (int book = 10_001; book <= 15_000; book++) {
+						loanTree.add(book % 100 + 1, book, 19_000, 19_000 + book % 30);
+					}
+					assertTrue(Files.size(LoanTree.rollbackPathOf(path)) > 0,
+							"the flushed pages written over should have been saved");
+					Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+					Files.copy(LoanTree.rollbackPathOf(path), LoanTree.rollbackPathOf(copy),
+							StandardCopyOption.REPLACE_EXISTING);
+				}
+				assertFalse(Files.exists(LoanTree.rollbackPathOf(path)),
+						"closing the tree should delete its rollback file");
+
+				try (LoanTree loanTree = new LoanTree(copy, BufferPool.MIN_FRAMES)) {
+					assertEquals(10_000, loanTree.size(), "the loans flushed should be restored");
+					assertEquals(10_000, loanTree.getAll().size(), "every loan should be listed");
+					assertEquals(2, loanTree.findBorrower(1), "a removed loan should be restored");
+					assertEquals(-1, loanTree.findBorrower(12_000),
+							"a loan added since the flush should be dropped");
+					assertTrue(loanTree.add(1, 12_000, 19_000, 19_001),
+							"the tree should be changed again");
+				}
+				try (LoanTree loanTree = new LoanTree(copy, BufferPool.MIN_FRAMES)) {
+					assertEquals(10_001, loanTree.size(), "the tree should have been closed cleanly");
+				}
+			} finally {
+				Files.deleteIfExists(path);
+				Files.deleteIfExists(copy);
+				Files.deleteIfExists(LoanTree.rollbackPathOf(copy));
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+}
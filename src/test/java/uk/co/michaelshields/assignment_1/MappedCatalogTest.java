@@ -0,0 +1,185 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the MappedCatalog class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="MappedCatalog.html">MappedCatalog</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("MappedCatalog Tests")
+public class MappedCatalogTest {
+	/**
+	 * Creates the books written to the catalogues in these tests, out of ID
+	 * number order
+	 *
+	 * @return books - The books (List<Book>)
+	 *
+	 * @throws IllegalArgumentException - If a book is not valid
+	 */
+	static List<Book> createBooks() throws IllegalArgumentException {
+		return new ArrayList<>(Arrays.asList(
+				new Book("J. Bloch", "Effective Java", "Non Fiction", "978-0-13-468599-1", 7),
+				new Book("G. Loy", "Musimathics Vol 1", "Non Fiction", "9780262516556", 2),
+				new Book("É. Zola", "Thérèse Raquin", "Fiction", "0140449442", 5)));
+	}
+
+	/**
+	 * Verifies that the books written to a catalogue are read back, found by
+	 * ID number and by ISBN number, as they were written
+	 */
+	@Test
+	@DisplayName("books are read back as written")
+	public void readBack() {
+		try {
+			Path path = Files.createTempFile("catalogue", ".bin");
+			try {
+				MappedCatalog.write(path, createBooks());
+				MappedCatalog catalog = new MappedCatalog(path);
+
+				assertEquals(3, catalog.size(), "every book should be written");
+				assertEquals(7, catalog.getHighestIDNumber(), "the highest ID number should be kept");
+				assertEquals(2, catalog.getIDNumber(0), "records should be in ID number order");
+
+				Book book = catalog.getBook(catalog.findRecord(5));
+				assertEquals("É. Zola", book.getAuthor(), "the author should be read back");
+				assertEquals("Thérèse Raquin", book.getTitle(), "the title should be read back");
+				assertEquals("Fiction", book.getGenre(), "the genre should be read back");
+				assertEquals("0140449442", book.getISBNNumber(),
+						"the ISBN number should be read back as written");
+				assertEquals(5, book.getIDNumber(), "the ID number should be read back");
+
+				assertEquals(-1, catalog.findRecord(3), "a missing ID number should not be found");
+				assertEquals(catalog.findRecord(5), catalog.findRecordByISBN(9780140449440L),
+						"a book should be found by its ISBN-13 number");
+				assertEquals(-1, catalog.findRecordByISBN(9780262516557L),
+						"a missing ISBN number should not be found");
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that titles are searched ignoring case, including titles with
+	 * characters beyond ASCII
+	 */
+	@Test
+	@DisplayName("titles are searched ignoring case")
+	public void searchTitles() {
+		try {
+			Path path = Files.createTempFile("catalogue", ".bin");
+			try {
+				MappedCatalog.write(path, createBooks());
+				MappedCatalog catalog = new MappedCatalog(path);
+
+				assertArrayEquals(new int[] {0, 2}, catalog.findRecordsByFoldedTitle("c"),
+						"every matching record should be found in ID number order");
+				assertArrayEquals(new int[] {1},
+						catalog.findRecordsByFoldedTitle(TitleIndex.fold("RAQUIN")),
+						"titles should be matched ignoring case");
+				assertArrayEquals(new int[] {1},
+						catalog.findRecordsByFoldedTitle(TitleIndex.fold("THÉRÈSE")),
+						"titles beyond ASCII should be matched");
+				assertArrayEquals(new int[0], catalog.findRecordsByFoldedTitle("python"),
+						"no record should match an absent title");
+				assertArrayEquals(new int[0], catalog.findRecordsByFoldedTitle("java vol"),
+						"a title holding the query's trigrams apart should not match");
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that titles are found through the catalogue's posting lists
+	 * when many titles share trigrams
+	 */
+	@Test
+	@DisplayName("titles are found through the posting lists")
+	public void searchPostings() {
+		try {
+			Path path = Files.createTempFile("catalogue", ".bin");
+			try {
+				List<Book> books = new ArrayList<>();
+				for (int i = 1; i <= 1000; i++) {
+					books.add(new Book("A. Author", "Volume " + i + " of the Series", "Fiction",
+							LibraryBenchmark.isbn13(i), i));
+				}
+				MappedCatalog.write(path, books);
+				MappedCatalog catalog = new MappedCatalog(path);
+
+				assertEquals(1000, catalog.findRecordsByFoldedTitle("of the series").length,
+						"every title should be found");
+				assertArrayEquals(new int[] {499},
+						catalog.findRecordsByFoldedTitle("volume 500 "),
+						"only the matching title should be found");
+				assertArrayEquals(new int[] {99, 199, 299, 399, 499, 599, 699, 799, 899, 999},
+						catalog.findRecordsByFoldedTitle("00 of"),
+						"the matches should be in ID number order");
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that catalogues with repeated ID numbers or ISBN numbers are
+	 * not written, and that files that are not catalogues are not opened
+	 */
+	@Test
+	@DisplayName("invalid catalogues are rejected")
+	public void rejectInvalid() {
+		try {
+			Path path = Files.createTempFile("catalogue", ".bin");
+			try {
+				List<Book> repeatedID = createBooks();
+				repeatedID.add(new Book("A. Author", "Title", "Genre", "9780262516549", 7));
+				assertThrows(IllegalArgumentException.class,
+						() -> MappedCatalog.write(path, repeatedID),
+						"a repeated ID number should be rejected");
+
+				List<Book> repeatedISBN = createBooks();
+				repeatedISBN.add(new Book("A. Author", "Title", "Genre", "978-0-262-51655-6", 9));
+				assertThrows(IllegalArgumentException.class,
+						() -> MappedCatalog.write(path, repeatedISBN),
+						"a repeated ISBN number should be rejected");
+
+				Files.write(path, new byte[64]);
+				assertThrows(IOException.class, () -> new MappedCatalog(path),
+						"a file that is not a catalogue should be rejected");
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,279 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the MemberStore class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="MemberStore.html">MemberStore</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("MemberStore Tests")
+public class MemberStoreTest {
+	/**
+	 * Creates a store holding three members with ID numbers 1, 2 and 3
+	 *
+	 * @return store - The store (MemberStore)
+	 *
+	 * @throws Exception - If a member cannot be created
+	 */
+	private static MemberStore createStore() throws Exception {
+		MemberStore store = new MemberStore();
+		store.add(new Member("Jane", "Smith", "a@xyz.com", "07777777777", 1));
+		store.add(new Member("Michael", "Shields", "b@xyz.com", "07777777777", 2));
+		store.add(new Member("Jim", "Jones", "c@xyz.com", "07777777777", 3));
+		return store;
+	}
+
+	/**
+	 * Verifies that getMemberByID returns a view holding the member's details
+	 */
+	@Test
+	@DisplayName("getMemberByID returns a view of the stored member")
+	public void getMemberByID() {
+		try {
+			MemberStore store = createStore();
+
+			Member member = store.getMemberByID(2);
+
+			assertEquals(2, member.getIDNumber(), "the ID number should be stored");
+			assertEquals("Michael", member.getFirstName(),
+					"the first name should be stored");
+			assertEquals("Shields", member.getLastName(),
+					"the last name should be stored");
+			assertEquals("b@xyz.com", member.getEmail(),
+					"the email address should be stored");
+			assertEquals("07777777777", member.getPhoneNumber(),
+					"the phone number should be stored");
+			assertTrue(store.contains(member), "the view should be of the store");
+			assertThrows(NoSuchElementException.class,
+					() -> store.getMemberByID(4),
+					"an error should be thrown if the member is not stored");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that add throws if a member's ID number has already been
+	 * stored or their details are too long to be stored, and that members
+	 * need not be added in ID number order
+	 */
+	@Test
+	@DisplayName("add throws if a member cannot be stored")
+	public void addInvalid() {
+		try {
+			MemberStore store = createStore();
+			Member duplicate = new Member("Tom", "Ong", "d@xyz.com",
+					"07777777777", 2);
+			Member longName = new Member("Tom", "O".repeat(
+					MemberStore.MAX_NAME_LENGTH + 1), "d@xyz.com",
+					"07777777777", 4);
+
+			assertThrows(IllegalArgumentException.class,
+					() -> store.add(duplicate),
+					"an error should be thrown if the ID number is already stored");
+			assertThrows(IllegalArgumentException.class,
+					() -> store.add(longName),
+					"an error should be thrown if a detail is too long");
+			assertEquals(3, store.size(), "no member should have been added");
+
+			store.remove(2);
+			assertThrows(IllegalArgumentException.class,
+					() -> store.add(duplicate),
+					"an error should be thrown if the ID number was removed");
+
+			store.add(new Member("Tom", "Ong", "d@xyz.com", "07777777777", 100));
+			store.add(new Member("Ann", "Lee", "e@xyz.com", "07777777777", 50));
+			assertEquals("Lee", store.getMemberByID(50).getLastName(),
+					"members added out of ID number order should be found");
+			assertEquals("Ong", store.getMemberByID(100).getLastName(),
+					"members added out of ID number order should be found");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that findByEmail finds members regardless of case, and no
+	 * longer finds them once they are removed or their email changes
+	 */
+	@Test
+	@DisplayName("findByEmail finds members by email address")
+	public void findByEmail() {
+		try {
+			MemberStore store = createStore();
+
+			assertEquals(2, store.findByEmail(" C@XYZ.com"),
+					"the email address should match regardless of case");
+
+			store.remove(1);
+			assertEquals(-1, store.findByEmail("a@xyz.com"),
+					"a removed member should not be found");
+
+			Member member = store.getMemberByID(3);
+			member.setEmail("jim@xyz.com");
+			assertEquals(-1, store.findByEmail("c@xyz.com"),
+					"the old email address should not be found");
+			assertEquals(2, store.findByEmail("jim@xyz.com"),
+					"the new email address should be found");
+			assertThrows(IllegalArgumentException.class,
+					() -> member.setEmail("b@xyz.com"),
+					"an error should be thrown if the email address is taken");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that views write their changes to the store and that ID
+	 * numbers cannot be changed
+	 */
+	@Test
+	@DisplayName("views write changes to the store")
+	public void viewMutators() {
+		try {
+			MemberStore store = createStore();
+			Member member = store.getMemberByID(1);
+
+			member.setLastName("  Brown ");
+
+			assertEquals("Brown", store.getMemberByID(1).getLastName(),
+					"the change should be seen by other views");
+			assertThrows(IllegalArgumentException.class,
+					() -> member.setFirstName(" "),
+					"changes should be validated as a Member's are");
+			assertThrows(UnsupportedOperationException.class,
+					() -> member.setIDNumber(5),
+					"the ID number of a stored member should not change");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that findByLastNamePrefix returns matching members in last
+	 * name order, ignoring case
+	 */
+	@Test
+	@DisplayName("findByLastNamePrefix returns matching members in last name order")
+	public void findByLastNamePrefix() {
+		try {
+			MemberStore store = createStore();
+
+			List<Member> matches = store.findByLastNamePrefix("s");
+
+			assertEquals(2, matches.size(), "members starting with the prefix should match");
+			assertEquals("Shields", matches.get(0).getLastName(),
+					"matches should be ordered by last name");
+			assertEquals("Smith", matches.get(1).getLastName(),
+					"matches should be ordered by last name");
+			assertTrue(store.findByLastNamePrefix("ones").isEmpty(),
+					"last names only containing the prefix should not match");
+
+			store.remove(3);
+			assertTrue(store.findByLastNamePrefix("J").isEmpty(),
+					"a removed member should not match");
+			assertFalse(store.remove(3), "a removed member should not be removed again");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that the last name order is kept as members are added,
+	 * removed and renamed between searches, finding the same members in the
+	 * same order as checking every member would
+	 */
+	@Test
+	@DisplayName("findByLastNamePrefix follows added, removed and renamed members")
+	public void lastNameOrder() {
+		try {
+			MemberStore store = new MemberStore();
+			String[] lastNames = { "Smith", "Shields", "jones", "SMYTHE", "Sm", "Jonas", "Lee" };
+			for (int id = 1; id <= 700; id++) {
+				store.add(new Member("Jane", lastNames[id % lastNames.length],
+						id + "@xyz.com", "07777777777", id));
+				if (id % 50 == 0) {
+					assertEquals(expected(store, "sm"), idNumbers(store.findByLastNamePrefix("sm")),
+							"the members added so far should be found");
+				}
+			}
+
+			for (int id = 1; id <= 700; id += 3) {
+				store.remove(id);
+			}
+			store.getMemberByID(5).setLastName("Smalls");
+			store.getMemberByID(6).setLastName("Jones");
+
+			for (String prefix : new String[] { "s", "SM", "smy", "j", "jon", "lee", "x" }) {
+				assertEquals(expected(store, prefix), idNumbers(store.findByLastNamePrefix(prefix)),
+						"the matches should be found in last name order");
+			}
+			assertEquals(5, store.findByLastNamePrefix("smal").get(0).getIDNumber(),
+					"a renamed member should be found by their new last name");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * A utility method that returns the ID numbers of the stored members
+	 * whose last names start with a prefix, found by checking every member,
+	 * ordered by case folded last name
+	 *
+	 * @param store - The store (MemberStore)
+	 *
+	 * @param prefix - The start of the last name (String)
+	 *
+	 * @return idNumbers - The ID numbers (List<Integer>)
+	 */
+	private static List<Integer> expected(MemberStore store, String prefix) {
+		String folded = prefix.toLowerCase(Locale.ROOT);
+		List<Member> matches = new ArrayList<Member>();
+		for (Member member : store.getMembers()) {
+			if (member.getLastName().toLowerCase(Locale.ROOT).startsWith(folded)) {
+				matches.add(member);
+			}
+		}
+		matches.sort((first, second) -> first.getLastName().toLowerCase(Locale.ROOT)
+				.compareTo(second.getLastName().toLowerCase(Locale.ROOT)));
+		return idNumbers(matches);
+	}
+
+	/**
+	 * A utility method that returns the ID numbers of members
+	 *
+	 * @param members - The members (List<Member>)
+	 *
+	 * @return idNumbers - The ID numbers, in the same order (List<Integer>)
+	 */
+	private static List<Integer> idNumbers(List<Member> members) {
+		List<Integer> idNumbers = new ArrayList<Integer>();
+		for (Member member : members) {
+			idNumbers.add(member.getIDNumber());
+		}
+		return idNumbers;
+	}
+}
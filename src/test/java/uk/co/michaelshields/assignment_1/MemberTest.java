@@ -945,6 +945,40 @@ public class MemberTest {
 		}
 	}
 
+	/**
+	 * Verifies that setPhoneNumber keeps the phone number as it was provided
+	 * and its E.164 form, so that phone numbers written differently compare
+	 * equal, and that an invalid phone number is rejected each time it is
+	 * provided
+	 */
+	@Test
+	@DisplayName("setPhoneNumber stores the canonical E.164 phone number")
+	public void testSetPhoneNumberCanonical() {
+		try {
+			Member member = new Member("Jim", "Jones", "abc@xyz.com",
+					"07777 777777");
+			Member other = new Member("Tom", "Ong", "xyz@abc.com",
+					"+44 7777 777777");
+
+			assertEquals("07777 777777", member.getPhoneNumber(),
+					"The phone number should be kept as it was provided");
+			assertEquals("+447777777777", member.getCanonicalPhoneNumber(),
+					"The phone number should be stored in E.164 format");
+			assertEquals(member.getCanonicalPhoneNumber(), other.getCanonicalPhoneNumber(),
+					"Phone numbers written differently should have the same E.164 form");
+
+			for (int i = 0; i < 2; i++) {
+				assertThrows(IllegalArgumentException.class,
+						() -> member.setPhoneNumber("123"),
+						"An invalid phone number should be rejected each time");
+			}
+			assertEquals("+447777777777", member.getCanonicalPhoneNumber(),
+					"A rejected phone number should not change the member's");
+		} catch (Exception e) {
+			fail(e.getMessage());
+		}
+	}
+
 	/**
 	 * Verifies that displayDetails prints the member's details in the correct
 	 * format.
@@ -0,0 +1,303 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the PageStoreRepository class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="PageStoreRepository.html">PageStoreRepository</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("PageStoreRepository Tests")
+public class PageStoreRepositoryTest {
+	/**
+	 * Verifies that a library kept in a page store is restored when the
+	 * store is opened again, with its members, books and loans, their ID
+	 * numbers and dates, and that new ID numbers follow the restored ones
+	 */
+	@Test
+	@DisplayName("a library is restored from its page store")
+	public void reopen() {
+		try {
+			Path path = Files.createTempFile("library", ".pages");
+			try {
+				int janeID;
+				int bookID;
+				Loan loan;
+				try (PageStoreRepository repository = new PageStoreRepository(path)) {
+					Library library = new Library(repository);
+					Member jane = new Member("Jane", "Smith", "a@xyz.com", "07777777777");
+					Member jim = new Member("Jim", "Jones", "b@xyz.com", "07777777777");
+					Book book = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+							"9780262516556");
+					Book other = new Book("J. Bloch", "Effective Java", "Non Fiction",
+							"978-0-13-468599-1");
+					library.addMember(jane);
+					library.addMember(jim);
+					library.addBook(book);
+					library.addBook(other);
+					library.addLoan(jim, other);
+					library.removeLoan(jim, other);
+					library.addLoan(jane, book);
+					library.removeMemberByID(jim.getIDNumber());
+					library.removeBookByID(other.getIDNumber());
+					janeID = jane.getIDNumber();
+					bookID = book.getIDNumber();
+					loan = library.getLoan(jane, book);
+				}
+
+				try (PageStoreRepository repository = new PageStoreRepository(path)) {
+					Library restored = new Library(repository);
+
+					assertEquals(1, restored.getMembers().size(), "one member should be restored");
+					assertEquals("a@xyz.com", restored.getMemberByID(janeID).getEmail(),
+							"the member should keep their ID number");
+					assertEquals(1, restored.getBooks().size(), "one book should be restored");
+					Loan restoredLoan = restored.getLoan(restored.getMemberByID(janeID),
+							restored.getBookByID(bookID));
+					assertEquals(loan.getExpiryDate(), restoredLoan.getExpiryDate(),
+							"the loan should keep its dates");
+					assertThrows(IllegalStateException.class,
+							() -> restored.addLoan(restored.getMemberByID(janeID),
+									restored.getBookByID(bookID)),
+							"the restored loan's book should be on loan");
+					assertThrows(NoSuchElementException.class,
+							() -> restored.getBookByID(4), "the removed book should stay removed");
+
+					Member ann = new Member("Ann", "Lee", "c@xyz.com", "07777777777");
+					restored.addMember(ann);
+					assertTrue(ann.getIDNumber() > 4,
+							"new ID numbers should follow the restored ones");
+				}
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that the space of removed records is reused, so the file does
+	 * not grow as members come and go, and that members are read back in ID
+	 * number order wherever they were stored
+	 */
+	@Test
+	@DisplayName("the space of removed records is reused")
+	public void reuseSpace() {
+		try {
+			Path path = Files.createTempFile("library", ".pages");
+			try {
+				int pages;
+				try (PageStoreRepository repository = new PageStoreRepository(path)) {
+					Library library = new Library(repository);
+					for (int round = 0; round < 5; round++) {
+						List<Member> members = new ArrayList<>();
+						for (int i = 0; i < 500; i++) {
+							members.add(new Member("Member", "Surname" + i,
+									"member" + round + "." + i + "@xyz.com", "07777777777"));
+						}
+						library.addMembers(members);
+						for (int i = 0; i < members.size() - 1; i++) {
+							library.removeMemberByID(members.get(i).getIDNumber());
+						}
+					}
+					pages = repository.getPageCount();
+					assertTrue(pages < 30, "removed members' pages should be reused, not " + pages);
+				}
+
+				try (PageStoreRepository repository = new PageStoreRepository(path)) {
+					List<Member> members = repository.getMembers();
+					assertEquals(5, members.size(), "the last member of each round should be kept");
+					for (int i = 1; i < members.size(); i++) {
+						assertTrue(members.get(i - 1).getIDNumber() < members.get(i).getIDNumber(),
+								"members should be read back in ID number order");
+					}
+					assertEquals(pages, repository.getPageCount(), "no pages should be added");
+				}
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that removing a loan does not remove a later loan of the same
+	 * book from the store
+	 */
+	@Test
+	@DisplayName("a later loan of a book is kept")
+	public void laterLoan() {
+		try {
+			Path path = Files.createTempFile("library", ".pages");
+			try {
+				try (PageStoreRepository repository = new PageStoreRepository(path)) {
+					Member jane = new Member("Jane", "Smith", "a@xyz.com", "07777777777", 1);
+					Book book = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+							"9780262516556", 2);
+					repository.addMember(jane);
+					repository.addBook(book);
+					LocalDate today = LocalDate.now();
+					Loan first = new Loan(jane, book, today, today.plusDays(21));
+					Loan second = new Loan(jane, book, today, today.plusDays(21));
+					repository.addLoan(first);
+					repository.removeLoan(first);
+					repository.addLoan(second);
+					repository.removeLoan(first);
+					assertEquals(1, repository.getLoans().size(), "the later loan should be kept");
+				}
+
+				try (PageStoreRepository repository = new PageStoreRepository(path)) {
+					assertEquals(1, repository.getLoans().size(),
+							"the later loan should be stored");
+				}
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that a page only partly added to the end of the file is cut
+	 * off, and that a damaged page stops the file being opened
+	 */
+	@Test
+	@DisplayName("damaged pages are detected")
+	public void damagedPages() {
+		try {
+			Path path = Files.createTempFile("library", ".pages");
+			try {
+				try (PageStoreRepository repository = new PageStoreRepository(path)) {
+					repository.addMember(
+							new Member("Jane", "Smith", "a@xyz.com", "07777777777", 1));
+				}
+				try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+					file.write(ByteBuffer.wrap(new byte[100]), PageStoreRepository.PAGE_SIZE);
+				}
+				try (PageStoreRepository repository = new PageStoreRepository(path)) {
+					assertEquals(1, repository.getPageCount(), "the partial page should be cut off");
+					assertEquals(1, repository.getMembers().size(),
+							"the member should be read back");
+				}
+
+				try (FileChannel file = FileChannel.open(path, StandardOpenOption.WRITE)) {
+					file.write(ByteBuffer.wrap(new byte[] {42}), PageStoreRepository.PAGE_SIZE - 1);
+				}
+				assertThrows(IOException.class, () -> new PageStoreRepository(path),
+						"a damaged page should be detected");
+			} finally {
+				Files.deleteIfExists(path);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that a page store left part way through changes is opened
+	 * with the changes if its pages are whole, and that one with a page
+	 * left part written is put back as it was at the last sync from its
+	 * rollback file
+	 */
+	@Test
+	@DisplayName("a page store with a part written page is rolled back")
+	public void rollBack() {
+		try {
+			Path path = Files.createTempFile("library", ".pages");
+			Path copy = Files.createTempFile("library", ".copy");
+			try {
+				int syncedPages;
+				try (PageStoreRepository repository = new PageStoreRepository(path)) {
+					for (int id = 1; id <= 200; id++) {
+						repository.addMember(new Member("Jane", "Smith", id + "@xyz.com",
+								"07777777777", id));
+					}
+					repository.sync();
+					syncedPages = repository.getPageCount();
+
+					// Change a page that was synced and add pages, then copy
+					// the files as the machine stopping would leave them
+					repository.removeMember(repository.getMembers().get(0));
+					for (int id = 201; id <= 400; id++) {
+						repository.addMember(new Member("Jim", "Jones", id + "@xyz.com",
+								"07777777777", id));
+					}
+					assertTrue(Files.size(PageStoreRepository.rollbackPathOf(path)) > 0,
+							"the synced page written over should have been saved");
+					Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+					Files.copy(PageStoreRepository.rollbackPathOf(path),
+							PageStoreRepository.rollbackPathOf(copy),
+							StandardCopyOption.REPLACE_EXISTING);
+				}
+				assertFalse(Files.exists(PageStoreRepository.rollbackPathOf(path)),
+						"closing the store should delete its rollback file");
+
+				Path whole = Files.createTempFile("library", ".whole");
+				Files.copy(copy, whole, StandardCopyOption.REPLACE_EXISTING);
+				Files.copy(PageStoreRepository.rollbackPathOf(copy),
+						PageStoreRepository.rollbackPathOf(whole),
+						StandardCopyOption.REPLACE_EXISTING);
+				try (PageStoreRepository repository = new PageStoreRepository(whole)) {
+					assertEquals(399, repository.getMembers().size(),
+							"the changes to whole pages should be kept");
+				} finally {
+					Files.deleteIfExists(whole);
+				}
+
+				try (FileChannel file = FileChannel.open(copy, StandardOpenOption.WRITE)) {
+					file.write(ByteBuffer.wrap(new byte[] {42}), PageStoreRepository.PAGE_SIZE - 1);
+				}
+				try (PageStoreRepository repository = new PageStoreRepository(copy)) {
+					assertEquals(syncedPages, repository.getPageCount(),
+							"the pages added since the sync should be dropped");
+					assertEquals(200, repository.getMembers().size(),
+							"the members synced should be restored");
+					assertEquals(1, repository.getMembers().get(0).getIDNumber(),
+							"a removed member should be restored");
+					repository.addMember(new Member("Ann", "Lee", "ann@xyz.com", "07777777777", 401));
+				}
+				try (PageStoreRepository repository = new PageStoreRepository(copy)) {
+					assertEquals(201, repository.getMembers().size(),
+							"the store should have been closed cleanly");
+				}
+			} finally {
+				Files.deleteIfExists(path);
+				Files.deleteIfExists(copy);
+				Files.deleteIfExists(PageStoreRepository.rollbackPathOf(copy));
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+}
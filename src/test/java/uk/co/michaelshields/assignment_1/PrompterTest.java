@@ -9,6 +9,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Scanner;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -108,4 +109,30 @@ public class PrompterTest {
         System.setIn(System.in);
         System.setOut(System.out);
 	}
+
+	/**
+	 * Verifies that a prompter reads its responses from the scanner it is
+	 * provided with
+	 */
+	@Test
+	@DisplayName("issuePrompts reads the responses from the provided scanner")
+	public void testIssuePromptsScanner() {
+		String[] prompts = {"Enter name: ", "Enter age: "};
+		Scanner scanner = new Scanner(new ByteArrayInputStream("Michael\n 25 \n".getBytes()));
+		PrintStream console = System.out;
+		System.setOut(new PrintStream(new ByteArrayOutputStream()));
+		try {
+			Prompter prompter = new Prompter(prompts, scanner);
+
+			prompter.issuePrompts();
+
+			assertEquals(Arrays.asList("Michael", "25"), prompter.getResponses(),
+					"the responses should be read from the scanner");
+			assertThrows(IllegalArgumentException.class,
+					() -> new Prompter(prompts, null),
+					"an error should have been thrown if the scanner is null");
+		} finally {
+			System.setOut(console);
+		}
+	}
 }
@@ -0,0 +1,128 @@
+package uk.co.michaelshields.assignment_1;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stand-alone benchmark comparing a library kept in an in memory
+ * repository with one kept in a page store: how long members and books take
+ * to be added, loans to be issued and returned, and a page store library to
+ * be restored when it is opened again. It is run from its main method rather
+ * than as part of the JUnit suite, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=uk.co.michaelshields.assignment_1.RepositoryBenchmark \
+ *     -Dexec.args="200000"
+ * </pre>
+ *
+ * The argument is the number of members, and of books.
+ *
+ * @see <a href="LibraryRepository.html">LibraryRepository</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+public class RepositoryBenchmark {
+	/** The number of members and books added, and loans issued, at once */
+	private static final int BATCH_SIZE = 10_000;
+	/** The number of rounds of loans issued and returned */
+	private static final int LOAN_ROUNDS = 20;
+
+	/**
+	 * Runs the benchmark
+	 *
+	 * @param args - The number of members, and of books
+	 *
+	 * @throws Exception - If the page store cannot be written or read
+	 */
+	public static void main(String[] args) throws Exception {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+		measure("in memory", new InMemoryRepository(), size);
+
+		Path path = Files.createTempFile("library", ".pages");
+		try {
+			try (PageStoreRepository repository = new PageStoreRepository(path)) {
+				measure("page store", repository, size);
+				System.out.printf("%-10s %,d pages written, file %,d MB%n", "page store",
+						repository.getPageWrites(), Files.size(path) >> 20);
+			}
+
+			long start = System.nanoTime();
+			try (PageStoreRepository repository = new PageStoreRepository(path)) {
+				Library library = new Library(repository);
+				report("page store", "restore", start, library.getMembers().size()
+						+ library.getBooks().size() + library.getLoans().size());
+			}
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	/**
+	 * Measures adding members and books to a library kept in a repository,
+	 * and issuing and returning rounds of loans
+	 *
+	 * @param name - The name of the repository (String)
+	 *
+	 * @param repository - The repository (LibraryRepository)
+	 *
+	 * @param size - The number of members, and of books (int)
+	 *
+	 * @throws Exception - If a member cannot be created
+	 */
+	private static void measure(String name, LibraryRepository repository, int size)
+			throws Exception {
+		Library library = new Library(repository);
+		long start = System.nanoTime();
+		for (int n = 0; n < size; n += BATCH_SIZE) {
+			List<Member> members = new ArrayList<>();
+			List<Book> books = new ArrayList<>();
+			for (int i = n; i < Math.min(n + BATCH_SIZE, size); i++) {
+				members.add(new Member("Member", "Surname" + i, "member" + i + "@xyz.com",
+						"07777777777"));
+				books.add(LibraryBenchmark.createBook(i));
+			}
+			library.addMembers(members);
+			library.addBooks(books);
+		}
+		report(name, "add", start, 2 * size);
+
+		List<Member> members = library.getMembers();
+		List<Book> books = library.getBooks();
+		List<LoanRequest> requests = null;
+		start = System.nanoTime();
+		for (int round = 0; round < LOAN_ROUNDS; round++) {
+			if (requests != null) {
+				library.removeLoans(requests);
+			}
+			requests = new ArrayList<>();
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				int n = (round * BATCH_SIZE + i) % size;
+				requests.add(new LoanRequest(members.get(n), books.get(n)));
+			}
+			library.addLoans(requests);
+		}
+		report(name, "loans", start, (2 * LOAN_ROUNDS - 1) * BATCH_SIZE);
+	}
+
+	/**
+	 * Prints how long an operation took in all and on average
+	 *
+	 * @param name - The name of the repository (String)
+	 *
+	 * @param operation - The name of the operation (String)
+	 *
+	 * @param start - When the operation started (long)
+	 *
+	 * @param count - The number of records it handled (int)
+	 */
+	private static void report(String name, String operation, long start, int count) {
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%-10s %-8s %,10d records %,8d ms %,8d ns/record%n", name, operation,
+				count, elapsed / 1_000_000, elapsed / Math.max(count, 1));
+	}
+}
@@ -0,0 +1,149 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the ShardedLibrary class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="ShardedLibrary.html">ShardedLibrary</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("ShardedLibrary Tests")
+public class ShardedLibraryTest {
+	/**
+	 * Verifies that the constructor throws if there are no shards, and that
+	 * members added to different shards are found by their ID numbers, which
+	 * are never issued twice
+	 */
+	@Test
+	@DisplayName("members are found by ID number across shards")
+	public void getMemberByID() {
+		assertThrows(IllegalArgumentException.class, () -> new ShardedLibrary(0),
+				"an error should be thrown if there are no shards");
+
+		try (ShardedLibrary library = new ShardedLibrary(4)) {
+			Member[] members = new Member[20];
+			for (int i = 0; i < members.length; i++) {
+				members[i] = new Member("Jane", "Smith", "jane" + i + "@xyz.com",
+						"07777777777");
+				library.addMember(members[i]);
+			}
+			Book book = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+					"9780262516556");
+			library.addBook(book);
+
+			for (Member member : members) {
+				assertTrue(library.getMemberByID(member.getIDNumber()) == member,
+						"a member should be found by their ID number");
+				assertTrue(member.getIDNumber() != book.getIDNumber(),
+						"members and books should not share ID numbers");
+			}
+			assertThrows(NoSuchElementException.class,
+					() -> library.getMemberByID(book.getIDNumber()),
+					"a book's ID number should not find a member");
+			assertThrows(IllegalArgumentException.class,
+					() -> library.addMember(new Member("Jim", "Jones",
+							" JANE3@xyz.com", "07777777777")),
+					"an error should be thrown if the email address is taken");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that a book on loan to a member of one shard cannot be loaned
+	 * to a member of another, and can be once it is returned
+	 */
+	@Test
+	@DisplayName("a book can only be loaned by one shard at a time")
+	public void addLoan() {
+		try (ShardedLibrary library = new ShardedLibrary(2)) {
+			Member first = new Member("Jane", "Smith", "a@xyz.com", "07777777777");
+			Member second = new Member("Jim", "Jones", "b@xyz.com", "07777777777");
+			library.addMember(first);
+			library.addMember(second);
+			Book book = new Book("G. Loy", "Musimathics Vol 1", "Non Fiction",
+					"9780262516556");
+			library.addBook(book);
+
+			Loan loan = library.addLoan(first, book);
+
+			assertTrue(library.getLoan(first, book) == loan, "the loan should be found");
+			assertThrows(IllegalStateException.class,
+					() -> library.addLoan(second, book),
+					"an error should be thrown if the book is on loan");
+			assertThrows(IllegalStateException.class,
+					() -> library.removeBookByID(book.getIDNumber()),
+					"a book on loan should not be removed");
+			assertThrows(IllegalStateException.class,
+					() -> library.removeMemberByID(first.getIDNumber()),
+					"a member with loans should not be removed");
+			assertThrows(NoSuchElementException.class,
+					() -> library.removeLoan(second, book),
+					"only the borrower's loan should be returned");
+
+			library.removeLoan(first, book);
+			library.addLoan(second, book);
+			library.removeMemberByID(first.getIDNumber());
+			assertThrows(NoSuchElementException.class,
+					() -> library.getMemberByID(first.getIDNumber()),
+					"the member should have been removed");
+			assertThrows(NoSuchElementException.class,
+					() -> library.addLoan(first, new Book("J. Bloch",
+							"Effective Java", "Non Fiction", "978-0-13-468599-1")),
+					"an error should be thrown if the member is not registered");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Verifies that the loans of every shard are merged in expiry order
+	 */
+	@Test
+	@DisplayName("getExpiredLoans merges every shard's loans")
+	public void getExpiredLoans() {
+		try (ShardedLibrary library = new ShardedLibrary(3)) {
+			String[] isbns = { "9780262516556", "9780262516563", "978-0-13-468599-1" };
+			for (int i = 0; i < isbns.length; i++) {
+				Member member = new Member("Jane", "Smith", "jane" + i + "@xyz.com",
+						"07777777777");
+				Book book = new Book("Author", "Title " + i, "Non Fiction", isbns[i]);
+				library.addMember(member);
+				library.addBook(book);
+				library.addLoan(member, book);
+			}
+
+			List<Loan> loans = library.getLoans();
+			List<Loan> expired = library.getExpiredLoans(LocalDate.now().plusYears(1));
+
+			assertEquals(3, loans.size(), "every shard's loans should be returned");
+			assertEquals(loans, expired, "every loan should have expired a year on");
+			for (int i = 1; i < loans.size(); i++) {
+				assertTrue(Library.toExpiryKey(loans.get(i - 1))
+						< Library.toExpiryKey(loans.get(i)),
+						"loans should be ordered by expiry date");
+			}
+			assertTrue(library.getExpiredLoans(LocalDate.now()).isEmpty(),
+					"no loan should have expired today");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+}
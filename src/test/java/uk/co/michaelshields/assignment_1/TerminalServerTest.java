@@ -0,0 +1,185 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the TerminalServer class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="TerminalServer.html">TerminalServer</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("TerminalServer Tests")
+public class TerminalServerTest {
+	/**
+	 * Connects to a server, types the provided input and returns everything
+	 * the session printed until it ended
+	 *
+	 * @param server - The server (TerminalServer)
+	 *
+	 * @param input - The operator's input (String)
+	 *
+	 * @return output - The session's output (String)
+	 *
+	 * @throws IOException - If the connection fails
+	 */
+	static String runSession(TerminalServer server, String input) throws IOException {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+			OutputStream out = socket.getOutputStream();
+			out.write(input.getBytes(StandardCharsets.UTF_8));
+			out.flush();
+			socket.shutdownOutput();
+
+			InputStream in = socket.getInputStream();
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int read; (read = in.read(buffer)) != -1;) {
+				output.write(buffer, 0, read);
+			}
+			return new String(output.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Verifies that concurrent sessions each have their own menus and output
+	 * while sharing one library, and that the console's output is not sent
+	 * to them
+	 */
+	@Test
+	@DisplayName("sessions share the library but not their menus or output")
+	public void sessions() {
+		PrintStream console = System.out;
+		ByteArrayOutputStream consoleOutput = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(consoleOutput, true));
+		Library library = new Library();
+		int sessionCount = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(sessionCount);
+		try (TerminalServer server = new TerminalServer(library, 0)) {
+			server.start();
+
+			// Each operator adds a member from the members menu, then quits
+			List<Callable<String>> operators = new ArrayList<>();
+			for (int i = 0; i < sessionCount; i++) {
+				String input = "1\n1\nJane\nSmith\njane" + i + "@xyz.com\n07777777777\n8\n1\n";
+				operators.add(() -> runSession(server, input));
+			}
+			List<String> outputs = new ArrayList<>();
+			for (Future<String> output : executor.invokeAll(operators)) {
+				outputs.add(output.get());
+			}
+			System.out.println("console only");
+
+			assertEquals(sessionCount, library.getMembers().size(),
+					"every session's member should have been added to the library");
+			for (int i = 0; i < sessionCount; i++) {
+				String output = outputs.get(i);
+				assertTrue(output.contains("The member has been added"),
+						"each session should see its own confirmation");
+				assertTrue(output.contains("jane" + i + "@xyz.com"),
+						"each session should see its own member");
+				assertTrue(output.contains("Thank you and Goodbye"),
+						"each session should end when its operator quits");
+				assertTrue(!output.contains("console only"),
+						"the console's output should not be sent to a session");
+			}
+			assertTrue(consoleOutput.toString().contains("console only"),
+					"the console's output should still reach the console");
+			assertTrue(!consoleOutput.toString().contains("MEMBERS MENU"),
+					"session output should not reach the console");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} finally {
+			executor.shutdownNow();
+			System.setOut(console);
+		}
+	}
+
+	/**
+	 * Verifies that a session ends when its operator disconnects without
+	 * quitting
+	 */
+	@Test
+	@DisplayName("a session ends when its operator disconnects")
+	public void disconnect() {
+		PrintStream console = System.out;
+		System.setOut(new PrintStream(new ByteArrayOutputStream(), true));
+		try (TerminalServer server = new TerminalServer(new Library(), 0)) {
+			server.start();
+
+			String output = runSession(server, "1\n");
+
+			assertTrue(output.contains("MEMBERS MENU"),
+					"the session should have shown the members menu");
+			for (int wait = 0; wait < 100 && server.getSessionCount() > 0; wait++) {
+				Thread.sleep(10);
+			}
+			assertEquals(0, server.getSessionCount(), "the session should have ended");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} finally {
+			System.setOut(console);
+		}
+	}
+
+	/**
+	 * Verifies that a session's output does not wait on the System.out shared
+	 * by the sessions, so a session whose terminal is slow to read holds up
+	 * no other, and that the original System.out is restored once the
+	 * server is closed
+	 */
+	@Test
+	@DisplayName("sessions print without sharing a lock")
+	public void unsharedOutput() {
+		PrintStream console = System.out;
+		PrintStream original = new PrintStream(new ByteArrayOutputStream(), true);
+		System.setOut(original);
+		try {
+			try (TerminalServer server = new TerminalServer(new Library(), 0)) {
+				server.start();
+				PrintStream routed = System.out;
+				assertNotSame(original, routed, "System.out should be routed to the sessions");
+
+				// Hold the shared stream's lock, as a write to a slow terminal
+				// through a shared stream would, while a session runs
+				String output;
+				synchronized (routed) {
+					output = runSession(server, "4\n1\n");
+				}
+				assertTrue(output.contains("Thank you and Goodbye"),
+						"the session should not wait on the shared stream");
+			}
+			assertSame(original, System.out, "the original System.out should be restored");
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} finally {
+			System.setOut(console);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the TitleIndex class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="TitleIndex.html">TitleIndex</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("TitleIndex Tests")
+public class TitleIndexTest {
+	/**
+	 * Verifies that candidates throws if the query is shorter than a trigram
+	 */
+	@Test
+	@DisplayName("candidates throws if query is too short")
+	public void candidatesShortQuery() {
+		TitleIndex index = new TitleIndex();
+
+		assertThrows(IllegalArgumentException.class,
+				() -> index.candidates("ab"),
+				"an error should be thrown if the query is shorter than a trigram");
+		assertThrows(IllegalArgumentException.class,
+				() -> index.candidates(null),
+				"an error should be thrown if the query is null");
+	}
+
+	/**
+	 * Verifies that candidates includes every title containing the query,
+	 * ignoring case, and excludes titles missing one of its trigrams
+	 */
+	@Test
+	@DisplayName("candidates returns titles sharing the query's trigrams")
+	public void candidates() {
+		TitleIndex index = new TitleIndex();
+		index.add(1, "Musimathics Vol 1");
+		index.add(2, "Linux Bible");
+		index.add(3, "The Mathematics of Music");
+
+		assertArrayEquals(new int[]{1, 3}, index.candidates("MATH"),
+				"titles containing the query should be candidates");
+		assertArrayEquals(new int[]{2}, index.candidates("bible"),
+				"titles containing the query should be candidates");
+		assertArrayEquals(new int[0], index.candidates("zzz"),
+				"no candidates should be returned for unknown trigrams");
+	}
+
+	/**
+	 * Verifies that removed titles are no longer candidates
+	 */
+	@Test
+	@DisplayName("remove removes a title from the index")
+	public void remove() {
+		TitleIndex index = new TitleIndex();
+		index.add(1, "Musimathics Vol 1");
+		index.add(2, "The Mathematics of Music");
+		index.remove(1, "Musimathics Vol 1");
+
+		int[] candidates = index.candidates("math");
+
+		assertTrue(Arrays.equals(new int[]{2}, candidates),
+				"a removed title should not be a candidate");
+		assertArrayEquals(new int[0], index.candidates("musimath"),
+				"trigrams unique to a removed title should be dropped");
+	}
+}
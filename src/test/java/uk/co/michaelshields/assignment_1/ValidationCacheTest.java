@@ -0,0 +1,62 @@
+package uk.co.michaelshields.assignment_1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A suite of JUnit tests for the ValidationCache class
+ *
+ * @see <a target="_blank" href= "https://junit.org/junit5/">JUnit5</a>
+ * @see <a target="_blank" href="ValidationCache.html">ValidationCache</a>
+ *
+ * @author M. Shields
+ * @version 1.0
+ */
+@DisplayName("ValidationCache Tests")
+public class ValidationCacheTest {
+	/**
+	 * Verifies that the constructor throws if the capacity is not positive
+	 */
+	@Test
+	@DisplayName("constructor throws if the capacity is not positive")
+	public void constructorInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> new ValidationCache<Boolean>(0),
+				"an error should be thrown if the capacity is not positive");
+	}
+
+	/**
+	 * Verifies that an input is only validated again once its result has
+	 * been discarded, and that the least recently used result is discarded
+	 * when the cache is full
+	 */
+	@Test
+	@DisplayName("get validates each input once while its result is held")
+	public void get() {
+		ValidationCache<Integer> cache = new ValidationCache<Integer>(2);
+		AtomicInteger validations = new AtomicInteger();
+		Function<String, Integer> validator = input -> {
+			validations.incrementAndGet();
+			return input.length();
+		};
+
+		assertEquals(1, cache.get("a", validator), "the result should be returned");
+		assertEquals(2, cache.get("bb", validator), "the result should be returned");
+		assertEquals(1, cache.get("a", validator), "the held result should be returned");
+		assertEquals(2, validations.get(), "a held result should not be validated again");
+
+		// "bb" is now the least recently used result
+		cache.get("ccc", validator);
+		assertEquals(2, cache.size(), "the cache should not grow past its capacity");
+		cache.get("a", validator);
+		assertEquals(3, validations.get(), "a recently used result should be kept");
+		cache.get("bb", validator);
+		assertEquals(4, validations.get(),
+				"the least recently used result should have been discarded");
+	}
+}